@@ -0,0 +1,216 @@
+package org.skyve.benchmark;
+
+import java.io.File;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.weld.environment.se.Weld;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skyve.EXT;
+import org.skyve.cache.ConversationCacheConfig;
+import org.skyve.impl.cdi.SkyveCDIProducer;
+import org.skyve.impl.content.AbstractContentManager;
+import org.skyve.impl.content.NoOpContentManager;
+import org.skyve.impl.metadata.repository.LocalDesignRepository;
+import org.skyve.impl.metadata.repository.ProvidedRepositoryFactory;
+import org.skyve.impl.metadata.user.SuperUser;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.RDBMSDynamicPersistence;
+import org.skyve.impl.persistence.hibernate.HibernateContentPersistence;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.model.document.SingletonCachedBizlet;
+import org.skyve.metadata.module.Module;
+import org.skyve.persistence.DataStore;
+import org.skyve.util.DataBuilder;
+import org.skyve.util.FileUtil;
+import org.skyve.util.test.SkyveFixture.FixtureType;
+
+import modules.WeldMarker;
+import modules.admin.User.UserExtension;
+import modules.admin.domain.User;
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Boots Skyve once per benchmark JVM against an H2 in-memory data store using the admin and test modules
+ * from skyve-ejb as fixtures (the same set up as util.AbstractH2Test in the skyve-ejb tests).
+ * The data store can be changed with the skyve.benchmark.dialect, driver, url, user and password system properties
+ * (eg to measure against PostgreSQL) and its JDBC batch size with skyve.benchmark.batchSize.
+ * Each benchmark thread gets its own persistence with an open transaction which is rolled back at the end of the trial.
+ * Subclasses set up their fixture data in {@link #setup()} rather than declaring their own JMH helper methods
+ * so that the order of execution is guaranteed.
+ * The JMH settings here are inherited by all benchmarks and can be overridden per benchmark class or on the command line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public abstract class AbstractSkyveBenchmark {
+	protected static final String USER = "BenchmarkUser";
+	protected static final String PASSWORD = "BenchmarkPassword0!";
+	protected static final String CUSTOMER = "bizhub";
+
+	/**
+	 * System property holding the absolute path to the built skyve-ejb classes directory containing the "modules" and "customers" metadata
+	 * and the generated ORM mappings.
+	 */
+	public static final String MODULES_PROPERTY = "skyve.benchmark.modules";
+
+	/**
+	 * The prefix of the system properties that configure the benchmarks, which are passed on to the forked benchmark JVMs.
+	 */
+	public static final String PROPERTY_PREFIX = "skyve.benchmark.";
+
+	private static final String DB_DIALECT = "org.skyve.impl.persistence.hibernate.dialect.H2SpatialDialect";
+	private static final String DB_DRIVER = "org.h2.Driver";
+	private static final String DB_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+	private static final String DB_UNAME = "user";
+	private static final String DB_PWD = "password";
+	private static final String CONTENT_DIRECTORY = "./target/benchmark/content/";
+
+	private static Weld weld;
+
+	protected AbstractPersistence p;
+	protected SuperUser u;
+	protected Customer c;
+	protected Module m;
+	protected Document aapd;
+
+	@Setup(Level.Trial)
+	public final void setupSkyve() throws Exception {
+		boot();
+
+		SuperUser user = new SuperUser();
+		user.setCustomerName(CUSTOMER);
+		user.setName(USER);
+		user.setId(USER);
+
+		p = AbstractPersistence.get();
+		p.setUser(user);
+		p.begin();
+
+		UserExtension adminUser = createAdminUser(user);
+		p.save(adminUser);
+
+		u = user;
+		c = user.getCustomer();
+		m = c.getModule(AllAttributesPersistent.MODULE_NAME);
+		aapd = m.getDocument(c, AllAttributesPersistent.DOCUMENT_NAME);
+
+		setup();
+	}
+
+	@TearDown(Level.Trial)
+	public final void tearDownSkyve() throws Exception {
+		try {
+			tearDown();
+		}
+		finally {
+			p.rollback();
+			p.evictAllCached();
+			p.evictAllSharedCache();
+			SingletonCachedBizlet.dispose();
+		}
+	}
+
+	/**
+	 * Set up the fixture data for the benchmark.
+	 * This is called on the benchmark thread after Skyve has booted and a transaction is open.
+	 */
+	protected abstract void setup() throws Exception;
+
+	/**
+	 * Tear down anything set up in {@link #setup()} other than the persistence state, which is rolled back.
+	 */
+	protected void tearDown() throws Exception {
+		// nothing to do by default
+	}
+
+	private static synchronized void boot() {
+		if (weld != null) {
+			return;
+		}
+
+		String modules = System.getProperty(MODULES_PROPERTY);
+		if (modules == null) {
+			throw new IllegalStateException("System property " + MODULES_PROPERTY + " is not set - run the benchmarks with mvn exec:exec from the skyve-benchmarks project");
+		}
+
+		UtilImpl.APPS_JAR_DIRECTORY = modules;
+		UtilImpl.CONTENT_DIRECTORY = CONTENT_DIRECTORY + UUID.randomUUID().toString() + "/";
+		// heap only conversation cache for StateUtil
+		UtilImpl.CONVERSATION_CACHE = new ConversationCacheConfig(1000, 60);
+		EXT.getCaching().startup();
+
+		weld = new Weld();
+		weld.addPackage(true, SkyveCDIProducer.class);
+		weld.addPackage(true, WeldMarker.class);
+		weld.initialize();
+
+		AbstractPersistence.IMPLEMENTATION_CLASS = HibernateContentPersistence.class;
+		AbstractPersistence.DYNAMIC_IMPLEMENTATION_CLASS = RDBMSDynamicPersistence.class;
+		AbstractContentManager.IMPLEMENTATION_CLASS = NoOpContentManager.class;
+		UtilImpl.DATA_STORE = new DataStore(System.getProperty(PROPERTY_PREFIX + "driver", DB_DRIVER),
+												System.getProperty(PROPERTY_PREFIX + "url", DB_URL),
+												System.getProperty(PROPERTY_PREFIX + "user", DB_UNAME),
+												System.getProperty(PROPERTY_PREFIX + "password", DB_PWD),
+												System.getProperty(PROPERTY_PREFIX + "dialect", DB_DIALECT));
+		String batchSize = System.getProperty(PROPERTY_PREFIX + "batchSize");
+		if (batchSize != null) {
+			UtilImpl.DATA_STORE.setBatchSize(Integer.parseInt(batchSize));
+		}
+		UtilImpl.DATA_STORES.put("benchmark", UtilImpl.DATA_STORE);
+		UtilImpl.DDL_SYNC = true;
+		UtilImpl.SQL_TRACE = false;
+		UtilImpl.QUERY_TRACE = false;
+		UtilImpl.JOB_SCHEDULER = false;
+		UtilImpl.CONFIGURATION = new TreeMap<>();
+
+		ProvidedRepositoryFactory.set(new LocalDesignRepository(modules));
+
+		Runtime.getRuntime().addShutdownHook(new Thread(AbstractSkyveBenchmark::shutdown));
+	}
+
+	private static void shutdown() {
+		weld.shutdown();
+		EXT.getCaching().shutdown();
+
+		File contentDir = new File(UtilImpl.CONTENT_DIRECTORY);
+		if (contentDir.exists()) {
+			try {
+				FileUtil.delete(contentDir);
+			}
+			catch (Exception e) {
+				UtilImpl.LOGGER.warning("Could not delete benchmark content directory " + contentDir + " : " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+	/**
+	 * Create a new {@link User} which corresponds to the metadata superuser
+	 * running as the current persistence user so that requests to currentAdminUser resolve.
+	 */
+	private static UserExtension createAdminUser(SuperUser superUser) {
+		UserExtension adminUser = new DataBuilder().fixture(FixtureType.crud).build(User.MODULE_NAME, User.DOCUMENT_NAME);
+		adminUser.setUserName(superUser.getName());
+		adminUser.setPassword(EXT.hashPassword(PASSWORD));
+		adminUser.setPasswordHistory(null);
+		superUser.setContactId(adminUser.getContact().getBizId());
+		adminUser.setBizId(superUser.getId());
+		return adminUser;
+	}
+}
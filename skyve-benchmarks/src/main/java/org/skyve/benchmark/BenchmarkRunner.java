@@ -0,0 +1,58 @@
+package org.skyve.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Skyve benchmarks and writes the results as JMH JSON so that runs can be compared between releases
+ * (eg with https://jmh.morethan.net or any JSON tooling).
+ * Usually run through "mvn exec:exec" in the skyve-benchmarks project which sets the required system properties.
+ * 
+ * Usage: BenchmarkRunner [include regex]
+ */
+public class BenchmarkRunner {
+	/**
+	 * System property holding the file to write the JSON results to.
+	 */
+	public static final String RESULTS_PROPERTY = "skyve.benchmark.results";
+	
+	private BenchmarkRunner() {
+		// Disallow instantiation.
+	}
+
+	public static void main(String[] args) throws Exception {
+		String include = (args.length > 0) ? args[0] : BenchmarkRunner.class.getPackage().getName() + "\\..*";
+		String results = System.getProperty(RESULTS_PROPERTY, "target/jmh/skyve-benchmarks.json");
+		String modules = System.getProperty(AbstractSkyveBenchmark.MODULES_PROPERTY);
+		if (modules == null) {
+			throw new IllegalStateException("System property " + AbstractSkyveBenchmark.MODULES_PROPERTY + " is not set");
+		}
+
+		File resultsFile = new File(results);
+		File resultsDir = resultsFile.getParentFile();
+		if ((resultsDir != null) && (! resultsDir.exists())) {
+			resultsDir.mkdirs();
+		}
+
+		// Pass the benchmark system properties (including the modules directory) on to the forked JVMs
+		List<String> jvmArgs = new ArrayList<>();
+		jvmArgs.add("-Djava.locale.providers=COMPAT,CLDR");
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if (name.startsWith(AbstractSkyveBenchmark.PROPERTY_PREFIX)) {
+				jvmArgs.add("-D" + name + "=" + System.getProperty(name));
+			}
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().include(include)
+																.jvmArgsAppend(jvmArgs.toArray(new String[jvmArgs.size()]))
+																.resultFormat(ResultFormatType.JSON)
+																.result(resultsFile.getAbsolutePath());
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,79 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.skyve.impl.bind.BindUtil;
+import org.skyve.util.Binder;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Simple, compound and indexed bindings through BindUtil get, set and getDisplay.
+ */
+public class BindUtilBenchmark extends AbstractSkyveBenchmark {
+	private static final String COMPOUND_BINDING = Binder.createCompoundBinding(AllAttributesPersistent.aggregatedAssociationPropertyName,
+																					AllAttributesPersistent.textPropertyName);
+	private static final String INDEXED_BINDING = Binder.createCompoundBinding(Binder.createIndexedBinding(AllAttributesPersistent.composedCollectionPropertyName, 0),
+																					AllAttributesPersistent.textPropertyName);
+
+	private AllAttributesPersistent bean;
+
+	@Override
+	protected void setup() throws Exception {
+		bean = Util.constructRandomInstance(u, m, aapd, 2);
+	}
+
+	@Benchmark
+	public Object getSimple() {
+		return BindUtil.get(bean, AllAttributesPersistent.textPropertyName);
+	}
+
+	@Benchmark
+	public Object getCompound() {
+		return BindUtil.get(bean, COMPOUND_BINDING);
+	}
+
+	@Benchmark
+	public Object getIndexed() {
+		return BindUtil.get(bean, INDEXED_BINDING);
+	}
+
+	@Benchmark
+	public AllAttributesPersistent setSimple() {
+		BindUtil.set(bean, AllAttributesPersistent.textPropertyName, "Benchmark");
+		return bean;
+	}
+
+	@Benchmark
+	public AllAttributesPersistent setCompound() {
+		BindUtil.set(bean, COMPOUND_BINDING, "Benchmark");
+		return bean;
+	}
+
+	@Benchmark
+	public AllAttributesPersistent setConverted() {
+		// a String value that needs to be converted to the attribute type
+		BindUtil.set(bean, AllAttributesPersistent.normalIntegerPropertyName, "123");
+		return bean;
+	}
+
+	@Benchmark
+	public String getDisplayText() {
+		return BindUtil.getDisplay(c, bean, AllAttributesPersistent.textPropertyName);
+	}
+
+	@Benchmark
+	public String getDisplayDate() {
+		return BindUtil.getDisplay(c, bean, AllAttributesPersistent.datePropertyName);
+	}
+
+	@Benchmark
+	public String getDisplayDecimal() {
+		return BindUtil.getDisplay(c, bean, AllAttributesPersistent.decimal2PropertyName);
+	}
+
+	@Benchmark
+	public String getDisplayEnum() {
+		return BindUtil.getDisplay(c, bean, AllAttributesPersistent.enum3PropertyName);
+	}
+}
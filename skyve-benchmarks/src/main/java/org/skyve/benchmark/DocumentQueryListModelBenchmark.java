@@ -0,0 +1,56 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.skyve.domain.Bean;
+import org.skyve.metadata.view.model.list.DocumentQueryListModel;
+import org.skyve.metadata.view.model.list.Page;
+import org.skyve.metadata.module.query.MetaDataQueryDefinition;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Fetching a page of a list grid through the document default query as the list views do.
+ * A new list model is created per fetch as it is in a request.
+ */
+public class DocumentQueryListModelBenchmark extends AbstractSkyveBenchmark {
+	private static final int PAGE_SIZE = 50;
+
+	@Param({"1000"})
+	public int rows;
+
+	private MetaDataQueryDefinition query;
+
+	@Override
+	protected void setup() throws Exception {
+		for (int i = 0; i < rows; i++) {
+			AllAttributesPersistent bean = Util.constructRandomInstance(u, m, aapd, 1);
+			p.save(bean);
+			if ((i % 100) == 0) {
+				p.evictAllCached();
+			}
+		}
+		p.evictAllCached();
+
+		query = m.getDocumentDefaultQuery(c, AllAttributesPersistent.DOCUMENT_NAME);
+	}
+
+	@Benchmark
+	public Page fetchFirstPage() throws Exception {
+		return fetch(0);
+	}
+
+	@Benchmark
+	public Page fetchLastPage() throws Exception {
+		return fetch(rows - PAGE_SIZE);
+	}
+
+	private Page fetch(int startRow) throws Exception {
+		DocumentQueryListModel<Bean> model = new DocumentQueryListModel<>();
+		model.setQuery(query);
+		model.setStartRow(startRow);
+		model.setEndRow(startRow + PAGE_SIZE);
+		return model.fetch();
+	}
+}
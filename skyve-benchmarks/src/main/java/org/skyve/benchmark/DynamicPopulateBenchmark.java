@@ -0,0 +1,51 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.skyve.domain.DynamicPersistentBean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.impl.persistence.RDBMSDynamicPersistence;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllDynamicAttributesPersistent;
+
+/**
+ * Population of dynamic attributes and relations through RDBMSDynamicPersistence.populate()
+ * for a static bean with dynamic attributes and for a totally dynamic bean.
+ * A new RDBMSDynamicPersistence is used for each invocation so that its first level cache starts empty.
+ */
+public class DynamicPopulateBenchmark extends AbstractSkyveBenchmark {
+	private static final String ALL_ATTRIBUTES_DYNAMIC_PERSISTENT_DOCUMENT_NAME = "AllAttributesDynamicPersistent";
+
+	private AllDynamicAttributesPersistent hybrid;
+	private String dynamicBizId;
+
+	@Override
+	protected void setup() throws Exception {
+		Document adapd = m.getDocument(c, AllDynamicAttributesPersistent.DOCUMENT_NAME);
+		hybrid = Util.constructRandomInstance(u, m, adapd, 2);
+		hybrid = p.save(hybrid);
+
+		Document aadpd = m.getDocument(c, ALL_ATTRIBUTES_DYNAMIC_PERSISTENT_DOCUMENT_NAME);
+		DynamicPersistentBean dynamic = Util.constructRandomInstance(u, m, aadpd, 2);
+		dynamic = p.save(dynamic);
+		dynamicBizId = dynamic.getBizId();
+
+		p.evictAllCached();
+	}
+
+	@Benchmark
+	public PersistentBean populateHybrid() {
+		RDBMSDynamicPersistence dynamicPersistence = new RDBMSDynamicPersistence();
+		dynamicPersistence.postConstruct(p);
+		dynamicPersistence.populate(hybrid);
+		return hybrid;
+	}
+
+	@Benchmark
+	public DynamicPersistentBean populateDynamic() {
+		RDBMSDynamicPersistence dynamicPersistence = new RDBMSDynamicPersistence();
+		dynamicPersistence.postConstruct(p);
+		return dynamicPersistence.populate(dynamicBizId);
+	}
+}
@@ -0,0 +1,47 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.skyve.domain.DynamicPersistentBean;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.util.Util;
+
+/**
+ * Saving a new totally dynamic bean graph (associations and collections to the given depth)
+ * through AbstractHibernatePersistence.save() and RDBMSDynamicPersistence.
+ * Each invocation saves a fresh graph and is rolled back afterwards so the data store does not grow during the run.
+ */
+public class DynamicSaveBenchmark extends AbstractSkyveBenchmark {
+	private static final String ALL_ATTRIBUTES_DYNAMIC_PERSISTENT_DOCUMENT_NAME = "AllAttributesDynamicPersistent";
+
+	@Param({"2", "3"})
+	public int depth;
+
+	private Document aadpd;
+	private DynamicPersistentBean graph;
+
+	@Override
+	protected void setup() throws Exception {
+		aadpd = m.getDocument(c, ALL_ATTRIBUTES_DYNAMIC_PERSISTENT_DOCUMENT_NAME);
+	}
+
+	@Setup(Level.Invocation)
+	public void newGraph() throws Exception {
+		graph = Util.constructRandomInstance(u, m, aadpd, depth);
+	}
+
+	@TearDown(Level.Invocation)
+	public void rollbackGraph() {
+		p.rollback();
+		p.evictAllCached();
+		p.begin();
+	}
+
+	@Benchmark
+	public DynamicPersistentBean saveDeepGraph() {
+		return p.save(graph);
+	}
+}
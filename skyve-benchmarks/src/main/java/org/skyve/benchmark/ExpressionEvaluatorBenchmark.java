@@ -0,0 +1,55 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.skyve.util.Binder;
+import org.skyve.util.ExpressionEvaluator;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Evaluation and formatting of binding, implicit and EL expressions and messages.
+ */
+public class ExpressionEvaluatorBenchmark extends AbstractSkyveBenchmark {
+	private AllAttributesPersistent bean;
+
+	@Override
+	protected void setup() throws Exception {
+		bean = Util.constructRandomInstance(u, m, aapd, 2);
+	}
+
+	@Benchmark
+	public Object evaluateBinding() {
+		return ExpressionEvaluator.evaluate("{text}", bean);
+	}
+
+	@Benchmark
+	public Object evaluateCompoundBinding() {
+		return ExpressionEvaluator.evaluate("{aggregatedAssociation.text}", bean);
+	}
+
+	@Benchmark
+	public Object evaluatePrefixedBinding() {
+		return ExpressionEvaluator.evaluate("{bean:normalInteger}", bean);
+	}
+
+	@Benchmark
+	public Object evaluateImplicit() {
+		return ExpressionEvaluator.evaluate("{USERNAME}", bean);
+	}
+
+	@Benchmark
+	public Object evaluateEL() {
+		return ExpressionEvaluator.evaluate("{el:bean.normalInteger + 1}", bean);
+	}
+
+	@Benchmark
+	public String formatDate() {
+		return ExpressionEvaluator.format("{date}", bean);
+	}
+
+	@Benchmark
+	public String formatMessage() {
+		return Binder.formatMessage("{text} on {date} for {decimal2}", bean);
+	}
+}
@@ -0,0 +1,31 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.skyve.util.JSON;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Marshalling of a bean graph to JSON and back.
+ */
+public class JSONBenchmark extends AbstractSkyveBenchmark {
+	private AllAttributesPersistent bean;
+	private String json;
+
+	@Override
+	protected void setup() throws Exception {
+		bean = Util.constructRandomInstance(u, m, aapd, 2);
+		json = JSON.marshall(c, bean);
+	}
+
+	@Benchmark
+	public String marshall() {
+		return JSON.marshall(c, bean);
+	}
+
+	@Benchmark
+	public Object unmarshall() throws Exception {
+		return JSON.unmarshall(u, json);
+	}
+}
@@ -0,0 +1,43 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Saving a new deep bean graph (associations and collections to the given depth) through AbstractHibernatePersistence.save().
+ * Each invocation saves a fresh graph and is rolled back afterwards so the data store does not grow during the run.
+ */
+public class PersistenceSaveBenchmark extends AbstractSkyveBenchmark {
+	@Param({"2", "3"})
+	public int depth;
+
+	private AllAttributesPersistent graph;
+
+	@Override
+	protected void setup() throws Exception {
+		// nothing to do here - a new graph is made per invocation
+	}
+
+	@Setup(Level.Invocation)
+	public void newGraph() throws Exception {
+		graph = Util.constructRandomInstance(u, m, aapd, depth);
+	}
+
+	@TearDown(Level.Invocation)
+	public void rollbackGraph() {
+		p.rollback();
+		p.evictAllCached();
+		p.begin();
+	}
+
+	@Benchmark
+	public AllAttributesPersistent saveDeepGraph() {
+		return p.save(graph);
+	}
+}
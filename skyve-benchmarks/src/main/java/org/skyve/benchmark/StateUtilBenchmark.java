@@ -0,0 +1,42 @@
+package org.skyve.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.skyve.impl.cache.StateUtil;
+import org.skyve.impl.sail.mock.MockWebContext;
+import org.skyve.impl.web.AbstractWebContext;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Serialisation of a web conversation (the web context, its persistence and a deep bean graph) 
+ * into and out of the conversation cache as is done on each web request.
+ */
+public class StateUtilBenchmark extends AbstractSkyveBenchmark {
+	private MockWebContext webContext;
+	private String webId;
+
+	@Override
+	protected void setup() throws Exception {
+		AllAttributesPersistent bean = Util.constructRandomInstance(u, m, aapd, 3);
+		bean = p.save(bean);
+
+		webContext = new MockWebContext();
+		webContext.setConversation(p);
+		webContext.setCurrentBean(bean);
+		webId = webContext.getKey() + bean.getBizId();
+
+		StateUtil.cacheConversation(webContext);
+	}
+
+	@Benchmark
+	public MockWebContext cacheConversation() throws Exception {
+		StateUtil.cacheConversation(webContext);
+		return webContext;
+	}
+
+	@Benchmark
+	public AbstractWebContext getCachedConversation() throws Exception {
+		return StateUtil.getCachedConversation(webId, null, null);
+	}
+}
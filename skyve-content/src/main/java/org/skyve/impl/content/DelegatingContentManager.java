@@ -1,5 +1,7 @@
 package org.skyve.impl.content;
 
+import java.util.List;
+
 import org.pf4j.Extension;
 import org.skyve.content.AttachmentContent;
 import org.skyve.content.BeanContent;
@@ -34,6 +36,12 @@ public class DelegatingContentManager extends AbstractContentManager {
 		delegate().put(content);
 	}
 
+	@Override
+	@SuppressWarnings("resource")
+	public void put(List<BeanContent> contents) throws Exception {
+		delegate().put(contents);
+	}
+
 	@Override
 	@SuppressWarnings("resource")
 	public void put(AttachmentContent content, boolean index) throws Exception {
@@ -1,5 +1,6 @@
 package org.skyve.impl.domain.number;
 
+import java.util.ArrayList;
 import java.util.Formatter;
 import java.util.List;
 
@@ -19,18 +20,34 @@ import org.skyve.persistence.Persistence;
 import org.skyve.util.Binder;
 
 public abstract class AbstractDocumentNumberGenerator implements NumberGenerator {
-	@SuppressWarnings("static-method")
 	protected String getNextNumber(Persistence pers,
 									String prefix,
 									String moduleName,
 									String documentName,
 									String fieldName,
 									int numberLength) {
+		return getNextNumbers(pers, prefix, moduleName, documentName, fieldName, numberLength, 1).get(0);
+	}
+
+	/**
+	 * Reserve the next <code>count</code> numbers of a sequence with one update of its document number record.
+	 * 
+	 * @param count	The number of numbers to reserve.
+	 * @return	The reserved numbers in order.
+	 */
+	@SuppressWarnings("static-method")
+	protected List<String> getNextNumbers(Persistence pers,
+											String prefix,
+											String moduleName,
+											String documentName,
+											String fieldName,
+											int numberLength,
+											int count) {
 		User user = pers.getUser();
 		Customer customer = user.getCustomer();
 		Module module = customer.getModule(DocumentNumber.MODULE_NAME);
 		Document document = module.getDocument(customer, DocumentNumber.DOCUMENT_NAME);
-		String nextNumber = "0";
+		List<String> result = new ArrayList<>(count);
 		String lastNumber = "0";
 
 		DocumentNumber dN = null;
@@ -95,7 +112,11 @@ public abstract class AbstractDocumentNumberGenerator implements NumberGenerator
 				lastNumber = dN.getDocumentNumber();
 			}
 			// just update from the document Number
-			nextNumber = incrementAlpha(prefix, lastNumber, numberLength);
+			String nextNumber = lastNumber;
+			for (int i = 0; i < count; i++) {
+				nextNumber = incrementAlpha(prefix, nextNumber, numberLength);
+				result.add(nextNumber);
+			}
 			dN.setDocumentNumber(nextNumber);
 
 			pers.preMerge(document, dN);
@@ -108,7 +129,7 @@ public abstract class AbstractDocumentNumberGenerator implements NumberGenerator
 			}
 		}
 
-		return nextNumber;
+		return result;
 	}
 
 	/**
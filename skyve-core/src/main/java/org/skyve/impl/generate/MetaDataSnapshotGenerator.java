@@ -0,0 +1,65 @@
+package org.skyve.impl.generate;
+
+import java.io.File;
+
+import org.skyve.impl.metadata.repository.LocalDesignRepository;
+import org.skyve.impl.metadata.repository.MetaDataSnapshot;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.repository.ProvidedRepository;
+
+/**
+ * Validates the repository metadata as per {@link DomainGenerator} and writes a {@link MetaDataSnapshot}
+ * that is used at runtime instead of unmarshalling the XML metadata files.
+ */
+public class MetaDataSnapshotGenerator {
+	private MetaDataSnapshotGenerator() {
+		// nothing to see here
+	}
+
+	/**
+	 * Validate the metadata and write the snapshot.
+	 * @param debug	Trace the validation.
+	 * @param srcPath	The source path where the modules are located.
+	 * @param snapshotFilePath	The snapshot file to write.
+	 * @return	The number of metadata files in the snapshot.
+	 */
+	public static int generate(boolean debug, String srcPath, String snapshotFilePath)
+	throws Exception {
+		if (debug) {
+			UtilImpl.LOGGER.info("Snapshot " + srcPath + " to " + snapshotFilePath);
+		}
+
+		// Set access control false so that view loading doesn't resolve all the ACLs - see DomainGenerator.generate()
+		UtilImpl.ACCESS_CONTROL = false;
+		UtilImpl.XML_TRACE = debug;
+
+		ProvidedRepository repository = new LocalDesignRepository();
+		DomainGenerator jenny = DomainGenerator.newDomainGenerator(false,
+																	debug,
+																	false,
+																	repository,
+																	DialectOptions.H2_NO_INDEXES,
+																	srcPath,
+																	srcPath,
+																	srcPath,
+																	srcPath);
+		for (String customerName : repository.getAllCustomerNames()) {
+			jenny.validate(customerName);
+		}
+
+		int result = MetaDataSnapshot.write(UtilImpl.getAbsoluteBasePath(), new File(snapshotFilePath));
+		UtilImpl.LOGGER.info("Wrote " + result + " metadata files to " + snapshotFilePath);
+		return result;
+	}
+
+	/**
+	 * Usage :- srcPath snapshotFilePath [debug]
+	 */
+	public static void main(String[] args) throws Exception {
+		if ((args.length < 2) || (args.length > 3)) {
+			System.err.println("Usage: MetaDataSnapshotGenerator srcPath snapshotFilePath [debug]");
+			System.exit(1);
+		}
+		generate((args.length == 3) && Boolean.parseBoolean(args[2]), args[0], args[1]);
+	}
+}
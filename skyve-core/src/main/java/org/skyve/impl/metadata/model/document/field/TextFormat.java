@@ -9,10 +9,13 @@ import org.skyve.domain.types.converters.Format;
 import org.skyve.domain.types.converters.Format.TextCase;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.util.XMLMetaData;
+import org.skyve.metadata.SerializableMetaData;
 
 @XmlType(namespace = XMLMetaData.DOCUMENT_NAMESPACE)
 @XmlRootElement(namespace = XMLMetaData.DOCUMENT_NAMESPACE, name = "format")
-public class TextFormat {
+public class TextFormat implements SerializableMetaData {
+	private static final long serialVersionUID = -6859782637084008835L;
+
 	private Format<String> format;
 	
 	// A - alphanumeric
@@ -69,6 +69,7 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 				throw new MetaDataException("Cannot determine canonical absolute path", e);
 			}
 		}
+		loadSnapshot(new File(this.absolutePath + MetaDataSnapshot.FILE_NAME));
 		populateKeys();
 	}
 
@@ -318,7 +319,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 				throw new MetaDataException("No routers found.");
 			}
 			for (String path : routersFileInfo.keySet()) {
-				Router router = XMLMetaData.unmarshalRouterFile(path);
+				Router router = snapshotted(path);
+				if (router == null) {
+					router = XMLMetaData.unmarshalRouterFile(path);
+				}
 				router = router.convert(ROUTER_NAME, getDelegator());
 				if (result == null) {
 					result = router;
@@ -401,7 +405,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		final Map<String, Long> routersFileInfo = routersFileInfo(true, false);
  		Optional<String> path = routersFileInfo.keySet().stream().findFirst();
  		if (path.isPresent()) {
-			Router router = XMLMetaData.unmarshalRouterFile(path.get());
+			Router router = snapshotted(path.get());
+			if (router == null) {
+				router = XMLMetaData.unmarshalRouterFile(path.get());
+			}
 			return router.convert(ROUTER_NAME, getDelegator());
  		}
  		return null;
@@ -415,7 +422,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		final Map<String, Long> routersFileInfo = routersFileInfo(false, true);
 		final List<Router> result = new ArrayList<>(routersFileInfo.size());
 		for (String path : routersFileInfo.keySet()) {
-			Router router = XMLMetaData.unmarshalRouterFile(path);
+			Router router = snapshotted(path);
+			if (router == null) {
+				router = XMLMetaData.unmarshalRouterFile(path);
+			}
 			router = router.convert(ROUTER_NAME, getDelegator());
 			result.add(router);
 		}
@@ -461,6 +471,18 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		return result;
 	}
 
+	/**
+	 * Get unmarshalled metadata from the snapshot.
+	 * @param path	The absolute path of the metadata file.
+	 * @return	The metadata or null if it is not snapshotted or the snapshot is stale.
+	 */
+	private <T> T snapshotted(String path) {
+		if (path.startsWith(absolutePath)) {
+			return getSnapshotted(path.substring(absolutePath.length()), new File(path));
+		}
+		return null;
+	}
+
 	private String customerPath(String customerName) {
 		StringBuilder result = new StringBuilder(256);
 		result.append(absolutePath);
@@ -475,7 +497,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = customerPath(customerName);
-			result = XMLMetaData.unmarshalCustomerFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalCustomerFile(path);
+			}
 			if (! customerName.equals(result.getName())) {
 				throw new MetaDataException("Customer is defined with file name of " + path + 
 												" but the name attribute is " + result.getName());
@@ -518,7 +543,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = modulePath(customerName, moduleName);
-			result = XMLMetaData.unmarshalModuleFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalModuleFile(path);
+			}
 			if (! moduleName.equals(result.getName())) {
 				throw new MetaDataException("Module is defined with file name of " + path + 
 												" but the name attribute is " + result.getName());
@@ -562,7 +590,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = documentPath(customerName, moduleName, documentName);
-			result = XMLMetaData.unmarshalDocumentFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalDocumentFile(path);
+			}
 			if (! documentName.equals(result.getName())) {
 				throw new MetaDataException("Document is defined with file name of " + path + 
 												" but the name attribute is " + result.getName());
@@ -610,7 +641,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = viewPath(customerName, moduleName, documentName, uxui, viewName);
-			result = XMLMetaData.unmarshalViewFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalViewFile(path);
+			}
 			if (! viewName.equals(result.getName())) {
 				throw new MetaDataException("View is defined with file name of " + path + 
 												" but the name attribute is " + result.getName());
@@ -655,7 +689,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = actionPath(customerName, moduleName, documentName, actionName);
-			result = XMLMetaData.unmarshalActionFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalActionFile(path);
+			}
 			if (! actionName.equals(result.getName())) {
 				throw new MetaDataException("Action is defined with file name of " + path + 
 												" but the name attribute is " + result.getName());
@@ -721,7 +758,10 @@ public abstract class FileSystemRepository extends MutableCachedRepository {
 		
 		try {
 			String path = bizletPath(customerName, moduleName, documentName);
-			result = XMLMetaData.unmarshalBizletFile(path);
+			result = snapshotted(path);
+			if (result == null) {
+				result = XMLMetaData.unmarshalBizletFile(path);
+			}
 		} // try (populate Metadata)
 		catch (MetaDataException e) {
 			throw e;
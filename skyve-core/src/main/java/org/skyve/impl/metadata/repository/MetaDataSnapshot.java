@@ -0,0 +1,354 @@
+package org.skyve.impl.metadata.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.impl.util.XMLMetaData;
+import org.skyve.metadata.MetaDataException;
+import org.skyve.metadata.repository.ProvidedRepository;
+
+/**
+ * A build-time snapshot of the unmarshalled XML metadata of a repository.
+ * The snapshot maps the path of each metadata XML file (relative to the repository base path) to the length,
+ * last modified time and checksum of the XML and the serialized metadata. The snapshot is read in one go but each
+ * entry is only deserialized when it is asked for, and only if the XML on the file system is unchanged.
+ * The XML is not read to determine this unless its last modified time differs (eg when it was copied without
+ * preserving timestamps), in which case its checksum is compared.
+ * This saves reading the XML, XML parsing, schema validation and JAXB unmarshalling (and initialising the JAXB
+ * contexts and schemas in {@link XMLMetaData}) at runtime as the metadata was validated when the snapshot was made.
+ * Snapshots are created by the skyve-maven-plugin "snapshotMetaData" goal.
+ */
+public final class MetaDataSnapshot {
+	/**
+	 * The name of the snapshot file in the repository base path.
+	 */
+	public static final String FILE_NAME = "skyve-metadata.snapshot";
+
+	private static final int MAGIC = 0x534b5953; // SKYS
+	private static final int VERSION = 2;
+
+	private static final class Entry {
+		private long length;
+		private long lastModified;
+		private long checksum;
+		private byte[] bytes;
+
+		private Entry(long length, long lastModified, long checksum, byte[] bytes) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.checksum = checksum;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @return	true if the file has not changed since this entry was made.
+		 */
+		private boolean isCurrent(File file) throws IOException {
+			if (file.length() != length) {
+				return false;
+			}
+			if (file.lastModified() == lastModified) {
+				return true;
+			}
+			return checksum(file) == checksum;
+		}
+	}
+
+	private enum Kind {
+		router, customer, module, document, bizlet, action, view
+	}
+
+	private Map<String, Entry> entries;
+
+	private MetaDataSnapshot(Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @return	The number of metadata files in this snapshot.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Read a snapshot.
+	 * @param snapshotFile	The snapshot file.
+	 * @return	The snapshot or null if the file does not exist or is not a snapshot of this version.
+	 */
+	public static MetaDataSnapshot read(File snapshotFile) {
+		if (! snapshotFile.isFile()) {
+			return null;
+		}
+
+		try (InputStream is = new GZIPInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+			try (DataInputStream dis = new DataInputStream(is)) {
+				if ((dis.readInt() != MAGIC) || (dis.readInt() != VERSION)) {
+					UtilImpl.LOGGER.warning("Metadata snapshot " + snapshotFile + " is not a version " + VERSION + " snapshot and will be ignored");
+					return null;
+				}
+				int size = dis.readInt();
+				Map<String, Entry> entries = new HashMap<>(size * 4 / 3 + 1);
+				for (int i = 0; i < size; i++) {
+					String key = dis.readUTF();
+					long length = dis.readLong();
+					long lastModified = dis.readLong();
+					long checksum = dis.readLong();
+					byte[] bytes = new byte[dis.readInt()];
+					dis.readFully(bytes);
+					entries.put(key, new Entry(length, lastModified, checksum, bytes));
+				}
+				return new MetaDataSnapshot(entries);
+			}
+		}
+		catch (IOException e) {
+			UtilImpl.LOGGER.log(Level.WARNING, "Metadata snapshot " + snapshotFile + " could not be read and will be ignored", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Get the metadata for an XML file from the snapshot.
+	 * @param key	The path of the XML file relative to the repository base path.
+	 * @param file	The XML file used to determine if the snapshot entry is stale.
+	 * @return	The metadata or null if there is no entry, the entry is stale or cannot be deserialized.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String key, File file) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		try {
+			if (! entry.isCurrent(file)) {
+				if (UtilImpl.XML_TRACE) UtilImpl.LOGGER.info("Metadata snapshot of " + key + " is stale");
+				return null;
+			}
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(entry.bytes))) {
+				return (T) ois.readObject();
+			}
+		}
+		catch (IOException | ClassNotFoundException e) {
+			UtilImpl.LOGGER.log(Level.WARNING, "Metadata snapshot of " + key + " could not be read - falling back to XML", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Unmarshal all metadata XML files under a repository base path and write them to a snapshot file.
+	 * @param absolutePath	The repository base path.
+	 * @param snapshotFile	The file to write.
+	 * @return	The number of metadata files written to the snapshot.
+	 */
+	public static int write(String absolutePath, File snapshotFile) {
+		File base = new File(absolutePath);
+		Map<String, File> files = new TreeMap<>();
+		collect(base, "", files);
+
+		File parent = snapshotFile.getParentFile();
+		if ((parent != null) && (! parent.exists())) {
+			parent.mkdirs();
+		}
+
+		MetaDataSnapshot snapshot = newInstance();
+		for (Map.Entry<String, File> entry : files.entrySet()) {
+			String key = entry.getKey();
+			Kind kind = kind(key);
+			if (kind != null) {
+				File file = entry.getValue();
+				// Stamp the entry with the copy of the file alongside the snapshot (if it exists) as that copy is deployed with it
+				File deployed = (parent == null) ? null : new File(parent, key);
+				if ((deployed != null) && deployed.isFile()) {
+					file = deployed;
+				}
+				try {
+					snapshot.put(key, file, unmarshal(kind, file.getPath()));
+				}
+				catch (IOException e) {
+					throw new MetaDataException("Could not snapshot metadata " + file, e);
+				}
+			}
+		}
+
+		// Write to a temporary file and move it into place so a failure never leaves a truncated snapshot
+		File temp = new File(snapshotFile.getPath() + ".tmp");
+		try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))) {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(snapshot.entries.size());
+			for (Map.Entry<String, Entry> entry : snapshot.entries.entrySet()) {
+				Entry value = entry.getValue();
+				dos.writeUTF(entry.getKey());
+				dos.writeLong(value.length);
+				dos.writeLong(value.lastModified);
+				dos.writeLong(value.checksum);
+				dos.writeInt(value.bytes.length);
+				dos.write(value.bytes);
+			}
+		}
+		catch (IOException e) {
+			temp.delete();
+			throw new MetaDataException("Could not write metadata snapshot " + snapshotFile, e);
+		}
+		
+		try {
+			Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			throw new MetaDataException("Could not move metadata snapshot into place at " + snapshotFile, e);
+		}
+		return snapshot.size();
+	}
+
+	/**
+	 * Create an empty snapshot to {@link #put(String, File, Serializable)} metadata in.
+	 */
+	static MetaDataSnapshot newInstance() {
+		return new MetaDataSnapshot(new TreeMap<>());
+	}
+
+	/**
+	 * Add the metadata for an XML file to this snapshot.
+	 * @param key	The path of the XML file relative to the repository base path.
+	 * @param file	The XML file.
+	 * @param metaData	The metadata unmarshalled from the XML file.
+	 */
+	void put(String key, File file, Serializable metaData) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+		try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+			oos.writeObject(metaData);
+		}
+		entries.put(key, new Entry(file.length(), file.lastModified(), checksum(file), baos.toByteArray()));
+	}
+
+	private static void collect(File directory, String relativePath, Map<String, File> files) {
+		File[] children = directory.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				String name = child.getName();
+				if (child.isDirectory()) {
+					if (name.charAt(0) != '.') {
+						collect(child, relativePath + name + '/', files);
+					}
+				}
+				else if (name.endsWith(".xml")) {
+					files.put(relativePath + name, child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine the kind of metadata from its path relative to the repository base path.
+	 * @return	The kind or null if the file is not repository metadata.
+	 */
+	private static Kind kind(String key) {
+		String[] segments = key.split("/");
+		int length = segments.length;
+		if ((length == 2) && ProvidedRepository.ROUTER_NAME.equals(segments[0])) {
+			return (ProvidedRepository.ROUTER_NAME + ".xml").equals(segments[1]) ? Kind.router : null;
+		}
+
+		int moduleIndex = -1;
+		if (ProvidedRepository.CUSTOMERS_NAME.equals(segments[0])) {
+			if (length == 3) {
+				return (segments[1] + ".xml").equals(segments[2]) ? Kind.customer : null;
+			}
+			if (length == 4) {
+				// customer overridden module router
+				return (ProvidedRepository.ROUTER_NAME + ".xml").equals(segments[3]) ? Kind.router : null;
+			}
+			if (ProvidedRepository.MODULES_NAME.equals(segments[2])) {
+				moduleIndex = 3;
+			}
+		}
+		else if (ProvidedRepository.MODULES_NAME.equals(segments[0])) {
+			moduleIndex = 1;
+		}
+		if ((moduleIndex < 0) || (length <= moduleIndex + 1)) {
+			return null;
+		}
+
+		String moduleName = segments[moduleIndex];
+		int remaining = length - moduleIndex - 1;
+		String fileName = segments[length - 1];
+		if (remaining == 1) {
+			if ((ProvidedRepository.ROUTER_NAME + ".xml").equals(fileName)) {
+				return Kind.router;
+			}
+			return (moduleName + ".xml").equals(fileName) ? Kind.module : null;
+		}
+
+		String documentName = segments[moduleIndex + 1];
+		if (remaining == 2) {
+			if ((documentName + ".xml").equals(fileName)) {
+				return Kind.document;
+			}
+			return (documentName + ProvidedRepository.BIZLET_SUFFIX + ".xml").equals(fileName) ? Kind.bizlet : null;
+		}
+
+		String directoryName = segments[moduleIndex + 2];
+		if (ProvidedRepository.ACTIONS_NAME.equals(directoryName)) {
+			return (remaining == 3) ? Kind.action : null;
+		}
+		if (ProvidedRepository.VIEWS_NAME.equals(directoryName)) {
+			return ((remaining == 3) || (remaining == 4)) ? Kind.view : null;
+		}
+		return null;
+	}
+
+	private static Serializable unmarshal(Kind kind, String path) {
+		switch (kind) {
+			case router:
+				return XMLMetaData.unmarshalRouterFile(path);
+			case customer:
+				return XMLMetaData.unmarshalCustomerFile(path);
+			case module:
+				return XMLMetaData.unmarshalModuleFile(path);
+			case document:
+				return XMLMetaData.unmarshalDocumentFile(path);
+			case bizlet:
+				return XMLMetaData.unmarshalBizletFile(path);
+			case action:
+				return XMLMetaData.unmarshalActionFile(path);
+			case view:
+				return XMLMetaData.unmarshalViewFile(path);
+			default:
+				throw new IllegalStateException("Kind " + kind + " is not catered for");
+		}
+	}
+
+	private static long checksum(File file) throws IOException {
+		CRC32 result = new CRC32();
+		try (InputStream is = new FileInputStream(file)) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) >= 0) {
+				result.update(buffer, 0, read);
+			}
+		}
+		return result.getValue();
+	}
+}
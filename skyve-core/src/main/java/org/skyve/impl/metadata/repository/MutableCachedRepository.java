@@ -1,5 +1,6 @@
 package org.skyve.impl.metadata.repository;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -54,6 +55,12 @@ public abstract class MutableCachedRepository extends ProvidedRepositoryDelegate
 	
 	protected static final String ROUTER_KEY = ROUTER_NAMESPACE + ROUTER_NAME;
 
+	/**
+	 * The precompiled metadata snapshot used in place of the XML metadata files, or null if there isn't one.
+	 * This is never used in dev mode.
+	 */
+	private MetaDataSnapshot snapshot;
+
 	@Override
 	public void evictCachedMetaData(Customer customer) {
 		// Clear the lot
@@ -819,6 +826,33 @@ public abstract class MutableCachedRepository extends ProvidedRepositoryDelegate
 		return result;
 	}
 
+	/**
+	 * Load the precompiled metadata snapshot to use instead of unmarshalling the XML metadata files.
+	 * The snapshot is not loaded in dev mode so that metadata changes are always picked up.
+	 * @param snapshotFile	The snapshot file - this need not exist.
+	 */
+	protected void loadSnapshot(File snapshotFile) {
+		if (UtilImpl.DEV_MODE) {
+			snapshot = null;
+		}
+		else {
+			snapshot = MetaDataSnapshot.read(snapshotFile);
+			if (snapshot != null) {
+				UtilImpl.LOGGER.info("Using metadata snapshot " + snapshotFile + " of " + snapshot.size() + " metadata files");
+			}
+		}
+	}
+
+	/**
+	 * Get unmarshalled metadata from the snapshot.
+	 * @param key	The metadata file path relative to the repository base path.
+	 * @param file	The metadata file used to determine if the snapshot is stale.
+	 * @return	The metadata or null if there is no snapshot or the snapshotted metadata is missing or stale.
+	 */
+	protected <T> T getSnapshotted(String key, File file) {
+		return (snapshot == null) ? null : snapshot.get(key, file);
+	}
+
 	/**
 	 * Called by populateKeys() implementations.
 	 * @param key
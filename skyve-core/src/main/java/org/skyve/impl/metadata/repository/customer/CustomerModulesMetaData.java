@@ -9,9 +9,12 @@ import javax.xml.bind.annotation.XmlType;
 
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.util.XMLMetaData;
+import org.skyve.metadata.SerializableMetaData;
 
 @XmlType(namespace = XMLMetaData.CUSTOMER_NAMESPACE, name = "modules")
-public class CustomerModulesMetaData {
+public class CustomerModulesMetaData implements SerializableMetaData {
+	private static final long serialVersionUID = -1369596710064671139L;
+
 	private List<CustomerModuleMetaData> modules = new ArrayList<>();
 	private String homeModule;
 	
@@ -8,9 +8,12 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 
 import org.skyve.impl.util.XMLMetaData;
+import org.skyve.metadata.SerializableMetaData;
 
 @XmlType(namespace = XMLMetaData.CUSTOMER_NAMESPACE, name = "roles")
-public class CustomerRolesMetaData {
+public class CustomerRolesMetaData implements SerializableMetaData {
+	private static final long serialVersionUID = 8894324358210394023L;
+
 	private List<CustomerRoleMetaData> roles = new ArrayList<>();
 	private boolean allowModuleRoles = true;
 	
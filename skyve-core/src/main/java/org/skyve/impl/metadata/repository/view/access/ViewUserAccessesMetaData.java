@@ -9,9 +9,12 @@ import javax.xml.bind.annotation.XmlElementRefs;
 import javax.xml.bind.annotation.XmlType;
 
 import org.skyve.impl.util.XMLMetaData;
+import org.skyve.metadata.SerializableMetaData;
 
 @XmlType(namespace = XMLMetaData.VIEW_NAMESPACE, name = "accesses")
-public class ViewUserAccessesMetaData {
+public class ViewUserAccessesMetaData implements SerializableMetaData {
+	private static final long serialVersionUID = -5131540009291488721L;
+
 	private List<ViewUserAccessMetaData> accesses = new ArrayList<>();
 	private boolean generate = true;
 	
@@ -1,5 +1,6 @@
 package org.skyve.impl.metadata.user;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -406,6 +407,13 @@ public class UserImpl implements User {
 			roleNames.contains(SECURITY_ADMINISTRATOR_ROLE)));
 	}
 
+	/**
+	 * @return	The names of the roles assigned to this user (as module.role).
+	 */
+	public Set<String> getRoleNames() {
+		return Collections.unmodifiableSet(roleNames);
+	}
+
 	@Override
 	public DocumentPermissionScope getScope(String moduleName, String documentName) {
 		DocumentPermissionScope result = roleNames.contains(SUPER_ROLE) ? 
@@ -0,0 +1,142 @@
+package org.skyve.impl.metadata.view.model.chart;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.domain.Bean;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.Extends;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.Module;
+
+/**
+ * Caches the aggregated rows of ChartBuilder queries so that dashboards don't run the same aggregate every render.
+ * <p/>
+ * Entries are keyed by the query shape, the user's security scope and the version of each charted document 
+ * (see ChartBuilder). A document's version is bumped once a transaction saving or deleting its beans commits,
+ * so the next render misses the cache and the old entries are aged out.
+ * Versions are local to this JVM and are not bumped by bulk BizQL or SQL updates, so UtilImpl.CHART_CACHE_SECONDS
+ * can be set to bound how out of date a cached chart can be.
+ * <p/>
+ * Only scalar values are cached (never beans) so that no persistent state is shared between users or sessions.
+ */
+public class ChartDataCache {
+	private static final class Entry {
+		private final Object[][] rows;
+		private final long createdMillis = System.currentTimeMillis();
+
+		private Entry(Object[][] rows) {
+			this.rows = rows;
+		}
+	}
+
+	// query key -> entry, least recently used first
+	private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(64, 0.75f, true) {
+		private static final long serialVersionUID = 7958323465236463087L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return (size() > UtilImpl.CHART_CACHE_SIZE);
+		}
+	};
+
+	// customer/module.document -> version
+	private static final Map<String, Long> VERSIONS = new ConcurrentHashMap<>();
+
+	private ChartDataCache() {
+		// nothing to see here
+	}
+
+	public static boolean isEnabled() {
+		return (UtilImpl.CHART_CACHE_SIZE > 0);
+	}
+
+	/**
+	 * Get the current version of a document.
+	 * Get this before running the query to be cached so that a change committed during the query invalidates it.
+	 */
+	public static long version(String customerName, String moduleName, String documentName) {
+		Long result = VERSIONS.get(documentKey(customerName, moduleName, documentName));
+		return (result == null) ? 0L : result.longValue();
+	}
+
+	/**
+	 * Invalidate entries for a document and the documents it extends, as their queries include the document's beans.
+	 */
+	public static void invalidate(Customer customer, String moduleName, String documentName) {
+		String customerName = customer.getName();
+		Module module = customer.getModule(moduleName);
+		Document document = module.getDocument(customer, documentName);
+		while (document != null) {
+			VERSIONS.merge(documentKey(customerName, document.getOwningModuleName(), document.getName()),
+							Long.valueOf(1L),
+							(v, one) -> Long.valueOf(v.longValue() + one.longValue()));
+			Extends inherits = document.getExtends();
+			if (inherits == null) {
+				document = null;
+			}
+			else {
+				module = customer.getModule(document.getOwningModuleName());
+				document = module.getDocument(customer, inherits.getDocumentName());
+			}
+		}
+	}
+
+	private static String documentKey(String customerName, String moduleName, String documentName) {
+		return new StringBuilder(64).append(customerName).append('/').append(moduleName).append('.').append(documentName).toString();
+	}
+
+	/**
+	 * @return	The cached rows or null if there is no entry or it is older than UtilImpl.CHART_CACHE_SECONDS.
+	 * 			The rows should not be mutated.
+	 */
+	public static Object[][] get(String key) {
+		synchronized (ENTRIES) {
+			Entry entry = ENTRIES.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if ((UtilImpl.CHART_CACHE_SECONDS > 0) &&
+					(System.currentTimeMillis() - entry.createdMillis >= UtilImpl.CHART_CACHE_SECONDS * 1000L)) {
+				ENTRIES.remove(key);
+				return null;
+			}
+
+			if (UtilImpl.QUERY_TRACE) UtilImpl.LOGGER.info("ChartDataCache.get(): Hit for " + key);
+			return entry.rows;
+		}
+	}
+
+	/**
+	 * Cache the rows of a chart query if they only hold scalar values.
+	 * @param key	The query key.
+	 * @param rows	The rows - these should not be mutated after caching.
+	 * @return	true if the rows were cached, false if they hold a bean.
+	 */
+	public static boolean put(String key, Object[][] rows) {
+		for (Object[] row : rows) {
+			for (Object value : row) {
+				if (value instanceof Bean) {
+					return false;
+				}
+			}
+		}
+
+		Entry entry = new Entry(rows);
+		synchronized (ENTRIES) {
+			ENTRIES.put(key, entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Drop all cached entries.
+	 */
+	public static void clear() {
+		synchronized (ENTRIES) {
+			ENTRIES.clear();
+		}
+	}
+}
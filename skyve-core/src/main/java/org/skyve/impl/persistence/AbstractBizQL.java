@@ -21,6 +21,12 @@ public class AbstractBizQL extends AbstractQuery implements BizQL {
 		this.timeoutInSeconds = Integer.MIN_VALUE;
 		return this;
 	}
+
+	@Override
+	public AbstractBizQL cacheable() {
+		this.cacheable = true;
+		return this;
+	}
 	
 	@Override
 	public AbstractBizQL putParameter(String name, Object value) {
@@ -100,6 +100,12 @@ public abstract class AbstractDocumentQuery extends AbstractQuery implements Doc
 		this.timeoutInSeconds = Integer.MIN_VALUE;
 		return this;
 	}
+
+	@Override
+	public AbstractDocumentQuery cacheable() {
+		this.cacheable = true;
+		return this;
+	}
 	
 	@Override
 	public AbstractDocumentQuery putParameter(String name, Object value) {
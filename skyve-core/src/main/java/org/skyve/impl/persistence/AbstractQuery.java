@@ -19,6 +19,9 @@ public abstract class AbstractQuery {
 	// 0 = default timeout (for oltp or async threads), > 0 sets a timeout, < 0 means no timeout
 	protected int timeoutInSeconds = 0; // default timeout
 
+	// true if the results can be kept in the query cache
+	protected boolean cacheable = false;
+
 	public final Set<String> getParameterNames() {
 		return parameters.keySet();
 	}
@@ -76,4 +79,11 @@ public abstract class AbstractQuery {
 	public void setTimeoutInSeconds(int timeoutInSeconds) {
 		this.timeoutInSeconds = timeoutInSeconds;
 	}
+
+	public boolean isCacheable() {
+		return cacheable;
+	}
+	public void setCacheable(boolean cacheable) {
+		this.cacheable = cacheable;
+	}
 }
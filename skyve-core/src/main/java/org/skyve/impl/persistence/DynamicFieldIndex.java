@@ -0,0 +1,156 @@
+package org.skyve.impl.persistence;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.domain.types.Decimal;
+import org.skyve.domain.types.Decimal10;
+import org.skyve.domain.types.Enumeration;
+import org.skyve.domain.types.Timestamp;
+import org.skyve.impl.metadata.model.document.field.LengthField;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.Attribute.AttributeType;
+
+/**
+ * Defines how the scalar fields of dynamic documents are copied from the ADM_DynamicEntity "fields" JSON
+ * to typed rows in ADM_DynamicField when {@link UtilImpl#DYNAMIC_FIELD_INDEX} is on.
+ * This is shared by the dynamic persistence that maintains the rows and the list model that queries them.
+ */
+public final class DynamicFieldIndex {
+	public static final String TABLE_NAME = "ADM_DynamicField";
+
+	/**
+	 * The length of the textValue column - longer text attributes are not indexed.
+	 */
+	public static final int MAX_TEXT_LENGTH = 255;
+
+	/**
+	 * The typed value columns of ADM_DynamicField.
+	 */
+	public enum Column {
+		textValue(AttributeType.text),
+		numericValue(AttributeType.decimal10),
+		dateValue(AttributeType.timestamp);
+
+		private AttributeType parameterType;
+
+		private Column(AttributeType parameterType) {
+			this.parameterType = parameterType;
+		}
+
+		/**
+		 * The attribute type to use when binding a value of this column as a SQL parameter.
+		 */
+		public AttributeType getParameterType() {
+			return parameterType;
+		}
+	}
+
+	// customer/module.document of the dynamic documents whose entities are all indexed
+	private static final Set<String> INDEXED_DOCUMENTS = ConcurrentHashMap.newKeySet();
+
+	private DynamicFieldIndex() {
+		// nothing to see here
+	}
+
+	/**
+	 * @return	true if all entities of the given dynamic document are known to be indexed.
+	 */
+	public static boolean isIndexed(String customerName, String moduleName, String documentName) {
+		return INDEXED_DOCUMENTS.contains(key(customerName, moduleName, documentName));
+	}
+
+	/**
+	 * Record that all entities of the given dynamic document are indexed.
+	 * Entities saved from now on are indexed as they are saved.
+	 */
+	public static void setIndexed(String customerName, String moduleName, String documentName) {
+		INDEXED_DOCUMENTS.add(key(customerName, moduleName, documentName));
+	}
+
+	/**
+	 * Forget which documents are indexed, for when unindexed entities may have been added, such as by a restore.
+	 */
+	public static void reset() {
+		INDEXED_DOCUMENTS.clear();
+	}
+
+	private static String key(String customerName, String moduleName, String documentName) {
+		return customerName + '/' + moduleName + '.' + documentName;
+	}
+
+	/**
+	 * Get the column that holds the values of the given attribute.
+	 * @param attribute	The attribute
+	 * @return	The column or null if the attribute is not indexed.
+	 */
+	public static Column column(Attribute attribute) {
+		AttributeType type = attribute.getAttributeType();
+		switch (type) {
+			case text:
+				if ((attribute instanceof LengthField) && (((LengthField) attribute).getLength() > MAX_TEXT_LENGTH)) {
+					return null;
+				}
+				return Column.textValue;
+			case colour:
+			case enumeration:
+			case id:
+			case bool:
+				return Column.textValue;
+			case integer:
+			case longInteger:
+			case decimal2:
+			case decimal5:
+			case decimal10:
+				return Column.numericValue;
+			case date:
+			case dateTime:
+			case time:
+			case timestamp:
+				return Column.dateValue;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Convert a field value (or a filter operand) to the value to bind as a SQL parameter for the given column.
+	 * @param column	The column
+	 * @param value	The value
+	 * @return	The converted value or null if the value is null or cannot be held in the column.
+	 */
+	public static Object value(Column column, Object value) {
+		if (value == null) {
+			return null;
+		}
+
+		switch (column) {
+			case textValue:
+				String result = null;
+				if (value instanceof Enumeration) {
+					result = ((Enumeration) value).toCode();
+				}
+				else if ((value instanceof String) || (value instanceof Boolean) || (value instanceof Enum<?>)) {
+					result = value.toString();
+				}
+				return ((result == null) || (result.length() > MAX_TEXT_LENGTH)) ? null : result;
+			case numericValue:
+				if (value instanceof Decimal) {
+					return new Decimal10(((Decimal) value).bigDecimalValue());
+				}
+				if (value instanceof Number) {
+					return new Decimal10(value.toString());
+				}
+				return null;
+			case dateValue:
+				if (value instanceof Date) {
+					return new Timestamp(((Date) value).getTime());
+				}
+				return null;
+			default:
+				throw new IllegalStateException("Column " + column + " is not catered for");
+		}
+	}
+}
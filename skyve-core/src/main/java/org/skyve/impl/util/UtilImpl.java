@@ -106,6 +106,13 @@ public class UtilImpl {
 	// The URL to connect to the REST server when running the content management in server mode.
 	public static String CONTENT_REST_SERVER_URL = null;
 
+	// The number of threads indexing content after commit through the outbox.
+	// 0 indexes content synchronously during the flush.
+	public static int CONTENT_INDEX_THREADS = 0;
+
+	// The number of beans read and written to the content manager at a time by the index threads.
+	public static int CONTENT_INDEX_BATCH_SIZE = 100;
+
 	// A class to load to provide external cloud backups.
 	public static String BACKUP_EXTERNAL_BACKUP_CLASS = null;
 	
@@ -159,6 +166,23 @@ public class UtilImpl {
 	// Where to put thumbnails if fileStorage is true - defaults to <content.directory>/SKYVE_THUMBNAILS/
 	// Skyve will recreate this folder if it is deleted whilst running but if defined it must exist at startup.
 	public static String THUMBNAIL_DIRECTORY = null;
+
+	// The number of PDF reports that can be rendered at once.
+	// Each render holds the HTML DOM, layout and PDF in memory so this constrains memory usage during bursts of reporting.
+	public static int PDF_CONCURRENT_RENDERS = 4;
+
+	// The maximum number of filled Jasper report pages kept in memory per report.
+	// Pages over this are swapped to a file in REPORT_VIRTUALIZER_DIRECTORY. 0 fills reports entirely in memory.
+	public static int REPORT_VIRTUALIZER_MAX_PAGES = 100;
+	
+	// Where to put Jasper report swap files - defaults to the java temp directory.
+	public static String REPORT_VIRTUALIZER_DIRECTORY = null;
+
+	// The maximum number of ChartBuilder query results cached. 0 disables chart caching.
+	public static int CHART_CACHE_SIZE = 256;
+
+	// The maximum age in seconds of a cached ChartBuilder query result, even if its documents have not changed. 0 means no limit.
+	public static int CHART_CACHE_SECONDS = 0;
 	
 	// This is set in web.xml and should only be used when the APP server in use
 	// doesn't allow us to get the absolute path of a resource - jboss 4.0.5.GA, WebLogic or any zipped deployment
@@ -205,12 +229,20 @@ public class UtilImpl {
 	public static CSRFTokenCacheConfig CSRF_TOKEN_CACHE = null;
 	public static List<HibernateCacheConfig> HIBERNATE_CACHES = new ArrayList<>();
 	public static boolean HIBERNATE_FAIL_ON_MISSING_CACHE = false;
+	// Cache the JAXB parsed hibernate ORM mapping documents in the content directory
+	public static boolean HIBERNATE_ORM_CACHE = false;
+	// Keep the results of cacheable queries in the hibernate query cache
+	public static boolean QUERY_CACHE = false;
 	public static List<CacheConfig<? extends Serializable, ? extends Serializable>> APP_CACHES = new ArrayList<>();
 
 	// For database
 	public static Map<String, DataStore> DATA_STORES = new TreeMap<>();
 	public static DataStore DATA_STORE = null;
 	public static boolean DDL_SYNC = true;
+	// Only sync the tables whose mapping has changed since the schema was last synced (using fingerprints stored in the data store)
+	public static boolean DDL_SYNC_FINGERPRINT = false;
+	// Maintain typed copies of dynamic document fields in ADM_DynamicField so that their lists can be filtered, sorted and paged in the data store
+	public static boolean DYNAMIC_FIELD_INDEX = false;
 	public static String CATALOG = null;
 	public static String SCHEMA = null;
 	
@@ -3,8 +3,10 @@ package org.skyve.metadata.view.model.chart;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 
@@ -12,12 +14,15 @@ import org.skyve.CORE;
 import org.skyve.domain.Bean;
 import org.skyve.domain.DynamicBean;
 import org.skyve.impl.metadata.model.document.CollectionImpl.OrderingImpl;
+import org.skyve.impl.metadata.view.model.chart.ChartDataCache;
 import org.skyve.impl.persistence.AbstractDocumentQuery;
 import org.skyve.metadata.SortDirection;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.module.query.MetaDataQueryDefinition;
+import org.skyve.metadata.user.DocumentPermissionScope;
+import org.skyve.metadata.user.User;
 import org.skyve.metadata.view.model.chart.colours.ColourSeries;
 import org.skyve.metadata.view.model.chart.colours.RainbowColourSeries;
 import org.skyve.persistence.DocumentQuery;
@@ -29,6 +34,9 @@ import org.skyve.util.Binder;
  * The chart is generated from a document, a document query or a metadata query.
  * The projections, orderings and groupings are cleared and re-applied
  * based on the method calls made in this builder.
+ * When chart caching is switched on, the aggregated rows are cached by query and user security scope
+ * until beans of the charted documents are saved or deleted (see {@link ChartDataCache}) - use {@link #noCache()} 
+ * for charts that should always be current or for queries that depend on more than that.
  * 
  * @author mike
  */
@@ -47,6 +55,7 @@ public class ChartBuilder {
 	private OrderBy orderBy;
 	private String fullyQualifiedJFreeChartPostProcessorClassName;
 	private String fullyQualifiedPrimeFacesChartPostProcessorClassName;
+	private boolean cache = true;
 	
 	/**
 	 * Document builder.
@@ -204,6 +213,16 @@ public class ChartBuilder {
 		return this;
 	}
 
+	/**
+	 * Always run the chart query instead of using cached results.
+	 * Use this when the query depends on something other than its documents and the user's security scope,
+	 * like elevated document permission scopes or data changed outside of Skyve persistence.
+	 */
+	public ChartBuilder noCache() {
+		cache = false;
+		return this;
+	}
+
 	/**
 	 * Build the ChartData.
 	 * @param label	The data set label.
@@ -307,6 +326,23 @@ public class ChartBuilder {
 			}
 		}
 
+		String categoryProperty = (categoryBucket == null) ? categoryBinding : "category";
+		String cacheKey = null;
+		if (cache && ChartDataCache.isEnabled()) {
+			cacheKey = cacheKey(CORE.getUser());
+			Object[][] rows = ChartDataCache.get(cacheKey);
+			if (rows != null) {
+				List<Bean> result = new ArrayList<>(rows.length);
+				for (Object[] row : rows) {
+					Map<String, Object> properties = new TreeMap<>();
+					properties.put(categoryProperty, row[0]);
+					properties.put("value", row[1]);
+					result.add(new DynamicBean(document.getOwningModuleName(), document.getName(), properties));
+				}
+				return result;
+			}
+		}
+
 		List<Bean> result = query.projectedResults();
 
 		if (top > 0) {
@@ -335,7 +371,7 @@ public class ChartBuilder {
 					}
 					
 					Map<String, Object> properties = new TreeMap<>();
-					properties.put((categoryBucket == null) ? categoryBinding : "category", null);
+					properties.put(categoryProperty, null);
 					properties.put("value", rest);
 					best.add(new DynamicBean(document.getOwningModuleName(), document.getName(), properties));
 					result = best;
@@ -345,12 +381,74 @@ public class ChartBuilder {
 				}
 			}
 			// Always order here as the top sort was applied on the data store
-			OrderingImpl ordering = new OrderingImpl(OrderBy.category.equals(orderBy) ? ((categoryBucket == null) ? categoryBinding : "category") : "value",
+			OrderingImpl ordering = new OrderingImpl(OrderBy.category.equals(orderBy) ? categoryProperty : "value",
 														SortDirection.descending.equals(orderBySort) ? SortDirection.descending : SortDirection.ascending);
 			Binder.sortCollectionByOrdering(result, ordering);
 		}
+
+		if (cacheKey != null) {
+			Object[][] rows = new Object[result.size()][];
+			for (int i = 0, l = rows.length; i < l; i++) {
+				Bean row = result.get(i);
+				rows[i] = new Object[] {Binder.get(row, categoryProperty), Binder.get(row, "value")};
+			}
+			// NB rows with a bean category (an association) are not cached
+			ChartDataCache.put(cacheKey, rows);
+		}
+		return result;
+	}
+
+	/**
+	 * The module.document names of the documents the chart aggregates - the driving document and any documents
+	 * referenced by the category and value bindings.
+	 */
+	private Set<String> documentNames(Customer c) {
+		Module m = c.getModule(document.getOwningModuleName());
+		Set<String> result = new LinkedHashSet<>();
+		result.add(document.getOwningModuleName() + '.' + document.getName());
+		for (String binding : new String[] {categoryBinding, valueBinding}) {
+			int dotIndex = (binding == null) ? -1 : binding.indexOf('.');
+			while (dotIndex > 0) {
+				dotIndex = binding.indexOf('.', dotIndex + 1);
+				String prefix = (dotIndex < 0) ? binding : binding.substring(0, dotIndex);
+				Document d = Binder.getMetaDataForBinding(c, m, document, prefix).getDocument();
+				result.add(d.getOwningModuleName() + '.' + d.getName());
+			}
+		}
 		return result;
 	}
+
+	/**
+	 * The query and its parameters, the post processing of the results and the security scope and version 
+	 * of each document charted.
+	 */
+	private String cacheKey(User user) {
+		AbstractDocumentQuery adq = (AbstractDocumentQuery) query;
+		String customerName = user.getCustomerName();
+		StringBuilder result = new StringBuilder(512);
+		result.append(customerName);
+		for (String moduleDotDocument : documentNames(user.getCustomer())) {
+			int dotIndex = moduleDotDocument.indexOf('.');
+			String moduleName = moduleDotDocument.substring(0, dotIndex);
+			String documentName = moduleDotDocument.substring(dotIndex + 1);
+			DocumentPermissionScope scope = user.getScope(moduleName, documentName);
+			result.append('|').append(ChartDataCache.version(customerName, moduleName, documentName));
+			result.append(scope.charValue());
+			if (DocumentPermissionScope.dataGroup.equals(scope) || DocumentPermissionScope.user.equals(scope)) {
+				result.append(user.getDataGroupId());
+			}
+			if (DocumentPermissionScope.user.equals(scope)) {
+				result.append('/').append(user.getId());
+			}
+		}
+		result.append('|').append(adq.toQueryString());
+		for (String name : adq.getParameterNames()) {
+			result.append('|').append(name).append('=').append(adq.getParameter(name));
+		}
+		result.append('|').append(top).append(topOrderBy).append(topSort).append(topOthers);
+		result.append('|').append(orderBy).append(orderBySort);
+		return result.toString();
+	}
 	
 	private static Number sum(List<Bean> best, List<Bean> beans, boolean avg) {
 		double result = 0.0;
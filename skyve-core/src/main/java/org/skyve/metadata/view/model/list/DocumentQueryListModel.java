@@ -241,6 +241,18 @@ public class DocumentQueryListModel <T extends Bean> extends ListModel<T> {
 		}
 	}
 	
+	/**
+	 * Get the detail query with this model's filter applied, for set-based operations over its rows (like bulk tagging).
+	 * @return	The detail query or null if this model's query is an aggregate query.
+	 */
+	public DocumentQuery getFilteredDetailQuery() {
+		if (query.isAggregate()) {
+			return null;
+		}
+		establishQueries();
+		return detailQuery;
+	}
+
 	/**
 	 * For Sub-classes to get hold of the internal detail query being used.
 	 */
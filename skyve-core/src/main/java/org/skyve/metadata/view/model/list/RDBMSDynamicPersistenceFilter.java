@@ -0,0 +1,667 @@
+package org.skyve.metadata.view.model.list;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.locationtech.jts.geom.Geometry;
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.types.Decimal;
+import org.skyve.impl.metadata.model.document.field.Field;
+import org.skyve.impl.persistence.DynamicFieldIndex;
+import org.skyve.impl.persistence.DynamicFieldIndex.Column;
+import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.Attribute.AttributeType;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.persistence.SQL;
+
+/**
+ * An in-memory filter for {@link RDBMSDynamicPersistenceListModel} that also accumulates SQL conditions
+ * over the typed ADM_DynamicField rows for the criteria it can express.
+ *
+ * The in-memory predicates are always kept so the filter can be applied to the rows as per {@link InMemoryFilter}.
+ * The SQL conditions always select a superset of the in-memory result and are used to restrict the rows selected.
+ * If every criterion could be expressed in SQL with the same semantics as the in-memory predicates the filter is "exact"
+ * and the list model can count, sort and page in the database instead.
+ * Text criteria are never exact as the database collation (case and accent sensitivity, padding) need not match
+ * String.equals() and String.toUpperCase(), so text equality only restricts the rows selected (every collation
+ * equates equal strings) and the other text criteria are left to the in-memory predicates.
+ */
+public class RDBMSDynamicPersistenceFilter extends InMemoryFilter {
+	private RDBMSDynamicPersistenceListModel<?> model;
+	// and'd SQL conditions against the driving ADM_DynamicEntity table aliased as "t0"
+	private List<String> conditions = new ArrayList<>();
+	private Map<String, Object> parameters = new TreeMap<>();
+	private Map<String, AttributeType> parameterTypes = new TreeMap<>();
+	private boolean exact = true;
+
+	RDBMSDynamicPersistenceFilter(RDBMSDynamicPersistenceListModel<?> model) {
+		this.model = model;
+	}
+
+	/**
+	 * @return	true if the SQL conditions select exactly the rows the in-memory predicates would.
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Append the SQL conditions (if any) prefixed with " and ".
+	 */
+	void appendConditions(StringBuilder sql) {
+		for (String condition : conditions) {
+			sql.append(" and ").append(condition);
+		}
+	}
+
+	void putParameters(SQL sql) {
+		for (Entry<String, Object> entry : parameters.entrySet()) {
+			String name = entry.getKey();
+			sql.putParameter(name, entry.getValue(), parameterTypes.get(name));
+		}
+	}
+
+	@Override
+	public void addAnd(Filter filter) {
+		super.addAnd(filter);
+		if (filter instanceof RDBMSDynamicPersistenceFilter) {
+			RDBMSDynamicPersistenceFilter other = (RDBMSDynamicPersistenceFilter) filter;
+			conditions.addAll(other.conditions);
+			parameters.putAll(other.parameters);
+			parameterTypes.putAll(other.parameterTypes);
+			exact = exact && other.exact;
+		}
+		else {
+			exact = false;
+		}
+	}
+
+	@Override
+	public void addOr(Filter filter) {
+		super.addOr(filter);
+		if (filter instanceof RDBMSDynamicPersistenceFilter) {
+			RDBMSDynamicPersistenceFilter other = (RDBMSDynamicPersistenceFilter) filter;
+			// If either side has no SQL conditions then neither side can restrict the rows selected
+			if (conditions.isEmpty() || other.conditions.isEmpty()) {
+				conditions.clear();
+			}
+			else {
+				String condition = "((" + String.join(" and ", conditions) + ") or (" + String.join(" and ", other.conditions) + "))";
+				conditions.clear();
+				conditions.add(condition);
+				parameters.putAll(other.parameters);
+				parameterTypes.putAll(other.parameterTypes);
+			}
+			exact = exact && other.exact;
+		}
+		else {
+			conditions.clear();
+			exact = false;
+		}
+	}
+
+	@Override
+	public void addNull(String binding) {
+		super.addNull(binding);
+		exists(binding, true);
+	}
+
+	@Override
+	public void addNotNull(String binding) {
+		super.addNotNull(binding);
+		exists(binding, false);
+	}
+
+	@Override
+	public void addEquals(String binding, String value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Date value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Integer value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Long value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Decimal value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Boolean value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Enum<?> value) {
+		super.addEquals(binding, value);
+		compare(binding, "=", value, true, false);
+	}
+
+	@Override
+	public void addEquals(String binding, Geometry value) {
+		super.addEquals(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addNotEquals(String binding, String value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Date value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Integer value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Long value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Decimal value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Boolean value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Enum<?> value) {
+		super.addNotEquals(binding, value);
+		compare(binding, "=", value, true, true);
+	}
+
+	@Override
+	public void addNotEquals(String binding, Geometry value) {
+		super.addNotEquals(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addEqualsIgnoreCase(String binding, String value) {
+		super.addEqualsIgnoreCase(binding, value);
+		like();
+	}
+
+	@Override
+	public void addNotEqualsIgnoreCase(String binding, String value) {
+		super.addNotEqualsIgnoreCase(binding, value);
+		like();
+	}
+
+	@Override
+	public void addContains(String binding, String value) {
+		super.addContains(binding, value);
+		like();
+	}
+
+	@Override
+	public void addNotContains(String binding, String value) {
+		super.addNotContains(binding, value);
+		like();
+	}
+
+	@Override
+	public void addStartsWith(String binding, String value) {
+		super.addStartsWith(binding, value);
+		like();
+	}
+
+	@Override
+	public void addNotStartsWith(String binding, String value) {
+		super.addNotStartsWith(binding, value);
+		like();
+	}
+
+	@Override
+	public void addEndsWith(String binding, String value) {
+		super.addEndsWith(binding, value);
+		like();
+	}
+
+	@Override
+	public void addNotEndsWith(String binding, String value) {
+		super.addNotEndsWith(binding, value);
+		like();
+	}
+
+	// NB String ranges are compared with String.compareTo() in memory which no database collation is guaranteed to match
+
+	@Override
+	public void addGreaterThan(String binding, String value) {
+		super.addGreaterThan(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addGreaterThan(String binding, Date value) {
+		super.addGreaterThan(binding, value);
+		compare(binding, ">", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThan(String binding, Integer value) {
+		super.addGreaterThan(binding, value);
+		compare(binding, ">", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThan(String binding, Long value) {
+		super.addGreaterThan(binding, value);
+		compare(binding, ">", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThan(String binding, Decimal value) {
+		super.addGreaterThan(binding, value);
+		compare(binding, ">", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThanOrEqualTo(String binding, String value) {
+		super.addGreaterThanOrEqualTo(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addGreaterThanOrEqualTo(String binding, Date value) {
+		super.addGreaterThanOrEqualTo(binding, value);
+		compare(binding, ">=", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThanOrEqualTo(String binding, Integer value) {
+		super.addGreaterThanOrEqualTo(binding, value);
+		compare(binding, ">=", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThanOrEqualTo(String binding, Long value) {
+		super.addGreaterThanOrEqualTo(binding, value);
+		compare(binding, ">=", value, false, false);
+	}
+
+	@Override
+	public void addGreaterThanOrEqualTo(String binding, Decimal value) {
+		super.addGreaterThanOrEqualTo(binding, value);
+		compare(binding, ">=", value, false, false);
+	}
+
+	@Override
+	public void addLessThan(String binding, String value) {
+		super.addLessThan(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addLessThan(String binding, Date value) {
+		super.addLessThan(binding, value);
+		compare(binding, "<", value, false, false);
+	}
+
+	@Override
+	public void addLessThan(String binding, Integer value) {
+		super.addLessThan(binding, value);
+		compare(binding, "<", value, false, false);
+	}
+
+	@Override
+	public void addLessThan(String binding, Long value) {
+		super.addLessThan(binding, value);
+		compare(binding, "<", value, false, false);
+	}
+
+	@Override
+	public void addLessThan(String binding, Decimal value) {
+		super.addLessThan(binding, value);
+		compare(binding, "<", value, false, false);
+	}
+
+	@Override
+	public void addLessThanOrEqualTo(String binding, String value) {
+		super.addLessThanOrEqualTo(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addLessThanOrEqualTo(String binding, Date value) {
+		super.addLessThanOrEqualTo(binding, value);
+		compare(binding, "<=", value, false, false);
+	}
+
+	@Override
+	public void addLessThanOrEqualTo(String binding, Integer value) {
+		super.addLessThanOrEqualTo(binding, value);
+		compare(binding, "<=", value, false, false);
+	}
+
+	@Override
+	public void addLessThanOrEqualTo(String binding, Long value) {
+		super.addLessThanOrEqualTo(binding, value);
+		compare(binding, "<=", value, false, false);
+	}
+
+	@Override
+	public void addLessThanOrEqualTo(String binding, Decimal value) {
+		super.addLessThanOrEqualTo(binding, value);
+		compare(binding, "<=", value, false, false);
+	}
+
+	@Override
+	public void addBetween(String binding, String start, String end) {
+		super.addBetween(binding, start, end);
+		exact = false;
+	}
+
+	@Override
+	public void addBetween(String binding, Date start, Date end) {
+		super.addBetween(binding, start, end);
+		between(binding, start, end);
+	}
+
+	@Override
+	public void addBetween(String binding, Integer start, Integer end) {
+		super.addBetween(binding, start, end);
+		between(binding, start, end);
+	}
+
+	@Override
+	public void addBetween(String binding, Long start, Long end) {
+		super.addBetween(binding, start, end);
+		between(binding, start, end);
+	}
+
+	@Override
+	public void addBetween(String binding, Decimal start, Decimal end) {
+		super.addBetween(binding, start, end);
+		between(binding, start, end);
+	}
+
+	@Override
+	public void addIn(String binding, Object... values) {
+		super.addIn(binding, values);
+		if (values.length == 0) { // nothing is in an empty set
+			conditions.add("1 = 0");
+			return;
+		}
+
+		if (isImplicit(binding)) {
+			for (Object value : values) {
+				if (! (value instanceof String)) {
+					exact = false;
+					return;
+				}
+			}
+			String name = parameter(values, AttributeType.text);
+			conditions.add("t0." + binding + " in (:" + name + ")");
+			if (Bean.BIZ_KEY.equals(binding)) {
+				exact = false;
+			}
+			return;
+		}
+
+		Attribute a = indexedAttribute(binding);
+		if (a == null) {
+			exact = false;
+			return;
+		}
+		Column column = DynamicFieldIndex.column(a);
+		List<Object> indexedValues = new ArrayList<>(values.length);
+		for (Object value : values) {
+			Object indexedValue = compatible(a, value, true) ? DynamicFieldIndex.value(column, value) : null;
+			if (indexedValue == null) {
+				exact = false;
+				return;
+			}
+			indexedValues.add(indexedValue);
+		}
+		if (column == Column.textValue) {
+			exact = false;
+		}
+		String name = parameter(indexedValues, column.getParameterType());
+		conditions.add(exists(binding, "x." + column.name() + " in (:" + name + ")", false));
+	}
+
+	@Override
+	public void addWithin(String binding, Geometry value) {
+		super.addWithin(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addContains(String binding, Geometry value) {
+		super.addContains(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addCrosses(String binding, Geometry value) {
+		super.addCrosses(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addDisjoint(String binding, Geometry value) {
+		super.addDisjoint(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addIntersects(String binding, Geometry value) {
+		super.addIntersects(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addOverlaps(String binding, Geometry value) {
+		super.addOverlaps(binding, value);
+		exact = false;
+	}
+
+	@Override
+	public void addTouches(String binding, Geometry value) {
+		super.addTouches(binding, value);
+		exact = false;
+	}
+
+	/**
+	 * Add an SQL condition for a null (or not null) test.
+	 * A dynamic field without an ADM_DynamicField row is null.
+	 */
+	private void exists(String binding, boolean negated) {
+		Attribute a = indexedAttribute(binding);
+		if (a == null) {
+			exact = false;
+		}
+		else {
+			conditions.add(exists(binding, null, negated));
+		}
+	}
+
+	/**
+	 * Add an SQL condition for "binding operator value".
+	 *
+	 * @param equality	true if the in-memory predicate uses equals() and so the value type needs to match the attribute type exactly.
+	 * @param negated	true if the in-memory predicate is the negation of "binding operator value" and so matches nulls too.
+	 */
+	private void compare(String binding, String operator, Object value, boolean equality, boolean negated) {
+		if (value == null) {
+			exact = false;
+			return;
+		}
+
+		if (isImplicit(binding)) {
+			// bizId is a UUID and unaffected by collation but bizKey is text
+			boolean text = Bean.BIZ_KEY.equals(binding);
+			if (equality && (value instanceof String) && (! (text && negated))) {
+				String name = parameter(value, AttributeType.text);
+				conditions.add((negated ? "not (t0." : "(t0.") + binding + ' ' + operator + " :" + name + ')');
+				if (text) {
+					exact = false;
+				}
+			}
+			else {
+				exact = false;
+			}
+			return;
+		}
+
+		Attribute a = indexedAttribute(binding);
+		if ((a == null) || (! compatible(a, value, equality))) {
+			exact = false;
+			return;
+		}
+		Column column = DynamicFieldIndex.column(a);
+		Object indexedValue = DynamicFieldIndex.value(column, value);
+		if (indexedValue == null) {
+			exact = false;
+			return;
+		}
+		if (column == Column.textValue) {
+			exact = false;
+			// A collation may equate strings that are not equal so "not equals" could exclude rows that should be included
+			if (negated) {
+				return;
+			}
+		}
+		String name = parameter(indexedValue, column.getParameterType());
+		conditions.add(exists(binding, "x." + column.name() + ' ' + operator + " :" + name, negated));
+	}
+
+	private void between(String binding, Object start, Object end) {
+		Attribute a = indexedAttribute(binding);
+		if ((start == null) || (end == null) || (a == null) || (! compatible(a, start, false)) || (! compatible(a, end, false))) {
+			exact = false;
+			return;
+		}
+		Column column = DynamicFieldIndex.column(a);
+		String startName = parameter(DynamicFieldIndex.value(column, start), column.getParameterType());
+		String endName = parameter(DynamicFieldIndex.value(column, end), column.getParameterType());
+		conditions.add(exists(binding, "x." + column.name() + " between :" + startName + " and :" + endName, false));
+	}
+
+	/**
+	 * Case insensitive text criteria are left to the in-memory predicates.
+	 * An SQL like over upper() could exclude rows that the in-memory toUpperCase() comparison includes
+	 * as the database's case mapping and collation need not match Java's.
+	 */
+	private void like() {
+		exact = false;
+	}
+
+	/**
+	 * Make a correlated sub-query against the ADM_DynamicField row of the given binding for the driving ADM_DynamicEntity row.
+	 * @param predicate	The predicate against the field row (aliased "x") or null to test for the existence of the row.
+	 */
+	private String exists(String binding, String predicate, boolean negated) {
+		String attributeName = parameter(binding, AttributeType.text);
+		StringBuilder result = new StringBuilder(128);
+		if (negated) {
+			result.append("not ");
+		}
+		result.append("exists (select 1 from ").append(DynamicFieldIndex.TABLE_NAME);
+		result.append(" x where x.parent_id = t0.bizId and x.attributeName = :").append(attributeName);
+		if (predicate != null) {
+			result.append(" and ").append(predicate);
+		}
+		return result.append(')').toString();
+	}
+
+	private String parameter(Object value, AttributeType type) {
+		String result = model.nextParameterName();
+		parameters.put(result, value);
+		parameterTypes.put(result, type);
+		return result;
+	}
+
+	/**
+	 * bizId and bizKey are columns of ADM_DynamicEntity and are never null.
+	 */
+	private static boolean isImplicit(String binding) {
+		return Bean.DOCUMENT_ID.equals(binding) || Bean.BIZ_KEY.equals(binding);
+	}
+
+	/**
+	 * @return	The driving document field for the given simple binding if it is indexed, otherwise null.
+	 */
+	private Attribute indexedAttribute(String binding) {
+		if (binding.indexOf('.') >= 0) {
+			return null;
+		}
+		Document document = model.getDrivingDocument();
+		Attribute result = document.getPolymorphicAttribute(CORE.getUser().getCustomer(), binding);
+		if ((result instanceof Field) && (DynamicFieldIndex.column(result) != null)) {
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * Determine if the SQL comparison of the value against the attribute's column has the same outcome as the in-memory predicate.
+	 */
+	private static boolean compatible(Attribute attribute, Object value, boolean equality) {
+		AttributeType type = attribute.getAttributeType();
+		if (value instanceof String) {
+			return (type == AttributeType.text) || (type == AttributeType.colour) || (type == AttributeType.id);
+		}
+		if (value instanceof Boolean) {
+			return (type == AttributeType.bool);
+		}
+		if (value instanceof Enum<?>) {
+			return (type == AttributeType.enumeration);
+		}
+		if (value instanceof Date) {
+			return (DynamicFieldIndex.column(attribute) == Column.dateValue);
+		}
+		if (value instanceof Integer) {
+			return (type == AttributeType.integer);
+		}
+		if (value instanceof Long) {
+			return (type == AttributeType.longInteger);
+		}
+		if (value instanceof Decimal) {
+			// Decimal.equals() is scale sensitive so the types need to match
+			if (equality) {
+				return type.getImplementingType().equals(value.getClass());
+			}
+			return (type == AttributeType.decimal2) || (type == AttributeType.decimal5) || (type == AttributeType.decimal10);
+		}
+		return false;
+	}
+}
@@ -16,8 +16,14 @@ import org.skyve.domain.messages.DomainException;
 import org.skyve.domain.types.OptimisticLock;
 import org.skyve.impl.bind.BindUtil;
 import org.skyve.impl.metadata.model.document.field.Enumeration;
+import org.skyve.impl.metadata.model.document.field.Field;
+import org.skyve.impl.persistence.DynamicFieldIndex;
+import org.skyve.impl.persistence.DynamicFieldIndex.Column;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.SortDirection;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.Attribute.AttributeType;
 import org.skyve.metadata.model.Persistent;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.model.document.Relation;
@@ -27,9 +33,11 @@ import org.skyve.metadata.module.query.MetaDataQueryDefinition;
 import org.skyve.metadata.user.User;
 import org.skyve.persistence.AutoClosingIterable;
 import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
 import org.skyve.util.Binder;
 import org.skyve.util.JSON;
 import org.skyve.util.Util;
+import org.skyve.web.SortParameter;
 
 /**
  * An in-memory list model that can generate the appropriate select statement to join across static and dynamic references and fields
@@ -149,7 +157,247 @@ public class RDBMSDynamicPersistenceListModel<T extends Bean> extends InMemoryLi
 		StringBuilder sql = new StringBuilder(projectedColumns.length() + joinedTables.length() + 90);
 		sql.append("select ").append(projectedColumns).append(" from ").append(joinedTables);
 		sql.append(" where t0.moduleName = :moduleName and t0.documentName = :documentName");
-		return p.newSQL(sql.toString()).putParameter("moduleName", module.getName(), false).putParameter("documentName", document.getName(), false).tupleIterable();
+		appendRestriction(sql);
+		SQL query = p.newSQL(sql.toString()).putParameter("moduleName", module.getName(), false).putParameter("documentName", document.getName(), false);
+		putRestrictionParameters(query);
+		return query.tupleIterable();
+	}
+	
+	/**
+	 * Append the SQL conditions that restrict the driving table (aliased "t0") by the filter and the page being fetched, if any.
+	 * This is for use by extension classes that override {@link #query(StringBuilder, StringBuilder)}.
+	 * @param sql	The SQL statement to append to, which must already have a where clause.
+	 */
+	protected void appendRestriction(StringBuilder sql) {
+		if (filter != null) {
+			filter.appendConditions(sql);
+		}
+		if (pageIds != null) {
+			sql.append(" and t0.bizId in (:").append(PAGE_IDS_PARAMETER_NAME).append(')');
+		}
+	}
+	
+	/**
+	 * Put the parameters required by the conditions added in {@link #appendRestriction(StringBuilder)}.
+	 * @param sql	The SQL to put the parameters on.
+	 */
+	protected void putRestrictionParameters(SQL sql) {
+		if (filter != null) {
+			filter.putParameters(sql);
+		}
+		if (pageIds != null) {
+			sql.putParameter(PAGE_IDS_PARAMETER_NAME, pageIds, AttributeType.id);
+		}
+	}
+	
+	// The SQL filter, if the dynamic field index is in use
+	private RDBMSDynamicPersistenceFilter filter;
+	// The bizIds of the page being fetched when paging in SQL
+	private List<String> pageIds;
+	private static final String PAGE_IDS_PARAMETER_NAME = "pageIds";
+	// Used to make unique filter and sort parameter names
+	private int parameterNumber = 0;
+	
+	String nextParameterName() {
+		return "p" + parameterNumber++;
+	}
+	
+	/**
+	 * Use an {@link RDBMSDynamicPersistenceFilter} to restrict the rows selected when the dynamic field index is in use.
+	 */
+	@Override
+	public Filter newFilter() {
+		if (UtilImpl.DYNAMIC_FIELD_INDEX) {
+			return new RDBMSDynamicPersistenceFilter(this);
+		}
+		return super.newFilter();
+	}
+	
+	/**
+	 * When the dynamic field index is in use and the filter and sort can be exactly expressed in SQL,
+	 * count, sort and page in the database and only select the page of rows.
+	 * Otherwise, select the rows (restricted by the filter in SQL where possible) and filter, sort and page in memory.
+	 */
+	@Override
+	public Page fetch() throws Exception {
+		useSQLFilter();
+		if ((filter != null) && (getSummary() == null)) {
+			Page result = fetchPage();
+			if (result != null) {
+				return result;
+			}
+		}
+		return super.fetch();
+	}
+	
+	@Override
+	public AutoClosingIterable<Bean> iterate() throws Exception {
+		useSQLFilter();
+		return super.iterate();
+	}
+
+	private void useSQLFilter() {
+		if (UtilImpl.DYNAMIC_FIELD_INDEX) {
+			Filter f = getFilter();
+			if ((f instanceof RDBMSDynamicPersistenceFilter) && isIndexed()) {
+				filter = (RDBMSDynamicPersistenceFilter) f;
+			}
+		}
+	}
+
+	/**
+	 * Determine if every entity of the driving document has its fields indexed.
+	 * Entities written before the index was turned on have no ADM_DynamicField rows (and would appear null to the SQL conditions)
+	 * until they are indexed with RDBMSDynamicPersistence.indexFields() (see ReindexDynamicFieldsJob).
+	 */
+	private boolean isIndexed() {
+		String customerName = customer.getName();
+		String moduleName = module.getName();
+		String documentName = document.getName();
+		if (DynamicFieldIndex.isIndexed(customerName, moduleName, documentName)) {
+			return true;
+		}
+		
+		SQL sql = CORE.getPersistence().newSQL("select count(bizId) from ADM_DynamicEntity " +
+													"where bizCustomer = :bizCustomer and moduleName = :moduleName and documentName = :documentName " +
+													"and (fieldsIndexed is null or fieldsIndexed = :fieldsIndexed)");
+		sql.putParameter(Bean.CUSTOMER_NAME, customerName, false);
+		sql.putParameter("moduleName", moduleName, false);
+		sql.putParameter("documentName", documentName, false);
+		sql.putParameter("fieldsIndexed", Boolean.FALSE);
+		if (sql.scalarResult(Number.class).intValue() > 0) {
+			return false;
+		}
+		DynamicFieldIndex.setIndexed(customerName, moduleName, documentName);
+		return true;
+	}
+
+	/**
+	 * Count, sort and page in SQL.
+	 * @return	The page or null if the filter or sort cannot be exactly expressed in SQL.
+	 */
+	private Page fetchPage() throws Exception {
+		if (! filter.isExact()) {
+			return null;
+		}
+		
+		// Determine the joins and order by required for the sort parameters
+		StringBuilder sortJoins = new StringBuilder(64);
+		StringBuilder orderBy = new StringBuilder(64);
+		Map<String, String> sortParameters = new TreeMap<>();
+		SortParameter[] sorts = getSortParameters();
+		if (sorts != null) {
+			for (SortParameter sort : sorts) {
+				if (! appendSort(sort, sortJoins, orderBy, sortParameters)) {
+					return null;
+				}
+			}
+		}
+		orderBy.append("t0.bizId");
+
+		Persistence p = CORE.getPersistence();
+		StringBuilder where = new StringBuilder(128);
+		where.append(" where t0.moduleName = :moduleName and t0.documentName = :documentName");
+		filter.appendConditions(where);
+
+		// Count the rows
+		SQL count = p.newSQL("select count(t0.bizId) from ADM_DynamicEntity t0" + where);
+		count.putParameter("moduleName", module.getName(), false).putParameter("documentName", document.getName(), false);
+		filter.putParameters(count);
+		int totalRows = count.scalarResult(Number.class).intValue();
+		
+		// Select the bizIds in order and keep the requested page
+		int startRow = getStartRow();
+		int endRow = getEndRow();
+		List<String> ids = new ArrayList<>(Math.max(0, Math.min(endRow + 1, totalRows) - startRow));
+		if (startRow < totalRows) {
+			SQL select = p.newSQL("select t0.bizId from ADM_DynamicEntity t0" + sortJoins + where + " order by " + orderBy);
+			select.putParameter("moduleName", module.getName(), false).putParameter("documentName", document.getName(), false);
+			filter.putParameters(select);
+			for (Entry<String, String> entry : sortParameters.entrySet()) {
+				select.putParameter(entry.getKey(), entry.getValue(), false);
+			}
+			try (AutoClosingIterable<String> i = select.scalarIterable(String.class)) {
+				int row = 0;
+				for (String id : i) {
+					if (row > endRow) {
+						break;
+					}
+					if (row >= startRow) {
+						ids.add(id);
+					}
+					row++;
+				}
+			}
+		}
+
+		List<Bean> rows = new ArrayList<>(ids.size());
+		if (! ids.isEmpty()) {
+			// Select only the rows for the page and put them in order
+			pageIds = ids;
+			Map<String, Bean> rowsById = new TreeMap<>();
+			try {
+				for (Bean row : getRows()) {
+					rowsById.put(row.getBizId(), row);
+				}
+			}
+			finally {
+				pageIds = null;
+			}
+			for (String id : ids) {
+				Bean row = rowsById.get(id);
+				if (row != null) {
+					rows.add(row);
+				}
+			}
+		}
+
+		Page result = new Page();
+		result.setTotalRows(totalRows);
+		Map<String, Object> summaryData = new TreeMap<>();
+		// This needs to be the ID to satisfy the client data source definitions
+		summaryData.put(Bean.DOCUMENT_ID, Long.valueOf(totalRows));
+		summaryData.put(PersistentBean.FLAG_COMMENT_NAME, "");
+		result.setSummary(new DynamicBean(module.getName(), document.getName(), summaryData));
+		result.setRows(rows);
+		return result;
+	}
+	
+	/**
+	 * Add the join and order by for a sort parameter.
+	 * Nulls are sorted first (ascending) to match the in-memory sort.
+	 * Text is not sorted in SQL as the database collation need not order the same as String.compareTo().
+	 * @return	false if the sort binding cannot be sorted in SQL.
+	 */
+	private boolean appendSort(SortParameter sort, StringBuilder sortJoins, StringBuilder orderBy, Map<String, String> sortParameters) {
+		String by = sort.getBy();
+		boolean descending = SortDirection.descending.equals(sort.getDirection());
+		// NB bizIds are lower case UUIDs and so sort the same in any collation
+		if (Bean.DOCUMENT_ID.equals(by)) {
+			orderBy.append("t0.").append(by).append(descending ? " desc, " : ", ");
+			return true;
+		}
+		if (by.indexOf('.') >= 0) {
+			return false;
+		}
+		Attribute a = document.getPolymorphicAttribute(customer, by);
+		if (! (a instanceof Field)) {
+			return false;
+		}
+		Column column = DynamicFieldIndex.column(a);
+		if ((column == null) || (column == Column.textValue)) {
+			return false;
+		}
+		String alias = "s" + sortParameters.size();
+		String attributeName = nextParameterName();
+		sortParameters.put(attributeName, by);
+		sortJoins.append(" left join ").append(DynamicFieldIndex.TABLE_NAME).append(' ').append(alias);
+		sortJoins.append(" on ").append(alias).append(".parent_id = t0.bizId and ").append(alias).append(".attributeName = :").append(attributeName);
+		String expression = alias + '.' + column.name();
+		orderBy.append("case when ").append(expression).append(" is null then 0 else 1 end");
+		orderBy.append(descending ? " desc, " : ", ");
+		orderBy.append(expression).append(descending ? " desc, " : ", ");
+		return true;
 	}
 	
 	@Override
@@ -15,4 +15,13 @@ public interface BizQL extends BeanQuery, ProjectedQuery, ScalarQuery, TupleQuer
 	public int getTimeoutInSeconds();
 	public void setTimeoutInSeconds(int timeoutInSeconds);
 	public BizQL noTimeout();
+
+	/**
+	 * Cacheable queries keep their results in the hibernate query cache (when the query cache is enabled),
+	 * until a table they query is inserted into, updated or deleted from.
+	 * Bean results are only cached when their documents are cached.
+	 */
+	public boolean isCacheable();
+	public void setCacheable(boolean cacheable);
+	public BizQL cacheable();
 }
@@ -12,6 +12,10 @@ public class DataStore {
 	private int oltpConnectionTimeoutInSeconds = 0;
 	// Timeout for data store connections employed when running jobs and background tasks 
 	private int asyncConnectionTimeoutInSeconds = 0;
+	// The number of statements sent to the data store in each JDBC batch - 0 or 1 means no batching
+	private int batchSize = 16;
+	// Batch the updates and deletes of versioned data - false leaves it to the dialect as not all drivers return batched row counts
+	private boolean batchVersionedData = false;
 	
 	public DataStore(String jndiDataSourceName,
 						String dialectClassName) {
@@ -95,4 +99,20 @@ public class DataStore {
 	public int getAsyncConnectionTimeoutInSeconds() {
 		return asyncConnectionTimeoutInSeconds;
 	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public boolean isBatchVersionedData() {
+		return batchVersionedData;
+	}
+
+	public void setBatchVersionedData(boolean batchVersionedData) {
+		this.batchVersionedData = batchVersionedData;
+	}
 }
@@ -367,4 +367,14 @@ public interface DocumentQuery extends BeanQuery, ProjectedQuery, ScalarQuery, T
 	public int getTimeoutInSeconds();
 	public void setTimeoutInSeconds(int timeoutInSeconds);
 	public DocumentQuery noTimeout();
+
+	/**
+	 * Cacheable queries keep their results in the hibernate query cache (when the query cache is enabled),
+	 * until a table they query is inserted into, updated or deleted from.
+	 * Queries are not cacheable by default. Bean results are only cached when their documents are cached,
+	 * as a cached result holds the bean ids and the beans would otherwise be loaded one at a time.
+	 */
+	public boolean isCacheable();
+	public void setCacheable(boolean cacheable);
+	public DocumentQuery cacheable();
 }
@@ -2,6 +2,7 @@ package org.skyve.persistence;
 
 import java.io.Closeable;
 import java.io.Serializable;
+import java.util.Collection;
 
 import org.skyve.domain.Bean;
 import org.skyve.domain.DynamicPersistentBean;
@@ -47,6 +48,17 @@ public interface DynamicPersistence extends Serializable, Closeable {
 	 * @param bean
 	 */
 	void populate(PersistentBean bean);
+	
+	/**
+	 * Populate all of the given beans as per {@link #populate(PersistentBean)}.
+	 * This is called with the beans loaded by a single query so that implementations can fetch the dynamic data in batches.
+	 * @param beans
+	 */
+	default void populate(Collection<? extends PersistentBean> beans) {
+		for (PersistentBean bean : beans) {
+			populate(bean);
+		}
+	}
 		
 	// Persistence first level cache methods
 	public void evictAllCached();
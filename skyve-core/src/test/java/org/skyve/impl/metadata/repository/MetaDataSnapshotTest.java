@@ -0,0 +1,74 @@
+package org.skyve.impl.metadata.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetaDataSnapshotTest {
+	private static final String KEY = "modules/test/test.xml";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+	private MetaDataSnapshot snapshot;
+
+	@Before
+	public void before() throws Exception {
+		file = folder.newFile("test.xml");
+		write("<module name=\"test\"/>");
+		file.setLastModified(1_000_000_000_000L);
+		snapshot = MetaDataSnapshot.newInstance();
+		snapshot.put(KEY, file, "snapshotted");
+	}
+
+	@Test
+	public void testUnchangedFileUsesSnapshot() {
+		assertEquals("snapshotted", snapshot.get(KEY, file));
+	}
+
+	@Test
+	public void testUnknownKeyIsNotSnapshotted() {
+		assertNull(snapshot.get("modules/test/other.xml", file));
+	}
+
+	@Test
+	public void testUnchangedLengthAndTimestampDoesNotReadFile() throws Exception {
+		// same length and timestamp is trusted without reading the content
+		write("<module name=\"tset\"/>");
+		file.setLastModified(1_000_000_000_000L);
+		assertEquals("snapshotted", snapshot.get(KEY, file));
+	}
+
+	@Test
+	public void testTouchedFileWithSameContentUsesSnapshot() {
+		file.setLastModified(1_000_000_002_000L);
+		assertEquals("snapshotted", snapshot.get(KEY, file));
+	}
+
+	@Test
+	public void testTouchedFileWithChangedContentIsStale() throws Exception {
+		write("<module name=\"tset\"/>");
+		file.setLastModified(1_000_000_002_000L);
+		assertNull(snapshot.get(KEY, file));
+	}
+
+	@Test
+	public void testChangedLengthIsStale() throws Exception {
+		write("<module name=\"test2\"/>");
+		file.setLastModified(1_000_000_000_000L);
+		assertNull(snapshot.get(KEY, file));
+	}
+
+	private void write(String xml) throws Exception {
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+	}
+}
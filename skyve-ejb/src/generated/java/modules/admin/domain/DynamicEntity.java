@@ -18,6 +18,7 @@ import org.skyve.impl.domain.ChangeTrackingArrayList;
 			So this is manipulated outside of Hibernate O/R mapping.
  * 
  * @navcomposed 1 relations 0..n DynamicRelation
+ * @navcomposed 1 indexedFields 0..n DynamicField
  * @stereotype "persistent"
  */
 @XmlType
@@ -44,9 +45,15 @@ public abstract class DynamicEntity extends AbstractPersistentBean {
 	/** @hidden */
 	public static final String fieldsPropertyName = "fields";
 
+	/** @hidden */
+	public static final String fieldsIndexedPropertyName = "fieldsIndexed";
+
 	/** @hidden */
 	public static final String relationsPropertyName = "relations";
 
+	/** @hidden */
+	public static final String indexedFieldsPropertyName = "indexedFields";
+
 	/**
 	 * Module Name
 	 **/
@@ -62,11 +69,23 @@ public abstract class DynamicEntity extends AbstractPersistentBean {
 	 **/
 	private String fields;
 
+	/**
+	 * Fields Indexed
+	 * <br/>
+	 * Whether the fields have been copied to the indexed fields.
+	 **/
+	private Boolean fieldsIndexed;
+
 	/**
 	 * Relations
 	 **/
 	private List<DynamicRelation> relations = new ChangeTrackingArrayList<>("relations", this);
 
+	/**
+	 * Indexed Fields
+	 **/
+	private List<DynamicField> indexedFields = new ChangeTrackingArrayList<>("indexedFields", this);
+
 	@Override
 	@XmlTransient
 	public String getBizModule() {
@@ -162,6 +181,24 @@ public abstract class DynamicEntity extends AbstractPersistentBean {
 		this.fields = fields;
 	}
 
+	/**
+	 * {@link #fieldsIndexed} accessor.
+	 * @return	The value.
+	 **/
+	public Boolean getFieldsIndexed() {
+		return fieldsIndexed;
+	}
+
+	/**
+	 * {@link #fieldsIndexed} mutator.
+	 * @param fieldsIndexed	The new value.
+	 **/
+	@XmlElement
+	public void setFieldsIndexed(Boolean fieldsIndexed) {
+		preset(fieldsIndexedPropertyName, fieldsIndexed);
+		this.fieldsIndexed = fieldsIndexed;
+	}
+
 	/**
 	 * {@link #relations} accessor.
 	 * @return	The value.
@@ -232,4 +269,75 @@ public abstract class DynamicEntity extends AbstractPersistentBean {
 		result.setParent(null);
 		return result;
 	}
+
+	/**
+	 * {@link #indexedFields} accessor.
+	 * @return	The value.
+	 **/
+	@XmlElement
+	public List<DynamicField> getIndexedFields() {
+		return indexedFields;
+	}
+
+	/**
+	 * {@link #indexedFields} accessor.
+	 * @param bizId	The bizId of the element in the list.
+	 * @return	The value of the element in the list.
+	 **/
+	public DynamicField getIndexedFieldsElementById(String bizId) {
+		return getElementById(indexedFields, bizId);
+	}
+
+	/**
+	 * {@link #indexedFields} mutator.
+	 * @param bizId	The bizId of the element in the list.
+	 * @param element	The new value of the element in the list.
+	 **/
+	public void setIndexedFieldsElementById(String bizId, DynamicField element) {
+		setElementById(indexedFields, element);
+	}
+
+	/**
+	 * {@link #indexedFields} add.
+	 * @param element	The element to add.
+	 **/
+	public boolean addIndexedFieldsElement(DynamicField element) {
+		boolean result = indexedFields.add(element);
+		if (result) {
+			element.setParent(this);
+		}
+		return result;
+	}
+
+	/**
+	 * {@link #indexedFields} add.
+	 * @param index	The index in the list to add the element to.
+	 * @param element	The element to add.
+	 **/
+	public void addIndexedFieldsElement(int index, DynamicField element) {
+		indexedFields.add(index, element);
+		element.setParent(this);
+	}
+
+	/**
+	 * {@link #indexedFields} remove.
+	 * @param element	The element to remove.
+	 **/
+	public boolean removeIndexedFieldsElement(DynamicField element) {
+		boolean result = indexedFields.remove(element);
+		if (result) {
+			element.setParent(null);
+		}
+		return result;
+	}
+
+	/**
+	 * {@link #indexedFields} remove.
+	 * @param index	The index in the list to remove the element from.
+	 **/
+	public DynamicField removeIndexedFieldsElement(int index) {
+		DynamicField result = indexedFields.remove(index);
+		result.setParent(null);
+		return result;
+	}
 }
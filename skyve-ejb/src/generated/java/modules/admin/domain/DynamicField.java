@@ -0,0 +1,230 @@
+package modules.admin.domain;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchemaType;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.ChildBean;
+import org.skyve.domain.messages.DomainException;
+import org.skyve.domain.types.Decimal10;
+import org.skyve.domain.types.Timestamp;
+import org.skyve.impl.domain.AbstractPersistentBean;
+import org.skyve.impl.domain.types.jaxb.Decimal10Mapper;
+import org.skyve.impl.domain.types.jaxb.TimestampMapper;
+
+/**
+ * Dynamic Field
+ * <br/>
+ * Represents a typed copy of a scalar field value held in the "fields" JSON of a Dynamic Entity.
+			There is one row per non-null indexable field with the value held in the column for its type.
+			These rows allow lists of dynamic documents to be filtered and sorted in the data store.
+			They are only maintained when the dynamic field index is switched on in the configuration.
+			So this is manipulated outside of Hibernate O/R mapping.
+ * 
+ * @stereotype "persistent child"
+ */
+@XmlType
+@XmlRootElement
+public abstract class DynamicField extends AbstractPersistentBean implements ChildBean<DynamicEntity> {
+	/**
+	 * For Serialization
+	 * @hidden
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** @hidden */
+	public static final String MODULE_NAME = "admin";
+
+	/** @hidden */
+	public static final String DOCUMENT_NAME = "DynamicField";
+
+	/** @hidden */
+	public static final String attributeNamePropertyName = "attributeName";
+
+	/** @hidden */
+	public static final String textValuePropertyName = "textValue";
+
+	/** @hidden */
+	public static final String numericValuePropertyName = "numericValue";
+
+	/** @hidden */
+	public static final String dateValuePropertyName = "dateValue";
+
+	/**
+	 * Attribute Name
+	 * <br/>
+	 * The attribute name of this field.
+	 **/
+	private String attributeName;
+
+	/**
+	 * Text Value
+	 * <br/>
+	 * The value of a text, colour, enumeration, id or boolean field.
+	 **/
+	private String textValue;
+
+	/**
+	 * Numeric Value
+	 * <br/>
+	 * The value of an integer, long integer or decimal field.
+	 **/
+	private Decimal10 numericValue;
+
+	/**
+	 * Date Value
+	 * <br/>
+	 * The value of a date, date time, time or timestamp field.
+	 **/
+	private Timestamp dateValue;
+
+	private DynamicEntity parent;
+
+	private Integer bizOrdinal;
+
+	@Override
+	@XmlTransient
+	public String getBizModule() {
+		return DynamicField.MODULE_NAME;
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizDocument() {
+		return DynamicField.DOCUMENT_NAME;
+	}
+
+	public static DynamicField newInstance() {
+		try {
+			return CORE.getUser().getCustomer().getModule(MODULE_NAME).getDocument(CORE.getUser().getCustomer(), DOCUMENT_NAME).newInstance(CORE.getUser());
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizKey() {
+		try {
+			return org.skyve.util.Binder.formatMessage("{parent.bizModule}.{parent.bizDocument}.{attributeName}#{parent.bizId}", this);
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			return "Unknown";
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return ((o instanceof DynamicField) && 
+					this.getBizId().equals(((DynamicField) o).getBizId()));
+	}
+
+	/**
+	 * {@link #attributeName} accessor.
+	 * @return	The value.
+	 **/
+	public String getAttributeName() {
+		return attributeName;
+	}
+
+	/**
+	 * {@link #attributeName} mutator.
+	 * @param attributeName	The new value.
+	 **/
+	@XmlElement
+	public void setAttributeName(String attributeName) {
+		preset(attributeNamePropertyName, attributeName);
+		this.attributeName = attributeName;
+	}
+
+	/**
+	 * {@link #textValue} accessor.
+	 * @return	The value.
+	 **/
+	public String getTextValue() {
+		return textValue;
+	}
+
+	/**
+	 * {@link #textValue} mutator.
+	 * @param textValue	The new value.
+	 **/
+	@XmlElement
+	public void setTextValue(String textValue) {
+		preset(textValuePropertyName, textValue);
+		this.textValue = textValue;
+	}
+
+	/**
+	 * {@link #numericValue} accessor.
+	 * @return	The value.
+	 **/
+	public Decimal10 getNumericValue() {
+		return numericValue;
+	}
+
+	/**
+	 * {@link #numericValue} mutator.
+	 * @param numericValue	The new value.
+	 **/
+	@XmlElement
+	@XmlJavaTypeAdapter(Decimal10Mapper.class)
+	public void setNumericValue(Decimal10 numericValue) {
+		preset(numericValuePropertyName, numericValue);
+		this.numericValue = numericValue;
+	}
+
+	/**
+	 * {@link #dateValue} accessor.
+	 * @return	The value.
+	 **/
+	public Timestamp getDateValue() {
+		return dateValue;
+	}
+
+	/**
+	 * {@link #dateValue} mutator.
+	 * @param dateValue	The new value.
+	 **/
+	@XmlElement
+	@XmlSchemaType(name = "dateTime")
+	@XmlJavaTypeAdapter(TimestampMapper.class)
+	public void setDateValue(Timestamp dateValue) {
+		preset(dateValuePropertyName, dateValue);
+		this.dateValue = dateValue;
+	}
+
+	@Override
+	public DynamicEntity getParent() {
+		return parent;
+	}
+
+	@Override
+	@XmlElement
+	public void setParent(DynamicEntity parent) {
+		if (this.parent != parent) {
+			preset(ChildBean.PARENT_NAME, parent);
+			this.parent = parent;
+		}
+	}
+
+	@Override
+	public Integer getBizOrdinal() {
+		return bizOrdinal;
+	}
+
+	@Override
+	@XmlElement
+	public void setBizOrdinal(Integer bizOrdinal) {
+		preset(Bean.ORDINAL_NAME, bizOrdinal);
+		this.bizOrdinal =  bizOrdinal;
+	}
+}
@@ -0,0 +1,183 @@
+package modules.admin.domain;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import org.skyve.CORE;
+import org.skyve.domain.messages.DomainException;
+import org.skyve.impl.domain.AbstractPersistentBean;
+
+/**
+ * Index Outbox
+ * 
+ * @stereotype "persistent"
+ */
+@XmlType
+@XmlRootElement
+public class IndexOutbox extends AbstractPersistentBean {
+	/**
+	 * For Serialization
+	 * @hidden
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** @hidden */
+	public static final String MODULE_NAME = "admin";
+
+	/** @hidden */
+	public static final String DOCUMENT_NAME = "IndexOutbox";
+
+	/** @hidden */
+	public static final String outboxModulePropertyName = "outboxModule";
+
+	/** @hidden */
+	public static final String outboxDocumentPropertyName = "outboxDocument";
+
+	/** @hidden */
+	public static final String outboxBizIdPropertyName = "outboxBizId";
+
+	/** @hidden */
+	public static final String outboxFailuresPropertyName = "outboxFailures";
+
+	/**
+	 * Outbox Module
+	 * <br/>
+	 * The module of the bean to (re)index
+	 **/
+	private String outboxModule;
+
+	/**
+	 * Outbox Document
+	 * <br/>
+	 * The document of the bean to (re)index
+	 **/
+	private String outboxDocument;
+
+	/**
+	 * Outbox BizId
+	 * <br/>
+	 * The bizId of the bean to (re)index
+	 **/
+	private String outboxBizId;
+
+	/**
+	 * Outbox Failures
+	 * <br/>
+	 * The number of times indexing the bean has failed
+	 **/
+	private Integer outboxFailures;
+
+	@Override
+	@XmlTransient
+	public String getBizModule() {
+		return IndexOutbox.MODULE_NAME;
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizDocument() {
+		return IndexOutbox.DOCUMENT_NAME;
+	}
+
+	public static IndexOutbox newInstance() {
+		try {
+			return CORE.getUser().getCustomer().getModule(MODULE_NAME).getDocument(CORE.getUser().getCustomer(), DOCUMENT_NAME).newInstance(CORE.getUser());
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizKey() {
+		try {
+			return org.skyve.util.Binder.formatMessage("{outboxModule}.{outboxDocument}#{outboxBizId}", this);
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			return "Unknown";
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return ((o instanceof IndexOutbox) && 
+					this.getBizId().equals(((IndexOutbox) o).getBizId()));
+	}
+
+	/**
+	 * {@link #outboxModule} accessor.
+	 * @return	The value.
+	 **/
+	public String getOutboxModule() {
+		return outboxModule;
+	}
+
+	/**
+	 * {@link #outboxModule} mutator.
+	 * @param outboxModule	The new value.
+	 **/
+	@XmlElement
+	public void setOutboxModule(String outboxModule) {
+		preset(outboxModulePropertyName, outboxModule);
+		this.outboxModule = outboxModule;
+	}
+
+	/**
+	 * {@link #outboxDocument} accessor.
+	 * @return	The value.
+	 **/
+	public String getOutboxDocument() {
+		return outboxDocument;
+	}
+
+	/**
+	 * {@link #outboxDocument} mutator.
+	 * @param outboxDocument	The new value.
+	 **/
+	@XmlElement
+	public void setOutboxDocument(String outboxDocument) {
+		preset(outboxDocumentPropertyName, outboxDocument);
+		this.outboxDocument = outboxDocument;
+	}
+
+	/**
+	 * {@link #outboxBizId} accessor.
+	 * @return	The value.
+	 **/
+	public String getOutboxBizId() {
+		return outboxBizId;
+	}
+
+	/**
+	 * {@link #outboxBizId} mutator.
+	 * @param outboxBizId	The new value.
+	 **/
+	@XmlElement
+	public void setOutboxBizId(String outboxBizId) {
+		preset(outboxBizIdPropertyName, outboxBizId);
+		this.outboxBizId = outboxBizId;
+	}
+
+	/**
+	 * {@link #outboxFailures} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getOutboxFailures() {
+		return outboxFailures;
+	}
+
+	/**
+	 * {@link #outboxFailures} mutator.
+	 * @param outboxFailures	The new value.
+	 **/
+	@XmlElement
+	public void setOutboxFailures(Integer outboxFailures) {
+		preset(outboxFailuresPropertyName, outboxFailures);
+		this.outboxFailures = outboxFailures;
+	}
+}
@@ -59,6 +59,9 @@ public class Job extends AbstractPersistentBean {
 	/** @hidden */
 	public static final String beanDocumentNamePropertyName = "beanDocumentName";
 
+	/** @hidden */
+	public static final String partitionCheckpointPropertyName = "partitionCheckpoint";
+
 	/** @hidden */
 	public static final String instanceIdPropertyName = "instanceId";
 
@@ -111,6 +114,13 @@ public class Job extends AbstractPersistentBean {
 	 **/
 	private String beanDocumentName;
 
+	/**
+	 * Partition Checkpoint
+	 * <br/>
+	 * The partitions completed by a partitioned job, used to resume the job if it is run again after failing.
+	 **/
+	private String partitionCheckpoint;
+
 	/**
 	 * Instance ID
 	 **/
@@ -323,6 +333,24 @@ public class Job extends AbstractPersistentBean {
 		this.beanDocumentName = beanDocumentName;
 	}
 
+	/**
+	 * {@link #partitionCheckpoint} accessor.
+	 * @return	The value.
+	 **/
+	public String getPartitionCheckpoint() {
+		return partitionCheckpoint;
+	}
+
+	/**
+	 * {@link #partitionCheckpoint} mutator.
+	 * @param partitionCheckpoint	The new value.
+	 **/
+	@XmlElement
+	public void setPartitionCheckpoint(String partitionCheckpoint) {
+		preset(partitionCheckpointPropertyName, partitionCheckpoint);
+		this.partitionCheckpoint = partitionCheckpoint;
+	}
+
 	/**
 	 * {@link #instanceId} accessor.
 	 * @return	The value.
@@ -0,0 +1,8 @@
+package modules.admin.DynamicField;
+
+import org.skyve.util.test.SkyveFactory;
+
+@SkyveFactory(testDomain = false, testAction = false)
+public class DynamicFieldFactory {
+	// Switch off test generation as this document is abstract
+}
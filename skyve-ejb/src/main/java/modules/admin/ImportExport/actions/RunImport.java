@@ -54,6 +54,7 @@ public class RunImport implements ServerSideAction<ImportExport> {
 
 				POISheetLoader loader = new POISheetLoader(poiStream, 0, bean.getModuleName(), bean.getDocumentName(), exception);
 				loader.setDebugMode(Boolean.TRUE.equals(bean.getDetailedLogging()));
+				loader.setBatchLookups(true);
 				if (LoadType.createAll.equals(bean.getLoadType())) {
 					loader.setActivityType(LoaderActivityType.CREATE_ALL);
 				} else {
@@ -145,6 +146,9 @@ public class RunImport implements ServerSideAction<ImportExport> {
 					}
 				}
 
+				// find the referenced beans for all rows up front
+				loader.prepareLookups();
+
 				// save uploaded rows
 				while (loader.hasNextData()) {
 					loader.nextData();
@@ -972,6 +972,7 @@ public class ModulesUtil {
 		final Persistence persistence = CORE.getPersistence();
 		final Customer customer = persistence.getUser().getCustomer();
 		StandardLoader loader = new StandardLoader(workbook, problems);
+		loader.setBatchLookups(true);
 		List<Bean> bs = loader.populate(persistence);
 
 		for (String key : loader.getBeanKeys()) {
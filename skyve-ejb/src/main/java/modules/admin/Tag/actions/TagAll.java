@@ -1,10 +1,7 @@
 package modules.admin.Tag.actions;
 
-import java.util.List;
-
 import org.skyve.CORE;
 import org.skyve.EXT;
-import org.skyve.domain.Bean;
 import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
 import org.skyve.persistence.DocumentQuery;
@@ -24,9 +21,7 @@ public class TagAll implements ServerSideAction<TagExtension> {
 		Persistence pers = CORE.getPersistence();
 		
 		DocumentQuery q = pers.newDocumentQuery(bean.getUploadModuleName(), bean.getUploadDocumentName());
-		
-		List<Bean> beans = q.projectedResults();
-		EXT.getTagManager().tag(bean.getBizId(), beans);
+		EXT.getTagManager().tag(bean.getBizId(), q);
 		
 		bean.setUploadTagged(Long.valueOf(bean.countDocument(bean.getUploadModuleName(), bean.getUploadDocumentName())));
 		bean.setTotalTagged(Long.valueOf(bean.count()));
@@ -0,0 +1,171 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.skyve.domain.messages.UploadException;
+import org.skyve.domain.messages.UploadException.Problem;
+import org.skyve.impl.bizport.AbstractDataFileLoader.LoaderActivityType;
+import org.skyve.impl.bizport.DataFileField.LoadAction;
+import org.skyve.impl.bizport.POISheetLoader;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+/**
+ * Batched lookups must bind the same references as the per-row lookups.
+ */
+public class BizPortLookupTests extends AbstractSkyveTest {
+	private static final String LOOKUP_BINDING = AllAttributesPersistent.aggregatedAssociationPropertyName + '.' + AllAttributesPersistent.textPropertyName;
+
+	@Test
+	public void testExactMatch() throws Exception {
+		AllAttributesPersistent exact = save("Exact");
+		byte[] data = sheet("Exact", "Exact");
+
+		for (boolean batch : new boolean[] {false, true}) {
+			List<AllAttributesPersistent> results = load(data, batch, new UploadException());
+			assertEquals(2, results.size());
+			for (AllAttributesPersistent result : results) {
+				assertEquals(exact.getBizId(), result.getAggregatedAssociation().getBizId());
+			}
+		}
+	}
+
+	@Test
+	public void testNoMatchIsCreatedOnce() throws Exception {
+		save("Exact");
+		byte[] data = sheet("Missing", "Exact", "Missing");
+
+		for (boolean batch : new boolean[] {false, true}) {
+			List<AllAttributesPersistent> results = load(data, batch, new UploadException());
+			assertEquals(3, results.size());
+			AllAttributesPersistent created = results.get(0).getAggregatedAssociation();
+			assertNotNull(created);
+			assertFalse(created.isPersisted());
+			assertEquals("Missing", created.getText());
+			assertSame(created, results.get(2).getAggregatedAssociation());
+		}
+	}
+
+	@Test
+	public void testMultipleMatches() throws Exception {
+		String one = save("Duplicate").getBizId();
+		String two = save("Duplicate").getBizId();
+		byte[] data = sheet("Duplicate", "Duplicate");
+
+		// the first result of the data store query is bound either way
+		String[] bound = new String[2];
+		for (int i = 0; i < 2; i++) {
+			UploadException problems = new UploadException();
+			List<AllAttributesPersistent> results = load(data, (i == 1), problems);
+			assertFalse(problems.hasErrors());
+			assertEquals(2, results.size());
+			bound[i] = results.get(0).getAggregatedAssociation().getBizId();
+			assertTrue(bound[i].equals(one) || bound[i].equals(two));
+			assertEquals(bound[i], results.get(1).getAggregatedAssociation().getBizId());
+		}
+		assertEquals(bound[0], bound[1]);
+	}
+
+	@Test
+	public void testCaseOnlyDifferences() throws Exception {
+		save("Case");
+		save("case ");
+		byte[] data = sheet("CASE", "Case", "case", "case ");
+
+		assertEquals(describe(data, false), describe(data, true));
+	}
+
+	@Test
+	public void testBatchMatchesPerRowLookups() throws Exception {
+		save("Exact");
+		save("Duplicate");
+		save("Duplicate");
+		save("Case");
+		byte[] data = sheet("Exact", "Missing", "Duplicate", "CASE", "Missing", "Case", "Exact");
+
+		assertEquals(describe(data, false), describe(data, true));
+	}
+
+	private AllAttributesPersistent save(String text) throws Exception {
+		AllAttributesPersistent bean = Util.constructRandomInstance(u, m, aapd, 1);
+		bean.setText(text);
+		return p.save(bean);
+	}
+
+	/**
+	 * A sheet of rows with a row number in the first column and the lookup value in the second.
+	 */
+	private static byte[] sheet(String... lookupValues) throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet();
+			for (int i = 0, l = lookupValues.length; i < l; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("Row " + i);
+				row.createCell(1).setCellValue(lookupValues[i]);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	private List<AllAttributesPersistent> load(byte[] data, boolean batch, UploadException problems) throws Exception {
+		POISheetLoader loader = new POISheetLoader(LoaderActivityType.CREATE_FIND,
+													new ByteArrayInputStream(data),
+													0,
+													problems,
+													AllAttributesPersistent.MODULE_NAME,
+													AllAttributesPersistent.DOCUMENT_NAME);
+		loader.setBatchLookups(batch);
+		loader.addField(AllAttributesPersistent.textPropertyName, LoadAction.SET_VALUE, false, null);
+		loader.addField(LOOKUP_BINDING, LoadAction.LOOKUP_EQUALS, false, null);
+		return loader.beanResults();
+	}
+
+	/**
+	 * Describe the reference bound for each row and the problems found.
+	 */
+	private List<String> describe(byte[] data, boolean batch) throws Exception {
+		UploadException problems = new UploadException();
+		List<String> result = new ArrayList<>();
+		List<AllAttributesPersistent> created = new ArrayList<>();
+		for (AllAttributesPersistent bean : load(data, batch, problems)) {
+			AllAttributesPersistent reference = bean.getAggregatedAssociation();
+			if (reference == null) {
+				result.add(bean.getText() + " -> null");
+			}
+			else if (reference.isPersisted()) {
+				result.add(bean.getText() + " -> " + reference.getBizId());
+			}
+			else {
+				// identify created references by the order they were created in
+				int index = 0;
+				while ((index < created.size()) && (created.get(index) != reference)) {
+					index++;
+				}
+				if (index == created.size()) {
+					created.add(reference);
+				}
+				result.add(bean.getText() + " -> new " + index + ' ' + reference.getText());
+			}
+		}
+		for (Problem problem : problems.getErrors()) {
+			result.add(problem.getWhere() + ": " + problem.getWhat());
+		}
+		return result;
+	}
+}
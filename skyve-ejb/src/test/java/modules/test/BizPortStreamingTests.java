@@ -0,0 +1,102 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.skyve.EXT;
+import org.skyve.bizport.BizPortColumn;
+import org.skyve.bizport.BizPortSheet;
+import org.skyve.bizport.BizPortWorkbook;
+import org.skyve.bizport.SheetKey;
+import org.skyve.domain.Bean;
+import org.skyve.domain.messages.UploadException;
+import org.skyve.metadata.model.Attribute.AttributeType;
+
+import modules.test.domain.AllAttributesPersistent;
+
+public class BizPortStreamingTests extends AbstractSkyveTest {
+	private static final int ROWS = 300;
+	private static final SheetKey KEY = new SheetKey(AllAttributesPersistent.MODULE_NAME, AllAttributesPersistent.DOCUMENT_NAME);
+
+	@Test
+	public void testStreamingWorkbookWithLargeDomains() throws Exception {
+		BizPortWorkbook workbook = EXT.newBizPortWorkbook(true, true);
+		BizPortSheet sheet = EXT.newBizPortSheet("All Attributes");
+		sheet.addColumn(Bean.DOCUMENT_ID, new BizPortColumn("ID", null, AttributeType.text));
+		BizPortColumn column = new BizPortColumn("Text", null, AttributeType.text);
+		column.setRangeValues(domain("Text", 150));
+		sheet.addColumn(AllAttributesPersistent.textPropertyName, column);
+		column = new BizPortColumn("Memo", null, AttributeType.memo);
+		column.setRangeValues(domain("Memo", 120));
+		sheet.addColumn(AllAttributesPersistent.memoPropertyName, column);
+		workbook.addSheet(KEY, sheet);
+		workbook.materialise();
+
+		for (int i = 0; i < ROWS; i++) {
+			String id = Integer.toString(i);
+			sheet.addRow(id);
+			sheet.setValue(Bean.DOCUMENT_ID, id);
+			sheet.setValue(AllAttributesPersistent.textPropertyName, "Text " + (i % 150));
+			sheet.setValue(AllAttributesPersistent.memoPropertyName, "Memo " + (i % 120));
+		}
+		assertTrue(sheet.moveToRow("0"));
+		assertFalse(sheet.moveToRow(Integer.toString(ROWS)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		workbook.write(out);
+
+		try (XSSFWorkbook result = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+			assertEquals(2, result.getNumberOfSheets());
+			assertFalse(result.isSheetHidden(0));
+			assertTrue(result.isSheetHidden(1));
+
+			// the data rows are intact and in order
+			Sheet data = result.getSheetAt(0);
+			assertEquals(ROWS + 2, data.getLastRowNum());
+			for (int i = 0; i < ROWS; i++) {
+				Row row = data.getRow(i + 3);
+				assertEquals(Integer.toString(i), row.getCell(0).getStringCellValue());
+				assertEquals("Text " + (i % 150), row.getCell(1).getStringCellValue());
+				assertEquals("Memo " + (i % 120), row.getCell(2).getStringCellValue());
+				assertEquals(3, row.getLastCellNum());
+			}
+			assertEquals(2, data.getDataValidations().size());
+
+			// the domains are in the hidden sheet
+			Sheet domains = result.getSheetAt(1);
+			assertEquals(149, domains.getLastRowNum());
+			assertEquals("Text 149", domains.getRow(149).getCell(0).getStringCellValue());
+			assertEquals("Memo 119", domains.getRow(119).getCell(1).getStringCellValue());
+			Name name = result.getName("domain0");
+			assertEquals("Domains!$A$1:$A$150", name.getRefersToFormula());
+			name = result.getName("domain1");
+			assertEquals("Domains!$B$1:$B$120", name.getRefersToFormula());
+
+			// the hidden sheet is not loaded
+			UploadException problems = new UploadException();
+			BizPortWorkbook loaded = EXT.newBizPortWorkbook(c, result, problems);
+			assertFalse(problems.hasErrors());
+			assertEquals(1, loaded.getSheetKeys().size());
+			BizPortSheet loadedSheet = loaded.getSheet(KEY);
+			assertTrue(loadedSheet.moveToRow(Integer.toString(ROWS - 1)));
+			assertEquals("Text " + ((ROWS - 1) % 150), loadedSheet.getValue(AllAttributesPersistent.textPropertyName, AttributeType.text, problems));
+		}
+	}
+
+	private static String[] domain(String prefix, int size) {
+		String[] result = new String[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = prefix + " " + i;
+		}
+		return result;
+	}
+}
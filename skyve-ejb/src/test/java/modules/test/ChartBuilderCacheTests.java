@@ -0,0 +1,160 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.impl.metadata.view.model.chart.ChartDataCache;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.view.model.chart.ChartBuilder;
+import org.skyve.metadata.view.model.chart.ChartData;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+public class ChartBuilderCacheTests extends AbstractSkyveTest {
+	private int cacheSize;
+	private int cacheSeconds;
+
+	@Before
+	public void cache() throws Exception {
+		cacheSize = UtilImpl.CHART_CACHE_SIZE;
+		cacheSeconds = UtilImpl.CHART_CACHE_SECONDS;
+		UtilImpl.CHART_CACHE_SIZE = 256;
+		UtilImpl.CHART_CACHE_SECONDS = 0;
+		ChartDataCache.clear();
+		save("A", 1);
+		save("B", 2);
+		commit();
+	}
+
+	@After
+	public void restore() {
+		UtilImpl.CHART_CACHE_SIZE = cacheSize;
+		UtilImpl.CHART_CACHE_SECONDS = cacheSeconds;
+		ChartDataCache.clear();
+	}
+
+	@Test
+	public void testCachingCanBeSwitchedOff() throws Exception {
+		UtilImpl.CHART_CACHE_SIZE = 0;
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		save("C", 3);
+		assertEquals(Arrays.asList("A", "B", "C"), chart().getLabels());
+	}
+
+	@Test
+	public void testHitUntilCommitted() throws Exception {
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		save("C", 3);
+
+		// an uncommitted save does not invalidate the cache
+		ChartData data = chart();
+		assertEquals(Arrays.asList("A", "B"), data.getLabels());
+		assertEquals(2, data.getValues().size());
+		assertEquals(1, data.getValues().get(0).intValue());
+
+		// unless the chart opts out
+		assertEquals(Arrays.asList("A", "B", "C"), builder().noCache().build("Test").getLabels());
+	}
+
+	@Test
+	public void testSaveInvalidates() throws Exception {
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		save("C", 3);
+		commit();
+		assertEquals(Arrays.asList("A", "B", "C"), chart().getLabels());
+
+		// and an update
+		AllAttributesPersistent b = find("B");
+		b.setNormalInteger(Integer.valueOf(5));
+		p.save(b);
+		commit();
+		List<Integer> values = values(chart());
+		assertTrue(values.contains(Integer.valueOf(5)));
+		assertFalse(values.contains(Integer.valueOf(2)));
+	}
+
+	@Test
+	public void testDeleteInvalidates() throws Exception {
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		AllAttributesPersistent a = find("A");
+		p.delete(a);
+		commit();
+		assertEquals(Arrays.asList("B"), chart().getLabels());
+	}
+
+	@Test
+	public void testClearInvalidates() throws Exception {
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		save("C", 3);
+		ChartDataCache.clear();
+		assertEquals(Arrays.asList("A", "B", "C"), chart().getLabels());
+	}
+
+	@Test
+	public void testExpiry() throws Exception {
+		UtilImpl.CHART_CACHE_SECONDS = 1;
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+		save("C", 3);
+		assertEquals(Arrays.asList("A", "B"), chart().getLabels());
+
+		Thread.sleep(1100L);
+		assertEquals(Arrays.asList("A", "B", "C"), chart().getLabels());
+	}
+
+	@Test
+	public void testBeansAreNotCached() throws Exception {
+		assertEquals(Boolean.FALSE, Boolean.valueOf(ChartDataCache.put("key", new Object[][] {{AllAttributesPersistent.newInstance(), Integer.valueOf(1)}})));
+		assertEquals(null, ChartDataCache.get("key"));
+
+		Object[][] rows = new Object[][] {{"A", Integer.valueOf(1)}};
+		assertEquals(Boolean.TRUE, Boolean.valueOf(ChartDataCache.put("key", rows)));
+		assertEquals(rows, ChartDataCache.get("key"));
+	}
+
+	private ChartData chart() {
+		return builder().build("Test");
+	}
+
+	private ChartBuilder builder() {
+		return new ChartBuilder().with(aapd)
+									.category(AllAttributesPersistent.textPropertyName)
+									.value(AllAttributesPersistent.normalIntegerPropertyName, AggregateFunction.Sum);
+	}
+
+	private static List<Integer> values(ChartData data) {
+		List<Integer> result = new ArrayList<>();
+		for (Number value : data.getValues()) {
+			result.add(Integer.valueOf(value.intValue()));
+		}
+		return result;
+	}
+
+	private AllAttributesPersistent find(String text) {
+		DocumentQuery q = p.newDocumentQuery(aapd);
+		q.getFilter().addEquals(AllAttributesPersistent.textPropertyName, text);
+		return q.beanResult();
+	}
+
+	private void commit() {
+		p.commit(false);
+		p.begin();
+	}
+
+	private void save(String text, int normalInteger) throws Exception {
+		AllAttributesPersistent bean = Util.constructRandomInstance(u, m, aapd, 1);
+		bean.setText(text);
+		bean.setNormalInteger(Integer.valueOf(normalInteger));
+		p.save(bean);
+	}
+}
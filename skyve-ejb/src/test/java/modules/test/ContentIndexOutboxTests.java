@@ -0,0 +1,190 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.content.BeanContent;
+import org.skyve.impl.content.AbstractContentManager;
+import org.skyve.impl.content.NoOpContentManager;
+import org.skyve.impl.persistence.hibernate.ContentIndexOutbox;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+public class ContentIndexOutboxTests extends AbstractSkyveTest {
+	// The bizIds put to and removed from the content manager
+	private static final Set<String> PUT = ConcurrentHashMap.newKeySet();
+	private static final Set<String> REMOVED = ConcurrentHashMap.newKeySet();
+	// The number of puts to fail
+	private static final AtomicInteger FAILURES = new AtomicInteger();
+
+	/**
+	 * Records the beans indexed.
+	 */
+	public static class RecordingContentManager extends NoOpContentManager {
+		@Override
+		public void put(BeanContent content) throws Exception {
+			if (FAILURES.getAndUpdate(f -> Math.max(0, f - 1)) > 0) {
+				throw new IllegalStateException("Failed to put " + content.getBizId());
+			}
+			PUT.add(content.getBizId());
+		}
+
+		@Override
+		public void removeBean(String bizId) throws Exception {
+			REMOVED.add(bizId);
+		}
+	}
+
+	private Class<? extends AbstractContentManager> contentManagerClass;
+	private int indexThreads;
+	private int indexBatchSize;
+
+	@Before
+	public void indexAfterCommit() {
+		contentManagerClass = AbstractContentManager.IMPLEMENTATION_CLASS;
+		indexThreads = UtilImpl.CONTENT_INDEX_THREADS;
+		indexBatchSize = UtilImpl.CONTENT_INDEX_BATCH_SIZE;
+		AbstractContentManager.IMPLEMENTATION_CLASS = RecordingContentManager.class;
+		UtilImpl.CONTENT_INDEX_THREADS = 1;
+		UtilImpl.CONTENT_INDEX_BATCH_SIZE = 2;
+		PUT.clear();
+		REMOVED.clear();
+		FAILURES.set(0);
+		ContentIndexOutbox.startup();
+	}
+
+	@After
+	public void restore() {
+		ContentIndexOutbox.shutdown();
+		AbstractContentManager.IMPLEMENTATION_CLASS = contentManagerClass;
+		UtilImpl.CONTENT_INDEX_THREADS = indexThreads;
+		UtilImpl.CONTENT_INDEX_BATCH_SIZE = indexBatchSize;
+	}
+
+	@Test
+	public void testIndexedAfterCommit() throws Exception {
+		AllAttributesPersistent one = save();
+		AllAttributesPersistent two = save();
+		AllAttributesPersistent three = save();
+		// not indexed during the flush
+		assertTrue(PUT.isEmpty());
+
+		commit();
+		waitFor(() -> PUT.size() == 3);
+		assertTrue(PUT.contains(one.getBizId()));
+		assertTrue(PUT.contains(two.getBizId()));
+		assertTrue(PUT.contains(three.getBizId()));
+		waitFor(() -> outboxRows() == 0);
+	}
+
+	@Test
+	public void testRollbackIsNotIndexed() throws Exception {
+		AllAttributesPersistent rolledBack = save();
+		p.rollback();
+		p.begin();
+		assertEquals(0, outboxRows());
+
+		AllAttributesPersistent committed = save();
+		commit();
+		waitFor(() -> PUT.contains(committed.getBizId()));
+		assertFalse(PUT.contains(rolledBack.getBizId()));
+		waitFor(() -> outboxRows() == 0);
+	}
+
+	@Test
+	public void testDeleteIsRemovedFromTheIndex() throws Exception {
+		AllAttributesPersistent bean = save();
+		commit();
+		waitFor(() -> PUT.contains(bean.getBizId()));
+
+		p.delete(bean);
+		commit();
+		waitFor(() -> REMOVED.contains(bean.getBizId()));
+		waitFor(() -> outboxRows() == 0);
+	}
+
+	@Test
+	public void testFailedBatchIsRetried() throws Exception {
+		FAILURES.set(2);
+		AllAttributesPersistent bean = save();
+		commit();
+		waitFor(() -> PUT.contains(bean.getBizId()));
+		assertEquals(0, FAILURES.get());
+		waitFor(() -> outboxRows() == 0);
+	}
+
+	@Test
+	public void testFailuresAreCounted() throws Exception {
+		FAILURES.set(Integer.MAX_VALUE);
+		AllAttributesPersistent bean = save();
+		commit();
+		waitFor(() -> outboxFailures() > 0);
+		assertFalse(PUT.contains(bean.getBizId()));
+	}
+
+	@Test
+	public void testBeanIsNotRetriedAfterMaxFailures() throws Exception {
+		FAILURES.set(Integer.MAX_VALUE);
+		AllAttributesPersistent bean = save();
+		commit();
+		waitFor(() -> outboxFailures() > 0);
+
+		// fail the last attempt when the outbox is recovered
+		ContentIndexOutbox.shutdown();
+		p.newSQL("update ADM_IndexOutbox set outboxFailures = :failures")
+			.putParameter("failures", Integer.valueOf(ContentIndexOutbox.MAX_FAILURES - 1))
+			.execute();
+		commit();
+		ContentIndexOutbox.startup();
+		waitFor(() -> outboxFailures() == ContentIndexOutbox.MAX_FAILURES);
+
+		// not retried, even after a restart, and left in the outbox
+		FAILURES.set(0);
+		ContentIndexOutbox.shutdown();
+		ContentIndexOutbox.startup();
+		Thread.sleep(1500L);
+		assertFalse(PUT.contains(bean.getBizId()));
+		assertEquals(1, outboxRows());
+	}
+
+	private AllAttributesPersistent save() throws Exception {
+		AllAttributesPersistent result = Util.constructRandomInstance(u, m, aapd, 1);
+		result.setMemo("Memo");
+		return p.save(result);
+	}
+
+	private void commit() {
+		p.commit(false);
+		p.begin();
+	}
+
+	private long outboxRows() {
+		return p.newSQL("select count(1) from ADM_IndexOutbox").scalarResult(Number.class).longValue();
+	}
+
+	private int outboxFailures() {
+		return p.newSQL("select max(outboxFailures) from ADM_IndexOutbox").scalarResult(Number.class).intValue();
+	}
+
+	/**
+	 * Wait up to 10 seconds for the index threads.
+	 */
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 10000L;
+		while ((! condition.getAsBoolean()) && (System.currentTimeMillis() < timeout)) {
+			Thread.sleep(50L);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+}
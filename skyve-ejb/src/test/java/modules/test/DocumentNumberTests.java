@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.skyve.impl.domain.number.DocumentNumberAutonomousTransactionGenerator;
+import org.skyve.impl.domain.number.DocumentNumberBlockGenerator;
 import org.skyve.impl.domain.number.DocumentNumberGenerator;
 
 import modules.admin.domain.DocumentNumber;
@@ -120,4 +121,51 @@ public class DocumentNumberTests extends AbstractSkyveTestDispose {
 		dN = p.retrieve(DocumentNumber.MODULE_NAME, DocumentNumber.DOCUMENT_NAME, dN.getBizId());
 		Assert.assertEquals("4", dN.getDocumentNumber());
 	}
+
+	@Test
+	public void testBlockGetNumberReservesABlock() throws Exception {
+		DocumentNumberBlockGenerator blockGenerator = new DocumentNumberBlockGenerator();
+		for (int i = 2; i < 2 + DocumentNumberBlockGenerator.MINIMUM_BLOCK_SIZE; i++) {
+			String number = blockGenerator.next(null, AllAttributesPersistent.MODULE_NAME, AllAttributesPersistent.DOCUMENT_NAME,
+					AllAttributesPersistent.textPropertyName, 1);
+			Assert.assertEquals(String.valueOf(i), number);
+		}
+		p.evictAllCached();
+		dN = p.retrieve(DocumentNumber.MODULE_NAME, DocumentNumber.DOCUMENT_NAME, dN.getBizId());
+		Assert.assertEquals(String.valueOf(1 + DocumentNumberBlockGenerator.MINIMUM_BLOCK_SIZE), dN.getDocumentNumber());
+
+		// the next block is reserved once the first is used up
+		String number = blockGenerator.next(null, AllAttributesPersistent.MODULE_NAME, AllAttributesPersistent.DOCUMENT_NAME,
+				AllAttributesPersistent.textPropertyName, 1);
+		Assert.assertEquals(String.valueOf(2 + DocumentNumberBlockGenerator.MINIMUM_BLOCK_SIZE), number);
+		p.evictAllCached();
+		dN = p.retrieve(DocumentNumber.MODULE_NAME, DocumentNumber.DOCUMENT_NAME, dN.getBizId());
+		Assert.assertTrue(Integer.parseInt(dN.getDocumentNumber()) > 1 + DocumentNumberBlockGenerator.MINIMUM_BLOCK_SIZE);
+	}
+
+	@Test
+	public void testBlockGetNumberGapFreeReturnsNextNumber() throws Exception {
+		DocumentNumberBlockGenerator blockGenerator = new DocumentNumberBlockGenerator() {
+			@Override
+			protected boolean isGapFree(String moduleName, String documentName, String fieldName) {
+				return true;
+			}
+		};
+		String number = blockGenerator.next(null, AllAttributesPersistent.MODULE_NAME, AllAttributesPersistent.DOCUMENT_NAME,
+				AllAttributesPersistent.textPropertyName, 1);
+		Assert.assertEquals("2", number);
+		p.evictAllCached();
+		dN = p.retrieve(DocumentNumber.MODULE_NAME, DocumentNumber.DOCUMENT_NAME, dN.getBizId());
+		Assert.assertEquals("2", dN.getDocumentNumber());
+
+		// the number is rolled back with the caller's transaction
+		p.rollback();
+		p.begin();
+		p.evictAllCached();
+		dN = p.retrieve(DocumentNumber.MODULE_NAME, DocumentNumber.DOCUMENT_NAME, dN.getBizId());
+		Assert.assertEquals("1", dN.getDocumentNumber());
+		number = blockGenerator.next(null, AllAttributesPersistent.MODULE_NAME, AllAttributesPersistent.DOCUMENT_NAME,
+				AllAttributesPersistent.textPropertyName, 1);
+		Assert.assertEquals("2", number);
+	}
 }
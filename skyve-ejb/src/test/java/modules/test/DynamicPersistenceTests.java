@@ -1,6 +1,8 @@
 package modules.test;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -17,6 +19,7 @@ import org.skyve.domain.types.Decimal2;
 import org.skyve.domain.types.Decimal5;
 import org.skyve.domain.types.TimeOnly;
 import org.skyve.domain.types.Timestamp;
+import org.skyve.persistence.DocumentQuery;
 import org.skyve.util.Util;
 
 import modules.test.domain.AllAttributesPersistent;
@@ -165,6 +168,54 @@ public class DynamicPersistenceTests extends AbstractSkyveTestDispose {
 		Assert.assertSame(clone, children.get(1).getParent());
 	}
 
+	@Test
+	public void testQueryOfDynamicAttributes() throws Exception {
+		Map<String, Integer> bizIds = new TreeMap<>();
+		for (int i = 1; i <= 3; i++) {
+			AllDynamicAttributesPersistent test = Util.constructRandomInstance(u, m, adapd, 2);
+			test.setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#00000" + i);
+			PersistentBean bean = (PersistentBean) test.getDynamic(AllDynamicAttributesPersistent.dynamicComposedAssociationPropertyName);
+			bean.setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#00001" + i);
+			test = p.save(test);
+			bizIds.put(test.getBizId(), Integer.valueOf(i));
+		}
+		p.evictAllCached();
+		
+		DocumentQuery q = p.newDocumentQuery(adapd);
+		q.getFilter().addIn(Bean.DOCUMENT_ID, bizIds.keySet());
+		List<AllDynamicAttributesPersistent> results = q.beanResults();
+
+		Assert.assertEquals(3, results.size());
+		for (AllDynamicAttributesPersistent result : results) {
+			int i = bizIds.get(result.getBizId()).intValue();
+			Assert.assertEquals("#00000" + i, result.getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+			Assert.assertEquals("#00001" + i, ((Bean) result.getDynamic(AllDynamicAttributesPersistent.dynamicComposedAssociationPropertyName)).getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+			Assert.assertFalse(result.isChanged());
+		}
+	}
+
+	@Test
+	public void testPopulateSkipsUndefinedDynamicAttributes() throws Exception {
+		AllDynamicAttributesPersistent test = Util.constructRandomInstance(u, m, adapd, 1);
+		test.setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#000001");
+		test = p.save(test);
+
+		// Simulate schema evolution with a property that is no longer defined
+		String fields = p.newSQL("select fields from ADM_DynamicEntity where bizId = :bizId")
+							.putParameter(Bean.DOCUMENT_ID, test.getBizId(), false)
+							.scalarResult(String.class);
+		fields = "{\"removed\":{\"a\":[1,\"}\"]}," + fields.substring(1);
+		p.newSQL("update ADM_DynamicEntity set fields = :fields where bizId = :bizId")
+			.putParameter("fields", fields, true)
+			.putParameter(Bean.DOCUMENT_ID, test.getBizId(), false)
+			.execute();
+		p.evictAllCached();
+
+		test = p.retrieve(adapd, test.getBizId());
+		Assert.assertEquals("#000001", test.getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+		Assert.assertFalse(test.isDynamic("removed"));
+	}
+
 	@Test
 	public void testDeletionOfDynamicAttributes() throws Exception {
 		AllDynamicAttributesPersistent test = Util.constructRandomInstance(u, m, adapd, 3); // to get static -> dynamic -> static bean graph
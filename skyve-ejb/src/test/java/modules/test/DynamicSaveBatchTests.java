@@ -0,0 +1,109 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.domain.Bean;
+import org.skyve.domain.DynamicPersistentBean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.persistence.SQL;
+import org.skyve.util.Binder;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+import modules.test.domain.AllDynamicAttributesPersistent;
+
+/**
+ * The dynamic entity, relation and field rows of a save are sent in JDBC batches.
+ * NB The relation and field rows have foreign keys to their entity rows so the batches must be executed in that order.
+ */
+public class DynamicSaveBatchTests extends AbstractSkyveTestDispose {
+	private boolean dynamicFieldIndex;
+
+	@Before
+	public void indexFields() {
+		dynamicFieldIndex = UtilImpl.DYNAMIC_FIELD_INDEX;
+		UtilImpl.DYNAMIC_FIELD_INDEX = true;
+	}
+
+	@After
+	public void restore() {
+		UtilImpl.DYNAMIC_FIELD_INDEX = dynamicFieldIndex;
+		UtilImpl.DATA_STORE.setBatchSize(16);
+	}
+
+	@Test
+	public void testBatchSizeBoundaries() throws Exception {
+		// Unbatched
+		UtilImpl.DATA_STORE.setBatchSize(0);
+		long[] expected = save();
+
+		// The rows of a save fall either side of these batch sizes
+		for (int batchSize : new int[] {1, 2, 3, 16}) {
+			UtilImpl.DATA_STORE.setBatchSize(batchSize);
+			long[] actual = save();
+			assertEquals("Relations with batch size " + batchSize, expected[0], actual[0]);
+			assertEquals("Fields with batch size " + batchSize, expected[1], actual[1]);
+		}
+	}
+
+	@Test
+	public void testHibernateChangesAreFlushedFirst() throws Exception {
+		AllDynamicAttributesPersistent test = Util.constructRandomInstance(u, m, adapd, 1);
+		test = p.save(test);
+
+		SQL sql = p.newSQL("select count(1) from TEST_AllDynamicAttributesPersistent where bizId = :bizId");
+		sql.putParameter(Bean.DOCUMENT_ID, test.getBizId(), false);
+		assertEquals(1, sql.scalarResult(Number.class).longValue());
+	}
+
+	/**
+	 * Save a dynamic graph and some dynamic rows and check they read back.
+	 * @return	The number of relation rows of the graph and field rows of a dynamic row.
+	 */
+	@SuppressWarnings("unchecked")
+	private long[] save() throws Exception {
+		AllDynamicAttributesPersistent test = Util.constructRandomInstance(u, m, adapd, 2);
+		test.setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#000001");
+		List<PersistentBean> list = (List<PersistentBean>) test.getDynamic(AllDynamicAttributesPersistent.dynamicComposedCollectionPropertyName);
+		list.get(0).setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#000002");
+		list.get(1).setDynamic(AllDynamicAttributesPersistent.colourPropertyName, "#000003");
+		test = p.save(test);
+
+		DynamicPersistentBean[] rows = new DynamicPersistentBean[3];
+		for (int i = 0; i < rows.length; i++) {
+			DynamicPersistentBean row = Util.constructRandomInstance(u, m, aadpd, 1);
+			Binder.set(row, AllAttributesPersistent.textPropertyName, "Row " + i);
+			rows[i] = p.save(row);
+		}
+		p.evictAllCached();
+
+		AllDynamicAttributesPersistent clone = p.retrieve(adapd, test.getBizId());
+		assertEquals("#000001", clone.getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+		list = (List<PersistentBean>) clone.getDynamic(AllDynamicAttributesPersistent.dynamicComposedCollectionPropertyName);
+		assertEquals("#000002", list.get(0).getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+		assertEquals("#000003", list.get(1).getDynamic(AllDynamicAttributesPersistent.colourPropertyName));
+
+		long fields = count("ADM_DynamicField", rows[0].getBizId());
+		assertTrue(fields > 0);
+		for (int i = 0; i < rows.length; i++) {
+			Bean row = p.retrieve(aadpd, rows[i].getBizId());
+			assertEquals("Row " + i, Binder.get(row, AllAttributesPersistent.textPropertyName));
+			assertEquals(fields, count("ADM_DynamicField", rows[i].getBizId()));
+		}
+
+		return new long[] {count("ADM_DynamicRelation", test.getBizId()), fields};
+	}
+
+	private long count(String table, String parentId) {
+		SQL sql = p.newSQL("select count(1) from " + table + " where parent_id = :parentId");
+		sql.putParameter("parentId", parentId, false);
+		return sql.scalarResult(Number.class).longValue();
+	}
+}
@@ -0,0 +1,112 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.skyve.impl.generate.jasperreports.JasperReportRenderer;
+import org.skyve.impl.report.jasperreports.JasperReportUtil;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ColumnAlignment;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportColumn;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportStyle;
+import org.skyve.impl.report.jasperreports.SkyveDataSource;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.model.Attribute.AttributeType;
+import org.skyve.report.ReportFormat;
+
+import modules.test.domain.AllAttributesPersistent;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+
+public class JasperReportUtilTests extends AbstractSkyveTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private int maxPages;
+	private String directory;
+
+	@Before
+	public void virtualize() {
+		maxPages = UtilImpl.REPORT_VIRTUALIZER_MAX_PAGES;
+		directory = UtilImpl.REPORT_VIRTUALIZER_DIRECTORY;
+		UtilImpl.REPORT_VIRTUALIZER_MAX_PAGES = 1;
+		UtilImpl.REPORT_VIRTUALIZER_DIRECTORY = folder.getRoot().getAbsolutePath();
+	}
+
+	@After
+	public void restore() {
+		UtilImpl.REPORT_VIRTUALIZER_MAX_PAGES = maxPages;
+		UtilImpl.REPORT_VIRTUALIZER_DIRECTORY = directory;
+	}
+
+	@Test
+	public void testSwapFileIsDeletedAfterFillAndExport() throws Exception {
+		List<AllAttributesPersistent> beans = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			AllAttributesPersistent bean = AllAttributesPersistent.newInstance();
+			bean.setText("Text " + i);
+			beans.add(bean);
+		}
+		Map<String, Object> parameters = new TreeMap<>();
+
+		JasperPrint jasperPrint = JasperReportUtil.fillReport(report(), parameters, new SkyveDataSource(u, beans));
+		assertTrue("The report should have pages to swap", jasperPrint.getPages().size() > 1);
+		assertEquals("The swap file should exist until the report is exported", 1, swapFiles());
+		assertTrue("The caller's parameters should not be changed", parameters.isEmpty());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JasperReportUtil.runReport(jasperPrint, ReportFormat.pdf, out);
+		assertTrue(out.size() > 0);
+		JasperReportUtil.cleanup(jasperPrint);
+		assertEquals(0, swapFiles());
+	}
+
+	@Test
+	public void testSwapFileIsDeletedWhenFillFails() throws Exception {
+		List<AllAttributesPersistent> beans = new ArrayList<>();
+		beans.add(null);
+		try {
+			JasperReportUtil.fillReport(report(), new TreeMap<>(), new SkyveDataSource(u, beans));
+			fail("The fill should fail");
+		}
+		catch (@SuppressWarnings("unused") JRException e) {
+			// expected
+		}
+		assertEquals(0, swapFiles());
+	}
+
+	private static JasperReport report() throws Exception {
+		ReportDesignParameters params = new ReportDesignParameters();
+		params.setReportFormat(ReportFormat.pdf);
+		params.setReportStyle(ReportStyle.tabular);
+		params.setPaginated(true);
+		params.setPageWidth(595);
+		params.setPageHeight(842);
+		ReportColumn column = new ReportColumn();
+		column.setName(AllAttributesPersistent.textPropertyName);
+		column.setTitle("Text");
+		column.setWidth(200);
+		column.setAlignment(ColumnAlignment.left);
+		column.setAttributeType(AttributeType.text);
+		params.getColumns().add(column);
+		return JasperReportRenderer.getReport(params);
+	}
+
+	private int swapFiles() {
+		String[] files = folder.getRoot().list();
+		return (files == null) ? 0 : files.length;
+	}
+}
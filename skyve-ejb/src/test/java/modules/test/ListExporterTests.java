@@ -0,0 +1,167 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.domain.types.Decimal2;
+import org.skyve.domain.types.converters.date.DD_MM_YYYY;
+import org.skyve.domain.types.converters.decimal.Decimal2IntegerPercentage;
+import org.skyve.domain.types.converters.decimal.currency.Decimal2DollarsAndCents;
+import org.skyve.impl.report.jasperreports.ListExporter;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportColumn;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportStyle;
+import org.skyve.metadata.model.Attribute.AttributeType;
+import org.skyve.report.ReportFormat;
+
+import modules.test.domain.AllAttributesPersistent;
+
+public class ListExporterTests extends AbstractSkyveTest {
+	@Test
+	public void testCSVEscapesValues() throws Exception {
+		List<AllAttributesPersistent> beans = Arrays.asList(bean("plain", 1, "1.50"),
+																bean("comma, separated", null, null),
+																bean("say \"hi\"", null, null),
+																bean("line\nbreak", null, null));
+		ReportDesignParameters params = params(ReportFormat.csv, false);
+		params.getColumns().add(column(AllAttributesPersistent.textPropertyName, "Text, Title", AttributeType.text));
+
+		assertEquals("\"Text, Title\"\nplain\n\"comma, separated\"\n\"say \"\"hi\"\"\"\n\"line\nbreak\"\n", csv(beans, params));
+	}
+
+	@Test
+	public void testCSVTotals() throws Exception {
+		List<AllAttributesPersistent> beans = Arrays.asList(bean("a", 1, "1.50"), bean("b", 2, "2.25"), bean("c", null, null));
+		ReportDesignParameters params = params(ReportFormat.csv, true);
+		params.getColumns().add(column(AllAttributesPersistent.textPropertyName, "Text", AttributeType.text));
+		params.getColumns().add(column(AllAttributesPersistent.normalIntegerPropertyName, "Integer", AttributeType.integer));
+		params.getColumns().add(column(AllAttributesPersistent.decimal2PropertyName, "Decimal", AttributeType.decimal2));
+
+		assertEquals("Text,Integer,Decimal\na,1,1.50\nb,2,2.25\nc,,\n,3,3.75\n", csv(beans, params));
+	}
+
+	@Test
+	public void testCSVConvertsNumbers() throws Exception {
+		List<AllAttributesPersistent> beans = Arrays.asList(bean("a", null, "0.50"), bean("b", null, "1234.5"));
+		ReportDesignParameters params = params(ReportFormat.csv, true);
+		ReportColumn column = column(AllAttributesPersistent.decimal2PropertyName, "Percentage", AttributeType.decimal2);
+		column.setConverter(new Decimal2IntegerPercentage());
+		params.getColumns().add(column);
+		column = column(AllAttributesPersistent.decimal2PropertyName, "Dollars", AttributeType.decimal2);
+		column.setConverter(new Decimal2DollarsAndCents());
+		params.getColumns().add(column);
+
+		assertEquals("Percentage,Dollars\n50%,0.50\n\"123,450%\",\"1,234.50\"\n1235.00,1235.00\n", csv(beans, params));
+	}
+
+	@Test
+	public void testXLSX() throws Exception {
+		AllAttributesPersistent a = bean("a", 1, "0.50");
+		a.setDate(new DateOnly("2021-03-04"));
+		List<AllAttributesPersistent> beans = Arrays.asList(a, bean("b", 2, "0.25"), bean("c", null, null));
+		ReportDesignParameters params = params(ReportFormat.xlsx, true);
+		params.getColumns().add(column(AllAttributesPersistent.textPropertyName, "Text", AttributeType.text));
+		params.getColumns().add(column(AllAttributesPersistent.normalIntegerPropertyName, "Integer", AttributeType.integer));
+		ReportColumn column = column(AllAttributesPersistent.decimal2PropertyName, "Percentage", AttributeType.decimal2);
+		column.setConverter(new Decimal2IntegerPercentage());
+		column.setFormatPattern(column.getConverter().getFormatPattern());
+		params.getColumns().add(column);
+		column = column(AllAttributesPersistent.datePropertyName, "Date", AttributeType.date);
+		column.setFormatPattern(DD_MM_YYYY.PATTERN);
+		params.getColumns().add(column);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ListExporter.export(u, beans.iterator(), params, out);
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+			Sheet sheet = workbook.getSheetAt(0);
+			assertEquals(4, sheet.getLastRowNum());
+
+			Row row = sheet.getRow(0);
+			assertEquals("Text", row.getCell(0).getStringCellValue());
+			assertEquals("Date", row.getCell(3).getStringCellValue());
+
+			row = sheet.getRow(1);
+			assertEquals("a", row.getCell(0).getStringCellValue());
+			assertEquals(1.0, row.getCell(1).getNumericCellValue(), 0.0);
+			assertEquals(0.5, row.getCell(2).getNumericCellValue(), 0.0);
+			assertEquals("###,###,###,##0%", row.getCell(2).getCellStyle().getDataFormatString());
+			assertEquals(a.getDate(), row.getCell(3).getDateCellValue());
+			assertEquals("dd/mm/yyyy", row.getCell(3).getCellStyle().getDataFormatString());
+
+			row = sheet.getRow(3);
+			assertEquals("c", row.getCell(0).getStringCellValue());
+			assertNull(row.getCell(1));
+
+			// totals
+			row = sheet.getRow(4);
+			assertNull(row.getCell(0));
+			assertEquals(3.0, row.getCell(1).getNumericCellValue(), 0.0);
+			assertEquals(0.75, row.getCell(2).getNumericCellValue(), 0.0);
+			assertEquals("###,###,###,##0%", row.getCell(2).getCellStyle().getDataFormatString());
+		}
+	}
+
+	@Test
+	public void testXLSXTemporalPatterns() throws Exception {
+		assertEquals("dd-mmm-yyyy hh:mm:ss AM/PM", xlsxPattern("dd-MMM-yyyy hh:mm:ss a"));
+		assertEquals("yyyy/mm/dd hh:mm", xlsxPattern("yyyy/MM/dd HH:mm"));
+		assertEquals("dddd d mmmm yy \"at\" h:mm", xlsxPattern("EEEE d MMMM yy 'at' H:mm"));
+		assertEquals("hh:mm:ss.000", xlsxPattern("HH:mm:ss.SSS z"));
+	}
+
+	private String xlsxPattern(String pattern) throws Exception {
+		AllAttributesPersistent bean = bean("a", null, null);
+		bean.setDate(new DateOnly());
+		ReportDesignParameters params = params(ReportFormat.xlsx, false);
+		ReportColumn column = column(AllAttributesPersistent.datePropertyName, "Date", AttributeType.date);
+		column.setFormatPattern(pattern);
+		params.getColumns().add(column);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ListExporter.export(u, Arrays.asList(bean).iterator(), params, out);
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+			return workbook.getSheetAt(0).getRow(1).getCell(0).getCellStyle().getDataFormatString();
+		}
+	}
+
+	private String csv(List<AllAttributesPersistent> beans, ReportDesignParameters params) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ListExporter.export(u, beans.iterator(), params, out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static AllAttributesPersistent bean(String text, Integer normalInteger, String decimal2) {
+		AllAttributesPersistent result = AllAttributesPersistent.newInstance();
+		result.setText(text);
+		result.setNormalInteger(normalInteger);
+		result.setDecimal2((decimal2 == null) ? null : new Decimal2(decimal2));
+		return result;
+	}
+
+	private static ReportDesignParameters params(ReportFormat format, boolean showSummary) {
+		ReportDesignParameters result = new ReportDesignParameters();
+		result.setReportFormat(format);
+		result.setReportStyle(ReportStyle.tabular);
+		result.setShowSummary(showSummary);
+		return result;
+	}
+
+	private static ReportColumn column(String name, String title, AttributeType type) {
+		ReportColumn result = new ReportColumn();
+		result.setName(name);
+		result.setTitle(title);
+		result.setAttributeType(type);
+		return result;
+	}
+}
@@ -0,0 +1,155 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.skyve.impl.job.AbstractSkyveJob;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.job.IteratingJob;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.Persistence;
+
+import modules.admin.domain.Job;
+
+public class PartitionedJobTests extends AbstractSkyveTest {
+	private static final String DISPLAY_NAME = "Partitioned Test Job";
+
+	private static class PartitionedJob extends IteratingJob<Integer> {
+		private Set<Integer> processed = ConcurrentHashMap.newKeySet();
+		private Integer failOn;
+
+		private PartitionedJob(Integer failOn) {
+			this.failOn = failOn;
+		}
+
+		@Override
+		protected Collection<Integer> getElements() {
+			return Arrays.asList(Integer.valueOf(0), Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3), Integer.valueOf(4),
+									Integer.valueOf(5), Integer.valueOf(6), Integer.valueOf(7), Integer.valueOf(8), Integer.valueOf(9));
+		}
+
+		@Override
+		protected int getWorkerThreads() {
+			return 2;
+		}
+
+		@Override
+		protected int getPartitionSize() {
+			return 2;
+		}
+
+		@Override
+		protected boolean continueOnFailure() {
+			return true;
+		}
+
+		@Override
+		protected void operation(Integer element) throws Exception {
+			if (element.equals(failOn)) {
+				throw new IllegalStateException("Failed on " + element);
+			}
+			processed.add(element);
+		}
+
+		private void executeUnscheduled(Persistence persistence) throws Exception {
+			setDisplayName(DISPLAY_NAME);
+			setPersistence(persistence);
+			execute();
+		}
+
+		private Set<Integer> getProcessed() {
+			return new TreeSet<>(processed);
+		}
+	}
+
+	@Test
+	public void testResumeProcessesIncompletePartitions() throws Exception {
+		PartitionedJob first = new PartitionedJob(Integer.valueOf(5));
+		try {
+			schedule(first);
+			fail("The first execution should fail");
+		}
+		catch (@SuppressWarnings("unused") JobExecutionException e) {
+			// expected
+		}
+		assertEquals(9, first.getProcessed().size());
+		Job record = p.retrieve(Job.MODULE_NAME, Job.DOCUMENT_NAME, first.getJobBizId());
+		assertEquals("failed", record.getStatus());
+		assertEquals("2:0-1,3-4", record.getPartitionCheckpoint());
+
+		// only partition 2 is processed again
+		PartitionedJob second = new PartitionedJob(null);
+		schedule(second);
+		assertEquals(new TreeSet<>(Arrays.asList(Integer.valueOf(4), Integer.valueOf(5))), second.getProcessed());
+		assertEquals(first.getJobBizId(), second.getJobBizId());
+		p.evictAllCached();
+		record = p.retrieve(Job.MODULE_NAME, Job.DOCUMENT_NAME, second.getJobBizId());
+		assertEquals("complete", record.getStatus());
+		assertNull(record.getPartitionCheckpoint());
+
+		// nothing to resume after completing
+		PartitionedJob third = new PartitionedJob(null);
+		schedule(third);
+		assertEquals(10, third.getProcessed().size());
+	}
+
+	@Test
+	public void testRunningExecutionIsNotResumed() throws Exception {
+		PartitionedJob first = new PartitionedJob(Integer.valueOf(5));
+		try {
+			schedule(first);
+			fail("The first execution should fail");
+		}
+		catch (@SuppressWarnings("unused") JobExecutionException e) {
+			// expected
+		}
+
+		// Resume without finishing so the execution is still running
+		PartitionedJob second = new PartitionedJob(Integer.valueOf(4));
+		try {
+			second.executeUnscheduled(p);
+			fail("The second execution should fail");
+		}
+		catch (@SuppressWarnings("unused") RuntimeException e) {
+			// expected
+		}
+		assertEquals(first.getJobBizId(), second.getJobBizId());
+
+		PartitionedJob third = new PartitionedJob(null);
+		schedule(third);
+		assertEquals(10, third.getProcessed().size());
+	}
+
+	/**
+	 * Execute the job as the job scheduler does, which closes the persistence at the end.
+	 */
+	private void schedule(AbstractSkyveJob job) throws JobExecutionException {
+		User user = p.getUser();
+		JobDataMap map = new JobDataMap();
+		map.put(AbstractSkyveJob.DISPLAY_NAME_JOB_PARAMETER_KEY, DISPLAY_NAME);
+		map.put(AbstractSkyveJob.USER_JOB_PARAMETER_KEY, user);
+		JobExecutionContext context = Mockito.mock(JobExecutionContext.class);
+		Mockito.when(context.getMergedJobDataMap()).thenReturn(map);
+		try {
+			job.execute(context);
+		}
+		finally {
+			AbstractPersistence persistence = AbstractPersistence.get();
+			persistence.setUser(user);
+			persistence.begin();
+			p = persistence;
+		}
+	}
+}
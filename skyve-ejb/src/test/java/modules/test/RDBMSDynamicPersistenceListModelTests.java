@@ -3,14 +3,24 @@ package modules.test;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.skyve.domain.Bean;
 import org.skyve.domain.DynamicPersistentBean;
 import org.skyve.impl.metadata.module.query.MetaDataQueryProjectedColumnImpl;
+import org.skyve.impl.persistence.DynamicFieldIndex;
+import org.skyve.impl.persistence.RDBMSDynamicPersistence;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.impl.web.SortParameterImpl;
+import org.skyve.metadata.SortDirection;
 import org.skyve.metadata.module.query.MetaDataQueryColumn;
 import org.skyve.metadata.module.query.MetaDataQueryDefinition;
+import org.skyve.metadata.view.model.list.Page;
+import org.skyve.metadata.view.model.list.RDBMSDynamicPersistenceFilter;
 import org.skyve.metadata.view.model.list.RDBMSDynamicPersistenceListModel;
+import org.skyve.util.Binder;
 import org.skyve.util.Util;
+import org.skyve.web.SortParameter;
 
 import modules.test.domain.AllAttributesPersistent;
 
@@ -50,4 +60,165 @@ public class RDBMSDynamicPersistenceListModelTests extends AbstractSkyveTest {
 		model.getRows();
 		// TODO check rows
 	}
+
+	@Test
+	public void testFetchWithDynamicFieldIndex() throws Exception {
+		boolean dynamicFieldIndex = UtilImpl.DYNAMIC_FIELD_INDEX;
+		UtilImpl.DYNAMIC_FIELD_INDEX = true;
+		try {
+			for (int i = 1; i <= 5; i++) {
+				DynamicPersistentBean row = Util.constructRandomInstance(u, m, aadpd, 1);
+				Binder.set(row, AllAttributesPersistent.normalIntegerPropertyName, Integer.valueOf(i));
+				Binder.set(row, AllAttributesPersistent.textPropertyName, "Row " + i);
+				p.save(row);
+			}
+
+			// Filtered, sorted and paged in SQL
+			RDBMSDynamicPersistenceListModel<Bean> model = newIntegerAndTextModel();
+			model.getFilter().addGreaterThanOrEqualTo(AllAttributesPersistent.normalIntegerPropertyName, Integer.valueOf(2));
+			model.setSortParameters(new SortParameter[] {sort(AllAttributesPersistent.normalIntegerPropertyName, SortDirection.descending)});
+			model.setStartRow(0);
+			model.setEndRow(1);
+			Page page = model.fetch();
+			Assert.assertEquals(4, page.getTotalRows());
+			Assert.assertEquals(Long.valueOf(4), Binder.get(page.getSummary(), Bean.DOCUMENT_ID));
+			Assert.assertEquals(2, page.getRows().size());
+			Assert.assertEquals(Integer.valueOf(5), Binder.get(page.getRows().get(0), AllAttributesPersistent.normalIntegerPropertyName));
+			Assert.assertEquals(Integer.valueOf(4), Binder.get(page.getRows().get(1), AllAttributesPersistent.normalIntegerPropertyName));
+
+			// Case insensitive text criteria and the 2nd page
+			model = newIntegerAndTextModel();
+			model.getFilter().addContains(AllAttributesPersistent.textPropertyName, "ROW");
+			model.getFilter().addNotEquals(AllAttributesPersistent.textPropertyName, "Row 3");
+			model.setSortParameters(new SortParameter[] {sort(AllAttributesPersistent.textPropertyName, SortDirection.ascending)});
+			model.setStartRow(2);
+			model.setEndRow(3);
+			page = model.fetch();
+			Assert.assertEquals(4, page.getTotalRows());
+			Assert.assertEquals(2, page.getRows().size());
+			Assert.assertEquals("Row 4", Binder.get(page.getRows().get(0), AllAttributesPersistent.textPropertyName));
+			Assert.assertEquals("Row 5", Binder.get(page.getRows().get(1), AllAttributesPersistent.textPropertyName));
+
+			// Criteria that can't be expressed in SQL are filtered in memory
+			model = newIntegerAndTextModel();
+			model.getFilter().addLessThan(AllAttributesPersistent.textPropertyName, "Row 3");
+			model.setSortParameters(new SortParameter[] {sort(AllAttributesPersistent.normalIntegerPropertyName, SortDirection.ascending)});
+			model.setStartRow(0);
+			model.setEndRow(9);
+			page = model.fetch();
+			Assert.assertEquals(2, page.getTotalRows());
+			Assert.assertEquals(Integer.valueOf(1), Binder.get(page.getRows().get(0), AllAttributesPersistent.normalIntegerPropertyName));
+			Assert.assertEquals(Integer.valueOf(2), Binder.get(page.getRows().get(1), AllAttributesPersistent.normalIntegerPropertyName));
+		}
+		finally {
+			UtilImpl.DYNAMIC_FIELD_INDEX = dynamicFieldIndex;
+		}
+	}
+
+	@Test
+	public void testFetchWithUnindexedData() throws Exception {
+		boolean dynamicFieldIndex = UtilImpl.DYNAMIC_FIELD_INDEX;
+		try {
+			// Rows saved before the index was turned on
+			UtilImpl.DYNAMIC_FIELD_INDEX = false;
+			for (int i = 1; i <= 5; i++) {
+				DynamicPersistentBean row = Util.constructRandomInstance(u, m, aadpd, 1);
+				Binder.set(row, AllAttributesPersistent.normalIntegerPropertyName, Integer.valueOf(i));
+				Binder.set(row, AllAttributesPersistent.textPropertyName, "Row " + i);
+				p.save(row);
+			}
+			UtilImpl.DYNAMIC_FIELD_INDEX = true;
+			DynamicFieldIndex.reset();
+
+			// Filtered, sorted and paged in memory as the rows are not indexed
+			assertIntegerPage(fetchIntegerPage());
+			Assert.assertFalse(DynamicFieldIndex.isIndexed(c.getName(), m.getName(), aadpd.getName()));
+			Assert.assertEquals(0, countIndexedFields());
+
+			// Index the rows
+			RDBMSDynamicPersistence dynamicPersistence = new RDBMSDynamicPersistence();
+			dynamicPersistence.postConstruct(p);
+			Assert.assertEquals(3, dynamicPersistence.indexFields(3));
+			Assert.assertEquals(2, dynamicPersistence.indexFields(3));
+			Assert.assertEquals(0, dynamicPersistence.indexFields(3));
+			Assert.assertTrue(countIndexedFields() >= 10);
+
+			// Now filtered, sorted and paged in SQL with the same result
+			assertIntegerPage(fetchIntegerPage());
+			Assert.assertTrue(DynamicFieldIndex.isIndexed(c.getName(), m.getName(), aadpd.getName()));
+		}
+		finally {
+			UtilImpl.DYNAMIC_FIELD_INDEX = dynamicFieldIndex;
+			DynamicFieldIndex.reset();
+		}
+	}
+
+	@Test
+	public void testTextCriteriaAreFilteredInMemory() throws Exception {
+		boolean dynamicFieldIndex = UtilImpl.DYNAMIC_FIELD_INDEX;
+		UtilImpl.DYNAMIC_FIELD_INDEX = true;
+		try {
+			RDBMSDynamicPersistenceListModel<Bean> model = newIntegerAndTextModel();
+			RDBMSDynamicPersistenceFilter filter = (RDBMSDynamicPersistenceFilter) model.getFilter();
+			filter.addEquals(AllAttributesPersistent.textPropertyName, "Row 1");
+			Assert.assertFalse(filter.isExact());
+
+			model = newIntegerAndTextModel();
+			filter = (RDBMSDynamicPersistenceFilter) model.getFilter();
+			filter.addContains(AllAttributesPersistent.textPropertyName, "ROW");
+			Assert.assertFalse(filter.isExact());
+
+			model = newIntegerAndTextModel();
+			filter = (RDBMSDynamicPersistenceFilter) model.getFilter();
+			filter.addEquals(AllAttributesPersistent.normalIntegerPropertyName, Integer.valueOf(1));
+			Assert.assertTrue(filter.isExact());
+		}
+		finally {
+			UtilImpl.DYNAMIC_FIELD_INDEX = dynamicFieldIndex;
+		}
+	}
+
+	private Page fetchIntegerPage() throws Exception {
+		RDBMSDynamicPersistenceListModel<Bean> model = newIntegerAndTextModel();
+		model.getFilter().addGreaterThanOrEqualTo(AllAttributesPersistent.normalIntegerPropertyName, Integer.valueOf(2));
+		model.setSortParameters(new SortParameter[] {sort(AllAttributesPersistent.normalIntegerPropertyName, SortDirection.descending)});
+		model.setStartRow(0);
+		model.setEndRow(1);
+		return model.fetch();
+	}
+
+	private static void assertIntegerPage(Page page) {
+		Assert.assertEquals(4, page.getTotalRows());
+		Assert.assertEquals(2, page.getRows().size());
+		Assert.assertEquals(Integer.valueOf(5), Binder.get(page.getRows().get(0), AllAttributesPersistent.normalIntegerPropertyName));
+		Assert.assertEquals(Integer.valueOf(4), Binder.get(page.getRows().get(1), AllAttributesPersistent.normalIntegerPropertyName));
+	}
+
+	private int countIndexedFields() {
+		return p.newSQL("select count(bizId) from ADM_DynamicField").scalarResult(Number.class).intValue();
+	}
+
+	private RDBMSDynamicPersistenceListModel<Bean> newIntegerAndTextModel() {
+		RDBMSDynamicPersistenceListModel<Bean> result = new RDBMSDynamicPersistenceListModel<>();
+		
+		List<MetaDataQueryColumn> columns = new ArrayList<>(2);
+		MetaDataQueryProjectedColumnImpl column = new MetaDataQueryProjectedColumnImpl();
+		column.setBinding(AllAttributesPersistent.normalIntegerPropertyName);
+		column.setDisplayName("Integer");
+		columns.add(column);
+		column = new MetaDataQueryProjectedColumnImpl();
+		column.setBinding(AllAttributesPersistent.textPropertyName);
+		column.setDisplayName("Text");
+		columns.add(column);
+
+		result.setModel("Test", aadpd, columns);
+		return result;
+	}
+	
+	private static SortParameter sort(String by, SortDirection direction) {
+		SortParameter result = new SortParameterImpl();
+		result.setBy(by);
+		result.setDirection(direction);
+		return result;
+	}
 }
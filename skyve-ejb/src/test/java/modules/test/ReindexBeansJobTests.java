@@ -0,0 +1,207 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.skyve.content.BeanContent;
+import org.skyve.impl.backup.ReindexBeansJob;
+import org.skyve.impl.content.AbstractContentManager;
+import org.skyve.impl.content.NoOpContentManager;
+import org.skyve.impl.job.AbstractSkyveJob;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.metadata.user.User;
+import org.skyve.util.Util;
+
+import modules.admin.domain.Job;
+import modules.test.domain.AllAttributesPersistent;
+
+public class ReindexBeansJobTests extends AbstractSkyveTest {
+	private static final String DISPLAY_NAME = "Reindex Beans Test Job";
+	private static final int CHUNK_SIZE = 5;
+
+	// The bizIds of the AllAttributesPersistent beans put to the content manager
+	private static final Set<String> PUT = ConcurrentHashMap.newKeySet();
+	private static final AtomicInteger TRUNCATES = new AtomicInteger();
+	// The bizId that fails to be put
+	private static volatile String failOn;
+
+	/**
+	 * Records the beans reindexed.
+	 */
+	public static class RecordingContentManager extends NoOpContentManager {
+		@Override
+		public void put(BeanContent content) throws Exception {
+			if (content.getBizId().equals(failOn)) {
+				throw new IllegalStateException("Failed on " + failOn);
+			}
+			if (AllAttributesPersistent.DOCUMENT_NAME.equals(content.getBizDocument())) {
+				PUT.add(content.getBizId());
+			}
+		}
+
+		@Override
+		public void truncateBeans(String customerName) throws Exception {
+			TRUNCATES.incrementAndGet();
+		}
+	}
+
+	private static class ChunkedReindexBeansJob extends ReindexBeansJob {
+		private int workerThreads;
+
+		private ChunkedReindexBeansJob(int workerThreads) {
+			this.workerThreads = workerThreads;
+		}
+
+		@Override
+		protected int getWorkerThreads() {
+			return workerThreads;
+		}
+
+		@Override
+		protected int getChunkSize() {
+			return CHUNK_SIZE;
+		}
+	}
+
+	private Class<? extends AbstractContentManager> contentManagerClass;
+	private List<String> bizIds = new ArrayList<>();
+
+	@Before
+	public void reindexable() throws Exception {
+		contentManagerClass = AbstractContentManager.IMPLEMENTATION_CLASS;
+		AbstractContentManager.IMPLEMENTATION_CLASS = RecordingContentManager.class;
+		PUT.clear();
+		TRUNCATES.set(0);
+		failOn = null;
+
+		for (int i = 0; i < 25; i++) {
+			AllAttributesPersistent bean = Util.constructRandomInstance(u, m, aapd, 1);
+			bean.setMemo("Memo " + i);
+			bizIds.add(p.save(bean).getBizId());
+		}
+		p.commit(false);
+		p.begin();
+		bizIds.sort(null);
+	}
+
+	@After
+	public void restore() {
+		AbstractContentManager.IMPLEMENTATION_CLASS = contentManagerClass;
+	}
+
+	@Test
+	public void testReindexInChunks() throws Exception {
+		ChunkedReindexBeansJob job = new ChunkedReindexBeansJob(2);
+		schedule(job);
+		assertEquals(1, TRUNCATES.get());
+		assertEquals(bizIds.size(), PUT.size());
+		assertTrue(PUT.containsAll(bizIds));
+
+		Job record = p.retrieve(Job.MODULE_NAME, Job.DOCUMENT_NAME, job.getJobBizId());
+		assertEquals("complete", record.getStatus());
+		assertNull(record.getPartitionCheckpoint());
+	}
+
+	@Test
+	public void testResumeAfterTheCheckpoint() throws Exception {
+		// fail in the third chunk
+		failOn = bizIds.get(CHUNK_SIZE * 2 + 1);
+		ChunkedReindexBeansJob first = new ChunkedReindexBeansJob(1);
+		try {
+			schedule(first);
+			fail("The first execution should fail");
+		}
+		catch (@SuppressWarnings("unused") JobExecutionException e) {
+			// expected
+		}
+		assertEquals(1, TRUNCATES.get());
+		Job record = p.retrieve(Job.MODULE_NAME, Job.DOCUMENT_NAME, first.getJobBizId());
+		assertEquals("failed", record.getStatus());
+		assertTrue(record.getPartitionCheckpoint(),
+					record.getPartitionCheckpoint().contains("test.AllAttributesPersistent=" + bizIds.get(CHUNK_SIZE * 2 - 1)));
+
+		// only the beans after the checkpoint are reindexed without truncating
+		failOn = null;
+		PUT.clear();
+		ChunkedReindexBeansJob second = new ChunkedReindexBeansJob(2);
+		schedule(second);
+		assertEquals(1, TRUNCATES.get());
+		assertEquals(first.getJobBizId(), second.getJobBizId());
+		assertEquals(bizIds.subList(CHUNK_SIZE * 2, bizIds.size()).size(), PUT.size());
+		assertTrue(PUT.containsAll(bizIds.subList(CHUNK_SIZE * 2, bizIds.size())));
+		p.evictAllCached();
+		record = p.retrieve(Job.MODULE_NAME, Job.DOCUMENT_NAME, second.getJobBizId());
+		assertEquals("complete", record.getStatus());
+		assertNull(record.getPartitionCheckpoint());
+	}
+
+	@Test
+	public void testRunningExecutionIsNotResumed() throws Exception {
+		failOn = bizIds.get(CHUNK_SIZE * 2 + 1);
+		ChunkedReindexBeansJob first = new ChunkedReindexBeansJob(1);
+		try {
+			schedule(first);
+			fail("The first execution should fail");
+		}
+		catch (@SuppressWarnings("unused") JobExecutionException e) {
+			// expected
+		}
+
+		// Resume without finishing so the execution is still running
+		ChunkedReindexBeansJob second = new ChunkedReindexBeansJob(1);
+		second.setDisplayName(DISPLAY_NAME);
+		try {
+			second.execute();
+			fail("The second execution should fail");
+		}
+		catch (@SuppressWarnings("unused") IllegalStateException e) {
+			// expected
+		}
+		assertEquals(first.getJobBizId(), second.getJobBizId());
+		assertEquals(1, TRUNCATES.get());
+
+		// starts again from the top
+		failOn = null;
+		PUT.clear();
+		ChunkedReindexBeansJob third = new ChunkedReindexBeansJob(2);
+		schedule(third);
+		assertEquals(2, TRUNCATES.get());
+		assertEquals(bizIds.size(), PUT.size());
+	}
+
+	/**
+	 * Execute the job as the job scheduler does, which closes the persistence at the end.
+	 */
+	private void schedule(AbstractSkyveJob job) throws JobExecutionException {
+		User user = p.getUser();
+		JobDataMap map = new JobDataMap();
+		map.put(AbstractSkyveJob.DISPLAY_NAME_JOB_PARAMETER_KEY, DISPLAY_NAME);
+		map.put(AbstractSkyveJob.USER_JOB_PARAMETER_KEY, user);
+		JobExecutionContext context = Mockito.mock(JobExecutionContext.class);
+		Mockito.when(context.getMergedJobDataMap()).thenReturn(map);
+		try {
+			job.execute(context);
+		}
+		finally {
+			AbstractPersistence persistence = AbstractPersistence.get();
+			persistence.setUser(user);
+			persistence.begin();
+			p = persistence;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.EXT;
+import org.skyve.domain.Bean;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.tag.TagManager;
+import org.skyve.util.Util;
+
+import modules.test.domain.AllAttributesPersistent;
+
+public class TagManagerTests extends AbstractSkyveTest {
+	private TagManager tm;
+	private String tagId;
+	private AllAttributesPersistent one;
+	private AllAttributesPersistent two;
+	private AllAttributesPersistent three;
+
+	@Before
+	public void tag() throws Exception {
+		tm = EXT.getTagManager();
+		tagId = tm.create("Test Tag", true);
+		one = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+		two = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+		three = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+	}
+
+	@Test
+	public void testTagByQuerySkipsTaggedBeans() throws Exception {
+		tm.tag(tagId, one);
+		assertEquals(1, tagged().size());
+
+		tm.tag(tagId, p.newDocumentQuery(aapd));
+		assertEquals(bizIds(one, two, three), tagged());
+
+		// tagging again does not duplicate
+		tm.tag(tagId, p.newDocumentQuery(aapd));
+		assertEquals(3, count());
+	}
+
+	@Test
+	public void testTagByBizIds() throws Exception {
+		tm.tag(tagId, m.getName(), aapd.getName(), Arrays.asList(one.getBizId(), two.getBizId(), "not a bizId"));
+		assertEquals(bizIds(one, two), tagged());
+
+		tm.tag(tagId, m.getName(), aapd.getName(), Arrays.asList(two.getBizId(), three.getBizId()));
+		assertEquals(bizIds(one, two, three), tagged());
+		assertEquals(3, count());
+	}
+
+	@Test
+	public void testUntagByBizIds() throws Exception {
+		tm.tag(tagId, p.newDocumentQuery(aapd));
+		tm.untag(tagId, m.getName(), aapd.getName(), Arrays.asList(one.getBizId(), three.getBizId()));
+		assertEquals(bizIds(two), tagged());
+	}
+
+	@Test
+	public void testUntagByQuery() throws Exception {
+		tm.tag(tagId, p.newDocumentQuery(aapd));
+		DocumentQuery query = p.newDocumentQuery(aapd);
+		query.getFilter().addEquals(Bean.DOCUMENT_ID, two.getBizId());
+		tm.untag(tagId, query);
+		assertEquals(bizIds(one, three), tagged());
+
+		tm.untag(tagId, p.newDocumentQuery(aapd));
+		assertEquals(0, tagged().size());
+	}
+
+	private Set<String> tagged() throws Exception {
+		Set<String> result = new TreeSet<>();
+		try (AutoClosingIterable<Bean> beans = tm.iterate(tagId)) {
+			for (Bean bean : beans) {
+				result.add(bean.getBizId());
+			}
+		}
+		return result;
+	}
+
+	private long count() {
+		return p.newSQL("select count(1) from ADM_Tagged").scalarResult(Number.class).longValue();
+	}
+
+	private static Set<String> bizIds(Bean... beans) {
+		Set<String> result = new TreeSet<>();
+		for (Bean bean : beans) {
+			result.add(bean.getBizId());
+		}
+		return result;
+	}
+}
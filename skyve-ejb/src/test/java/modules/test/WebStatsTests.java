@@ -0,0 +1,92 @@
+package modules.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.skyve.impl.util.WebStatsUtil;
+import org.skyve.web.UserAgentType;
+
+public class WebStatsTests extends AbstractSkyveTest {
+	private static final String SELECT = "select bizId, device, userAgentHeader, numberOfHits from ADM_UserMonthlyHits";
+
+	@Test
+	public void testHitsAreCountedInMemoryAndFlushed() throws Exception {
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, null, UserAgentType.phone);
+		assertEquals(0, hits().size());
+
+		flush();
+		Map<String, Integer> hits = hits();
+		assertEquals(2, hits.size());
+		assertEquals(Integer.valueOf(3), hits.get("D Browser"));
+		assertEquals(Integer.valueOf(1), hits.get("P null"));
+	}
+
+	@Test
+	public void testFlushIncrementsExistingRowsAndInsertsNewRows() throws Exception {
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, null, UserAgentType.phone);
+		flush();
+		String bizId = bizId("D");
+
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		WebStatsUtil.recordHit(u, null, UserAgentType.phone);
+		WebStatsUtil.recordHit(u, "Tablet", UserAgentType.tablet);
+		flush();
+		Map<String, Integer> hits = hits();
+		assertEquals(3, hits.size());
+		assertEquals(Integer.valueOf(3), hits.get("D Browser"));
+		assertEquals(Integer.valueOf(2), hits.get("P null"));
+		assertEquals(Integer.valueOf(1), hits.get("T Tablet"));
+		assertEquals(bizId, bizId("D"));
+	}
+
+	@Test
+	public void testHitsAfterShutdownAreFlushed() throws Exception {
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		onAnotherThread(WebStatsUtil::shutdown);
+		assertEquals(Integer.valueOf(1), hits().get("D Browser"));
+
+		// A request still in flight
+		WebStatsUtil.recordHit(u, "Browser", UserAgentType.desktop);
+		long timeout = System.currentTimeMillis() + 10000L;
+		while ((! Integer.valueOf(2).equals(hits().get("D Browser"))) && (System.currentTimeMillis() < timeout)) {
+			Thread.sleep(50L);
+		}
+		assertEquals(Integer.valueOf(2), hits().get("D Browser"));
+	}
+
+	/**
+	 * Flush on another thread as the flush uses and closes the thread's persistence.
+	 */
+	private static void flush() throws InterruptedException {
+		onAnotherThread(WebStatsUtil::flush);
+	}
+
+	private static void onAnotherThread(Runnable runnable) throws InterruptedException {
+		Thread thread = new Thread(runnable);
+		thread.start();
+		thread.join();
+	}
+
+	private Map<String, Integer> hits() {
+		Map<String, Integer> result = new TreeMap<>();
+		for (Object[] row : p.newSQL(SELECT).tupleResults()) {
+			result.put(row[1] + " " + row[2], Integer.valueOf(((Number) row[3]).intValue()));
+		}
+		return result;
+	}
+
+	private String bizId(String device) {
+		List<Object[]> rows = p.newSQL(SELECT + " where device = :device").putParameter("device", device, false).tupleResults();
+		assertEquals(1, rows.size());
+		return (String) rows.get(0)[0];
+	}
+}
@@ -0,0 +1,59 @@
+package org.skyve.impl.persistence.hibernate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import modules.test.AbstractSkyveTest;
+
+public class OrmCacheTests extends AbstractSkyveTest {
+	private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testOnlyUnusedStaleFilesAreRemoved() throws Exception {
+		long now = System.currentTimeMillis();
+		File directory = folder.getRoot();
+		// in use by this node
+		file(directory, "used.hbm.xml", now - 30 * DAY_MILLIS);
+		file(directory, "used.hbm.bin", now - 30 * DAY_MILLIS);
+		// in use by another node that started recently
+		file(directory, "other.hbm.xml", now - DAY_MILLIS);
+		file(directory, "other.hbm.bin", now - DAY_MILLIS);
+		// being written by another node
+		file(directory, "orm123.tmp", now);
+		// superseded
+		file(directory, "old.hbm.xml", now - 8 * DAY_MILLIS);
+		file(directory, "old.hbm.bin", now - 8 * DAY_MILLIS);
+		// abandoned
+		file(directory, "orm456.tmp", now - 8 * DAY_MILLIS);
+
+		Set<String> used = new TreeSet<>(Arrays.asList("used.hbm.xml", "used.hbm.bin"));
+		AbstractHibernatePersistence.removeUnusedOrmCacheFiles(directory, used, now);
+
+		List<String> remaining = Arrays.asList(directory.list());
+		Collections.sort(remaining);
+		assertEquals(Arrays.asList("orm123.tmp", "other.hbm.bin", "other.hbm.xml", "used.hbm.bin", "used.hbm.xml"), remaining);
+	}
+
+	private static void file(File directory, String name, long lastModified) throws Exception {
+		File result = new File(directory, name);
+		if (! result.createNewFile()) {
+			throw new IllegalStateException("Could not create " + result);
+		}
+		if (! result.setLastModified(lastModified)) {
+			throw new IllegalStateException("Could not set the last modified time of " + result);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package org.skyve.impl.persistence.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.EXT;
+import org.skyve.domain.Bean;
+import org.skyve.domain.DynamicPersistentBean;
+import org.skyve.impl.persistence.AbstractQuery;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.tag.TagManager;
+import org.skyve.util.Util;
+
+import modules.admin.domain.Contact;
+import modules.admin.domain.DynamicEntity;
+import modules.admin.domain.Tagged;
+import modules.test.AbstractSkyveTest;
+import modules.test.domain.AllAttributesPersistent;
+
+public class QueryCacheTests extends AbstractSkyveTest {
+	// The session factory is built once, so the query cache is only on when this test runs first (or alone)
+	static {
+		UtilImpl.QUERY_CACHE = true;
+	}
+
+	private boolean queryCache;
+
+	@Before
+	public void queryCache() {
+		queryCache = UtilImpl.QUERY_CACHE;
+		UtilImpl.QUERY_CACHE = true;
+	}
+
+	@After
+	public void restore() {
+		UtilImpl.QUERY_CACHE = queryCache;
+	}
+
+	@AfterClass
+	public static void off() {
+		UtilImpl.QUERY_CACHE = false;
+	}
+
+	@Test
+	public void testNotCacheableByDefault() {
+		assertFalse(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME).isCacheable());
+		assertFalse(p.newDocumentQuery(aapd).isCacheable());
+		assertFalse(p.newBizQL("select bean from {admin.Contact} as bean").isCacheable());
+		assertFalse(cached(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME)));
+	}
+
+	@Test
+	public void testBeansOfCachedDocumentsAreCached() {
+		assertTrue(cached(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME).cacheable()));
+	}
+
+	@Test
+	public void testBeansOfUncachedDocumentsAreNotCached() {
+		assertFalse(cached(p.newDocumentQuery(aapd).cacheable()));
+		assertFalse(cached(p.newBizQL("select bean from {test.AllAttributesPersistent} as bean").cacheable()));
+
+		// projections hold no beans
+		DocumentQuery query = p.newDocumentQuery(aapd).cacheable();
+		query.addBoundProjection(AllAttributesPersistent.textPropertyName);
+		assertTrue(cached(query));
+	}
+
+	@Test
+	public void testNotCachedWhenTheQueryCacheIsOff() {
+		UtilImpl.QUERY_CACHE = false;
+		assertFalse(cached(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME).cacheable()));
+	}
+
+	@Test
+	public void testNotCachedAfterAPessimisticLock() throws Exception {
+		AllAttributesPersistent bean = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+		p.commit(false);
+		p.begin();
+
+		p.retrieveAndLock(aapd, bean.getBizId());
+		assertFalse(cached(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME).cacheable()));
+		p.commit(false);
+		p.begin();
+		assertTrue(cached(p.newDocumentQuery(Contact.MODULE_NAME, Contact.DOCUMENT_NAME).cacheable()));
+	}
+
+	@Test
+	public void testJdbcInsertsInvalidateAfterCommit() throws Exception {
+		Assume.assumeTrue(((SessionImplementor) ((AbstractHibernatePersistence) p).getSession()).getFactory().getSessionFactoryOptions().isQueryCacheEnabled());
+
+		TagManager tm = EXT.getTagManager();
+		String tagId = tm.create("Test Tag", true);
+		AllAttributesPersistent one = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+		AllAttributesPersistent two = p.save(Util.<AllAttributesPersistent>constructRandomInstance(u, m, aapd, 1));
+		tm.tag(tagId, m.getName(), aapd.getName(), Arrays.asList(one.getBizId()));
+		commit();
+		assertEquals(1, tagged());
+
+		// a change made outside of this instance is not seen
+		try (Connection connection = EXT.getDataStoreConnection()) {
+			connection.setAutoCommit(true);
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("delete from ADM_Tagged");
+			}
+		}
+		assertEquals(1, tagged());
+
+		// the batched JDBC insert invalidates the cached count when it commits
+		tm.tag(tagId, m.getName(), aapd.getName(), Arrays.asList(one.getBizId(), two.getBizId()));
+		commit();
+		assertEquals(2, tagged());
+	}
+
+	@Test
+	public void testDynamicInsertsInvalidateAfterCommit() throws Exception {
+		Assume.assumeTrue(((SessionImplementor) ((AbstractHibernatePersistence) p).getSession()).getFactory().getSessionFactoryOptions().isQueryCacheEnabled());
+
+		long entities = dynamicEntities();
+		p.save(Util.<DynamicPersistentBean>constructRandomInstance(u, m, aadpd, 1));
+		commit();
+		assertEquals(entities + 1, dynamicEntities());
+	}
+
+	private long dynamicEntities() {
+		DocumentQuery query = p.newDocumentQuery(DynamicEntity.MODULE_NAME, DynamicEntity.DOCUMENT_NAME).cacheable();
+		query.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, "count");
+		return query.scalarResult(Number.class).longValue();
+	}
+
+	private long tagged() {
+		DocumentQuery query = p.newDocumentQuery(Tagged.MODULE_NAME, Tagged.DOCUMENT_NAME).cacheable();
+		query.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, "count");
+		return query.scalarResult(Number.class).longValue();
+	}
+
+	private void commit() {
+		p.commit(false);
+		p.begin();
+	}
+
+	private boolean cached(Object query) {
+		return new HibernateQueryDelegate((AbstractHibernatePersistence) p).createHibernateQuery((AbstractQuery) query).isCacheable();
+	}
+}
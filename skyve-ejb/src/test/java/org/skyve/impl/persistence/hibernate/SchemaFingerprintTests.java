@@ -0,0 +1,141 @@
+package org.skyve.impl.persistence.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.Dialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.EXT;
+
+import modules.admin.domain.Contact;
+import modules.test.AbstractSkyveTest;
+import modules.test.domain.AllAttributesPersistent;
+
+public class SchemaFingerprintTests extends AbstractSkyveTest {
+	private String contactTable;
+	private String aapTable;
+
+	@Before
+	public void fingerprint() {
+		Metadata metadata = AbstractHibernatePersistence.getMetadata();
+		contactTable = metadata.getEntityBinding(Contact.MODULE_NAME + Contact.DOCUMENT_NAME).getTable().getQualifiedTableName().render();
+		aapTable = metadata.getEntityBinding(AllAttributesPersistent.MODULE_NAME + AllAttributesPersistent.DOCUMENT_NAME).getTable().getQualifiedTableName().render();
+		AbstractHibernatePersistence.clearSchemaFingerprints();
+	}
+
+	@After
+	public void clear() {
+		AbstractHibernatePersistence.clearSchemaFingerprints();
+	}
+
+	@Test
+	public void testUnchangedAfterWrite() throws Exception {
+		try (Connection connection = connection()) {
+			SchemaFingerprint fingerprint = read(connection);
+			assertFalse(fingerprint.isUnchanged());
+			fingerprint.write(connection);
+
+			assertTrue(read(connection).isUnchanged());
+		}
+	}
+
+	@Test
+	public void testClearForcesAFullSync() throws Exception {
+		try (Connection connection = connection()) {
+			SchemaFingerprint fingerprint = read(connection);
+			int all = fingerprint.changes();
+			fingerprint.write(connection);
+
+			AbstractHibernatePersistence.clearSchemaFingerprints();
+			fingerprint = read(connection);
+			assertFalse(fingerprint.isUnchanged());
+			assertEquals(all, fingerprint.changes());
+		}
+	}
+
+	@Test
+	public void testClearWithoutTheFingerprintTable() throws Exception {
+		try (Connection connection = connection()) {
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("drop table if exists ADM_SchemaFingerprint");
+			}
+		}
+		AbstractHibernatePersistence.clearSchemaFingerprints();
+	}
+
+	@Test
+	public void testFailureIsAttributedToTheTableItNames() throws Exception {
+		try (Connection connection = connection()) {
+			stale(connection);
+			SchemaFingerprint fingerprint = read(connection);
+			assertEquals(2, fingerprint.changes());
+
+			fingerprint.failedStatement("Error executing DDL \"alter table " + aapTable + " add column newColumn integer\" via JDBC Statement");
+			fingerprint.write(connection);
+
+			// only the failed table is migrated again
+			fingerprint = read(connection);
+			assertEquals(1, fingerprint.changes());
+			assertEquals("stale", fingerprint(connection, aapTable));
+		}
+	}
+
+	@Test
+	public void testUnattributedFailureRetriesAllChanges() throws Exception {
+		try (Connection connection = connection()) {
+			stale(connection);
+			SchemaFingerprint fingerprint = read(connection);
+			fingerprint.failedStatement("Error executing DDL \"alter table UNKNOWN_Table add column newColumn integer\" via JDBC Statement");
+			fingerprint.write(connection);
+
+			fingerprint = read(connection);
+			assertEquals(2, fingerprint.changes());
+			assertEquals("stale", fingerprint(connection, aapTable));
+			assertEquals("stale", fingerprint(connection, contactTable));
+		}
+	}
+
+	/**
+	 * Apply the current fingerprints except for 2 tables that are out of date.
+	 */
+	private void stale(Connection connection) throws Exception {
+		read(connection).write(connection);
+		try (PreparedStatement ps = connection.prepareStatement("update ADM_SchemaFingerprint set fingerprint = 'stale' where objectName in (?, ?)")) {
+			ps.setString(1, aapTable);
+			ps.setString(2, contactTable);
+			assertEquals(2, ps.executeUpdate());
+		}
+	}
+
+	private static String fingerprint(Connection connection, String objectName) throws Exception {
+		try (PreparedStatement ps = connection.prepareStatement("select fingerprint from ADM_SchemaFingerprint where objectName = ?")) {
+			ps.setString(1, objectName);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getString(1) : null;
+			}
+		}
+	}
+
+	private static SchemaFingerprint read(Connection connection) throws Exception {
+		SchemaFingerprint result = new SchemaFingerprint(AbstractHibernatePersistence.getMetadata(),
+															(Dialect) AbstractHibernatePersistence.getDialect());
+		result.read(connection);
+		return result;
+	}
+
+	@SuppressWarnings("resource")
+	private static Connection connection() throws Exception {
+		Connection result = EXT.getDataStoreConnection();
+		result.setAutoCommit(true);
+		return result;
+	}
+}
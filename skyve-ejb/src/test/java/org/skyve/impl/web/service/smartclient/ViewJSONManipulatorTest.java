@@ -9,6 +9,7 @@ import org.skyve.impl.metadata.view.container.form.FormItem;
 import org.skyve.impl.metadata.view.container.form.FormRow;
 import org.skyve.impl.metadata.view.widget.Blurb;
 import org.skyve.impl.web.AbstractWebContext;
+import org.skyve.metadata.MetaDataException;
 import org.skyve.metadata.view.View;
 import org.skyve.util.Util;
 
@@ -85,6 +86,41 @@ public class ViewJSONManipulatorTest extends AbstractSkyveTest {
 						json.contains("_2") && json.contains("_3")));
 	}
 
+	@Test
+	public void testBindingPlanSharedByView()
+			throws Exception {
+		ViewImpl view = createView();
+		view.setName("edit");
+
+		ViewBindingPlan plan = ViewBindingPlan.get(c, m, aapd, view, TEST_UXUI);
+		Assert.assertSame("The plan should be shared by the view", plan, ViewBindingPlan.get(c, m, aapd, view, TEST_UXUI));
+
+		ViewImpl reloaded = createView();
+		reloaded.setName("edit");
+		Assert.assertNotSame("The plan should be replaced when the view is reloaded", plan, ViewBindingPlan.get(c, m, aapd, reloaded, TEST_UXUI));
+	}
+
+	@Test
+	public void testBindingPlanResolvesBindings()
+			throws Exception {
+		ViewImpl view = createView();
+		view.setName("edit");
+
+		ViewBindingPlan plan = ViewBindingPlan.get(c, m, aapd, view, TEST_UXUI);
+		Assert.assertSame("The binding metadata should be resolved once",
+							plan.getMetaDataForBinding(aapd, AllAttributesPersistent.textPropertyName),
+							plan.getMetaDataForBinding(aapd, AllAttributesPersistent.textPropertyName));
+		Assert.assertFalse("A text has no domain", plan.hasDomain(AllAttributesPersistent.textPropertyName));
+		Assert.assertFalse("A bad binding has no domain", plan.hasDomain("nonExistent"));
+		try {
+			plan.getMetaDataForBinding(aapd, "nonExistent");
+			Assert.fail("A bad binding should throw");
+		}
+		catch (@SuppressWarnings("unused") MetaDataException e) {
+			// expected
+		}
+	}
+
 	private static ViewImpl createView() {
 		ViewImpl result = new ViewImpl();
 		result.setTitle("TEST");
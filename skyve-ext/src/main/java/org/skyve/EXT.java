@@ -7,12 +7,10 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Properties;
-import java.util.Set;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
-import javax.websocket.Session;
 
 import org.apache.poi.ss.usermodel.Workbook;
 import org.jfree.chart.JFreeChart;
@@ -46,6 +44,7 @@ import org.skyve.impl.report.DefaultReporting;
 import org.skyve.impl.security.SkyveLegacyPasswordEncoder;
 import org.skyve.impl.tag.DefaultTagManager;
 import org.skyve.impl.util.MailUtil;
+import org.skyve.impl.util.PushUtil;
 import org.skyve.impl.util.SQLMetaDataUtil;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.job.JobScheduler;
@@ -59,12 +58,12 @@ import org.skyve.metadata.view.model.chart.ChartData;
 import org.skyve.metadata.view.model.list.DocumentQueryListModel;
 import org.skyve.metadata.view.model.list.ListModel;
 import org.skyve.metadata.view.model.list.RDBMSDynamicPersistenceListModel;
+import org.skyve.persistence.AutoClosingIterable;
 import org.skyve.persistence.DataStore;
 import org.skyve.persistence.DocumentQuery;
 import org.skyve.persistence.Persistence;
 import org.skyve.report.Reporting;
 import org.skyve.tag.TagManager;
-import org.skyve.util.JSON;
 import org.skyve.util.Mail;
 import org.skyve.util.PushMessage;
 import org.skyve.util.Util;
@@ -135,6 +134,21 @@ public class EXT {
 		return new POIWorkbook(ooxmlFormat);
 	}
 
+	/**
+	 * New file factory method for creating a BizPort excel workbook.
+	 * 
+	 * @param ooxmlFormat
+	 *            Create an xlsx (true) or an xls (false).
+	 * @param streaming
+	 *            Only keep a window of rows per sheet in memory whilst writing an xlsx.
+	 *            Use with {@link StandardGenerator#streamData(BizPortWorkbook, AutoClosingIterable)}
+	 *            for large exports.
+	 * @return The new workbook.
+	 */
+	public static BizPortWorkbook newBizPortWorkbook(boolean ooxmlFormat, boolean streaming) {
+		return new POIWorkbook(ooxmlFormat, streaming);
+	}
+
 	/**
 	 * Existing file factory method for creating a BizPort excel workbook.
 	 * 
@@ -213,22 +227,7 @@ public class EXT {
 	 * Push a message to connected client user interfaces.
 	 */
 	public static void push(PushMessage message) {
-		// Note Sessions are thread-safe
-		Set<String> userIds = message.getUserIds();
-		boolean broadcast = userIds.isEmpty();
-		for (Session session : PushMessage.SESSIONS) {
-			if (session.isOpen()) {
-				if (broadcast) {
-					session.getAsyncRemote().sendText(JSON.marshall(message.getItems()));
-				}
-				else {
-					Object userId = session.getUserProperties().get("user");
-					if ((userId == null) || userIds.contains(userId)) {
-						session.getAsyncRemote().sendText(JSON.marshall(message.getItems()));
-					}
-				}
-			}
-		}
+		PushUtil.push(message);
 	}
 	
 	/**
@@ -1,5 +1,7 @@
 package org.skyve.content;
 
+import java.util.List;
+
 import org.pf4j.ExtensionPoint;
 import org.skyve.impl.util.SystemObserver;
 
@@ -13,6 +15,19 @@ public interface ContentManager extends AutoCloseable, ExtensionPoint, SystemObs
 	 */
 	void put(BeanContent content) throws Exception;
 
+	/**
+	 * Put a batch of beans in the content repository.
+	 * By default each bean is put in turn - override to put the batch in one operation.
+	 * @param contents
+	 * @throws Exception
+	 */
+	default void put(List<BeanContent> contents)
+	throws Exception {
+		for (BeanContent content : contents) {
+			put(content);
+		}
+	}
+
 	/**
 	 * Put (and index) an attachment in the content repository
 	 * @param attachment
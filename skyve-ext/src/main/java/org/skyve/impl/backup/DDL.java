@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.List;
 
 import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
 
 public class DDL {
 	private DDL() {
@@ -30,6 +31,7 @@ public class DDL {
 		}
 		if (execute) {
 			BackupUtil.executeScript(drops);
+			AbstractHibernatePersistence.clearSchemaFingerprints();
 		}
 		
 		return drops;
@@ -55,6 +57,7 @@ public class DDL {
 		}
 		if (execute) {
 			BackupUtil.executeScript(creates);
+			AbstractHibernatePersistence.clearSchemaFingerprints();
 		}
 		
 		return creates;
@@ -75,6 +78,7 @@ public class DDL {
 		}
 		if (execute) {
 			BackupUtil.executeScript(updates);
+			AbstractHibernatePersistence.clearSchemaFingerprints();
 		}
 		return updates;
 	}
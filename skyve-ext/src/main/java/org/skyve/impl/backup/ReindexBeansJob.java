@@ -1,15 +1,27 @@
 package org.skyve.impl.backup;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 import org.skyve.EXT;
+import org.skyve.content.BeanContent;
 import org.skyve.content.ContentManager;
+import org.skyve.domain.Bean;
 import org.skyve.domain.PersistentBean;
+import org.skyve.impl.job.JobCheckpoint;
 import org.skyve.impl.metadata.model.document.field.Field;
 import org.skyve.impl.metadata.model.document.field.Field.IndexType;
 import org.skyve.impl.metadata.model.document.field.Memo;
 import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.job.CancellableJob;
 import org.skyve.metadata.customer.Customer;
@@ -17,81 +29,372 @@ import org.skyve.metadata.model.Attribute;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.module.Module.DocumentRef;
+import org.skyve.metadata.user.User;
 import org.skyve.persistence.AutoClosingIterable;
 import org.skyve.persistence.DocumentQuery;
 
+/**
+ * Truncates and reindexes the textual content of all beans for the customer.
+ * <p>
+ * The bizIds of each indexable document are read in order on the job thread and cut into chunks
+ * of {@link #getChunkSize()} that are reindexed on {@link #getWorkerThreads()} worker threads,
+ * each chunk in its own persistence and transaction with its content put to the content manager as a batch.
+ * <p>
+ * When run as a scheduled job, the last bizId of each document up to which all chunks are complete is
+ * checkpointed to the job's admin.Job record. A reindex that fails or is cancelled resumes after the
+ * checkpointed bizIds when it is run again, without truncating the content already reindexed.
+ */
 public class ReindexBeansJob extends CancellableJob {
+	/**
+	 * The chunks of a document completed so far.
+	 * Chunks complete out of order so the checkpoint only moves past contiguous completed chunks.
+	 */
+	private static final class DocumentProgress {
+		private String key;
+		private int nextChunk = 0;
+		// chunk -> last bizId of the completed chunks after nextChunk
+		private Map<Integer, String> completed = new TreeMap<>();
+
+		private DocumentProgress(String key) {
+			this.key = key;
+		}
+
+		/**
+		 * @return	The last bizId of the contiguous completed chunks if this completion moved it, otherwise null.
+		 */
+		private String complete(int chunk, String lastBizId) {
+			completed.put(Integer.valueOf(chunk), lastBizId);
+			String result = null;
+			String next = completed.remove(Integer.valueOf(nextChunk));
+			while (next != null) {
+				result = next;
+				nextChunk++;
+				next = completed.remove(Integer.valueOf(nextChunk));
+			}
+			return result;
+		}
+	}
+
+	// Lock for the log and checkpoint while the workers are running
+	private final transient Object checkpointLock = new Object();
+	// The first exception encountered reindexing a chunk
+	private volatile Exception chunkFailure;
+	// module.document -> the last bizId reindexed by all chunks before it
+	private Map<String, String> checkpoint = new TreeMap<>();
+	// The admin.Job record holding this execution's checkpoint, or null if not checkpointing
+	private transient JobCheckpoint jobCheckpoint;
+
 	@Override
 	public void execute() throws Exception {
 		AbstractPersistence persistence = AbstractPersistence.get();
-		Customer customer = persistence.getUser().getCustomer();
+		User user = persistence.getUser();
+		Customer customer = user.getCustomer();
 		List<String> log = getLog();
 		String trace;
-		
 
-		// truncate the bean content ready to reindex
-		try (ContentManager cm = EXT.newContentManager()) {
-			trace = "Truncate Beans";
-			log.add(trace);
-			UtilImpl.LOGGER.info(trace);
-			cm.truncateBeans(customer.getName());
+		// Only scheduled jobs have an admin.Job record to checkpoint to - not when executed as part of another job
+		if (getDisplayName() != null) {
+			startCheckpoint(persistence);
+		}
+
+		if (checkpoint.isEmpty()) {
+			// truncate the bean content ready to reindex
+			try (ContentManager cm = EXT.newContentManager()) {
+				trace = "Truncate Beans";
+				log.add(trace);
+				UtilImpl.LOGGER.info(trace);
+				cm.truncateBeans(customer.getName());
+			}
 		}
-		
+
 		// reindex
-		List<Module> modules = customer.getModules();
-		float i = 0, l = modules.size();
-		for (Module module : modules) {
-			i++;
-			String moduleName = module.getName();
-
-			Map<String, DocumentRef> refs = module.getDocumentRefs();
-			for (String documentName : refs.keySet()) {
-				DocumentRef ref = refs.get(documentName);
-				// is the document defined in this module?
-				if (moduleName.equals(ref.getOwningModuleName())) {
-					Document document = module.getDocument(customer, documentName);
-					if (needsIndexing(customer, document)) {
-						try {
-							persistence.begin();
-							try (ContentManager cm = EXT.newContentManager()) {
-								// Don't check if a document has indexable fields as we
-								// may need to have nodes deleted
-								// (i.e. a document field used to be indexed but now is not)
-								trace = String.format("Reindex document %s.%s", module.getName(), documentName);
+		final int workerThreads = Math.max(1, getWorkerThreads());
+		final int chunkSize = Math.max(1, getChunkSize());
+		trace = String.format("Reindex with %d worker thread(s) and chunks of %d bean(s)", Integer.valueOf(workerThreads), Integer.valueOf(chunkSize));
+		log.add(trace);
+		UtilImpl.LOGGER.info(trace);
+
+		chunkFailure = null;
+		final AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(workerThreads, r -> {
+			Thread result = new Thread(r, "ReindexBeansJob worker " + threadNumber.incrementAndGet());
+			result.setDaemon(true);
+			return result;
+		});
+		// Bound the chunks in memory to the number of workers plus a chunk each queued
+		final Semaphore permits = new Semaphore(workerThreads * 2);
+		try {
+			List<Module> modules = customer.getModules();
+			float i = 0, l = modules.size();
+			for (Module module : modules) {
+				i++;
+				String moduleName = module.getName();
+
+				Map<String, DocumentRef> refs = module.getDocumentRefs();
+				for (String documentName : refs.keySet()) {
+					if (isCancelled() || (chunkFailure != null)) {
+						break;
+					}
+					DocumentRef ref = refs.get(documentName);
+					// is the document defined in this module?
+					if (moduleName.equals(ref.getOwningModuleName())) {
+						Document document = module.getDocument(customer, documentName);
+						if (needsIndexing(customer, document)) {
+							reindexDocument(persistence, user, document, chunkSize, executor, permits);
+						}
+						else {
+							trace = String.format("Skipping document %s.%s", document.getOwningModuleName(), document.getName());
+							synchronized (checkpointLock) {
 								log.add(trace);
-								UtilImpl.LOGGER.info(trace);
-								DocumentQuery query = persistence.newDocumentQuery(document);
-								query.noTimeout();
-								try (AutoClosingIterable<PersistentBean> it = query.beanIterable()) {
-									for (PersistentBean bean : it) {
-										persistence.reindex(bean);
-										// Evict anything inadvertently loaded and cached by the reindex operation above
-										persistence.evictAllCached();
-									}
-								}
 							}
+							UtilImpl.LOGGER.info(trace);
 						}
-						finally {
-							persistence.commit(false);
-						}
-					}
-					else {
-						trace = String.format("Skipping document %s.%s", document.getOwningModuleName(), document.getName());
-						getLog().add(trace);
-						UtilImpl.LOGGER.info(trace);
 					}
 				}
+				setPercentComplete((int) (i / l * 100f));
 			}
-			setPercentComplete((int) (i / l * 100f));
 		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+
+		if (isCancelled()) {
+			trace = "Reindex beans was cancelled";
+			log.add(trace);
+			UtilImpl.LOGGER.info(trace);
+			return;
+		}
+		if (chunkFailure != null) {
+			throw chunkFailure;
+		}
+
 		trace = "Reindex beans complete";
 		log.add(trace);
 		UtilImpl.LOGGER.info(trace);
 		setPercentComplete(100);
 	}
-	
+
+	/**
+	 * @return	The number of worker threads to reindex with - each uses a data store connection.
+	 */
+	@SuppressWarnings("static-method")
+	protected int getWorkerThreads() {
+		return Math.min(4, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return	The number of beans reindexed in each chunk (and transaction).
+	 */
+	@SuppressWarnings("static-method")
+	protected int getChunkSize() {
+		return 1000;
+	}
+
+	/**
+	 * Read the bizIds of a document in order after its checkpoint and submit them to the workers in chunks.
+	 */
+	private void reindexDocument(AbstractPersistence persistence,
+									User user,
+									Document document,
+									int chunkSize,
+									ExecutorService executor,
+									Semaphore permits)
+	throws Exception {
+		String key = document.getOwningModuleName() + '.' + document.getName();
+		// Don't check if a document has indexable fields as we
+		// may need to have nodes deleted
+		// (i.e. a document field used to be indexed but now is not)
+		String trace = String.format("Reindex document %s", key);
+		String lastBizId = null;
+		synchronized (checkpointLock) {
+			getLog().add(trace);
+			lastBizId = checkpoint.get(key);
+		}
+		UtilImpl.LOGGER.info(trace);
+
+		DocumentQuery query = persistence.newDocumentQuery(document);
+		query.addBoundProjection(Bean.DOCUMENT_ID);
+		query.addBoundOrdering(Bean.DOCUMENT_ID);
+		if (lastBizId != null) {
+			query.getFilter().addGreaterThan(Bean.DOCUMENT_ID, lastBizId);
+		}
+		query.noTimeout();
+
+		DocumentProgress progress = new DocumentProgress(key);
+		int chunk = 0;
+		List<String> bizIds = new ArrayList<>(chunkSize);
+		try (AutoClosingIterable<String> it = query.scalarIterable(String.class)) {
+			for (String bizId : it) {
+				if (isCancelled() || (chunkFailure != null)) {
+					return;
+				}
+				bizIds.add(bizId);
+				if (bizIds.size() == chunkSize) {
+					submitChunk(executor, permits, user, document, progress, chunk++, bizIds);
+					bizIds = new ArrayList<>(chunkSize);
+				}
+			}
+		}
+		if ((! bizIds.isEmpty()) && (! isCancelled()) && (chunkFailure == null)) {
+			submitChunk(executor, permits, user, document, progress, chunk, bizIds);
+		}
+	}
+
+	private void submitChunk(ExecutorService executor,
+								Semaphore permits,
+								User user,
+								Document document,
+								DocumentProgress progress,
+								int chunk,
+								List<String> bizIds)
+	throws InterruptedException {
+		permits.acquire();
+		try {
+			executor.execute(() -> {
+				try {
+					reindexChunk(user, document, progress, chunk, bizIds);
+				}
+				finally {
+					permits.release();
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reindex the beans of a chunk in a new persistence and transaction on a worker thread
+	 * and checkpoint the chunk once its transaction has finished.
+	 */
+	private void reindexChunk(User user,
+								Document document,
+								DocumentProgress progress,
+								int chunk,
+								List<String> bizIds) {
+		AbstractHibernatePersistence p = (AbstractHibernatePersistence) AbstractPersistence.get();
+		try {
+			p.setUser(user);
+			p.setAsyncThread(true);
+			p.begin();
+			if (isCancelled() || (chunkFailure != null)) {
+				return;
+			}
+
+			DocumentQuery query = p.newDocumentQuery(document);
+			query.getFilter().addIn(Bean.DOCUMENT_ID, bizIds.toArray());
+			query.noTimeout();
+			try (ContentManager cm = EXT.newContentManager()) {
+				List<BeanContent> contents = new ArrayList<>(bizIds.size());
+				try (AutoClosingIterable<PersistentBean> it = query.beanIterable()) {
+					for (PersistentBean bean : it) {
+						BeanContent content = p.getReindexContent(bean);
+						if (content == null) {
+							cm.removeBean(bean.getBizId());
+						}
+						else {
+							contents.add(content);
+						}
+						// Evict anything inadvertently loaded and cached by the reindex operation above
+						p.evictAllCached();
+					}
+				}
+				cm.put(contents);
+			}
+
+			// Finish the chunk's transaction then checkpoint it.
+			// NB a chunk is reindexed again on resume if the job stops before it is checkpointed.
+			p.commit(false);
+			if (jobCheckpoint != null) {
+				boolean recorded = false;
+				// The checkpoint is updated in order so that the last checkpoint holds all of the completed chunks.
+				// The update locks the admin.Job row until it is committed, so the commit can be made outside of
+				// the lock and the next worker's update waits for it.
+				synchronized (checkpointLock) {
+					String lastBizId = progress.complete(chunk, bizIds.get(bizIds.size() - 1));
+					if (lastBizId != null) {
+						checkpoint.put(progress.key, lastBizId);
+						p.begin();
+						jobCheckpoint.record(p, formatCheckpoint(checkpoint));
+						recorded = true;
+					}
+				}
+				if (recorded) {
+					p.commit(false);
+				}
+			}
+		}
+		catch (Exception e) {
+			UtilImpl.LOGGER.log(Level.SEVERE, "Exception reindexing chunk " + chunk + " of " + progress.key, e);
+			synchronized (checkpointLock) {
+				if (chunkFailure == null) {
+					chunkFailure = e;
+				}
+				getLog().add(String.format("Exception reindexing chunk %d of %s: %s", Integer.valueOf(chunk), progress.key, e.getMessage()));
+			}
+			p.rollback();
+		}
+		finally {
+			p.commit(true);
+		}
+	}
+
+	/**
+	 * Find the checkpoint of the last unsuccessful execution of this job that is not running to resume from
+	 * and save the admin.Job record that will hold this execution's checkpoint.
+	 */
+	private void startCheckpoint(AbstractPersistence persistence) throws Exception {
+		jobCheckpoint = new JobCheckpoint(this);
+		String resumed = jobCheckpoint.resume(persistence);
+		if (resumed != null) {
+			checkpoint = parseCheckpoint(resumed);
+			if (! checkpoint.isEmpty()) {
+				getLog().add(String.format("Resuming the reindex started at %s with %d document(s) already partly or fully reindexed.",
+												jobCheckpoint.getResumedStartTime(),
+												Integer.valueOf(checkpoint.size())));
+			}
+		}
+		jobCheckpoint.start(persistence, formatCheckpoint(checkpoint));
+	}
+
+	/**
+	 * The checkpoint is stored as a "module.document=bizId" line for each document.
+	 * An empty checkpoint is stored as "=" so that it is not null.
+	 */
+	private static String formatCheckpoint(Map<String, String> checkpoint) {
+		if (checkpoint.isEmpty()) {
+			return "=";
+		}
+		StringBuilder result = new StringBuilder(checkpoint.size() * 64);
+		for (Map.Entry<String, String> entry : checkpoint.entrySet()) {
+			if (result.length() > 0) {
+				result.append('\n');
+			}
+			result.append(entry.getKey()).append('=').append(entry.getValue());
+		}
+		return result.toString();
+	}
+
+	private static Map<String, String> parseCheckpoint(String checkpoint) {
+		Map<String, String> result = new TreeMap<>();
+		if (checkpoint != null) {
+			for (String line : checkpoint.split("\n")) {
+				int equalsIndex = line.indexOf('=');
+				// ignore malformed lines and the empty checkpoint
+				if ((equalsIndex > 0) && (equalsIndex < line.length() - 1)) {
+					result.put(line.substring(0, equalsIndex), line.substring(equalsIndex + 1));
+				}
+			}
+		}
+		return result;
+	}
+
 	private static boolean needsIndexing(Customer customer, Document document) {
-		if (document.isPersistable()) {
+		// dynamic documents are not mapped so they cannot be queried in chunks
+		if (document.isPersistable() && (! document.isDynamic())) {
 			for (Attribute attribute : document.getAllAttributes(customer)) {
 				if (attribute instanceof Field) {
 					Field field = (Field) attribute;
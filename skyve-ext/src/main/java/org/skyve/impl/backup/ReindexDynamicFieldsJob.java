@@ -0,0 +1,63 @@
+package org.skyve.impl.backup;
+
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.impl.persistence.DynamicFieldIndex;
+import org.skyve.impl.persistence.RDBMSDynamicPersistence;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.job.CancellableJob;
+import org.skyve.persistence.Persistence;
+
+/**
+ * Index the fields of the dynamic entities that were written without the dynamic field index
+ * (before it was turned on or restored from an earlier backup) so that dynamic list models can filter, sort and page in SQL.
+ * Each chunk of entities is committed as it is indexed, so the job can be cancelled and run again.
+ */
+public class ReindexDynamicFieldsJob extends CancellableJob {
+	private static final int CHUNK_SIZE = 500;
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+		String trace;
+		if (! UtilImpl.DYNAMIC_FIELD_INDEX) {
+			trace = "The dynamic field index is not enabled - set hibernate.dynamicFieldIndex to true in the json config";
+			log.add(trace);
+			UtilImpl.LOGGER.info(trace);
+			setPercentComplete(100);
+			return;
+		}
+
+		Persistence persistence = CORE.getPersistence();
+		RDBMSDynamicPersistence dynamicPersistence = new RDBMSDynamicPersistence();
+		dynamicPersistence.postConstruct(persistence);
+
+		int total = 0;
+		int indexed;
+		do {
+			if (isCancelled()) {
+				trace = "Indexing of dynamic fields cancelled after " + total + " entities";
+				log.add(trace);
+				UtilImpl.LOGGER.info(trace);
+				return;
+			}
+			indexed = dynamicPersistence.indexFields(CHUNK_SIZE);
+			persistence.commit(false);
+			persistence.begin();
+			total += indexed;
+			if (indexed > 0) {
+				UtilImpl.LOGGER.info("Indexed the dynamic fields of " + total + " entities");
+			}
+		}
+		while (indexed > 0);
+
+		// Ensure the list models check again now that the entities are indexed
+		DynamicFieldIndex.reset();
+
+		trace = "Indexed the dynamic fields of " + total + " entities";
+		log.add(trace);
+		UtilImpl.LOGGER.info(trace);
+		setPercentComplete(100);
+	}
+}
@@ -1,5 +1,6 @@
 package org.skyve.impl.backup;
 
+import org.skyve.impl.util.UtilImpl;
 import org.skyve.job.CancellableJob;
 
 public class ReindexJob extends CancellableJob {
@@ -7,6 +8,9 @@ public class ReindexJob extends CancellableJob {
 	public void execute() throws Exception {
 		execute(new ReindexAttachmentsJob());
 		execute(new ReindexBeansJob());
+		if (UtilImpl.DYNAMIC_FIELD_INDEX) {
+			execute(new ReindexDynamicFieldsJob());
+		}
 		setPercentComplete(100);
 	}
 }
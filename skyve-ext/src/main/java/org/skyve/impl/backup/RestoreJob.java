@@ -33,6 +33,7 @@ import org.skyve.impl.backup.RestoreOptions.PreProcess;
 import org.skyve.impl.content.AbstractContentManager;
 import org.skyve.impl.metadata.customer.CustomerImpl;
 import org.skyve.impl.metadata.model.document.field.Field.IndexType;
+import org.skyve.impl.persistence.DynamicFieldIndex;
 import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
 import org.skyve.impl.persistence.hibernate.dialect.SkyveDialect;
 import org.skyve.impl.util.UtilImpl;
@@ -165,6 +166,14 @@ public class RestoreJob extends CancellableJob {
 				Util.LOGGER.info(trace);
 				DDL.sync(true);
 			}
+			// The restored dynamic entities may not be indexed
+			DynamicFieldIndex.reset();
+			if (UtilImpl.DYNAMIC_FIELD_INDEX) {
+				trace = "Index dynamic fields.";
+				log.add(trace);
+				Util.LOGGER.info(trace);
+				execute(new ReindexDynamicFieldsJob());
+			}
 			if (IndexingOption.both.equals(indexingOption) || IndexingOption.data.equals(indexingOption)) {
 				trace = "Reindex textual indexes.";
 				log.add(trace);
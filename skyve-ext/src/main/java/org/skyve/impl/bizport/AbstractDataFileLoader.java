@@ -2,8 +2,13 @@ package org.skyve.impl.bizport;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.skyve.CORE;
@@ -123,6 +128,9 @@ public abstract class AbstractDataFileLoader {
 		CREATE_ALL, CREATE_FIND, FIND
 	}
 
+	// The number of values in each "in" query when batching lookups
+	private static final int LOOKUP_BATCH_SIZE = 500;
+
 	protected LoaderActivityType activityType;
 	protected boolean treatAllEmptyNumericAsZero;
 	protected UploadException exception;
@@ -134,9 +142,13 @@ public abstract class AbstractDataFileLoader {
 	protected Module module;
 	protected Document document;
 	protected boolean debugMode;
+	protected boolean batchLookups;
 
 	protected Map<String, Bean> createdBeans;
 
+	// The beans found by batched lookups - binding -> normalised value -> matching beans
+	private Map<String, Map<String, List<Bean>>> lookups;
+
 	protected int dataIndex;
 	protected int fieldIndex;
 
@@ -179,6 +191,30 @@ public abstract class AbstractDataFileLoader {
 		this.debugMode = debugMode;
 	}
 
+	/**
+	 * BatchLookups finds the beans referenced by the data in a few "in" queries before beanResults() loads the data
+	 * 
+	 * @return
+	 */
+	public boolean isBatchLookups() {
+		return batchLookups;
+	}
+
+	/**
+	 * BatchLookups finds the beans referenced by the data in a few "in" queries before beanResults() loads the data.
+	 * 
+	 * When set, and the activity type is CREATE_FIND, beanResults() scans the data once to collect the distinct values 
+	 * of the compound text fields with a LOOKUP_EQUALS or CONFIRM_VALUE load action and finds the matching beans 
+	 * before any beans are loaded, instead of querying for each row. Values that match more than one bean are 
+	 * still looked up for each row so the result is the same either way.
+	 * This has no effect for loaders that can only read the data once.
+	 * 
+	 * @param batchLookups
+	 */
+	public void setBatchLookups(boolean batchLookups) {
+		this.batchLookups = batchLookups;
+	}
+
 	/**
 	 * Set the numeric index of a field
 	 * 
@@ -403,6 +439,23 @@ public abstract class AbstractDataFileLoader {
 	 */
 	abstract Date getDateFieldValue(int index);
 
+	/**
+	 * Remember the current data index so that the data can be read again from here with resetData()
+	 * 
+	 * @return	false if the data can only be read once
+	 */
+	@SuppressWarnings("static-method")
+	boolean markData() {
+		return false;
+	}
+
+	/**
+	 * Move back to the data index remembered by markData()
+	 */
+	void resetData() {
+		// nothing to do by default
+	}
+
 	/**
 	 * Describes the value location
 	 * 
@@ -486,37 +539,50 @@ public abstract class AbstractDataFileLoader {
 				searchBinding = binding.substring(0, binding.indexOf('.'));
 			}
 
-			// if restBinding has more than 1 dot, get up to the second dot
-			// e.g. - want the binding for customer.company
-			String firstLevelBinding = binding;
-			if (restBinding.lastIndexOf('.') > restBinding.indexOf('.')) {
-				firstLevelBinding = binding.substring(0, binding.indexOf('.', searchBinding.length() + 1));
-			}
-
 			// e.g. document
-			TargetMetaData drivingMD = Binder.getMetaDataForBinding(customer, module, document, firstLevelBinding);
-			Document drivingDoc = drivingMD.getDocument();
-			DocumentQuery lookup = pers.newDocumentQuery(drivingDoc.getOwningModuleName(), drivingDoc.getName());
-			if (debugMode) {
-				Util.LOGGER.info(field.getLoadAction().name() + " searching " + restBinding + " in document " + drivingDoc.getName() + " for value " + loadValue);
-			}
-			switch (field.getLoadAction()) {
-			case LOOKUP_EQUALS:
-			case CONFIRM_VALUE:
-				lookup.getFilter().addEquals(restBinding, loadValue);
-				break;
-			case LOOKUP_LIKE:
-				lookup.getFilter().addLike(restBinding, (String) loadValue);
-				break;
-			case LOOKUP_CONTAINS:
-				lookup.getFilter().addLike(restBinding, "%" + (String) loadValue + "%");
-				break;
-			default:
-				break;
+			Document drivingDoc = getDrivingDocument(binding);
+
+			// check the batched lookups first
+			Bean foundBean = null;
+			boolean found = false;
+			Map<String, List<Bean>> batch = (lookups == null) ? null : lookups.get(binding);
+			if ((batch != null) &&
+					(LoadAction.LOOKUP_EQUALS.equals(field.getLoadAction()) || LoadAction.CONFIRM_VALUE.equals(field.getLoadAction()))) {
+				List<Bean> matches = batch.get(normaliseLookupValue(loadValue.toString()));
+				if (matches == null) { // no match
+					// unless the bean has been created by an earlier row and may have been saved since
+					found = (createdBeans == null) || (! createdBeans.containsKey(binding + ',' + loadValue));
+				}
+				else if ((matches.size() == 1) && loadValue.equals(Binder.get(matches.get(0), restBinding))) { // exact match
+					foundBean = matches.get(0);
+					found = true;
+				}
+				// otherwise leave it to the data store to decide
 			}
-			// Util.LOGGER.info("LOOKUP FILTER " + lookup.getFilter().toString());
 
-			Bean foundBean = lookup.beanResult();
+			if (! found) {
+				DocumentQuery lookup = pers.newDocumentQuery(drivingDoc.getOwningModuleName(), drivingDoc.getName());
+				if (debugMode) {
+					Util.LOGGER.info(field.getLoadAction().name() + " searching " + restBinding + " in document " + drivingDoc.getName() + " for value " + loadValue);
+				}
+				switch (field.getLoadAction()) {
+				case LOOKUP_EQUALS:
+				case CONFIRM_VALUE:
+					lookup.getFilter().addEquals(restBinding, loadValue);
+					break;
+				case LOOKUP_LIKE:
+					lookup.getFilter().addLike(restBinding, (String) loadValue);
+					break;
+				case LOOKUP_CONTAINS:
+					lookup.getFilter().addLike(restBinding, "%" + (String) loadValue + "%");
+					break;
+				default:
+					break;
+				}
+				// Util.LOGGER.info("LOOKUP FILTER " + lookup.getFilter().toString());
+
+				foundBean = lookup.beanResult();
+			}
 			if (!LoaderActivityType.CREATE_ALL.equals(activityType) && foundBean != null) {
 				if (debugMode) {
 					Util.LOGGER.info("Matching bean found " + foundBean.getBizId());
@@ -578,6 +644,139 @@ public abstract class AbstractDataFileLoader {
 		}
 	}
 
+	/**
+	 * Get the document searched for a compound binding.
+	 * e.g. if customer.company.contact.name is supplied, we are searching for a customer (the document of customer.company)
+	 * 
+	 * @param binding
+	 * @return
+	 */
+	private Document getDrivingDocument(String binding) {
+		String restBinding = binding;
+		String searchBinding = binding;
+		if (binding.indexOf('.') > 0) {
+			restBinding = binding.substring(binding.indexOf('.') + 1);
+			searchBinding = binding.substring(0, binding.indexOf('.'));
+		}
+
+		// if restBinding has more than 1 dot, get up to the second dot
+		// e.g. - want the binding for customer.company
+		String firstLevelBinding = binding;
+		if (restBinding.lastIndexOf('.') > restBinding.indexOf('.')) {
+			firstLevelBinding = binding.substring(0, binding.indexOf('.', searchBinding.length() + 1));
+		}
+
+		TargetMetaData drivingMD = Binder.getMetaDataForBinding(customer, module, document, firstLevelBinding);
+		return drivingMD.getDocument();
+	}
+
+	/**
+	 * Lookup values are matched case and surrounding space insensitively so that the data store 
+	 * can decide when a value differs from a matching bean's value in case or space only.
+	 */
+	private static String normaliseLookupValue(String value) {
+		return value.trim().toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Find the beans referenced by the data from the current data index in batches when BatchLookups is set 
+	 * and the activity type is CREATE_FIND.
+	 * beanResults() calls this before loading the data. Callers that load the data row by row with beanResult() 
+	 * should call this once the fields have been added and before the first row is loaded.
+	 */
+	public void prepareLookups() {
+		if (batchLookups && LoaderActivityType.CREATE_FIND.equals(activityType) && markData()) {
+			try {
+				prefetchLookups();
+			}
+			finally {
+				resetData();
+			}
+		}
+	}
+
+	/**
+	 * Scan the data from the current data index to collect the distinct lookup values of each batchable field,
+	 * then find the matching beans in a few "in" queries.
+	 */
+	private void prefetchLookups() {
+		// binding -> distinct values
+		Map<String, Set<String>> values = new LinkedHashMap<>();
+		List<DataFileField> lookupFields = new ArrayList<>();
+		for (DataFileField field : fields) {
+			if (isBatchable(field)) {
+				lookupFields.add(field);
+				values.putIfAbsent(field.getBinding(), new LinkedHashSet<>());
+			}
+		}
+		if (lookupFields.isEmpty()) {
+			return;
+		}
+
+		while (hasNextData()) {
+			nextData();
+			if (isNoData()) {
+				break;
+			}
+			for (DataFileField field : lookupFields) {
+				String value = getStringFieldValue(field.getIndex().intValue(), true);
+				if ((value != null) && (value.trim().length() > 0)) {
+					values.get(field.getBinding()).add(value);
+				}
+			}
+		}
+
+		lookups = new HashMap<>();
+		for (Map.Entry<String, Set<String>> entry : values.entrySet()) {
+			String binding = entry.getKey();
+			String restBinding = binding.substring(binding.indexOf('.') + 1);
+			Document drivingDoc = getDrivingDocument(binding);
+
+			Map<String, List<Bean>> batch = new HashMap<>();
+			List<String> bindingValues = new ArrayList<>(entry.getValue());
+			for (int i = 0, l = bindingValues.size(); i < l; i += LOOKUP_BATCH_SIZE) {
+				List<String> chunk = bindingValues.subList(i, Math.min(i + LOOKUP_BATCH_SIZE, l));
+				DocumentQuery lookup = pers.newDocumentQuery(drivingDoc.getOwningModuleName(), drivingDoc.getName());
+				lookup.getFilter().addIn(restBinding, chunk.toArray());
+				for (Bean bean : lookup.beanResults()) {
+					Object value = Binder.get(bean, restBinding);
+					if (value != null) {
+						batch.computeIfAbsent(normaliseLookupValue(value.toString()), k -> new ArrayList<>(1)).add(bean);
+					}
+				}
+			}
+			if (debugMode) {
+				Util.LOGGER.info("Batched lookup of " + bindingValues.size() + " values for " + binding + " matched " + batch.size() + " values in document " + drivingDoc.getName());
+			}
+			lookups.put(binding, batch);
+		}
+	}
+
+	/**
+	 * A field can be looked up in batches if it is a compound binding to a text value that is looked up by equality.
+	 */
+	private static boolean isBatchable(DataFileField field) {
+		String binding = field.getBinding();
+		Attribute attribute = field.getAttribute();
+		if ((binding == null) || (binding.indexOf('.') <= 0) || (attribute == null) ||
+				(field.getIndex() == null) || (field.getConverter() != null)) {
+			return false;
+		}
+		if (! (LoadAction.LOOKUP_EQUALS.equals(field.getLoadAction()) || LoadAction.CONFIRM_VALUE.equals(field.getLoadAction()))) {
+			return false;
+		}
+		switch (attribute.getAttributeType()) {
+		case colour:
+		case id:
+		case markup:
+		case memo:
+		case text:
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	/**
 	 * Returns a bean corresponding to the values in the file at the current data index
 	 * 
@@ -953,6 +1152,8 @@ public abstract class AbstractDataFileLoader {
 	 * @return
 	 */
 	public <T extends Bean> List<T> beanResults() {
+		prepareLookups();
+
 		while (hasNextData()) {
 			nextData();
 			if (isNoData()) {
@@ -971,6 +1172,7 @@ public abstract class AbstractDataFileLoader {
 				results.add(result);
 			}
 		}
+		lookups = null;
 
 		// add a warning if nothing was found
 		if (results.isEmpty()) {
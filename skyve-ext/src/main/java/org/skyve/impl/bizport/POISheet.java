@@ -2,8 +2,9 @@ package org.skyve.impl.bizport;
 
 import java.util.Date;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.poi.common.usermodel.HyperlinkType;
@@ -11,10 +12,10 @@ import org.apache.poi.hssf.usermodel.DVConstraint;
 import org.apache.poi.hssf.usermodel.HSSFDataValidation;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.skyve.bizport.BizPortColumn;
 import org.skyve.bizport.BizPortSheet;
 import org.skyve.bizport.SheetKey;
@@ -70,9 +71,9 @@ public final class POISheet implements BizPortSheet {
 	// Row 0, Col 2 optionally holds the collection attribute name, if this is a collection sheet.
 	static final int COLLECTION_COLUMN = 2;
 
-	// Keeps track of the next validation column to use for range values
-	// this number is decremented as domain values are added
-	private static int validationColumn = 255;
+	// The number of row keys remembered per sheet when streaming.
+	// Keys of rows that have not been seen recently are forgotten to bound the memory used by large exports.
+	private static final int STREAMING_ROW_KEYS = 10000;
 
 	// My WorkbookData parent
 	private POIWorkbook parent;
@@ -102,7 +103,7 @@ public final class POISheet implements BizPortSheet {
 	// the data index - row key to row number
 	// allows easy lookup of data by the sheet key
 	// v(default is bizId for document sheets, ownerId + '#|' + elementId for collection sheets)
-	private SortedMap<String, Integer> indices = new TreeMap<>();
+	private Map<String, Integer> indices = new TreeMap<>();
 
 	/**
 	 * New File constructor
@@ -262,6 +263,21 @@ public final class POISheet implements BizPortSheet {
 		this.parent = parent;
 		this.sheet = sheet;
 		this.sheet.createFreezePane(0, 3);
+		// Streamed rows are flushed before the workbook is written so track the column widths as rows are added
+		if (sheet instanceof SXSSFSheet) {
+			((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+
+			// Only the recently used row keys are kept when streaming.
+			// A row key that has been forgotten is added again as a duplicate row which loads to the same bean.
+			indices = new LinkedHashMap<String, Integer>(STREAMING_ROW_KEYS * 2, 0.75f, true) {
+				private static final long serialVersionUID = -2185374062387307632L;
+
+				@Override
+				protected boolean removeEldestEntry(Entry<String, Integer> eldest) {
+					return (size() > STREAMING_ROW_KEYS);
+				}
+			};
+		}
 		drawing = sheet.createDrawingPatriarch();
 
 		// Row 0 - module name in cell 0, document name or binding in cell 1
@@ -341,60 +357,58 @@ public final class POISheet implements BizPortSheet {
 //			Object minValue = column.getMinValue();
 //			Object maxValue = column.getMaxValue();
 
-			if (! parent.ooxmlFormat) { // old school
-				if (rangeValues != null) {
-					setRangeValues(rangeValues, i);
-				}
-				else {
-					CellRangeAddressList addresslist = new CellRangeAddressList(START_ROW, Integer.MAX_VALUE, i, i);
-					switch (column.getType()) {
-					case date:
-					case dateTime:
-					case time:
-					case timestamp:
-						DVConstraint dateConstraint = DVConstraint.createDateConstraint(DataValidationConstraint.OperatorType.IGNORED,
-																							"01/01/1900",
-																							"31/12/2999",
-																							"d/M/yy");
-						HSSFDataValidation dateValidation = new HSSFDataValidation(addresslist, dateConstraint);
-						dateValidation.setSuppressDropDownArrow(true);
-						dateValidation.setShowErrorBox(true);
-						dateValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
-						dateValidation.createErrorBox("Not a valid value", "Please enter a valid data value between .");
-						dateValidation.setEmptyCellAllowed(true);
-						((HSSFSheet) sheet).addValidationData(dateValidation);
-						break;
-					case integer:
-					case longInteger:
+			if (rangeValues != null) {
+				setRangeValues(rangeValues, i);
+			}
+			else if (! parent.ooxmlFormat) { // old school
+				CellRangeAddressList addresslist = new CellRangeAddressList(START_ROW, Integer.MAX_VALUE, i, i);
+				switch (column.getType()) {
+				case date:
+				case dateTime:
+				case time:
+				case timestamp:
+					DVConstraint dateConstraint = DVConstraint.createDateConstraint(DataValidationConstraint.OperatorType.IGNORED,
+																						"01/01/1900",
+																						"31/12/2999",
+																						"d/M/yy");
+					HSSFDataValidation dateValidation = new HSSFDataValidation(addresslist, dateConstraint);
+					dateValidation.setSuppressDropDownArrow(true);
+					dateValidation.setShowErrorBox(true);
+					dateValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
+					dateValidation.createErrorBox("Not a valid value", "Please enter a valid data value between .");
+					dateValidation.setEmptyCellAllowed(true);
+					((HSSFSheet) sheet).addValidationData(dateValidation);
+					break;
+				case integer:
+				case longInteger:
 // TODO look at string length and date ValidationTypes
-						DVConstraint longConstraint = DVConstraint.createNumericConstraint(DataValidationConstraint.ValidationType.INTEGER,
+					DVConstraint longConstraint = DVConstraint.createNumericConstraint(DataValidationConstraint.ValidationType.INTEGER,
+																						DataValidationConstraint.OperatorType.BETWEEN,
+																						Integer.toString(Integer.MIN_VALUE),
+																						Integer.toString(Integer.MAX_VALUE));
+					HSSFDataValidation longValidation = new HSSFDataValidation(addresslist, longConstraint);
+					longValidation.setSuppressDropDownArrow(true);
+					longValidation.setShowErrorBox(true);
+					longValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
+					longValidation.createErrorBox("Not a valid value", "Please enter a valid value.");
+					longValidation.setEmptyCellAllowed(true);
+					((HSSFSheet) sheet).addValidationData(longValidation);
+					break;
+				case decimal2:
+				case decimal5:
+				case decimal10:
+					DVConstraint floatConstraint = DVConstraint.createNumericConstraint(DataValidationConstraint.ValidationType.DECIMAL,
 																							DataValidationConstraint.OperatorType.BETWEEN,
 																							Integer.toString(Integer.MIN_VALUE),
 																							Integer.toString(Integer.MAX_VALUE));
-						HSSFDataValidation longValidation = new HSSFDataValidation(addresslist, longConstraint);
-						longValidation.setSuppressDropDownArrow(true);
-						longValidation.setShowErrorBox(true);
-						longValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
-						longValidation.createErrorBox("Not a valid value", "Please enter a valid value.");
-						longValidation.setEmptyCellAllowed(true);
-						((HSSFSheet) sheet).addValidationData(longValidation);
-						break;
-					case decimal2:
-					case decimal5:
-					case decimal10:
-						DVConstraint floatConstraint = DVConstraint.createNumericConstraint(DataValidationConstraint.ValidationType.DECIMAL,
-																								DataValidationConstraint.OperatorType.BETWEEN,
-																								Integer.toString(Integer.MIN_VALUE),
-																								Integer.toString(Integer.MAX_VALUE));
-						HSSFDataValidation floatValidation = new HSSFDataValidation(addresslist, floatConstraint);
-						floatValidation.setSuppressDropDownArrow(true);
-						floatValidation.setShowErrorBox(true);
-						floatValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
-						floatValidation.createErrorBox("Not a valid value", "Please enter a valid value.");
-						floatValidation.setEmptyCellAllowed(true);
-						((HSSFSheet) sheet).addValidationData(floatValidation);
-						break;
-					}
+					HSSFDataValidation floatValidation = new HSSFDataValidation(addresslist, floatConstraint);
+					floatValidation.setSuppressDropDownArrow(true);
+					floatValidation.setShowErrorBox(true);
+					floatValidation.setErrorStyle(DataValidation.ErrorStyle.STOP);
+					floatValidation.createErrorBox("Not a valid value", "Please enter a valid value.");
+					floatValidation.setEmptyCellAllowed(true);
+					((HSSFSheet) sheet).addValidationData(floatValidation);
+					break;
 				}
 			}
 			i++;
@@ -421,39 +435,28 @@ public final class POISheet implements BizPortSheet {
 
 	/**
 	 * Set the range values for an entire column within the current sheet.
+	 * The values are held in the workbook's hidden domains sheet and referenced by name.
 	 *
 	 * @param rangeValues	The range values to set.
 	 * @param columnIndex	The index of the column (starts with 0 index).
 	 */
 	private void setRangeValues(String[] rangeValues, int columnIndex) {
-
-	    // populate range values
-		for (int i = 0, l = rangeValues.length; i < l; i++) {
-			Row row = sheet.getRow(i + START_ROW);
-			if (row == null) {
-				row = sheet.createRow(i + START_ROW);
-			}
-			row.createCell(validationColumn).setCellValue(rangeValues[i]);
-		}
-
-		// Create lookup cell range address expression
-		CellRangeAddressList addresslist = new CellRangeAddressList(START_ROW, Integer.MAX_VALUE, columnIndex, columnIndex);
-		CellRangeAddress validationListVals = new CellRangeAddress(START_ROW, rangeValues.length + START_ROW, validationColumn, validationColumn);
-		StringBuilder sb = new StringBuilder(validationListVals.formatAsString());
-		String validationListValsExpression = sb.insert(0, '$').insert(3, '$').insert(6, '$').insert(9, '$').toString();
-
-		// Create the constraint
-		DVConstraint constraint = DVConstraint.createFormulaListConstraint(validationListValsExpression);
-
-		HSSFDataValidation validation = new HSSFDataValidation(addresslist, constraint);
-		validation.setSuppressDropDownArrow(false);
+		String domainName = parent.addDomainValues(rangeValues);
+
+		DataValidationHelper helper = sheet.getDataValidationHelper();
+		DataValidationConstraint constraint = helper.createFormulaListConstraint(domainName);
+		CellRangeAddressList addresslist = new CellRangeAddressList(START_ROW,
+																		parent.workbook.getSpreadsheetVersion().getLastRowIndex(),
+																		columnIndex,
+																		columnIndex);
+		DataValidation validation = helper.createValidation(constraint, addresslist);
+		// NB xlsx inverts the meaning of this flag - true shows the drop down arrow
+		validation.setSuppressDropDownArrow(parent.ooxmlFormat);
 		validation.setShowErrorBox(true);
 		validation.setErrorStyle(DataValidation.ErrorStyle.STOP);
 		validation.createErrorBox("Pick a valid value", "Please pick a valid value from the drop down");
 		validation.setEmptyCellAllowed(true);
-		((HSSFSheet) sheet).addValidationData(validation);
-
-		validationColumn--;
+		sheet.addValidationData(validation);
 	}
 
 	@Override
@@ -502,13 +505,14 @@ public final class POISheet implements BizPortSheet {
             throw new IllegalStateException("This workbook data has not been materialized");
         }
 
-        // A row may already exist if it has been created to make static domain values
+        // The first data row may already exist if it has been created for the lookup formula template.
+        // Otherwise rows are only ever appended so a streaming sheet never revisits a flushed row.
         currentRow = sheet.getRow(nextRow);
         if (currentRow == null) {
             currentRow = sheet.createRow(nextRow);
         }
-        nextRow++;
 		indices.put(buildRowKey(rowKey), Integer.valueOf(nextRow));
+        nextRow++;
 	}
 
 	/**
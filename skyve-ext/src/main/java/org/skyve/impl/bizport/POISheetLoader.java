@@ -27,6 +27,10 @@ public class POISheetLoader extends AbstractDataFileLoader {
 
 	private boolean rowLoaded = false;
 
+	// The position remembered by markData()
+	private int markedDataIndex;
+	private boolean markedRowLoaded;
+
 	/**
 	 * For untyped (non Bean) access to data file values
 	 *
@@ -109,6 +113,20 @@ public class POISheetLoader extends AbstractDataFileLoader {
 		rowLoaded = true;
 	}
 
+	@Override
+	boolean markData() {
+		markedDataIndex = dataIndex;
+		markedRowLoaded = rowLoaded;
+		return true;
+	}
+
+	@Override
+	void resetData() {
+		dataIndex = markedDataIndex;
+		rowLoaded = markedRowLoaded;
+		row = sheet.getRow(dataIndex);
+	}
+
 	@Override
 	public boolean hasNextData() {
 		// POI appears to always find next rows
@@ -9,6 +9,10 @@ import java.util.Set;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFFont;
@@ -35,9 +39,17 @@ public final class POIWorkbook implements BizPortWorkbook {
 	// The adapted Excel workbook
 	Workbook workbook;
 
+	/**
+	 * The number of rows per sheet held in memory when streaming, older rows are flushed to temp files.
+	 */
+	public static final int STREAMING_ROW_WINDOW = 100;
+
 	// whether we are creating or reading an xls or an xlsx
 	boolean ooxmlFormat;
 
+	// whether the xlsx is written through a sliding window of rows
+	private boolean streaming;
+
 	// Factory for creating things at the workbook level
 	CreationHelper creationHelper;
 
@@ -56,6 +68,17 @@ public final class POIWorkbook implements BizPortWorkbook {
 	// Appended to keep sheet titles unique, if required
 	private short sheetNumber = 0;
 
+	/**
+	 * The title of the hidden sheet holding the domain values of the drop down columns.
+	 */
+	private static final String DOMAINS_SHEET_TITLE = "Domains";
+
+	// The hidden sheet holding the domain values, one domain per column, created when first required
+	private Sheet domainsSheet;
+
+	// The next column to use in the domains sheet
+	private int nextDomainColumn = 0;
+
 	// Document Name, or collection binding -> sheet data
 	private Map<SheetKey, POISheet> sheets = new LinkedHashMap<>();
 
@@ -63,7 +86,23 @@ public final class POIWorkbook implements BizPortWorkbook {
 	 * New file constructor.
 	 */
 	public POIWorkbook(boolean ooxmlFormat) {
+		this(ooxmlFormat, false);
+	}
+
+	/**
+	 * New file constructor.
+	 * A streaming workbook only keeps {@link #STREAMING_ROW_WINDOW} rows per sheet in memory
+	 * so rows must be added in order and cannot be revisited once they have left the window.
+	 *
+	 * @param ooxmlFormat	Create an xlsx (true) or an xls (false).
+	 * @param streaming	Write the rows through a sliding window - xlsx only.
+	 */
+	public POIWorkbook(boolean ooxmlFormat, boolean streaming) {
+		if (streaming && (! ooxmlFormat)) {
+			throw new IllegalArgumentException("Only xlsx workbooks can be streamed");
+		}
 		this.ooxmlFormat = ooxmlFormat;
+		this.streaming = streaming;
 	}
 
 	/**
@@ -131,8 +170,14 @@ public final class POIWorkbook implements BizPortWorkbook {
 
 	@Override
 	public void materialise() {
-		Workbook newWorkbook = ooxmlFormat ? new XSSFWorkbook() : new HSSFWorkbook();
-		workbook = newWorkbook;
+		if (streaming) {
+			SXSSFWorkbook newWorkbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+			newWorkbook.setCompressTempFiles(true);
+			workbook = newWorkbook;
+		}
+		else {
+			workbook = ooxmlFormat ? new XSSFWorkbook() : new HSSFWorkbook();
+		}
 
 		setupWorkbookInfrastructure();
 
@@ -208,7 +253,15 @@ public final class POIWorkbook implements BizPortWorkbook {
 			}
 		}
 
-		workbook.write(out);
+		try {
+			workbook.write(out);
+		}
+		finally {
+			if (workbook instanceof SXSSFWorkbook) {
+				// remove the temp files backing the flushed rows
+				((SXSSFWorkbook) workbook).dispose();
+			}
+		}
 	}
 
 	@Override
@@ -216,6 +269,42 @@ public final class POIWorkbook implements BizPortWorkbook {
 		return ooxmlFormat ? BizPortFormat.xlsx : BizPortFormat.xls;
 	}
 
+	/**
+	 * Write domain values down the next column of the hidden domains sheet and name the range of values.
+	 * The domains are kept out of the data sheets so that the rows of the data sheets are only ever appended.
+	 *
+	 * @param values	The domain values.
+	 * @return	The name of the range of values, suitable for a list constraint formula.
+	 */
+	String addDomainValues(String[] values) {
+		if (domainsSheet == null) {
+			domainsSheet = workbook.createSheet(generateValidUniqueSheetTitle(DOMAINS_SHEET_TITLE));
+			// Each domain revisits the rows from the top so keep them all in memory when streaming
+			if (domainsSheet instanceof SXSSFSheet) {
+				((SXSSFSheet) domainsSheet).setRandomAccessWindowSize(-1);
+			}
+			workbook.setSheetHidden(workbook.getSheetIndex(domainsSheet), true);
+		}
+
+		int column = nextDomainColumn++;
+		for (int i = 0, l = values.length; i < l; i++) {
+			Row row = domainsSheet.getRow(i);
+			if (row == null) {
+				row = domainsSheet.createRow(i);
+			}
+			row.createCell(column, CellType.STRING).setCellValue(values[i]);
+		}
+
+		String sheetName = domainsSheet.getSheetName();
+		AreaReference area = new AreaReference(new CellReference(sheetName, 0, column, true, true),
+												new CellReference(sheetName, Math.max(values.length - 1, 0), column, true, true),
+												workbook.getSpreadsheetVersion());
+		Name name = workbook.createName();
+		name.setNameName("domain" + column);
+		name.setRefersToFormula(area.formatAsString());
+		return name.getNameName();
+	}
+
 	private String generateValidUniqueSheetTitle(String proposedSheetTitle) {
 		String result = proposedSheetTitle;
 		if (proposedSheetTitle.length() > 29) {
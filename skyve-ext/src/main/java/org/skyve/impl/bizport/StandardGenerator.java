@@ -3,6 +3,7 @@ package org.skyve.impl.bizport;
 import java.util.List;
 import java.util.Set;
 
+import org.skyve.CORE;
 import org.skyve.bizport.BizPortColumn;
 import org.skyve.bizport.BizPortSheet;
 import org.skyve.bizport.BizPortWorkbook;
@@ -27,6 +28,8 @@ import org.skyve.metadata.model.document.DomainType;
 import org.skyve.metadata.model.document.Reference;
 import org.skyve.metadata.model.document.Relation;
 import org.skyve.metadata.module.Module;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.Persistence;
 import org.skyve.util.BeanVisitor;
 
 /**
@@ -127,6 +130,27 @@ public final class StandardGenerator {
 	 */
 	public void generateData(final BizPortWorkbook workbook, 
 								Iterable<? extends Bean> beans) {
+		generateData(workbook, beans, false);
+	}
+
+	/**
+	 * Fill the workbook with data streamed from a query of the driving document type.
+	 * Each bean is evicted from the persistence first level cache once its rows are written,
+	 * so with a streaming workbook (see {@link POIWorkbook#POIWorkbook(boolean, boolean)})
+	 * memory use is bounded by the row window rather than the number of beans.
+	 * The iterable is not closed.
+	 * 
+	 * @param workbook	The workbook to fill.
+	 * @param beans	The data to use to fill with.
+	 */
+	public void streamData(final BizPortWorkbook workbook,
+							AutoClosingIterable<? extends Bean> beans) {
+		generateData(workbook, beans, true);
+	}
+
+	private void generateData(final BizPortWorkbook workbook, 
+								Iterable<? extends Bean> beans,
+								boolean evict) {
 		// Recursively walks the topBean's object graph populating the relevant 
 		// sheets in the workbook.
 		BeanVisitor excelBeanVisitor = new BeanVisitor(false, false, false) {
@@ -239,8 +263,12 @@ public final class StandardGenerator {
 			}
 		};
 
+		Persistence persistence = evict ? CORE.getPersistence() : null;
 		for (Bean bean : beans) {
 			excelBeanVisitor.visit(document, bean, customer);
+			if (persistence != null) {
+				persistence.evictCached(bean);
+			}
 		}
 	}
 
@@ -1,8 +1,10 @@
 package org.skyve.impl.bizport;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.skyve.bizport.BizPortColumn;
@@ -28,6 +30,7 @@ import org.skyve.metadata.model.document.Reference;
 import org.skyve.metadata.model.document.Relation;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.user.User;
+import org.skyve.persistence.DocumentQuery;
 import org.skyve.persistence.Persistence;
 import org.skyve.util.Util;
 import org.skyve.util.Binder.TargetMetaData;
@@ -46,6 +49,9 @@ import org.skyve.util.Binder.TargetMetaData;
  */
 public class StandardLoader {
 	private static final String REFERENCED_ROW_DNE_MESSAGE_KEY = "bizport.referencedRowDoesNotExist";
+	
+	// The number of IDs in each "in" query when batching lookups
+	private static final int LOOKUP_BATCH_SIZE = 500;
 
 	private BizPortWorkbook workbook;
 	
@@ -61,11 +67,33 @@ public class StandardLoader {
 	// This map contains all the beans in the spreadsheet including child beans, child's child beans.
 	private Map<String, Bean> beansBySheetKey = new TreeMap<>();
 	
+	// Look up the existing bizIds of each document sheet in batches before populating it
+	private boolean batchLookups = false;
+	
+	// The bizIds of the sheet being populated that exist in the data store, or null if not batching lookups
+	private Set<String> existingIds = null;
+	
 	public StandardLoader(BizPortWorkbook workbook, UploadException problems) {
 		this.workbook = workbook;
 		this.problems = problems;
 	}
 
+	public boolean isBatchLookups() {
+		return batchLookups;
+	}
+
+	/**
+	 * When set, the ID column of each document sheet is scanned before the sheet is populated and
+	 * the IDs that exist in the data store are found with a few "in" queries.
+	 * Rows with IDs that do not exist are then created without a retrieval each.
+	 * Rows with existing IDs are retrieved and locked as usual.
+	 * 
+	 * @param batchLookups
+	 */
+	public void setBatchLookups(boolean batchLookups) {
+		this.batchLookups = batchLookups;
+	}
+
 	/**
 	 * Populate from document sheets.
 	 * Link from association columns.
@@ -147,21 +175,60 @@ public class StandardLoader {
 															BizPortSheet sheet, 
 															List<T> listToAddBeanTo)
 	throws Exception {
-		while (sheet.nextRow()) {
-			T bean = populateBeanFromRow(persistence, user, document, sheet);
-			Object sheetId = sheet.getValue(Bean.DOCUMENT_ID, AttributeType.text, problems);
-			if (sheetId != null) {
-				beansBySheetKey.put(createSheetKey(document, sheetId), bean);
-				refs.put(bean.getBizId(), sheetId);
-
-				if (listToAddBeanTo != null) {
-					listToAddBeanTo.add(bean);
+		if (batchLookups && (sheet.getColumn(Bean.DOCUMENT_ID) != null)) {
+			existingIds = findExistingIds(persistence, document, sheet);
+		}
+		try {
+			while (sheet.nextRow()) {
+				T bean = populateBeanFromRow(persistence, user, document, sheet);
+				Object sheetId = sheet.getValue(Bean.DOCUMENT_ID, AttributeType.text, problems);
+				if (sheetId != null) {
+					beansBySheetKey.put(createSheetKey(document, sheetId), bean);
+					refs.put(bean.getBizId(), sheetId);
+	
+					if (listToAddBeanTo != null) {
+						listToAddBeanTo.add(bean);
+					}
 				}
 			}
 		}
+		finally {
+			existingIds = null;
+		}
 		sheet.resetRow();
 	}
 	
+	/**
+	 * Scan the ID column of a document sheet and find which IDs exist in the data store.
+	 * 
+	 * @param persistence	The persistence to query with.
+	 * @param document	The document of the sheet.
+	 * @param sheet	The sheet to scan.
+	 * @return	The set of existing bizIds.
+	 */
+	private Set<String> findExistingIds(Persistence persistence, Document document, BizPortSheet sheet) {
+		// Problems are reported when the rows are populated
+		UploadException scanProblems = new UploadException();
+		List<String> ids = new ArrayList<>(128);
+		while (sheet.nextRow()) {
+			String id = sheet.getValue(Bean.DOCUMENT_ID, AttributeType.text, scanProblems);
+			if (id != null) {
+				ids.add(id);
+			}
+		}
+		sheet.resetRow();
+
+		Set<String> result = new HashSet<>(ids.size() * 4 / 3 + 1);
+		for (int i = 0, l = ids.size(); i < l; i += LOOKUP_BATCH_SIZE) {
+			List<String> batch = ids.subList(i, Math.min(i + LOOKUP_BATCH_SIZE, l));
+			DocumentQuery q = persistence.newDocumentQuery(document);
+			q.addBoundProjection(Bean.DOCUMENT_ID);
+			q.getFilter().addIn(Bean.DOCUMENT_ID, batch.toArray());
+			result.addAll(q.scalarResults(String.class));
+		}
+		return result;
+	}
+	
 	/**
 	 * 
 	 * @param <T>The inferred type for the bean using the document parameter.
@@ -239,13 +306,18 @@ public class StandardLoader {
 		}
 		else {
 			id = sheet.getValue(Bean.DOCUMENT_ID, AttributeType.text, problems);
-			// find the bean by bizId
-			try {
-				result = persistence.retrieveAndLock(document, id);
-			} 
-			catch (@SuppressWarnings("unused") Exception e) { // could not be retrieved, must be new
+			if ((existingIds != null) && (! existingIds.contains(id))) { // not in the data store, must be new
 				result = document.newInstance(user);
 			}
+			else {
+				// find the bean by bizId
+				try {
+					result = persistence.retrieveAndLock(document, id);
+				} 
+				catch (@SuppressWarnings("unused") Exception e) { // could not be retrieved, must be new
+					result = document.newInstance(user);
+				}
+			}
 		}
 		
 		return result;
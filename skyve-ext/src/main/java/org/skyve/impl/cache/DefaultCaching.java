@@ -27,6 +27,7 @@ import org.ehcache.core.statistics.CacheStatistics;
 import org.ehcache.core.statistics.DefaultStatisticsService;
 import org.ehcache.core.statistics.TierStatistics;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.spi.RegionFactory;
 import org.skyve.cache.CacheConfig;
 import org.skyve.cache.CacheExpiryPolicy;
 import org.skyve.cache.Caching;
@@ -88,6 +89,13 @@ public class DefaultCaching implements Caching {
 					UtilImpl.LOGGER.info("Create hibernate cache with config " + config);
 					createJCache(config);
 				}
+				
+				// Create the hibernate query caches if they are not defined
+				if (UtilImpl.QUERY_CACHE) {
+					// The timestamps should never be evicted (there is 1 per table)
+					createHibernateCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 10000);
+					createHibernateCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1000);
+				}
 			}
 		}
 	}
@@ -105,6 +113,15 @@ public class DefaultCaching implements Caching {
 		}
 	}
 
+	@SuppressWarnings("resource")
+	private void createHibernateCache(String name, long heapSizeEntries) {
+		if (jCacheManager.getCache(name) == null) {
+			HibernateCacheConfig config = new HibernateCacheConfig(name, heapSizeEntries, CacheExpiryPolicy.eternal, 0);
+			UtilImpl.LOGGER.info("Create hibernate cache with config " + config);
+			createJCache(config);
+		}
+	}
+
 	@SuppressWarnings("resource")
 	private <K extends Serializable, V extends Serializable> void createCache(CacheConfig<K, V> config) {
 		if (config instanceof EHCacheConfig<?, ?>) {
@@ -1,5 +1,7 @@
 package org.skyve.impl.domain.number;
 
+import java.util.List;
+
 import org.skyve.CORE;
 import org.skyve.domain.messages.DomainException;
 import org.skyve.impl.persistence.AbstractPersistence;
@@ -9,6 +11,13 @@ import org.skyve.metadata.user.User;
 public class DocumentNumberAutonomousTransactionGenerator extends AbstractDocumentNumberGenerator {
 	@Override
 	public String next(String prefix, String moduleName, String documentName, String fieldName, int minimumLength) {
+		return nextNumbers(prefix, moduleName, documentName, fieldName, minimumLength, 1).get(0);
+	}
+
+	/**
+	 * Reserve the next <code>count</code> numbers of a sequence in a new transaction.
+	 */
+	protected List<String> nextNumbers(String prefix, String moduleName, String documentName, String fieldName, int minimumLength, int count) {
 		AbstractHibernatePersistence pers = (AbstractHibernatePersistence) CORE.getPersistence();
 		User user = pers.getUser();
 		try {
@@ -20,7 +29,7 @@ public class DocumentNumberAutonomousTransactionGenerator extends AbstractDocume
 		try {
 			pers.setUser(user);
 			pers.begin();
-			return getNextNumber(pers, prefix, moduleName, documentName, fieldName, minimumLength);
+			return getNextNumbers(pers, prefix, moduleName, documentName, fieldName, minimumLength, count);
 		}
 		finally {
 			// Can't call pers.commit(true) here as it would remove the current thread's Persistence as well
@@ -0,0 +1,91 @@
+package org.skyve.impl.domain.number;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.CORE;
+import org.skyve.impl.util.UtilImpl;
+
+/**
+ * A hi/lo document number generator.
+ * Instead of locking and updating the document number record for every number, a block of numbers is reserved
+ * in an autonomous transaction and handed out from memory until it is used up.
+ * The block size adapts to the demand for each sequence - it doubles when a block is used up quickly and halves
+ * when a block lasts a long time - between {@link #MINIMUM_BLOCK_SIZE} and {@link #MAXIMUM_BLOCK_SIZE}.
+ * <p/>
+ * Numbers not handed out before the server stops are lost so sequences can have gaps and
+ * numbers are not strictly in creation order across servers.
+ * Override {@link #isGapFree(String, String, String)} to number a sequence one at a time in the caller's transaction instead.
+ * <p/>
+ * Set "factories.numberGeneratorClass" to this class in the JSON config to use it.
+ */
+public class DocumentNumberBlockGenerator extends DocumentNumberAutonomousTransactionGenerator {
+	public static final int MINIMUM_BLOCK_SIZE = 10;
+	public static final int MAXIMUM_BLOCK_SIZE = 1000;
+
+	// A block used up quicker than this grows
+	private static final long GROW_MILLIS = 1000L;
+	// A block that lasts longer than this shrinks
+	private static final long SHRINK_MILLIS = 60000L;
+
+	private static final class Block {
+		private ArrayDeque<String> numbers = new ArrayDeque<>(MINIMUM_BLOCK_SIZE);
+		private int size = MINIMUM_BLOCK_SIZE;
+		private long reservedMillis = 0L;
+	}
+
+	private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+	@Override
+	public String next(String prefix, String moduleName, String documentName, String fieldName, int minimumLength) {
+		if (isGapFree(moduleName, documentName, fieldName)) {
+			// Numbered in the caller's transaction so that a number is only used if the transaction commits
+			return getNextNumber(CORE.getPersistence(), prefix, moduleName, documentName, fieldName, minimumLength);
+		}
+
+		String customerName = CORE.getUser().getCustomerName();
+		String key = new StringBuilder(128).append(customerName).append('/')
+												.append(moduleName).append('/')
+												.append(documentName).append('/')
+												.append(fieldName).append('/')
+												.append(prefix).append('/')
+												.append(minimumLength).toString();
+		Block block = blocks.computeIfAbsent(key, k -> new Block());
+		synchronized (block) {
+			String result = block.numbers.poll();
+			if (result == null) {
+				long now = System.currentTimeMillis();
+				if (block.reservedMillis > 0L) {
+					long elapsed = now - block.reservedMillis;
+					if (elapsed < GROW_MILLIS) {
+						block.size = Math.min(block.size * 2, MAXIMUM_BLOCK_SIZE);
+					}
+					else if (elapsed > SHRINK_MILLIS) {
+						block.size = Math.max(block.size / 2, MINIMUM_BLOCK_SIZE);
+					}
+				}
+				block.numbers.addAll(nextNumbers(prefix, moduleName, documentName, fieldName, minimumLength, block.size));
+				block.reservedMillis = now;
+				if (UtilImpl.BIZLET_TRACE) UtilImpl.LOGGER.info("DocumentNumberBlockGenerator.next(): Reserved " + block.size + " numbers for " + key);
+				result = block.numbers.poll();
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Determine if a sequence must be numbered without gaps.
+	 * Gap-free sequences lock and update the document number record in the caller's transaction for every number,
+	 * so the number is rolled back with the transaction and the record stays locked until the transaction ends.
+	 *
+	 * @param moduleName	The module of the document being numbered.
+	 * @param documentName	The document being numbered.
+	 * @param fieldName	The sequence name.
+	 * @return	false by default.
+	 */
+	@SuppressWarnings("static-method")
+	protected boolean isGapFree(String moduleName, String documentName, String fieldName) {
+		return false;
+	}
+}
@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -133,6 +134,37 @@ public class JasperReportRenderer {
 		jasperDesign = new JasperDesign();
 	}
 
+	// Compiled list report designs keyed by their specification, least recently used first
+	private static final int COMPILED_REPORT_CACHE_SIZE = 64;
+	private static final Map<String, JasperReport> COMPILED_REPORTS = new LinkedHashMap<>(COMPILED_REPORT_CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, JasperReport> eldest) {
+			return (size() > COMPILED_REPORT_CACHE_SIZE);
+		}
+	};
+
+	/**
+	 * Get the compiled report for the given design parameters.
+	 * The compiled reports are cached by their specification so the design is only rendered and compiled once.
+	 */
+	public static JasperReport getReport(ReportDesignParameters reportDesignParameters) throws Exception {
+		String key = reportDesignParameters.getSpecificationKey();
+		JasperReport result = null;
+		synchronized (COMPILED_REPORTS) {
+			result = COMPILED_REPORTS.get(key);
+		}
+		if (result == null) {
+			// Compile outside the lock - a concurrent compile of the same design is harmless
+			result = new JasperReportRenderer(reportDesignParameters).getReport();
+			synchronized (COMPILED_REPORTS) {
+				COMPILED_REPORTS.put(key, result);
+			}
+		}
+		return result;
+	}
+
 	public JasperReport getReport() throws Exception {
 		if (! rendered) {
 			renderDesign();
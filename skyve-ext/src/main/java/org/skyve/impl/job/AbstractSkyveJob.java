@@ -38,6 +38,7 @@ public abstract class AbstractSkyveJob implements InterruptableJob, MetaData {
 	private JobStatus status = null;
 	private List<String> log = Collections.synchronizedList(new ArrayList<String>());
 	private Bean bean;
+	private String jobBizId;
 
 	public String getDisplayName() {
 		return displayName;
@@ -98,6 +99,21 @@ public abstract class AbstractSkyveJob implements InterruptableJob, MetaData {
 		this.bean = bean;
 	}
 
+	/**
+	 * @return	The bizId of the admin.Job record for this execution if one was saved during execution, otherwise null.
+	 */
+	public final String getJobBizId() {
+		return jobBizId;
+	}
+
+	/**
+	 * Set by jobs that save their admin.Job record during execution (eg to checkpoint progress)
+	 * so that record is updated when the job finishes instead of inserting another.
+	 */
+	protected final void setJobBizId(String jobBizId) {
+		this.jobBizId = jobBizId;
+	}
+
 	public abstract void execute() throws Exception;
 
 	public abstract void execute(Job job) throws Exception;
@@ -182,39 +198,62 @@ public abstract class AbstractSkyveJob implements InterruptableJob, MetaData {
 			persistence.setAsyncThread(false);
 			persistence.begin();
 
-			if (persistJobExecutionOnSuccess()) {
-				// save the job to the database
-				if ((customer == null) || (user == null)) {
-					throw new JobExecutionException("Could not insert completed job in the database as customer or user is undefined");
-				}
-
-				try {
-					Module module = customer.getModule("admin");
-					Document document = module.getDocument(customer, "Job");
-					PersistentBean job = document.newInstance(user);
-
-					BindUtil.set(job, "startTime", getStartTime());
-					BindUtil.set(job, "displayName", getDisplayName());
-					BindUtil.set(job, "status", status.toString());
-					BindUtil.set(job, "endTime", getEndTime());
-					BindUtil.set(job, "percentComplete", Integer.valueOf(getPercentComplete()));
-					BindUtil.set(job, "log", createLogDescriptionString());
-					if (bean != null) {
-						BindUtil.set(job, "beanBizId", bean.getBizId());
-						BindUtil.set(job, "beanModuleName", bean.getBizModule());
-						BindUtil.set(job, "beanDocumentName", bean.getBizDocument());
+			try {
+				if (persistJobExecutionOnSuccess() || (jobBizId != null)) {
+					// save the job to the database
+					if ((customer == null) || (user == null)) {
+						throw new JobExecutionException("Could not insert completed job in the database as customer or user is undefined");
 					}
 
-					persistence.save(document, job);
+					try {
+						Module module = customer.getModule("admin");
+						Document document = module.getDocument(customer, "Job");
+						// Update the job record if it was saved during execution
+						PersistentBean job = (jobBizId == null) ? null : persistence.retrieve(document, jobBizId);
+						if (job == null) {
+							job = document.newInstance(user);
+						}
+						else if (JobStatus.complete == status) {
+							// nothing left to resume
+							BindUtil.set(job, "partitionCheckpoint", null);
+						}
+
+						BindUtil.set(job, "startTime", getStartTime());
+						BindUtil.set(job, "displayName", getDisplayName());
+						BindUtil.set(job, "status", status.toString());
+						BindUtil.set(job, "endTime", getEndTime());
+						BindUtil.set(job, "percentComplete", Integer.valueOf(getPercentComplete()));
+						BindUtil.set(job, "log", createLogDescriptionString());
+						if (bean != null) {
+							BindUtil.set(job, "beanBizId", bean.getBizId());
+							BindUtil.set(job, "beanModuleName", bean.getBizModule());
+							BindUtil.set(job, "beanDocumentName", bean.getBizDocument());
+						}
+
+						if ((JobStatus.complete == status) && (! persistJobExecutionOnSuccess())) {
+							if (persistence.isPersisted(job)) {
+								persistence.delete(document, job);
+							}
+						}
+						else {
+							persistence.save(document, job);
+						}
+					}
+					catch (Exception e) {
+						throw new JobExecutionException("Could not insert completed job in the database", e);
+					}
 				}
-				catch (Exception e) {
-					throw new JobExecutionException("Could not insert completed job in the database", e);
+
+				persistence.evictAllCached();
+				persistence.commit(true);
+			}
+			finally {
+				if (jobBizId != null) {
+					// the execution's outcome is recorded so it can be resumed now
+					JobCheckpoint.finish(jobBizId);
 				}
 			}
 
-			persistence.evictAllCached();
-			persistence.commit(true);
-
 			if ((sleepInSeconds != null) && (sleepInSeconds.intValue() > 0)) {
 				try {
 					Thread.sleep(30000);
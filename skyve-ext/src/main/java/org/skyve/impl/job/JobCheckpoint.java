@@ -0,0 +1,156 @@
+package org.skyve.impl.job;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.impl.bind.BindUtil;
+import org.skyve.job.JobStatus;
+import org.skyve.metadata.SortDirection;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.DocumentFilter;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.Persistence;
+
+/**
+ * The admin.Job record that a job checkpoints its progress to while it is executing,
+ * so that an execution that fails, is cancelled or is stopped by a restart can be resumed when the job is run again.
+ * The format of the checkpoint is up to the job.
+ * <p>
+ * An execution is resumed at most once at a time - executions still running in this JVM are never resumed.
+ * The record's status and end time are cleared while it is running and set by {@link AbstractSkyveJob} when it finishes.
+ */
+public final class JobCheckpoint {
+	private static final String JOB_MODULE_NAME = "admin";
+	private static final String JOB_DOCUMENT_NAME = "Job";
+	private static final String DISPLAY_NAME_PROPERTY_NAME = "displayName";
+	private static final String STATUS_PROPERTY_NAME = "status";
+	private static final String START_TIME_PROPERTY_NAME = "startTime";
+	private static final String END_TIME_PROPERTY_NAME = "endTime";
+	private static final String BEAN_BIZ_ID_PROPERTY_NAME = "beanBizId";
+	private static final String CHECKPOINT_PROPERTY_NAME = "partitionCheckpoint";
+
+	// The bizIds of the admin.Job records of the executions running in this JVM
+	private static final Set<String> RUNNING = ConcurrentHashMap.newKeySet();
+
+	private AbstractSkyveJob job;
+	// The record of the execution being resumed, or the new record
+	private PersistentBean record;
+	// The admin.Job table to update the checkpoint in once started
+	private String persistentIdentifier;
+
+	public JobCheckpoint(AbstractSkyveJob job) {
+		this.job = job;
+	}
+
+	/**
+	 * Find the last unsuccessful execution of the job that is not running and claim it to resume.
+	 *
+	 * @param persistence	The job's persistence.
+	 * @return	The checkpoint of the execution to resume or null if there is none.
+	 */
+	public String resume(Persistence persistence) throws Exception {
+		Document document = getJobDocument(persistence);
+		Bean bean = job.getBean();
+
+		DocumentQuery q = persistence.newDocumentQuery(document);
+		DocumentFilter f = q.getFilter();
+		f.addEquals(DISPLAY_NAME_PROPERTY_NAME, job.getDisplayName());
+		f.addNullOrNotEquals(STATUS_PROPERTY_NAME, JobStatus.complete.toString());
+		f.addNotNull(CHECKPOINT_PROPERTY_NAME);
+		if (bean == null) {
+			f.addNull(BEAN_BIZ_ID_PROPERTY_NAME);
+		}
+		else {
+			f.addEquals(BEAN_BIZ_ID_PROPERTY_NAME, bean.getBizId());
+		}
+		Object[] running = RUNNING.toArray();
+		if (running.length > 0) {
+			f.addNotIn(Bean.DOCUMENT_ID, running);
+		}
+		q.addBoundOrdering(START_TIME_PROPERTY_NAME, SortDirection.descending);
+		q.setMaxResults(1);
+		PersistentBean result = q.beanResult();
+		// Claim the execution - another execution could have claimed it since the query
+		if ((result != null) && RUNNING.add(result.getBizId())) {
+			record = result;
+			return (String) BindUtil.get(record, CHECKPOINT_PROPERTY_NAME);
+		}
+		return null;
+	}
+
+	/**
+	 * @return	The start time of the execution being resumed, or null if not resuming.
+	 */
+	public Object getResumedStartTime() throws Exception {
+		return (record == null) ? null : BindUtil.get(record, START_TIME_PROPERTY_NAME);
+	}
+
+	/**
+	 * Save the admin.Job record of this execution with its initial checkpoint and commit.
+	 * This is the record that was resumed or a new record.
+	 *
+	 * @param persistence	The job's persistence.
+	 * @param checkpoint	The initial checkpoint - not null.
+	 */
+	public void start(Persistence persistence, String checkpoint) throws Exception {
+		Document document = getJobDocument(persistence);
+		if (record == null) {
+			User user = persistence.getUser();
+			Bean bean = job.getBean();
+			record = document.newInstance(user);
+			BindUtil.set(record, START_TIME_PROPERTY_NAME, job.getStartTime());
+			BindUtil.set(record, DISPLAY_NAME_PROPERTY_NAME, job.getDisplayName());
+			if (bean != null) {
+				BindUtil.set(record, BEAN_BIZ_ID_PROPERTY_NAME, bean.getBizId());
+				BindUtil.set(record, "beanModuleName", bean.getBizModule());
+				BindUtil.set(record, "beanDocumentName", bean.getBizDocument());
+			}
+		}
+		else {
+			// running
+			BindUtil.set(record, STATUS_PROPERTY_NAME, null);
+			BindUtil.set(record, END_TIME_PROPERTY_NAME, null);
+		}
+		BindUtil.set(record, CHECKPOINT_PROPERTY_NAME, checkpoint);
+		record = persistence.save(document, record);
+		RUNNING.add(record.getBizId());
+		job.setJobBizId(record.getBizId());
+		persistence.commit(false);
+		persistence.begin();
+		// The checkpoint is updated with SQL so don't keep a stale copy
+		persistence.evictCached(record);
+		persistentIdentifier = document.getPersistent().getPersistentIdentifier();
+	}
+
+	/**
+	 * Update the checkpoint in the given persistence's transaction.
+	 * Callers serialize their updates so that the last checkpoint committed holds all of the progress recorded.
+	 *
+	 * @param persistence	The persistence to update the checkpoint with.
+	 * @param checkpoint	The checkpoint.
+	 */
+	public void record(Persistence persistence, String checkpoint) {
+		persistence.newSQL("update " + persistentIdentifier + " set " + CHECKPOINT_PROPERTY_NAME + " = :checkpoint where bizId = :bizId")
+						.putParameter("checkpoint", checkpoint, true)
+						.putParameter(Bean.DOCUMENT_ID, job.getJobBizId(), false)
+						.execute();
+	}
+
+	/**
+	 * Called once the admin.Job record of an execution has been updated with the outcome of the execution.
+	 *
+	 * @param jobBizId	The bizId of the admin.Job record.
+	 */
+	static void finish(String jobBizId) {
+		RUNNING.remove(jobBizId);
+	}
+
+	private static Document getJobDocument(Persistence persistence) {
+		Customer customer = persistence.getUser().getCustomer();
+		return customer.getModule(JOB_MODULE_NAME).getDocument(customer, JOB_DOCUMENT_NAME);
+	}
+}
@@ -0,0 +1,93 @@
+package org.skyve.impl.job;
+
+import java.util.BitSet;
+
+/**
+ * The set of partitions completed by a partitioned {@link org.skyve.job.IteratingJob}.
+ * This is stored in admin.Job.partitionCheckpoint as the partition size followed by the completed partition ranges
+ * - eg "500:0-41,43,45-50" - so that a job that is run again after failing can skip the completed partitions.
+ * This class is thread-safe as the job's worker threads complete partitions while the job thread reads them.
+ */
+public final class PartitionCheckpoint {
+	private int partitionSize;
+	private BitSet completed = new BitSet();
+
+	public PartitionCheckpoint(int partitionSize) {
+		this.partitionSize = partitionSize;
+	}
+
+	/**
+	 * Parse a checkpoint.
+	 * @param checkpoint	The stored checkpoint.
+	 * @param partitionSize	The partition size of the job being resumed.
+	 * @return	The checkpoint or null if it is malformed or was made with a different partition size.
+	 */
+	public static PartitionCheckpoint parse(String checkpoint, int partitionSize) {
+		if (checkpoint == null) {
+			return null;
+		}
+		int colonIndex = checkpoint.indexOf(':');
+		if (colonIndex < 0) {
+			return null;
+		}
+
+		try {
+			if (Integer.parseInt(checkpoint.substring(0, colonIndex)) != partitionSize) {
+				return null;
+			}
+			PartitionCheckpoint result = new PartitionCheckpoint(partitionSize);
+			String ranges = checkpoint.substring(colonIndex + 1);
+			if (! ranges.isEmpty()) {
+				for (String range : ranges.split(",")) {
+					int dashIndex = range.indexOf('-');
+					if (dashIndex < 0) {
+						result.completed.set(Integer.parseInt(range));
+					}
+					else {
+						result.completed.set(Integer.parseInt(range.substring(0, dashIndex)),
+												Integer.parseInt(range.substring(dashIndex + 1)) + 1);
+					}
+				}
+			}
+			return result;
+		}
+		catch (@SuppressWarnings("unused") NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public int getPartitionSize() {
+		return partitionSize;
+	}
+
+	public synchronized boolean isCompleted(int partition) {
+		return completed.get(partition);
+	}
+
+	public synchronized void complete(int partition) {
+		completed.set(partition);
+	}
+
+	public synchronized int getNumCompleted() {
+		return completed.cardinality();
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder result = new StringBuilder(32);
+		result.append(partitionSize).append(':');
+		int start = completed.nextSetBit(0);
+		while (start >= 0) {
+			int end = completed.nextClearBit(start) - 1;
+			if (result.charAt(result.length() - 1) != ':') {
+				result.append(',');
+			}
+			result.append(start);
+			if (end > start) {
+				result.append('-').append(end);
+			}
+			start = completed.nextSetBit(end + 1);
+		}
+		return result.toString();
+	}
+}
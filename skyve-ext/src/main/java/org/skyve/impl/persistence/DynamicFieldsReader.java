@@ -0,0 +1,343 @@
+package org.skyve.impl.persistence;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.domain.types.DateTime;
+import org.skyve.domain.types.Decimal10;
+import org.skyve.domain.types.Decimal2;
+import org.skyve.domain.types.Decimal5;
+import org.skyve.domain.types.TimeOnly;
+import org.skyve.domain.types.Timestamp;
+import org.skyve.impl.bind.BindUtil;
+
+/**
+ * Reads the flat JSON object stored in ADM_DynamicEntity.fields (as written by JSON.marshall() in RDBMSDynamicPersistence)
+ * into values of the types declared by the document's dynamic fields.
+ * <p/>
+ * The reader is driven by the declared types rather than building a general purpose JSON map and coercing it.
+ * Each value is converted straight from its JSON text to the declared type (no intermediate Long, BigDecimal or Boolean)
+ * and the values of properties that are no longer declared in the document (schema evolution) are skipped without
+ * being decoded. Coercion only falls back to the synchronized BindUtil.fromSerialised() for types without
+ * a thread-safe serialised form constructor.
+ */
+final class DynamicFieldsReader {
+	/**
+	 * Thrown when a stored value cannot be coerced to the declared type.
+	 * The raw value is put in the read result in place of the coerced value.
+	 */
+	static final class CoercionException extends Exception {
+		private static final long serialVersionUID = 5617738404545512637L;
+
+		private CoercionException(Object rawValue, Class<?> type, Exception cause) {
+			super("[" + rawValue + "] cannot be coerced to type " + type, cause);
+		}
+	}
+
+	private final String json;
+	private final int length;
+	private int position = 0;
+
+	private DynamicFieldsReader(String json) {
+		this.json = json;
+		length = json.length();
+	}
+
+	/**
+	 * Read the given fields JSON.
+	 *
+	 * @param json	The JSON object.
+	 * @param types	Dynamic field name -> implementing type. Properties not in this map are skipped.
+	 * @param problems	Coercion problems are added here and the raw value is put in the result instead.
+	 * @return	Field name -> coerced value for each property in the JSON that is declared in types.
+	 * @throws Exception	If the JSON is malformed.
+	 */
+	static Map<String, Object> read(String json, Map<String, Class<?>> types, Map<String, CoercionException> problems)
+	throws Exception {
+		Map<String, Object> result = new TreeMap<>();
+		if (json != null) {
+			new DynamicFieldsReader(json).object(types, problems, result);
+		}
+		return result;
+	}
+
+	private void object(Map<String, Class<?>> types, Map<String, CoercionException> problems, Map<String, Object> result)
+	throws Exception {
+		expect('{');
+		if (peek() == '}') {
+			position++;
+			return;
+		}
+		while (true) {
+			expect('"');
+			String name = string();
+			expect(':');
+			Class<?> type = types.get(name);
+			if (type == null) { // skip those no longer defined in the document
+				skip();
+			}
+			else {
+				char c = peek();
+				boolean quoted = (c == '"');
+				String text = null;
+				if (quoted) {
+					position++;
+					text = string();
+				}
+				else if (c == 'n') {
+					literal("null");
+				}
+				else if (c == 't') {
+					text = literal("true");
+				}
+				else if (c == 'f') {
+					text = literal("false");
+				}
+				else {
+					text = number();
+				}
+				try {
+					result.put(name, coerce(type, text));
+				}
+				catch (Exception e) {
+					Object rawValue = raw(text, quoted);
+					problems.put(name, new CoercionException(rawValue, type, e));
+					result.put(name, rawValue);
+				}
+			}
+
+			char c = peek();
+			position++;
+			if (c == '}') {
+				return;
+			}
+			if (c != ',') {
+				throw malformed("',' or '}'");
+			}
+		}
+	}
+
+	/**
+	 * @return	The next non-whitespace character without consuming it.
+	 */
+	private char peek() throws Exception {
+		while ((position < length) && Character.isWhitespace(json.charAt(position))) {
+			position++;
+		}
+		if (position == length) {
+			throw malformed("more JSON");
+		}
+		return json.charAt(position);
+	}
+
+	private void expect(char c) throws Exception {
+		if (peek() != c) {
+			throw malformed("'" + c + "'");
+		}
+		position++;
+	}
+
+	private Exception malformed(String expected) {
+		return new IllegalArgumentException("Malformed dynamic fields JSON - expected " + expected + " at position " + position + " of " + json);
+	}
+
+	/**
+	 * Read a string value after its opening quote, consuming the closing quote.
+	 */
+	private String string() throws Exception {
+		int start = position;
+		// Most strings have no escapes
+		while ((position < length) && (json.charAt(position) != '"') && (json.charAt(position) != '\\')) {
+			position++;
+		}
+		if (position == length) {
+			throw malformed("'\"'");
+		}
+		if (json.charAt(position) == '"') {
+			return json.substring(start, position++);
+		}
+
+		StringBuilder result = new StringBuilder(json.length() - start);
+		result.append(json, start, position);
+		while (position < length) {
+			char c = json.charAt(position++);
+			if (c == '"') {
+				return result.toString();
+			}
+			if (c == '\\') {
+				if (position == length) {
+					break;
+				}
+				c = json.charAt(position++);
+				switch (c) {
+				case 'b':
+					result.append('\b');
+					break;
+				case 'f':
+					result.append('\f');
+					break;
+				case 'n':
+					result.append('\n');
+					break;
+				case 'r':
+					result.append('\r');
+					break;
+				case 't':
+					result.append('\t');
+					break;
+				case 'u':
+					if (position + 4 > length) {
+						throw malformed("a unicode escape");
+					}
+					result.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+					position += 4;
+					break;
+				default: // " \ and /
+					result.append(c);
+				}
+			}
+			else {
+				result.append(c);
+			}
+		}
+		throw malformed("'\"'");
+	}
+
+	private String literal(String literal) throws Exception {
+		if (! json.startsWith(literal, position)) {
+			throw malformed(literal);
+		}
+		position += literal.length();
+		return literal;
+	}
+
+	private String number() throws Exception {
+		int start = position;
+		while ((position < length) && ("+-.eE".indexOf(json.charAt(position)) >= 0 || Character.isDigit(json.charAt(position)))) {
+			position++;
+		}
+		if (position == start) {
+			throw malformed("a value");
+		}
+		return json.substring(start, position);
+	}
+
+	/**
+	 * Skip a value without decoding it.
+	 */
+	private void skip() throws Exception {
+		char c = peek();
+		if (c == '"') {
+			position++;
+			skipString();
+		}
+		else if ((c == '{') || (c == '[')) {
+			int depth = 0;
+			do {
+				c = json.charAt(position++);
+				if (c == '"') {
+					skipString();
+				}
+				else if ((c == '{') || (c == '[')) {
+					depth++;
+				}
+				else if ((c == '}') || (c == ']')) {
+					depth--;
+				}
+			}
+			while ((depth > 0) && (position < length));
+			if (depth > 0) {
+				throw malformed("the end of the value");
+			}
+		}
+		else {
+			while ((position < length) && (",}]".indexOf(json.charAt(position)) < 0) && (! Character.isWhitespace(json.charAt(position)))) {
+				position++;
+			}
+		}
+	}
+
+	private void skipString() throws Exception {
+		while (position < length) {
+			char c = json.charAt(position++);
+			if (c == '"') {
+				return;
+			}
+			if (c == '\\') {
+				position++;
+			}
+		}
+		throw malformed("'\"'");
+	}
+
+	/**
+	 * The value as a general purpose JSON reader would have read it, for reporting values that cannot be coerced.
+	 */
+	private static Object raw(String text, boolean quoted) {
+		if (quoted || (text == null)) {
+			return text;
+		}
+		if ("true".equals(text) || "false".equals(text)) {
+			return Boolean.valueOf(text);
+		}
+		try {
+			return ((text.indexOf('.') >= 0) || (text.indexOf('e') >= 0) || (text.indexOf('E') >= 0)) ?
+						new BigDecimal(text) :
+						Long.valueOf(text);
+		}
+		catch (@SuppressWarnings("unused") NumberFormatException e) {
+			return text;
+		}
+	}
+
+	/**
+	 * Coerce the JSON text of a value to the given type.
+	 * @param text	The string value or the literal text of a number or boolean, or null for a JSON null.
+	 */
+	static Object coerce(Class<?> type, String text) throws Exception {
+		if ((text == null) || String.class.equals(type)) {
+			return text;
+		}
+		if (Integer.class.equals(type)) {
+			return Integer.valueOf(text);
+		}
+		if (Long.class.equals(type)) {
+			return Long.valueOf(text);
+		}
+		if (Decimal2.class.equals(type)) {
+			return new Decimal2(text);
+		}
+		if (Decimal5.class.equals(type)) {
+			return new Decimal5(text);
+		}
+		if (Decimal10.class.equals(type)) {
+			return new Decimal10(text);
+		}
+		if (BigDecimal.class.equals(type)) {
+			return new BigDecimal(text);
+		}
+		if (Boolean.class.equals(type)) {
+			return Boolean.valueOf("true".equals(text));
+		}
+		if (DateOnly.class.equals(type)) {
+			return new DateOnly(text);
+		}
+		if (DateTime.class.equals(type)) {
+			return new DateTime(text);
+		}
+		if (TimeOnly.class.equals(type)) {
+			return new TimeOnly(text);
+		}
+		if (Timestamp.class.equals(type)) {
+			return new Timestamp(text);
+		}
+		if (Geometry.class.isAssignableFrom(type)) {
+			return new WKTReader().read(text);
+		}
+		return BindUtil.fromSerialised(type, text);
+	}
+}
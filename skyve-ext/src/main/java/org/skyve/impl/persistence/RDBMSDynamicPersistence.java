@@ -1,9 +1,15 @@
 package org.skyve.impl.persistence;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -15,6 +21,7 @@ import org.skyve.domain.DynamicPersistentBean;
 import org.skyve.domain.PersistentBean;
 import org.skyve.domain.messages.DomainException;
 import org.skyve.domain.messages.Message;
+import org.skyve.domain.messages.NoResultsException;
 import org.skyve.domain.messages.ReferentialConstraintViolationException;
 import org.skyve.domain.messages.SkyveException;
 import org.skyve.domain.messages.ValidationException;
@@ -23,6 +30,10 @@ import org.skyve.impl.bind.BindUtil;
 import org.skyve.impl.metadata.customer.CustomerImpl;
 import org.skyve.impl.metadata.model.document.DocumentImpl;
 import org.skyve.impl.metadata.model.document.field.Field;
+import org.skyve.impl.persistence.DynamicFieldIndex.Column;
+import org.skyve.impl.persistence.DynamicFieldsReader.CoercionException;
+import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
+import org.skyve.impl.util.SQLMetaDataUtil;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.util.ValidationUtil;
 import org.skyve.metadata.customer.Customer;
@@ -38,6 +49,7 @@ import org.skyve.metadata.model.document.Reference.ReferenceType;
 import org.skyve.metadata.model.document.Relation;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
 import org.skyve.persistence.DynamicPersistence;
 import org.skyve.persistence.Persistence;
 import org.skyve.persistence.SQL;
@@ -53,6 +65,9 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 
 	private static final Integer NEW_VERSION = Integer.valueOf(0);
 
+	// The number of bizIds in each "in" clause when deleting and populating
+	private static final int BATCH_SIZE = 100;
+
 	public static final String DYNAMIC_ENTITY_TABLE_NAME = "ADM_DynamicEntity";
 	
 	protected Persistence persistence;
@@ -63,6 +78,10 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 	// and any non-persistent instances saved will be put into the cache.
 	private final Map<String, DynamicPersistentBean> dynamicFirstLevelCache = new TreeMap<>();
 	
+	// customer.module.document -> the dynamic attributes to populate, made on first use.
+	// Evicted with the first level cache so that metadata changes are picked up.
+	private transient Map<String, PopulatePlan> plans;
+	
 	@Override
 	public void postConstruct(@SuppressWarnings("hiding") Persistence persistence) {
 		this.persistence = persistence;
@@ -77,6 +96,13 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		// Do this even if bean is transient as there might be some persistent part in the graph somewhere
 		delete(c, d, bean, true);
 
+		try (Inserts inserts = new Inserts()) {
+			persist(c, d, bean, inserts);
+			inserts.execute();
+		}
+	}
+	
+	private void persist(Customer c, Document d, PersistentBean bean, Inserts inserts) {
 		new BeanVisitor(false, false, false) {
 			@Override
 			protected boolean accept(String binding,
@@ -90,14 +116,14 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 				if (visitedDocument.isDynamic()) {
 					// Persist persistent documents
 					if (visitedDocument.isPersistable()) {
-						persistOne(c, visitedDocument, (PersistentBean) visitedBean);
+						persistOne(c, visitedDocument, (PersistentBean) visitedBean, inserts);
 					}
 					else {
 						// Persist persistent embedded associations as its own DynamicEntity
 						if ((owningRelation instanceof Association) && owningRelation.isPersistent()) {
 							Association association = (Association) owningRelation;
 							if (association.getType() == AssociationType.embedded) {
-								persistOne(c, visitedDocument, (PersistentBean) visitedBean);
+								persistOne(c, visitedDocument, (PersistentBean) visitedBean, inserts);
 							}
 						}
 					}
@@ -106,7 +132,7 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 				else if (visitedDocument.hasDynamic()) {
 					// Persist if hibernate has it persisted
 					if (visitedBean.isPersisted()) {
-						persistOne(c, visitedDocument, (PersistentBean) visitedBean);
+						persistOne(c, visitedDocument, (PersistentBean) visitedBean, inserts);
 					}
 					else {
 						// Persist persistent embedded associations as its own DynamicEntity if the owner is persisted
@@ -124,7 +150,7 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 								}
 								// If the owningBean is persisted then the embedded object has been persisted also
 								if (owningBean.isPersisted()) {
-									persistOne(c, visitedDocument, (PersistentBean) visitedBean);
+									persistOne(c, visitedDocument, (PersistentBean) visitedBean, inserts);
 								}
 							}
 						}
@@ -136,13 +162,15 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		}.visit(d, bean, c);
 	}
 	
-	private void persistOne(Customer c, Document d, PersistentBean bean) {
+	private void persistOne(Customer c, Document d, PersistentBean bean, Inserts inserts) {
 		final Map<String, Object> dynamicFields = new TreeMap<>();
 		// Reference name -> emebdded association indictor
 		Map<String, Boolean> dynamicReferences = new TreeMap<>();
 		final Module m = c.getModule(d.getOwningModuleName());
 
 		final boolean dynamicDocument = d.isDynamic();
+		// Field name -> typed column for the dynamic field index (only for dynamic documents as they drive the list model)
+		Map<String, Column> indexedFields = (dynamicDocument && UtilImpl.DYNAMIC_FIELD_INDEX) ? new TreeMap<>() : null;
 
 		for (Attribute a : d.getAllAttributes(c)) {
 			if (! a.isPersistent()) {
@@ -158,6 +186,12 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 				if (dynamicAttribute) {
 					String name = a.getName();
 					dynamicFields.put(name, BindUtil.get(bean, name));
+					if (indexedFields != null) {
+						Column column = DynamicFieldIndex.column(a);
+						if (column != null) {
+							indexedFields.put(name, column);
+						}
+					}
 				}
 			}
 			else if (a instanceof Reference) {
@@ -172,8 +206,11 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		}
 		
 		if (! (dynamicFields.isEmpty() && dynamicReferences.isEmpty())) {
-			insertEntity(bean, JSON.marshall(dynamicFields));
-			insertReferences(c, bean, dynamicReferences);
+			insertEntity(bean, JSON.marshall(dynamicFields), inserts);
+			insertReferences(c, bean, dynamicReferences, inserts);
+			if (indexedFields != null) {
+				insertIndexedFields(bean.getBizId(), bean.getBizCustomer(), bean.getBizUserId(), dynamicFields, indexedFields, inserts);
+			}
 
 			// Cache the flushed instances
 			if (dynamicDocument) {
@@ -185,16 +222,14 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		}
 	}
 
-	private void insertEntity(PersistentBean bean, String json) {
+	private void insertEntity(PersistentBean bean, String json, Inserts inserts) {
 		// This is automatically handled by hibernate for static domain beans
 		if (bean.getBizVersion() == null) {
 			bean.setBizVersion(NEW_VERSION);
 		}
 		
 //System.out.println("insert entity " + bean.getBizDocument() + " with bizId " + bean.getBizId() + " with json " + json);
-		String insert = "insert into ADM_DynamicEntity (bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, moduleName, documentName, fields) " +
-							"values (:bizId, :bizVersion, :bizLock, :bizKey, :bizCustomer, :bizFlagComment, :bizDataGroupId, :bizUserId, :moduleName, :documentName, :fields)";
-		SQL sql = persistence.newSQL(insert);
+		AbstractSQL sql = inserts.entities.sql;
 		sql.putParameter(Bean.DOCUMENT_ID, bean.getBizId(), false);
 		sql.putParameter(PersistentBean.VERSION_NAME, bean.getBizVersion());
 		sql.putParameter(PersistentBean.LOCK_NAME, new OptimisticLock(persistence.getUser().getName(), new Date()).toString(), false);
@@ -207,14 +242,14 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		sql.putParameter("moduleName", bean.getBizModule(), false);
 		sql.putParameter("documentName", bean.getBizDocument(), false);
 		sql.putParameter("fields", json, true);
+		// Entities written without the index on are indexed later by indexFields()
+		sql.putParameter("fieldsIndexed", Boolean.valueOf(UtilImpl.DYNAMIC_FIELD_INDEX));
 		
-		sql.execute();
+		inserts.add(inserts.entities);
 	}
 	
-	private void insertReferences(Customer c, PersistentBean bean, Map<String, Boolean> references) {
-		String insert = "insert into ADM_DynamicRelation (bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, parent_id, relatedModuleName, relatedDocumentName, relatedId, attributeName, ordinal) " + 
-							"values (:bizId, 0, :bizLock, :bizKey, :bizCustomer, null, null, :bizUserId, :parent_id, :relatedModuleName, :relatedDocumentName, :relatedId, :attributeName, :ordinal)";
-		SQL sql = persistence.newSQL(insert);		
+	private void insertReferences(Customer c, PersistentBean bean, Map<String, Boolean> references, Inserts inserts) {
+		AbstractSQL sql = inserts.relations.sql;
 		String bizLock = new OptimisticLock(persistence.getUser().getName(), new Date()).toString();
 		sql.putParameter(PersistentBean.LOCK_NAME, bizLock, false);
 		sql.putParameter(Bean.CUSTOMER_NAME, bean.getBizCustomer(), false);
@@ -243,7 +278,7 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 						sql.putParameter("relatedId", relatedId, false);
 						sql.putParameter("attributeName", name, false);
 						sql.putParameter("ordinal", Integer.valueOf(ordinal));
-						sql.execute();
+						inserts.add(inserts.relations);
 						ordinal++;
 					}
 				}
@@ -261,13 +296,143 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 					sql.putParameter("relatedDocumentName", dynamic ? null : relatedDocumentName, false);
 					sql.putParameter("relatedId", relatedId, false);
 					sql.putParameter("attributeName", name, false);
-					sql.putParameter("ordinal", null, false);
-					sql.execute();
+					sql.putParameter("ordinal", null, AttributeType.integer);
+					inserts.add(inserts.relations);
 				}
 			}
 		}
 	}
 	
+	private void insertIndexedFields(String parentId,
+										String bizCustomer,
+										String bizUserId,
+										Map<String, Object> fields,
+										Map<String, Column> columns,
+										Inserts inserts) {
+		AbstractSQL sql = inserts.fields.sql;
+		sql.putParameter(PersistentBean.LOCK_NAME, new OptimisticLock(persistence.getUser().getName(), new Date()).toString(), false);
+		sql.putParameter(Bean.CUSTOMER_NAME, bizCustomer, false);
+		sql.putParameter(Bean.USER_ID, bizUserId, false);
+		sql.putParameter("parent_id", parentId, false);
+
+		for (Entry<String, Column> entry : columns.entrySet()) {
+			String name = entry.getKey();
+			Column column = entry.getValue();
+			// NB don't insert null (or unindexable) values - a missing row is null
+			Object value = DynamicFieldIndex.value(column, fields.get(name));
+			if (value != null) {
+				sql.putParameter(Bean.DOCUMENT_ID, UUID.randomUUID().toString(), false);
+				sql.putParameter(Bean.BIZ_KEY, parentId + "." + name, false);
+				sql.putParameter("attributeName", name, false);
+				for (Column c : Column.values()) {
+					sql.putParameter(c.name(), (c == column) ? value : null, c.getParameterType());
+				}
+				inserts.add(inserts.fields);
+			}
+		}
+	}
+	
+	/**
+	 * Copy the fields of the user's customer's dynamic entities that were written without the dynamic field index
+	 * (before it was turned on or restored from an earlier backup) to ADM_DynamicField.
+	 * RDBMSDynamicPersistenceListModel only filters, sorts and pages a dynamic document in SQL once all of its entities are indexed.
+	 * Call this repeatedly (committing in between) until it returns 0.
+	 * 
+	 * @param maxEntities	The maximum number of entities to index.
+	 * @return	The number of entities indexed.
+	 */
+	public int indexFields(int maxEntities) {
+		if (! UtilImpl.DYNAMIC_FIELD_INDEX) {
+			return 0;
+		}
+		
+		User u = persistence.getUser();
+		Customer c = u.getCustomer();
+		List<Object[]> tuples = new ArrayList<>(maxEntities);
+		SQL select = persistence.newSQL("select bizId, bizUserId, moduleName, documentName, fields from ADM_DynamicEntity " +
+											"where bizCustomer = :bizCustomer and (fieldsIndexed is null or fieldsIndexed = :fieldsIndexed)");
+		select.putParameter(Bean.CUSTOMER_NAME, c.getName(), false);
+		select.putParameter("fieldsIndexed", Boolean.FALSE);
+		try (AutoClosingIterable<Object[]> i = select.tupleIterable()) {
+			for (Object[] tuple : i) {
+				tuples.add(tuple);
+				if (tuples.size() >= maxEntities) {
+					break;
+				}
+			}
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+		if (tuples.isEmpty()) {
+			return 0;
+		}
+
+		List<String> bizIds = new ArrayList<>(tuples.size());
+		for (Object[] tuple : tuples) {
+			bizIds.add((String) tuple[0]);
+		}
+		for (List<String> batch : batches(bizIds)) {
+			// remove any rows of a partially indexed entity
+			SQL sql = persistence.newSQL("delete from ADM_DynamicField where parent_id in (:bizId)");
+			sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
+			sql.execute();
+		}
+
+		try (Inserts inserts = new Inserts()) {
+			for (Object[] tuple : tuples) {
+				String bizId = (String) tuple[0];
+				Document d = null;
+				try {
+					d = c.getModule((String) tuple[2]).getDocument(c, (String) tuple[3]);
+				}
+				catch (Exception e) {
+					Util.LOGGER.log(Level.WARNING, "RDBMSDynamicPersistence: Cannot index the fields of " + tuple[2] + "." + tuple[3] + "#" + bizId + " as the document does not exist", e);
+				}
+				// Only dynamic documents are indexed as they drive the list model
+				if ((d != null) && d.isDynamic()) {
+					Map<String, Column> columns = new TreeMap<>();
+					Map<String, Class<?>> types = new TreeMap<>();
+					for (Attribute a : d.getAllAttributes(c)) {
+						if (a.isPersistent() && (a instanceof Field)) {
+							Column column = DynamicFieldIndex.column(a);
+							if (column != null) {
+								String name = a.getName();
+								columns.put(name, column);
+								types.put(name, a.getAttributeType().getImplementingType());
+							}
+						}
+					}
+					
+					Map<String, CoercionException> problems = new TreeMap<>();
+					Map<String, Object> fields = DynamicFieldsReader.read((String) tuple[4], types, problems);
+					for (CoercionException problem : problems.values()) {
+						Util.LOGGER.log(Level.WARNING,
+											"RDBMSDynamicPersistence: Schema evolution problem on indexing of " + d.getOwningModuleName() + "." + d.getName() + "#" + bizId + " :- " + problem.getMessage(),
+											problem.getCause());
+					}
+					insertIndexedFields(bizId, c.getName(), (String) tuple[1], fields, columns, inserts);
+				}
+			}
+			inserts.execute();
+		}
+		catch (SkyveException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+
+		for (List<String> batch : batches(bizIds)) {
+			SQL sql = persistence.newSQL("update ADM_DynamicEntity set fieldsIndexed = :fieldsIndexed where bizId in (:bizId)");
+			sql.putParameter("fieldsIndexed", Boolean.TRUE);
+			sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
+			sql.execute();
+		}
+
+		return tuples.size();
+	}
+	
 	@Override
 	public void delete(PersistentBean bean) {
 		Customer c = persistence.getUser().getCustomer();
@@ -328,12 +493,12 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 //System.out.println("delete entity (and relations) for " + JSON.marshall(bizIdsToDelete));
 		int i = 0;
 		int l = bizIdsToDelete.size();
-		List<String> batch = new ArrayList<>(100);
+		List<String> batch = new ArrayList<>(BATCH_SIZE);
 		for (String bizId : bizIdsToDelete.keySet()) {
 			batch.add(bizId);
 			i++;
 			if ((i == l) || // last element reached
-					((i % 100) == 0)) { // multiple of 100
+					((i % BATCH_SIZE) == 0)) { // batch is full
 				// delete all outgoing DynamicRelation for the DynamicEntity where bizId in (bizIdsToDelete)
 				// NB Could be extra relations left over from schema evolution
 				// NB No need to worry about clashing bizIds as it needs to be a PK in ADM_DynamicEntity (no duplicates)
@@ -341,6 +506,11 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 				sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
 				sql.execute();
 
+				// delete all typed field index rows for the DynamicEntity where bizId in (bizIdsToDelete)
+				sql = persistence.newSQL("delete from ADM_DynamicField where parent_id in (:bizId)");
+				sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
+				sql.execute();
+
 				// delete the DynamicEntity
 				sql = persistence.newSQL("delete from ADM_DynamicEntity where bizId in (:bizId)");
 				sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
@@ -357,7 +527,7 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 				batch.add(bizId);
 				i++;
 				if ((i == l) || // last element reached
-						((i % 100) == 0)) { // multiple of 100
+						((i % BATCH_SIZE) == 0)) { // batch is full
 					SQL sql = persistence.newSQL("select de.moduleName, de.documentName, dr.relatedId, de.bizId, dr.attributeName from ADM_DynamicRelation dr inner join ADM_DynamicEntity de on dr.parent_id = de.bizId where dr.relatedId in (:bizId)");
 					sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
 					Object[] result = sql.tupleResult();
@@ -457,20 +627,28 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 	 */
 	@Override
 	public void populate(PersistentBean bean) {
+		populate(Collections.singletonList(bean));
+	}
+
+	/**
+	 * Called by Skyve Persistence for static beans with some dynamic properties loaded by the one query.
+	 * The dynamic entities and relations are selected in batches of bizIds and related dynamic beans are resolved
+	 * through the first level cache, so the number of statements is bounded by the depth of the graph rather than the number of beans.
+	 */
+	@Override
+	public void populate(Collection<? extends PersistentBean> beans) {
 		try {
-//System.out.println("populate document for " + bean.getBizDocument() + " with bizId " + bean.getBizId());
+//System.out.println("populate " + beans.size() + " documents");
 			// Note that caching of these mixed beans is handled by hibernate so if AbstractHibernatePersistence.postLoad() calls this method, we don't ask questions.
+			Map<String, PersistentBean> beansById = new LinkedHashMap<>(beans.size() * 2);
+			for (PersistentBean bean : beans) {
+				beansById.put(bean.getBizId(), bean);
+			}
 
-			// select the json by bizId (no assertion that the row exists since this is a hybrid static/dynamic bean and is driven by the static select)
-			String select = "select bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, fields from ADM_DynamicEntity where bizid = :bizId";
-			Object[] tuple = persistence.newSQL(select).putParameter(Bean.DOCUMENT_ID, bean.getBizId(), false).tupleResult();
-			if (tuple != null) { // dynamic properties exist
-				User u = persistence.getUser();
-				Customer c = u.getCustomer();
-				Module m = c.getModule(bean.getBizModule());
-				Document d = m.getDocument(c, bean.getBizDocument());
-				
-				populate(u, c, m, d, bean, tuple);
+			// select the json by bizId (no assertion that the rows exist since these are hybrid static/dynamic beans and are driven by the static select)
+			Map<String, Object[]> tuples = selectEntities(beansById.keySet());
+			if (! tuples.isEmpty()) { // dynamic properties exist
+				populate(persistence.getUser(), beansById, tuples);
 			}
 		}
 		catch (SkyveException e) {
@@ -488,27 +666,11 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 	public DynamicPersistentBean populate(String bizId) {
 		try {
 //System.out.println("populate entity with bizId " + bizId);
-			if (dynamicFirstLevelCache.containsKey(bizId)) {
-				return dynamicFirstLevelCache.get(bizId);
+			DynamicPersistentBean result = dynamicFirstLevelCache.get(bizId);
+			if (result == null) {
+				populateDynamic(Collections.singleton(bizId));
+				result = dynamicFirstLevelCache.get(bizId);
 			}
-
-			// select the json by bizId (assert that the row exists since this is a totally dynamic bean)
-			String select = "select bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, fields, moduleName, documentName from ADM_DynamicEntity where bizid = :bizId";
-			Object[] tuple = persistence.newSQL(select).putParameter(Bean.DOCUMENT_ID, bizId, false).retrieveTuple();
-			
-			User u = persistence.getUser();
-			Customer c = u.getCustomer();
-			Module m = c.getModule((String) tuple[8]);
-			Document d = m.getDocument(c, (String) tuple[9]);
-			DynamicPersistentBean result = d.newInstance(u);
-			result.setDynamic(Bean.DOCUMENT_ID, bizId); // set the new bean's bizId
-			
-			// Cache the newly created bean
-			// NB Do this before calling populate to short circuit cyclic references
-			dynamicFirstLevelCache.put(bizId, result);
-			
-			populate(u, c, m, d, result, tuple);
-
 			return result;
 		}
 		catch (SkyveException e) {
@@ -518,71 +680,169 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 			throw new DomainException(e);
 		}
 	}
+
+	/**
+	 * Create, cache and populate the totally dynamic beans with the given bizIds that are not already in the first level cache.
+	 * @throws NoResultsException	if a bizId does not exist in the data store
+	 */
+	private void populateDynamic(Collection<String> bizIds) throws Exception {
+		Set<String> uncachedBizIds = new TreeSet<>();
+		for (String bizId : bizIds) {
+			if (! dynamicFirstLevelCache.containsKey(bizId)) {
+				uncachedBizIds.add(bizId);
+			}
+		}
+		if (uncachedBizIds.isEmpty()) {
+			return;
+		}
+
+		// select the json by bizId (assert that the rows exist since these are totally dynamic beans)
+		Map<String, Object[]> tuples = selectEntities(uncachedBizIds);
+		if (tuples.size() != uncachedBizIds.size()) {
+			throw new NoResultsException();
+		}
+
+		User u = persistence.getUser();
+		Customer c = u.getCustomer();
+		Map<String, PersistentBean> beansById = new LinkedHashMap<>(tuples.size() * 2);
+		for (Entry<String, Object[]> entry : tuples.entrySet()) {
+			String bizId = entry.getKey();
+			Object[] tuple = entry.getValue();
+			Module m = c.getModule((String) tuple[9]);
+			Document d = m.getDocument(c, (String) tuple[10]);
+			DynamicPersistentBean bean = d.newInstance(u);
+			bean.setDynamic(Bean.DOCUMENT_ID, bizId); // set the new bean's bizId
+
+			// Cache the newly created bean
+			// NB Do this before calling populate to short circuit cyclic references
+			dynamicFirstLevelCache.put(bizId, bean);
+			beansById.put(bizId, bean);
+		}
+
+		populate(u, beansById, tuples);
+	}
+
+	/**
+	 * Select the ADM_DynamicEntity rows for the given bizIds in batches.
+	 * @return	bizId -> [bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, fields, moduleName, documentName]
+	 */
+	private Map<String, Object[]> selectEntities(Collection<String> bizIds) {
+		Map<String, Object[]> result = new TreeMap<>();
+		for (List<String> batch : batches(bizIds)) {
+			String select = "select bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, fields, moduleName, documentName from ADM_DynamicEntity where bizId in (:bizId)";
+			SQL sql = persistence.newSQL(select);
+			sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
+			for (Object[] tuple : sql.tupleResults()) {
+				result.put((String) tuple[0], tuple);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Select the ADM_DynamicRelation rows for the given parent bizIds in batches.
+	 * @return	parent bizId -> [relatedModuleName, relatedDocumentName, relatedId, attributeName] in attributeName, ordinal order
+	 */
+	private Map<String, List<Object[]>> selectRelations(Collection<String> bizIds) {
+		Map<String, List<Object[]>> result = new TreeMap<>();
+		// Note - this following SQL gets a list instead of iterating as populate() is recursive (through the populateDynamic() call for related beans).
+		// Hibernate can't manage multiple nested ScrollableResults for certain databases (MySQL) and closes the encapsulated ResultSet of the outer ScrollableResults prematurely.
+		for (List<String> batch : batches(bizIds)) {
+			String select = "select parent_id, relatedModuleName, relatedDocumentName, relatedId, attributeName from ADM_DynamicRelation where parent_id in (:bizId) order by parent_id, attributeName, ordinal";
+			SQL sql = persistence.newSQL(select);
+			sql.putParameter(Bean.DOCUMENT_ID, batch, AttributeType.id);
+			for (Object[] tuple : sql.tupleResults()) {
+				result.computeIfAbsent((String) tuple[0], k -> new ArrayList<>()).add(Arrays.copyOfRange(tuple, 1, 5));
+			}
+		}
+		return result;
+	}
+
+	private static List<List<String>> batches(Collection<String> bizIds) {
+		List<List<String>> result = new ArrayList<>((bizIds.size() / BATCH_SIZE) + 1);
+		List<String> batch = null;
+		for (String bizId : bizIds) {
+			if ((batch == null) || (batch.size() == BATCH_SIZE)) {
+				batch = new ArrayList<>(Math.min(BATCH_SIZE, bizIds.size()));
+				result.add(batch);
+			}
+			batch.add(bizId);
+		}
+		return result;
+	}
 	
-	private void populate(User u,
-							Customer c,
-							Module m,
-							Document d,
-							PersistentBean bean,
-							Object[] tuple)
+	/**
+	 * Populate the given beans from their selected ADM_DynamicEntity tuples and then resolve their dynamic references.
+	 * Beans without a tuple are left alone.
+	 */
+	private void populate(User u, Map<String, PersistentBean> beansById, Map<String, Object[]> tuples)
 	throws Exception {
-		// only populate the biz stuff if this is a dynamic bean, otherwise its in the static bean
-		if (d.isDynamic()) {
-			bean.setBizVersion(Integer.valueOf(((Number) tuple[0]).intValue()));
-			bean.setBizLock(new OptimisticLock((String) tuple[1]));
-			bean.setBizKey((String) tuple[2]);
-			bean.setBizCustomer((String) tuple[3]);
-			bean.setBizFlagComment((String) tuple[4]);
-			bean.setBizDataGroupId((String) tuple[5]);
-			bean.setBizUserId((String) tuple[6]);
-		}
-		
-		@SuppressWarnings("unchecked")
-		Map<String, Object> json = (Map<String, Object>) JSON.unmarshall(u, (String) tuple[7]);
-		Set<String> dynamicReferenceNames = new TreeSet<>();
-		final boolean dynamicDocument = d.isDynamic();
-		for (Attribute a : d.getAllAttributes(c)) {
-			// if dynamic document or dynamic field or reference to dynamic document
-			boolean dynamicAttribute = dynamicDocument;
-			if (a instanceof Field) {
-				if (! dynamicAttribute) {
-					dynamicAttribute = ((Field) a).isDynamic();
-				}
-				if (dynamicAttribute) {
-					String name = a.getName();
-					Object value = json.get(name);
-					Class<?> type = a.getAttributeType().getImplementingType();
-					if ((value != null) && (! type.equals(value.getClass()))) {
-						try {
-							value = BindUtil.fromSerialised(type, value.toString());
-						}
-						catch (Exception e) {
-							Util.LOGGER.warning("RDBMSDynamicPersistence: Schema evolution problem on populate of " + d.getOwningModuleName() + "." + d.getName() + "#" + bean.getBizId() + " :- [" + value + "] cannot be coerced to type " + type);
-							e.printStackTrace();
-						}
-					}
-					bean.setDynamic(name, value);
+		Customer c = u.getCustomer();
+
+		// Populate the fields and collect the dynamic reference names for each bean
+		Map<String, Set<String>> dynamicReferenceNames = new TreeMap<>();
+		for (Entry<String, Object[]> entry : tuples.entrySet()) {
+			String bizId = entry.getKey();
+			PersistentBean bean = beansById.get(bizId);
+			if (bean != null) {
+				PopulatePlan plan = plan(c, bean.getBizModule(), bean.getBizDocument());
+				populateFields(plan, bean, entry.getValue());
+				if (! plan.dynamicReferenceNames.isEmpty()) {
+					dynamicReferenceNames.put(bizId, plan.dynamicReferenceNames);
 				}
 			}
-			else if (a instanceof Reference) {
-				Reference r = (Reference) a;
-				if (! dynamicAttribute) {
-					dynamicAttribute = BindUtil.isDynamic(c, m, r);
-				}
-				if (dynamicAttribute) {
-					dynamicReferenceNames.add(r.getName());
+		}
+		if (dynamicReferenceNames.isEmpty()) {
+			return;
+		}
+
+		// Resolve all related dynamic beans for this level of the graph in one go
+		Map<String, List<Object[]>> relations = selectRelations(dynamicReferenceNames.keySet());
+		Set<String> relatedDynamicIds = new TreeSet<>();
+		for (Entry<String, List<Object[]>> entry : relations.entrySet()) {
+			Set<String> names = dynamicReferenceNames.get(entry.getKey());
+			for (Object[] tuple : entry.getValue()) {
+				String relatedId = (String) tuple[2];
+				if ((relatedId != null) && ((tuple[0] == null) || (tuple[1] == null)) && names.contains(tuple[3])) {
+					relatedDynamicIds.add(relatedId);
 				}
 			}
 		}
-		
-		populateReferences(bean, dynamicReferenceNames);
+		populateDynamic(relatedDynamicIds);
+
+		for (Entry<String, List<Object[]>> entry : relations.entrySet()) {
+			String bizId = entry.getKey();
+			populateReferences(beansById.get(bizId), dynamicReferenceNames.get(bizId), entry.getValue());
+		}
 	}
 
-	private void populateReferences(PersistentBean bean, Set<String> dynamicReferenceNames) throws Exception {
-		String select = "select relatedModuleName, relatedDocumentName, relatedId, attributeName from ADM_DynamicRelation where parent_id = :bizId order by attributeName, ordinal";
-		// Note - this following SQL gets a list instead of iterating as this method is recursive (through the populate() call for relatedBean).
-		// Hibernate can't manage multiple nested ScrollableResults for certain databases (MySQL) and closes the encapsulated ResultSet of the outer ScrollableResults prematurely.
-		for (Object[] tuple : persistence.newSQL(select).putParameter(Bean.DOCUMENT_ID, bean.getBizId(), false).tupleResults()) {
+	private static void populateFields(PopulatePlan plan, PersistentBean bean, Object[] tuple)
+	throws Exception {
+		// only populate the biz stuff if this is a dynamic bean, otherwise its in the static bean
+		if (plan.dynamicDocument) {
+			bean.setBizVersion(Integer.valueOf(((Number) tuple[1]).intValue()));
+			bean.setBizLock(new OptimisticLock((String) tuple[2]));
+			bean.setBizKey((String) tuple[3]);
+			bean.setBizCustomer((String) tuple[4]);
+			bean.setBizFlagComment((String) tuple[5]);
+			bean.setBizDataGroupId((String) tuple[6]);
+			bean.setBizUserId((String) tuple[7]);
+		}
+
+		Map<String, CoercionException> problems = new TreeMap<>();
+		Map<String, Object> json = DynamicFieldsReader.read((String) tuple[8], plan.fieldTypes, problems);
+		for (CoercionException problem : problems.values()) {
+			Util.LOGGER.log(Level.WARNING,
+								"RDBMSDynamicPersistence: Schema evolution problem on populate of " + bean.getBizModule() + "." + bean.getBizDocument() + "#" + bean.getBizId() + " :- " + problem.getMessage(),
+								problem.getCause());
+		}
+		for (String name : plan.fieldTypes.keySet()) {
+			bean.setDynamic(name, json.get(name));
+		}
+	}
+
+	private void populateReferences(PersistentBean bean, Set<String> dynamicReferenceNames, List<Object[]> tuples) {
+		for (Object[] tuple : tuples) {
 			String relatedModuleName = (String) tuple[0];
 			String relatedDocumentName = (String) tuple[1];
 			String relatedId = (String) tuple[2];
@@ -596,9 +856,9 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 					if ((relatedModuleName != null) && (relatedDocumentName != null)) {
 						relatedBean = persistence.retrieve(relatedModuleName, relatedDocumentName, relatedId);
 					}
-					// otherwise dynamic document
+					// otherwise dynamic document (populated above)
 					else {
-						relatedBean = populate(relatedId);
+						relatedBean = dynamicFirstLevelCache.get(relatedId);
 					}
 				}
 				
@@ -616,9 +876,161 @@ public class RDBMSDynamicPersistence implements DynamicPersistence {
 		}
 	}
 
+	/**
+	 * Get (or make and cache) the dynamic attributes to populate for a document.
+	 */
+	private PopulatePlan plan(Customer c, String moduleName, String documentName) {
+		if (plans == null) {
+			plans = new TreeMap<>();
+		}
+		String key = c.getName() + '.' + moduleName + '.' + documentName;
+		PopulatePlan result = plans.get(key);
+		if (result == null) {
+			Module m = c.getModule(moduleName);
+			Document d = m.getDocument(c, documentName);
+			result = new PopulatePlan(c, m, d);
+			plans.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * An insert statement whose rows are sent to the data store in JDBC batches.
+	 */
+	private final class Batch {
+		private final AbstractSQL sql;
+		private NamedParameterPreparedStatement ps = null;
+		private int batched = 0;
+
+		private Batch(String insert) {
+			sql = (AbstractSQL) persistence.newSQL(insert);
+		}
+
+		private void add() throws SQLException {
+			if (ps == null) {
+				ps = new NamedParameterPreparedStatement(((AbstractHibernatePersistence) persistence).getConnection(), sql.toQueryString());
+			}
+			sql.prepareStatement(ps, UtilImpl.DATA_STORE, AbstractHibernatePersistence.getDialect());
+			ps.addBatch();
+			batched++;
+		}
+
+		private void execute() throws SQLException {
+			if (batched > 0) {
+				ps.executeBatch();
+				batched = 0;
+			}
+		}
+	}
+
+	/**
+	 * The inserts of a persist().
+	 * Each row was previously inserted with its own SQL statement and round trip.
+	 * The batches are executed in the order entities, relations then fields as the relations and fields belong to the entities.
+	 */
+	private final class Inserts implements AutoCloseable {
+		private final Batch entities = new Batch("insert into ADM_DynamicEntity (bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, moduleName, documentName, fields, fieldsIndexed) " +
+													"values (:bizId, :bizVersion, :bizLock, :bizKey, :bizCustomer, :bizFlagComment, :bizDataGroupId, :bizUserId, :moduleName, :documentName, :fields, :fieldsIndexed)");
+		private final Batch relations = new Batch("insert into ADM_DynamicRelation (bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, parent_id, relatedModuleName, relatedDocumentName, relatedId, attributeName, ordinal) " + 
+													"values (:bizId, 0, :bizLock, :bizKey, :bizCustomer, null, null, :bizUserId, :parent_id, :relatedModuleName, :relatedDocumentName, :relatedId, :attributeName, :ordinal)");
+		private final Batch fields = new Batch("insert into ADM_DynamicField (bizId, bizVersion, bizLock, bizKey, bizCustomer, bizFlagComment, bizDataGroupId, bizUserId, parent_id, attributeName, textValue, numericValue, dateValue) " + 
+												"values (:bizId, 0, :bizLock, :bizKey, :bizCustomer, null, null, :bizUserId, :parent_id, :attributeName, :textValue, :numericValue, :dateValue)");
+		private final int batchSize = Math.max(1, UtilImpl.DATA_STORE.getBatchSize());
+		private boolean inserted = false;
+
+		/**
+		 * Add the row with the current parameters of the batch's SQL.
+		 */
+		private void add(Batch batch) {
+			// The batches bypass hibernate so send hibernate's pending changes first, as the native queries used to
+			if (! inserted) {
+				persistence.flush();
+			}
+			try {
+				batch.add();
+				inserted = true;
+				if (batch.batched >= batchSize) {
+					execute();
+				}
+			}
+			catch (SQLException e) {
+				throw new DomainException(e);
+			}
+		}
+
+		private void execute() {
+			try {
+				entities.execute();
+				relations.execute();
+				fields.execute();
+			}
+			catch (SQLException e) {
+				throw new DomainException(e);
+			}
+		}
+
+		@Override
+		public void close() {
+			try {
+				for (Batch batch : new Batch[] {entities, relations, fields}) {
+					if (batch.ps != null) {
+						batch.ps.close();
+					}
+				}
+			}
+			catch (SQLException e) {
+				throw new DomainException(e);
+			}
+			finally {
+				// Keep the second level and query caches in step as the inserts bypassed hibernate
+				if (inserted) {
+					((AbstractHibernatePersistence) persistence).evictCachedTables(SQLMetaDataUtil.ADMIN_MODULE_NAME,
+																					"DynamicEntity",
+																					"DynamicRelation",
+																					"DynamicField");
+				}
+			}
+		}
+	}
+
+	/**
+	 * The dynamic fields (with their implementing types) and dynamic references of a document.
+	 */
+	private static final class PopulatePlan {
+		private final boolean dynamicDocument;
+		private final Map<String, Class<?>> fieldTypes = new LinkedHashMap<>();
+		private final Set<String> dynamicReferenceNames = new TreeSet<>();
+
+		private PopulatePlan(Customer c, Module m, Document d) {
+			dynamicDocument = d.isDynamic();
+			for (Attribute a : d.getAllAttributes(c)) {
+				// if dynamic document or dynamic field or reference to dynamic document
+				boolean dynamicAttribute = dynamicDocument;
+				if (a instanceof Field) {
+					if (! dynamicAttribute) {
+						dynamicAttribute = ((Field) a).isDynamic();
+					}
+					if (dynamicAttribute) {
+						fieldTypes.put(a.getName(), a.getAttributeType().getImplementingType());
+					}
+				}
+				else if (a instanceof Reference) {
+					Reference r = (Reference) a;
+					if (! dynamicAttribute) {
+						dynamicAttribute = BindUtil.isDynamic(c, m, r);
+					}
+					if (dynamicAttribute) {
+						dynamicReferenceNames.add(r.getName());
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void evictAllCached() {
 		dynamicFirstLevelCache.clear();
+		plans = null;
 	}
 	
 	@Override
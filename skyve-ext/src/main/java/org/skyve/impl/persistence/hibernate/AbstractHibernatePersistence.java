@@ -4,12 +4,20 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -37,28 +45,41 @@ import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StaleObjectStateException;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.SessionFactoryBuilder;
 import org.hibernate.boot.cfgxml.spi.LoadedConfig;
+import org.hibernate.boot.jaxb.internal.CacheableFileXmlSource;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.boot.spi.MetadataImplementor;
 import org.hibernate.cache.CacheException;
 import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.event.service.spi.EventListenerRegistry;
 import org.hibernate.event.spi.EventType;
 import org.hibernate.integrator.spi.Integrator;
 import org.hibernate.integrator.spi.IntegratorService;
 import org.hibernate.internal.SessionImpl;
 import org.hibernate.mapping.Column;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.hibernate.service.spi.SessionFactoryServiceRegistry;
 import org.hibernate.tool.hbm2ddl.SchemaExport;
 import org.hibernate.tool.hbm2ddl.SchemaUpdate;
 import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.internal.DefaultSchemaFilter;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
 import org.hibernate.type.StringType;
 import org.hibernate.type.Type;
 import org.skyve.EXT;
@@ -138,6 +159,9 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 	private static Metadata metadata = null;
 	private static final Map<String, SkyveDialect> DIALECTS = new TreeMap<>();
 
+	// How long an ORM cache file that is not in use is kept for other nodes sharing the cache - 7 days
+	private static final long ORM_CACHE_RETENTION_MILLIS = 7L * 24L * 60L * 60L * 1000L;
+
 	static {
 		try {
 			configure();
@@ -149,6 +173,8 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 
 	private EntityManager em = null;
 	private Session session = null;
+	// true if a pessimistic lock has been taken in the current transaction
+	private boolean pessimisticallyLocked = false;
 	
 	public AbstractHibernatePersistence() {
 		em = sf.createEntityManager();
@@ -159,6 +185,22 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 	protected abstract void removeBeanContent(PersistentBean bean) throws Exception;
 	protected abstract void putBeanContent(BeanContent content) throws Exception;
 	protected abstract void closeContent() throws Exception;
+
+	/**
+	 * Index the content of a bean inserted or updated in a flush.
+	 * By default the content is put during the flush.
+	 */
+	protected void indexBeanContent(PersistentBean bean, BeanContent content) throws Exception {
+		putBeanContent(content);
+	}
+
+	/**
+	 * Remove the content of a bean deleted in a flush.
+	 * By default the content is removed during the flush.
+	 */
+	protected void unindexBeanContent(PersistentBean bean) throws Exception {
+		removeBeanContent(bean);
+	}
 	
 	@Override
 	@SuppressWarnings("unchecked")
@@ -221,8 +263,8 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 		}
 		cfg.put(AvailableSettings.DIALECT, UtilImpl.DATA_STORE.getDialectClassName());
 
-		// Query Caching screws up pessimistic locking
-		cfg.put(AvailableSettings.USE_QUERY_CACHE, "false");
+		// Query Caching screws up pessimistic locking - queries are not cached once a lock is taken (see isPessimisticallyLocked())
+		cfg.put(AvailableSettings.USE_QUERY_CACHE, String.valueOf(UtilImpl.QUERY_CACHE));
 
 		// turn on second level caching
 		cfg.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
@@ -236,7 +278,14 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 		
 		// JDBC parameters
 		cfg.put(AvailableSettings.USE_STREAMS_FOR_BINARY, "true");
-		cfg.put(AvailableSettings.STATEMENT_BATCH_SIZE, "16");
+		cfg.put(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(UtilImpl.DATA_STORE.getBatchSize()));
+		// Group the inserts and updates by entity (and so table) so that the batches are not broken by each change in type
+		cfg.put(AvailableSettings.ORDER_INSERTS, "true");
+		cfg.put(AvailableSettings.ORDER_UPDATES, "true");
+		// Versioned data needs the driver to return the row counts of a batch so leave it to the dialect unless the data store opts in
+		if (UtilImpl.DATA_STORE.isBatchVersionedData()) {
+			cfg.put(AvailableSettings.BATCH_VERSIONED_DATA, "true");
+		}
 		cfg.put(AvailableSettings.MAX_FETCH_DEPTH, "3");
 
 		if (UtilImpl.CATALOG != null) {
@@ -250,12 +299,17 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 		cfg.put(AvailableSettings.USE_REFLECTION_OPTIMIZER, "false");
 
 		// Update the database schema on first use
-		if (UtilImpl.DDL_SYNC) {
+		// NB When fingerprinting, only the changed tables are updated after the session factory is built - see syncChangedSchema()
+		if (UtilImpl.DDL_SYNC && (! UtilImpl.DDL_SYNC_FINGERPRINT)) {
 			cfg.put(AvailableSettings.HBM2DDL_AUTO, "update");
 		}
 		// The default of "grouped" may require hibernate.default_schema and/or hibernate.default_catalog to be provided.
 		// Will have more luck with "individually".
-		cfg.put(AvailableSettings.HBM2DDL_JDBC_METADATA_EXTRACTOR_STRATEGY, "individually");
+		// When fingerprinting with a schema or catalog, the changed tables are extracted in bulk.
+		cfg.put(AvailableSettings.HBM2DDL_JDBC_METADATA_EXTRACTOR_STRATEGY,
+					(UtilImpl.DDL_SYNC_FINGERPRINT && ((UtilImpl.CATALOG != null) || (UtilImpl.SCHEMA != null))) ?
+						"grouped" :
+						"individually");
 
 		// Keep stats on usage
 		cfg.put(AvailableSettings.GENERATE_STATISTICS, "false");
@@ -295,6 +349,12 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 						// For ordering collection elements when initialised
 						eventListenerRegistry.appendListeners(EventType.INIT_COLLECTION, listener);
 
+						// For cache invalidation once changes are committed
+						HibernateCommitListener commitListener = new HibernateCommitListener();
+						eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, commitListener);
+						eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, commitListener);
+						eventListenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, commitListener);
+
 						// For collection mutation callbacks
 						// NB this didn't work - got the event name from the hibernate envers doco - maybe in a new version of hibernate
 //						cfg.setListeners("pre-collection-update", new PreCollectionUpdateEventListener[] {hibernateListener});
@@ -324,6 +384,8 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 		}
 		else {
 			StringBuilder sb = new StringBuilder(64);
+			File ormCacheDirectory = ormCacheDirectory();
+			Set<String> ormCacheFileNames = new TreeSet<>();
 
 			for (String moduleName : repository.getAllVanillaModuleNames()) {
 				// repository.REPOSITORY_DIRECTORY
@@ -336,7 +398,7 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 
 				File mappingFile = new File(UtilImpl.getAbsoluteBasePath() + mappingPath);
 				if (mappingFile.exists()) {
-					sources.addResource(mappingPath);
+					addMapping(sources, mappingPath, mappingFile, ormCacheDirectory, ormCacheFileNames);
 				}
 			}
 
@@ -349,9 +411,13 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 				
 				File ormFile = new File(UtilImpl.getAbsoluteBasePath() + ormResourcePath);
 				if (ormFile.exists()) {
-					sources.addResource(ormResourcePath);
+					addMapping(sources, ormResourcePath, ormFile, ormCacheDirectory, ormCacheFileNames);
 				}
 			}
+
+			if (ormCacheDirectory != null) {
+				removeUnusedOrmCacheFiles(ormCacheDirectory, ormCacheFileNames, System.currentTimeMillis());
+			}
 		}
 
 		metadata = sources.getMetadataBuilder().build();
@@ -367,14 +433,193 @@ public abstract class AbstractHibernatePersistence extends AbstractPersistence {
 		}
 
 		if (UtilImpl.DDL_SYNC) {
+			if (UtilImpl.DDL_SYNC_FINGERPRINT) {
+				syncChangedSchema(standardRegistry);
+			}
+			else {
+				try {
+					DDLDelegate.migrate(standardRegistry, metadata, AbstractHibernatePersistence.getDialect(), true);
+				}
+				catch (Exception e) {
+					UtilImpl.LOGGER.severe("Could not apply skyve extra schema updates");
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Update the schema of the tables and sequences whose mapping has changed since the schema was last synced.
+	 * The fingerprints of the mapping are recorded once the schema is updated so that the next startup only needs
+	 * to inspect what has changed since. Tables that could not be updated are not recorded and are updated again.
+	 */
+	private static void syncChangedSchema(StandardServiceRegistry standardRegistry) {
+		SkyveDialect skyveDialect = getDialect();
+		try (Connection connection = EXT.getDataStoreConnection()) {
+			connection.setAutoCommit(true);
+
+			SchemaFingerprint fingerprint = new SchemaFingerprint(metadata, (Dialect) skyveDialect);
+			fingerprint.read(connection);
+			if (fingerprint.isUnchanged()) {
+				UtilImpl.LOGGER.info("Skip DDL sync as the schema mapping is unchanged");
+				return;
+			}
+			UtilImpl.LOGGER.info("DDL sync of " + fingerprint.changes() + " changed tables and sequences");
+
+			// Run the hibernate schema update over the changed tables
+			final SchemaFilter changed = fingerprint.changed();
+			Map<String, Object> settings = new HashMap<>(standardRegistry.getService(ConfigurationService.class).getSettings());
+			settings.put(AvailableSettings.HBM2DDL_FILTER_PROVIDER, new SchemaFilterProvider() {
+				@Override
+				public SchemaFilter getMigrateFilter() {
+					return changed;
+				}
+				
+				@Override
+				public SchemaFilter getValidateFilter() {
+					return DefaultSchemaFilter.INSTANCE;
+				}
+				
+				@Override
+				public SchemaFilter getDropFilter() {
+					return DefaultSchemaFilter.INSTANCE;
+				}
+				
+				@Override
+				public SchemaFilter getCreateFilter() {
+					return DefaultSchemaFilter.INSTANCE;
+				}
+			});
+			ExecutionOptions options = SchemaManagementToolCoordinator.buildExecutionOptions(settings, e -> {
+				UtilImpl.LOGGER.warning("Could not apply schema update - " + e.getMessage());
+				// The exception message holds the failed statement
+				fingerprint.failedStatement(e.getMessage());
+			});
+			TargetDescriptor target = SchemaExport.buildTargetDescriptor(EnumSet.of(TargetType.DATABASE), null, standardRegistry);
+			standardRegistry.getService(SchemaManagementTool.class).getSchemaMigrator(settings).doMigration(metadata, options, target);
+
+			// Run the skyve extra schema updates over the changed tables
+			List<String> failed = new ArrayList<>();
+			DDLDelegate.migrate(standardRegistry, metadata, skyveDialect, true, changed, failed);
+			for (String tableName : failed) {
+				fingerprint.failed(tableName);
+			}
+
+			fingerprint.write(connection);
+		}
+		catch (Exception e) {
+			UtilImpl.LOGGER.severe("Could not sync the changed schema");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Clear the schema fingerprints so that the next DDL sync inspects and migrates every table and sequence.
+	 * Call this after applying DDL outside of the DDL sync (eg a create or drop script) as the fingerprints
+	 * no longer describe the schema.
+	 */
+	public static void clearSchemaFingerprints() {
+		try (Connection connection = EXT.getDataStoreConnection()) {
+			connection.setAutoCommit(true);
+			SchemaFingerprint.clear(connection);
+		}
+		catch (SQLException e) {
+			throw new DomainException("Could not clear the schema fingerprints", e);
+		}
+	}
+
+	/**
+	 * The mapping metadata (of the session factory) for the schema fingerprint.
+	 */
+	static Metadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * @return	The ORM cache directory or null if the ORM cache is not enabled or cannot be created.
+	 */
+	private static File ormCacheDirectory() {
+		if (! UtilImpl.HIBERNATE_ORM_CACHE) {
+			return null;
+		}
+		File result = new File(UtilImpl.CONTENT_DIRECTORY, "SKYVE_ORM_CACHE");
+		if ((! result.isDirectory()) && (! result.mkdirs())) {
+			UtilImpl.LOGGER.warning("Could not create the ORM cache directory " + result.getAbsolutePath() + " - ORM mappings will be parsed");
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the ORM cache files that this node does not use and that no node has used for ORM_CACHE_RETENTION_MILLIS.
+	 * Other nodes sharing the cache may use other mappings (eg during a rolling deployment) and may be writing new files,
+	 * so only files that have not been touched (see addMapping()) or written for the retention period are removed.
+	 */
+	static void removeUnusedOrmCacheFiles(File ormCacheDirectory, Set<String> ormCacheFileNames, long now) {
+		File[] cachedFiles = ormCacheDirectory.listFiles();
+		if (cachedFiles != null) {
+			for (File cachedFile : cachedFiles) {
+				if ((! ormCacheFileNames.contains(cachedFile.getName())) &&
+						(now - cachedFile.lastModified() > ORM_CACHE_RETENTION_MILLIS)) {
+					if (! cachedFile.delete()) {
+						UtilImpl.LOGGER.warning("Could not delete unused ORM cache file " + cachedFile.getAbsolutePath());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add an ORM mapping resource to the metadata sources, through the ORM cache if there is one.
+	 * The ORM cache holds a copy of each mapping file named by a hash of its path and contents.
+	 * Hibernate keeps the JAXB parsed mapping document of each copy in a serialized .bin file alongside it,
+	 * which is deserialized instead of parsing the mapping on later startups - the metadata is still bound from it.
+	 * A changed mapping has a different hash and so it is parsed (and cached) again.
+	 */
+	private static void addMapping(MetadataSources sources,
+									String mappingPath,
+									File mappingFile,
+									File ormCacheDirectory,
+									Set<String> ormCacheFileNames) {
+		if (ormCacheDirectory != null) {
 			try {
-				DDLDelegate.migrate(standardRegistry, metadata, AbstractHibernatePersistence.getDialect(), true);
+				byte[] mapping = Files.readAllBytes(mappingFile.toPath());
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				digest.update(mappingPath.getBytes(StandardCharsets.UTF_8));
+				digest.update(mapping);
+				StringBuilder name = new StringBuilder(80);
+				for (byte b : digest.digest()) {
+					name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				}
+				name.append(".hbm.xml");
+
+				File cachedFile = new File(ormCacheDirectory, name.toString());
+				if (! cachedFile.exists()) {
+					// Write and move so that other nodes sharing the cache never see a partial mapping
+					File tempFile = File.createTempFile("orm", ".tmp", ormCacheDirectory);
+					Files.write(tempFile.toPath(), mapping);
+					Files.move(tempFile.toPath(), cachedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				else {
+					// Touch the files in use so that other nodes sharing the cache don't remove them.
+					// The .bin file gets the same time so that hibernate doesn't consider it older than the mapping.
+					long now = System.currentTimeMillis();
+					cachedFile.setLastModified(now);
+					File binFile = CacheableFileXmlSource.determineCachedFile(cachedFile);
+					if (binFile.exists()) {
+						binFile.setLastModified(now);
+					}
+				}
+				sources.addCacheableFile(cachedFile);
+				ormCacheFileNames.add(cachedFile.getName());
+				ormCacheFileNames.add(CacheableFileXmlSource.determineCachedFile(cachedFile).getName());
+				return;
 			}
-			catch (Exception e) {
-				UtilImpl.LOGGER.severe("Could not apply skyve extra schema updates");
-				e.printStackTrace();
+			catch (IOException | NoSuchAlgorithmException e) {
+				UtilImpl.LOGGER.warning("Could not use the ORM cache for " + mappingPath + " - " + e);
 			}
 		}
+		sources.addResource(mappingPath);
 	}
 
 	public static SkyveDialect getDialect(String dialectClassName) {
@@ -509,6 +754,7 @@ t.printStackTrace();
 		try {
 			EntityTransaction et = em.getTransaction();
 			if (! et.isActive()) {
+				pessimisticallyLocked = false;
 				// FROM THE HIBERNATE_REFERENCE DOCS Page 190
 	            // Earlier versions of Hibernate required explicit disconnection and reconnection of a Session. 
 	            // These methods are deprecated, as beginning and ending a transaction has the same effect.
@@ -667,6 +913,7 @@ t.printStackTrace();
 	// So we have to ensure its robust as all fuck
 	@Override
 	public final void rollback() {
+		pessimisticallyLocked = false;
 		boolean rollbackOnly = false;
 		try {
 			if (em != null) {
@@ -693,6 +940,7 @@ t.printStackTrace();
 	// So we have to ensure its robust as all fuck
 	@Override
 	public final void commit(boolean close) {
+		pessimisticallyLocked = false;
 		boolean rollbackOnly = false;
 		try {
 			if (em != null) { // can be null after a relogin
@@ -777,6 +1025,22 @@ t.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Evict the data cached from the tables of the given documents after they have been changed through JDBC.
+	 * This is what hibernate does after executing native SQL updates, but only for the tables given.
+	 */
+	public void evictCachedTables(String moduleName, String... documentNames) {
+		SessionImplementor si = (SessionImplementor) session;
+		Set<String> tableNames = new TreeSet<>();
+		for (String documentName : documentNames) {
+			EntityPersister persister = si.getFactory().getMetamodel().entityPersister(getDocumentEntityName(moduleName, documentName));
+			for (Serializable space : persister.getQuerySpaces()) {
+				tableNames.add((String) space);
+			}
+		}
+		si.getActionQueue().addAction(new BulkOperationCleanupAction(si, tableNames));
+	}
+
 	@Override
 	public boolean cached(Bean bean) {
 		if (bean instanceof DynamicBean) {
@@ -2074,6 +2338,15 @@ if (document.isDynamic()) return;
 	public <T extends Bean> T retrieve(Document document, String id) {
 		return retrieve(document, id, false);
 	}
+
+	/**
+	 * Cached query results do not reflect the rows locked in the database (or wait for their locks)
+	 * so queries are not cached for the remainder of a transaction that has taken a pessimistic lock.
+	 * @return	true if a pessimistic lock has been taken in the current transaction.
+	 */
+	boolean isPessimisticallyLocked() {
+		return pessimisticallyLocked;
+	}
 	
 	@Override
 	public <T extends Bean> T retrieveAndLock(Document document, String id) {
@@ -2101,6 +2374,7 @@ if (document.isDynamic()) return;
 			}
 			else {
 				if (forUpdate) {
+					pessimisticallyLocked = true;
 					if (beanClass != null) {
 						result = (T) session.load(beanClass, id, LockMode.PESSIMISTIC_WRITE);
 					}
@@ -2141,22 +2415,87 @@ if (document.isDynamic()) return;
 		return result;
 	}
 
+	// When not null, postLoad() adds the loaded beans here to be completed once the executing query has finished.
+	// See listWithBatchedPostLoad().
+	private transient List<PersistentBean> deferredPostLoads = null;
+	
+	/**
+	 * List the query with post load processing deferred until all results are loaded.
+	 * This allows the dynamic attributes of the loaded beans to be populated in batches instead of a bean at a time.
+	 * NB This is re-entrant as bizlet postLoad() methods can run other queries.
+	 */
+	<T> List<T> listWithBatchedPostLoad(Query<T> query) throws Exception {
+		List<PersistentBean> outerPostLoads = deferredPostLoads;
+		List<PersistentBean> loadedBeans = new ArrayList<>();
+		deferredPostLoads = loadedBeans;
+		List<T> result = null;
+		try {
+			result = query.list();
+		}
+		finally {
+			deferredPostLoads = outerPostLoads;
+		}
+
+		if (! loadedBeans.isEmpty()) {
+			postLoad(loadedBeans);
+		}
+		return result;
+	}
+	
 	@Override
 	public void postLoad(PersistentBean loadedBean)
 	throws Exception {
-		// Inject any dependencies
-		BeanProvider.injectFields(loadedBean);
+		if (deferredPostLoads != null) {
+			deferredPostLoads.add(loadedBean);
+			return;
+		}
 
 		Customer customer = user.getCustomer();
 		Module module = customer.getModule(loadedBean.getBizModule());
 		Document document = module.getDocument(customer, loadedBean.getBizDocument());
 
-		((DocumentImpl) document).populateDynamicAttributeDefaults(customer, loadedBean);
+		prePopulate(customer, document, loadedBean);
 
 		if (document.hasDynamic()) {
 			dynamicPersistence.populate(loadedBean);
 		}
 
+		postPopulate(customer, module, document, loadedBean);
+	}
+
+	private void postLoad(List<PersistentBean> loadedBeans)
+	throws Exception {
+		Customer customer = user.getCustomer();
+		List<PersistentBean> dynamicBeans = new ArrayList<>(loadedBeans.size());
+		for (PersistentBean loadedBean : loadedBeans) {
+			Module module = customer.getModule(loadedBean.getBizModule());
+			Document document = module.getDocument(customer, loadedBean.getBizDocument());
+			prePopulate(customer, document, loadedBean);
+			if (document.hasDynamic()) {
+				dynamicBeans.add(loadedBean);
+			}
+		}
+
+		if (! dynamicBeans.isEmpty()) {
+			dynamicPersistence.populate(dynamicBeans);
+		}
+
+		for (PersistentBean loadedBean : loadedBeans) {
+			Module module = customer.getModule(loadedBean.getBizModule());
+			Document document = module.getDocument(customer, loadedBean.getBizDocument());
+			postPopulate(customer, module, document, loadedBean);
+		}
+	}
+	
+	private static void prePopulate(Customer customer, Document document, PersistentBean loadedBean) {
+		// Inject any dependencies
+		BeanProvider.injectFields(loadedBean);
+
+		((DocumentImpl) document).populateDynamicAttributeDefaults(customer, loadedBean);
+	}
+	
+	private static void postPopulate(Customer customer, Module module, Document document, PersistentBean loadedBean)
+	throws Exception {
 		// check that embedded objects are empty and null them if they are
 		nullEmbeddedReferencesOnLoad(customer, module, document, loadedBean);
 		
@@ -2215,6 +2554,22 @@ if (document.isDynamic()) return;
 	
 	@Override
 	public void reindex(PersistentBean beanToReindex)
+	throws Exception {
+		BeanContent content = getReindexContent(beanToReindex);
+		if (content == null) {
+			removeBeanContent(beanToReindex);
+		}
+		else {
+			putBeanContent(content);
+		}
+	}
+
+	/**
+	 * Get the content to index for a bean from its textually indexed fields.
+	 * @param beanToReindex	The bean.
+	 * @return	The content or null if the bean has no content to index.
+	 */
+	public BeanContent getReindexContent(PersistentBean beanToReindex)
 	throws Exception {
 		TextExtractor extractor = null; // lazily instantiated
 		BeanContent content = new BeanContent(beanToReindex);
@@ -2246,12 +2601,7 @@ if (document.isDynamic()) return;
 			}
 		}
 
-		if (properties.isEmpty()) {
-			removeBeanContent(beanToReindex);
-		}
-		else {
-			putBeanContent(content);
-		}
+		return properties.isEmpty() ? null : content;
 	}
 
 	public void index(PersistentBean beanToIndex,
@@ -2331,7 +2681,7 @@ if (document.isDynamic()) return;
 		}
 
 		if (! properties.isEmpty()) {
-			putBeanContent(content);
+			indexBeanContent(beanToIndex, content);
 		}
 	}
 
@@ -2424,7 +2774,7 @@ if (document.isDynamic()) return;
 			Bean beanToDelete = beansToDelete.get("").stream().findFirst().get();
 			if (bean.equals(beanToDelete)) {
 				// remove content but don't call Bizlet.postDelete()
-				removeBeanContent(bean);
+				unindexBeanContent(bean);
 				return;
 			}
 		}
@@ -2454,7 +2804,7 @@ if (document.isDynamic()) return;
 		}
 
 		// remove content
-		removeBeanContent(bean);
+		unindexBeanContent(bean);
 	}
 	
 	public final Connection getConnection() {
@@ -0,0 +1,140 @@
+package org.skyve.impl.persistence.hibernate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.domain.Bean;
+import org.skyve.impl.bind.BindUtil;
+import org.skyve.impl.metadata.model.document.CollectionImpl;
+import org.skyve.impl.util.NullTolerantComparator;
+import org.skyve.metadata.SortDirection;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.document.Collection;
+import org.skyve.metadata.model.document.Collection.CollectionType;
+import org.skyve.metadata.model.document.Collection.Ordering;
+import org.skyve.metadata.model.document.Document;
+
+/**
+ * The in-memory ordering of a persistent collection with compound bindings in its ordering.
+ * <p/>
+ * Hibernate can only order collections by the columns of the element table (see the ORM order-by),
+ * so collections ordered by compound bindings are sorted as they are initialised.
+ * The orderings are resolved once per customer document collection,
+ * and each element's sort keys are evaluated once per sort instead of for each comparison.
+ * An ordering is replaced if the document metadata is reloaded.
+ */
+final class CollectionOrdering {
+	// customer name + '/' + module.document + '#' + collection name -> ordering
+	private static final Map<String, CollectionOrdering> ORDERINGS = new ConcurrentHashMap<>();
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static final Comparator<Object> COMPARATOR = new NullTolerantComparator();
+
+	private final Document document;
+	// null if the collection does not require ordering in memory
+	private final String[] bindings;
+	private final boolean[] descending;
+
+	private CollectionOrdering(Document document, Collection collection) {
+		this.document = document;
+		if ((collection == null) || (! ((CollectionImpl) collection).isComplexOrdering())) {
+			bindings = null;
+			descending = null;
+		}
+		else {
+			// We only sort by ordinal if this is a child collection as bizOrdinal is on the elements.
+			// For aggregation/composition, bizOrdinal is on the joining table and handled automatically
+			boolean sortByOrdinal = Boolean.TRUE.equals(collection.getOrdered()) &&
+										(CollectionType.child.equals(collection.getType()));
+			List<Ordering> orderings = collection.getOrdering();
+			int length = orderings.size() + (sortByOrdinal ? 1 : 0);
+			bindings = new String[length];
+			descending = new boolean[length];
+			int i = 0;
+			if (sortByOrdinal) {
+				bindings[i++] = Bean.ORDINAL_NAME;
+			}
+			for (Ordering ordering : orderings) {
+				bindings[i] = ordering.getBy();
+				descending[i++] = SortDirection.descending.equals(ordering.getSort());
+			}
+		}
+	}
+
+	/**
+	 * Get the ordering for a collection of a document, resolving it if required.
+	 */
+	static CollectionOrdering get(Customer customer, Document document, String collectionName) {
+		String key = new StringBuilder(64).append(customer.getName()).append('/')
+							.append(document.getOwningModuleName()).append('.').append(document.getName())
+							.append('#').append(collectionName).toString();
+		CollectionOrdering result = ORDERINGS.get(key);
+		if ((result == null) || (result.document != document)) {
+			Collection collection = null;
+			for (Attribute attribute : document.getAllAttributes(customer)) {
+				if ((attribute instanceof Collection) && attribute.getName().equals(collectionName)) {
+					collection = (Collection) attribute;
+					break;
+				}
+			}
+			result = new CollectionOrdering(document, collection);
+			ORDERINGS.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Sort the elements of the collection.
+	 * @return	true if the elements were reordered.
+	 */
+	boolean sort(List<Object> elements) {
+		int size = elements.size();
+		if ((bindings == null) || (size < 2)) {
+			return false;
+		}
+
+		// Evaluate the sort keys for each element once
+		Object[][] keyed = new Object[size][];
+		for (int i = 0; i < size; i++) {
+			Object element = elements.get(i);
+			Object[] keys = new Object[bindings.length + 1];
+			for (int j = 0, l = bindings.length; j < l; j++) {
+				keys[j] = BindUtil.get(element, bindings[j]);
+			}
+			keys[bindings.length] = element;
+			keyed[i] = keys;
+		}
+
+		// Test if the collection is sorted before sorting as
+		// sorting will affect the dirtiness of a hibernate collection
+		boolean unsorted = false;
+		for (int i = 1; i < size; i++) {
+			if (compare(keyed[i - 1], keyed[i]) > 0) {
+				unsorted = true;
+				break;
+			}
+		}
+		if (unsorted) {
+			// NB Arrays.sort() on objects is stable, like Collections.sort()
+			Arrays.sort(keyed, this::compare);
+			for (int i = 0; i < size; i++) {
+				elements.set(i, keyed[i][bindings.length]);
+			}
+		}
+		return unsorted;
+	}
+
+	private int compare(Object[] keys1, Object[] keys2) {
+		for (int i = 0, l = bindings.length; i < l; i++) {
+			int result = COMPARATOR.compare(keys1[i], keys2[i]);
+			if (result != 0) {
+				return descending[i] ? -result : result;
+			}
+		}
+		return 0;
+	}
+}
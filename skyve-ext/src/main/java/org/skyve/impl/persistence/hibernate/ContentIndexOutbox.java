@@ -0,0 +1,616 @@
+package org.skyve.impl.persistence.hibernate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.skyve.EXT;
+import org.skyve.content.BeanContent;
+import org.skyve.content.ContentManager;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.domain.types.OptimisticLock;
+import org.skyve.impl.metadata.repository.ProvidedRepositoryFactory;
+import org.skyve.impl.metadata.user.SuperUser;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.NamedParameterPreparedStatement;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.DocumentPermissionScope;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.BizQL;
+import org.skyve.persistence.DocumentQuery;
+
+/**
+ * Indexes bean content after the transaction that changed the beans commits.
+ * <p/>
+ * The beans with textually indexed changes in a transaction are written to the admin.IndexOutbox table
+ * just before the transaction commits, so the outbox rows commit or roll back with the changes.
+ * Once committed, the beans are handed to a pool of UtilImpl.CONTENT_INDEX_THREADS workers which coalesce
+ * pending changes to the same bean, re-read the committed beans and write their content to the
+ * content manager in batches of UtilImpl.CONTENT_INDEX_BATCH_SIZE before deleting their outbox rows.
+ * Beans that no longer exist are removed from the index.
+ * <p/>
+ * A batch that fails to index is retried after a delay that doubles with each failure (up to {@link #MAX_RETRY_DELAY_SECONDS}).
+ * Beans that have failed are retried one at a time so that a bean that cannot be indexed does not hold up others.
+ * The failures are counted in the outbox rows and a bean that fails {@link #MAX_FAILURES} times is logged and
+ * left in the outbox, where it is no longer retried.
+ * Outbox rows left by a crash or shutdown are recovered by {@link #startup()}.
+ */
+public class ContentIndexOutbox {
+	private static final String OUTBOX_MODULE_NAME = "admin";
+	private static final String OUTBOX_DOCUMENT_NAME = "IndexOutbox";
+	private static final String OUTBOX_MODULE_PROPERTY_NAME = "outboxModule";
+	private static final String OUTBOX_DOCUMENT_PROPERTY_NAME = "outboxDocument";
+	private static final String OUTBOX_BIZ_ID_PROPERTY_NAME = "outboxBizId";
+	private static final String OUTBOX_FAILURES_PROPERTY_NAME = "outboxFailures";
+
+	/**
+	 * The delay before the first retry of a batch that failed to index.
+	 */
+	private static final long RETRY_DELAY_SECONDS = 1L;
+
+	/**
+	 * The longest delay between retries of a batch that keeps failing to index.
+	 */
+	private static final long MAX_RETRY_DELAY_SECONDS = 300L;
+
+	/**
+	 * The number of times a bean can fail to index before it is no longer retried.
+	 */
+	public static final int MAX_FAILURES = 10;
+
+	/**
+	 * A bean to (re)index and the outbox rows that requested it.
+	 */
+	private static final class Pending {
+		private final String customerName;
+		private String moduleName;
+		private String documentName;
+		private final String bizId;
+		private final List<String> outboxIds = new ArrayList<>(1);
+		// The bean's user, recorded as the outbox row's user
+		private String userId;
+		// The number of times indexing the bean has failed
+		private int failures = 0;
+
+		private Pending(String customerName, String moduleName, String documentName, String bizId) {
+			this.customerName = customerName;
+			this.moduleName = moduleName;
+			this.documentName = documentName;
+			this.bizId = bizId;
+		}
+	}
+
+	// customer/bizId -> pending, in the order committed
+	private static final Map<String, Pending> PENDING = new LinkedHashMap<>(256);
+	// The number of workers draining the pending beans - guarded by PENDING
+	private static int draining = 0;
+	private static volatile ScheduledExecutorService workers;
+	private static volatile boolean shutdown = false;
+
+	private ContentIndexOutbox() {
+		// nothing to see here
+	}
+
+	/**
+	 * @return	true if content is indexed after commit, false if it is indexed during the flush.
+	 */
+	public static boolean isEnabled() {
+		return (UtilImpl.CONTENT_INDEX_THREADS > 0);
+	}
+
+	/**
+	 * Record that a bean needs (re)indexing once the persistence's current transaction commits.
+	 * @param persistence	The persistence flushing the bean.
+	 * @param transaction	The transaction last returned for the persistence or null.
+	 * @param bean	The inserted, updated or deleted bean.
+	 * @return	The transaction to pass to the next call for the persistence.
+	 */
+	static Transaction record(AbstractHibernatePersistence persistence, Transaction transaction, PersistentBean bean) {
+		Transaction result = transaction;
+		SessionImplementor session = (SessionImplementor) persistence.getSession();
+		if ((result == null) || result.completed || (result.session != session)) {
+			result = new Transaction(persistence, session);
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) result);
+			session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) result);
+		}
+		result.add(bean);
+		return result;
+	}
+
+	/**
+	 * The beans recorded in a transaction.
+	 * These are written to the outbox before the transaction completes and handed to the workers after it commits.
+	 */
+	static final class Transaction implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+		private final AbstractHibernatePersistence persistence;
+		private final SessionImplementor session;
+		private final User user;
+		// bizId -> pending, last write wins
+		private final Map<String, Pending> beans = new LinkedHashMap<>();
+		private boolean completed = false;
+
+		private Transaction(AbstractHibernatePersistence persistence, SessionImplementor session) {
+			this.persistence = persistence;
+			this.session = session;
+			user = persistence.getUser();
+		}
+
+		private void add(PersistentBean bean) {
+			String bizId = bean.getBizId();
+			Pending pending = beans.get(bizId);
+			if (pending == null) {
+				pending = new Pending(bean.getBizCustomer(), bean.getBizModule(), bean.getBizDocument(), bizId);
+				pending.userId = bean.getBizUserId();
+				beans.put(bizId, pending);
+			}
+			else {
+				pending.moduleName = bean.getBizModule();
+				pending.documentName = bean.getBizDocument();
+			}
+		}
+
+		/**
+		 * Insert the outbox rows after the last flush so they commit (or roll back) with the transaction.
+		 */
+		@Override
+		public void doBeforeTransactionCompletion(SessionImplementor session) {
+			// Hibernate keeps the before completion processes of a rolled back transaction
+			// and runs them when the next transaction commits.
+			if (completed || beans.isEmpty()) {
+				return;
+			}
+
+			try {
+				insertOutbox();
+			}
+			catch (Exception e) {
+				throw new IllegalStateException("Could not record the content to index in the outbox", e);
+			}
+		}
+
+		private void insertOutbox() throws Exception {
+			Customer customer = user.getCustomer();
+			Module adminModule = customer.getModule(OUTBOX_MODULE_NAME);
+			Document outboxDocument = adminModule.getDocument(customer, OUTBOX_DOCUMENT_NAME);
+			@SuppressWarnings("null") // IndexOutbox is persistent
+			String persistentIdentifier = outboxDocument.getPersistent().getPersistentIdentifier();
+
+			StringBuilder insert = new StringBuilder(256);
+			insert.append("insert into ").append(persistentIdentifier).append(" (");
+			insert.append(Bean.DOCUMENT_ID).append(',').append(PersistentBean.VERSION_NAME).append(',');
+			insert.append(PersistentBean.LOCK_NAME).append(',').append(Bean.BIZ_KEY).append(',');
+			insert.append(Bean.CUSTOMER_NAME).append(',').append(Bean.DATA_GROUP_ID).append(',').append(Bean.USER_ID).append(',');
+			insert.append(OUTBOX_MODULE_PROPERTY_NAME).append(',').append(OUTBOX_DOCUMENT_PROPERTY_NAME).append(',');
+			insert.append(OUTBOX_BIZ_ID_PROPERTY_NAME).append(',').append(OUTBOX_FAILURES_PROPERTY_NAME).append(") values (:");
+			insert.append(Bean.DOCUMENT_ID).append(",:").append(PersistentBean.VERSION_NAME).append(",:");
+			insert.append(PersistentBean.LOCK_NAME).append(",:").append(Bean.BIZ_KEY).append(",:");
+			insert.append(Bean.CUSTOMER_NAME).append(",:").append(Bean.DATA_GROUP_ID).append(",:").append(Bean.USER_ID).append(",:");
+			insert.append(OUTBOX_MODULE_PROPERTY_NAME).append(",:").append(OUTBOX_DOCUMENT_PROPERTY_NAME).append(",:");
+			insert.append(OUTBOX_BIZ_ID_PROPERTY_NAME).append(",:").append(OUTBOX_FAILURES_PROPERTY_NAME).append(')');
+
+			String bizLock = new OptimisticLock(user.getName(), new Date()).toString();
+			try (NamedParameterPreparedStatement ps = new NamedParameterPreparedStatement(persistence.getConnection(), insert.toString())) {
+				int batched = 0;
+				for (Pending pending : beans.values()) {
+					String outboxId = UUID.randomUUID().toString();
+					pending.outboxIds.add(outboxId);
+					ps.setString(Bean.DOCUMENT_ID, outboxId);
+					ps.setInt(PersistentBean.VERSION_NAME, 0);
+					ps.setString(PersistentBean.LOCK_NAME, bizLock);
+					ps.setString(Bean.BIZ_KEY, pending.moduleName + '.' + pending.documentName + '#' + pending.bizId);
+					ps.setString(Bean.CUSTOMER_NAME, pending.customerName);
+					ps.setNull(Bean.DATA_GROUP_ID, Types.VARCHAR);
+					ps.setString(Bean.USER_ID, pending.userId);
+					ps.setString(OUTBOX_MODULE_PROPERTY_NAME, pending.moduleName);
+					ps.setString(OUTBOX_DOCUMENT_PROPERTY_NAME, pending.documentName);
+					ps.setString(OUTBOX_BIZ_ID_PROPERTY_NAME, pending.bizId);
+					ps.setInt(OUTBOX_FAILURES_PROPERTY_NAME, 0);
+					ps.addBatch();
+					if (++batched == UtilImpl.CONTENT_INDEX_BATCH_SIZE) {
+						ps.executeBatch();
+						batched = 0;
+					}
+				}
+				if (batched > 0) {
+					ps.executeBatch();
+				}
+			}
+			// Keep the query cache in step as the inserts bypassed hibernate
+			persistence.evictCachedTables(OUTBOX_MODULE_NAME, OUTBOX_DOCUMENT_NAME);
+		}
+
+		/**
+		 * Hand the committed beans to the workers, or forget them if the transaction rolled back.
+		 */
+		@Override
+		public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+			completed = true;
+			if (success && (! beans.isEmpty())) {
+				submit(beans.values());
+			}
+		}
+	}
+
+	/**
+	 * Queue the pending beans (coalescing beans already queued) and start workers to drain them.
+	 */
+	private static void submit(Iterable<Pending> beans) {
+		ScheduledExecutorService executor = workers();
+		if (executor == null) {
+			return; // shutting down - the outbox will be recovered on startup
+		}
+
+		int workersToStart = 0;
+		synchronized (PENDING) {
+			for (Pending pending : beans) {
+				PENDING.merge(pending.customerName + '/' + pending.bizId, pending, (existing, latest) -> {
+					existing.moduleName = latest.moduleName;
+					existing.documentName = latest.documentName;
+					existing.outboxIds.addAll(latest.outboxIds);
+					existing.failures = Math.max(existing.failures, latest.failures);
+					return existing;
+				});
+			}
+			int workersRequired = Math.min(UtilImpl.CONTENT_INDEX_THREADS,
+											(PENDING.size() + UtilImpl.CONTENT_INDEX_BATCH_SIZE - 1) / UtilImpl.CONTENT_INDEX_BATCH_SIZE);
+			if (workersRequired > draining) {
+				workersToStart = workersRequired - draining;
+				draining = workersRequired;
+			}
+		}
+
+		for (int i = 0; i < workersToStart; i++) {
+			try {
+				executor.execute(ContentIndexOutbox::drain);
+			}
+			catch (@SuppressWarnings("unused") RuntimeException e) {
+				// rejected on shutdown - the outbox will be recovered on startup
+				synchronized (PENDING) {
+					draining--;
+				}
+			}
+		}
+	}
+
+	private static synchronized ScheduledExecutorService workers() {
+		if ((workers == null) && (! shutdown)) {
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(UtilImpl.CONTENT_INDEX_THREADS, r -> {
+				Thread thread = new Thread(r, "skyve-content-index");
+				thread.setDaemon(true);
+				return thread;
+			});
+			// Don't wait for retries on shutdown - the outbox will be recovered on startup
+			executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			workers = executor;
+		}
+		return workers;
+	}
+
+	/**
+	 * Count the failure of a batch in its outbox rows and submit the beans that have not failed MAX_FAILURES times 
+	 * again after a delay that doubles with each failure.
+	 */
+	private static void failed(AbstractHibernatePersistence p, List<Pending> batch) {
+		List<Pending> retries = new ArrayList<>(batch.size());
+		int failures = 0;
+		for (Pending pending : batch) {
+			pending.failures++;
+			if (pending.failures >= MAX_FAILURES) {
+				UtilImpl.LOGGER.severe("Could not index " + pending.moduleName + '.' + pending.documentName + '#' + pending.bizId +
+										" for customer " + pending.customerName + " after " + pending.failures + 
+										" attempts - it will not be retried. Its " + OUTBOX_MODULE_NAME + '.' + OUTBOX_DOCUMENT_NAME + 
+										" rows " + pending.outboxIds + " are left in the outbox.");
+			}
+			else {
+				retries.add(pending);
+				failures = Math.max(failures, pending.failures);
+			}
+		}
+
+		try {
+			p.begin();
+			updateFailures(p, batch);
+			p.commit(false);
+		}
+		catch (Exception e) {
+			UtilImpl.LOGGER.log(Level.WARNING, "Could not count the failures of " + batch.size() + " beans in the content index outbox", e);
+			p.rollback();
+		}
+
+		if (! retries.isEmpty()) {
+			retry(retries, failures);
+		}
+	}
+
+	/**
+	 * Record the number of times each bean of a batch has failed to index in its outbox rows.
+	 */
+	private static void updateFailures(AbstractPersistence p, List<Pending> batch) {
+		for (Pending pending : batch) {
+			BizQL update = p.newBizQL(String.format("update {%s.%s} as bean set bean.%s = :%s where bean.%s in (:%s)",
+														OUTBOX_MODULE_NAME,
+														OUTBOX_DOCUMENT_NAME,
+														OUTBOX_FAILURES_PROPERTY_NAME,
+														OUTBOX_FAILURES_PROPERTY_NAME,
+														Bean.DOCUMENT_ID,
+														Bean.DOCUMENT_ID));
+			update.putParameter(OUTBOX_FAILURES_PROPERTY_NAME, Integer.valueOf(pending.failures));
+			update.putParameter(Bean.DOCUMENT_ID, new ArrayList<>(pending.outboxIds));
+			update.execute();
+		}
+	}
+
+	/**
+	 * Submit beans that failed to index again after a delay that doubles with each failure.
+	 */
+	private static void retry(List<Pending> batch, int failures) {
+		long delay = Math.min(MAX_RETRY_DELAY_SECONDS, RETRY_DELAY_SECONDS << Math.min(failures - 1, 16));
+
+		ScheduledExecutorService executor = workers();
+		if (executor != null) {
+			try {
+				executor.schedule(() -> submit(batch), delay, TimeUnit.SECONDS);
+			}
+			catch (@SuppressWarnings("unused") RuntimeException e) {
+				// rejected on shutdown - the outbox will be recovered on startup
+			}
+		}
+	}
+
+	/**
+	 * Take batches of pending beans until there are none left.
+	 */
+	private static void drain() {
+		while (true) {
+			List<Pending> batch = new ArrayList<>(UtilImpl.CONTENT_INDEX_BATCH_SIZE);
+			synchronized (PENDING) {
+				Iterator<Pending> i = PENDING.values().iterator();
+				while (i.hasNext() && (batch.size() < UtilImpl.CONTENT_INDEX_BATCH_SIZE)) {
+					batch.add(i.next());
+					i.remove();
+				}
+				if (batch.isEmpty() || shutdown) {
+					draining--;
+					return;
+				}
+			}
+
+			// Group the batch by customer, indexing beans that have failed before on their own
+			Map<String, List<Pending>> customerBatches = new TreeMap<>();
+			for (Pending pending : batch) {
+				if (pending.failures > 0) {
+					index(pending.customerName, Collections.singletonList(pending));
+				}
+				else {
+					customerBatches.computeIfAbsent(pending.customerName, k -> new ArrayList<>()).add(pending);
+				}
+			}
+			for (Entry<String, List<Pending>> entry : customerBatches.entrySet()) {
+				index(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Index a customer's batch of beans with a special persistence for this thread
+	 * and delete their outbox rows once the content manager has them.
+	 */
+	private static void index(String customerName, List<Pending> batch) {
+		AbstractHibernatePersistence p = (AbstractHibernatePersistence) AbstractPersistence.get();
+		try {
+			p.setUser(user(customerName));
+			// Index every bean of the customer regardless of the user's security scope
+			p.setDocumentPermissionScopes(DocumentPermissionScope.customer);
+			p.setAsyncThread(true);
+			p.begin();
+
+			// Group the batch by document
+			Map<String, List<Pending>> documentBatches = new TreeMap<>();
+			for (Pending pending : batch) {
+				documentBatches.computeIfAbsent(pending.moduleName + '.' + pending.documentName, k -> new ArrayList<>()).add(pending);
+			}
+
+			Customer customer = p.getUser().getCustomer();
+			List<String> outboxIds = new ArrayList<>(batch.size());
+			try (ContentManager cm = EXT.newContentManager()) {
+				List<BeanContent> contents = new ArrayList<>(batch.size());
+				for (List<Pending> documentBatch : documentBatches.values()) {
+					Pending first = documentBatch.get(0);
+					Module module = customer.getModule(first.moduleName);
+					Document document = module.getDocument(customer, first.documentName);
+
+					Set<String> bizIds = new TreeSet<>();
+					for (Pending pending : documentBatch) {
+						bizIds.add(pending.bizId);
+						outboxIds.addAll(pending.outboxIds);
+					}
+
+					// Index the beans that exist
+					DocumentQuery query = p.newDocumentQuery(document);
+					query.getFilter().addIn(Bean.DOCUMENT_ID, bizIds.toArray());
+					try (AutoClosingIterable<PersistentBean> it = query.beanIterable()) {
+						for (PersistentBean bean : it) {
+							bizIds.remove(bean.getBizId());
+							BeanContent content = p.getReindexContent(bean);
+							if (content == null) {
+								cm.removeBean(bean.getBizId());
+							}
+							else {
+								contents.add(content);
+							}
+						}
+					}
+					p.evictAllCached();
+
+					// Remove the beans that were deleted
+					for (String bizId : bizIds) {
+						cm.removeBean(bizId);
+					}
+				}
+				cm.put(contents);
+			}
+
+			deleteOutbox(p, outboxIds);
+			p.commit(false);
+		}
+		catch (Exception e) {
+			UtilImpl.LOGGER.log(Level.SEVERE, "Could not index " + batch.size() + " beans for customer " + customerName, e);
+			p.rollback();
+			failed(p, batch);
+		}
+		finally {
+			p.commit(true);
+		}
+	}
+
+	private static void deleteOutbox(AbstractPersistence p, List<String> outboxIds) {
+		for (int i = 0, l = outboxIds.size(); i < l; i += UtilImpl.CONTENT_INDEX_BATCH_SIZE) {
+			BizQL delete = p.newBizQL(String.format("delete from {%s.%s} as bean where bean.%s in (:%s)",
+														OUTBOX_MODULE_NAME,
+														OUTBOX_DOCUMENT_NAME,
+														Bean.DOCUMENT_ID,
+														Bean.DOCUMENT_ID));
+			delete.putParameter(Bean.DOCUMENT_ID, new ArrayList<>(outboxIds.subList(i, Math.min(i + UtilImpl.CONTENT_INDEX_BATCH_SIZE, l))));
+			delete.execute();
+		}
+	}
+
+	/**
+	 * @return	A super user to index the customer's beans with.
+	 */
+	private static User user(String customerName) {
+		SuperUser result = new SuperUser();
+		result.setCustomerName(customerName);
+		result.setName(OUTBOX_DOCUMENT_NAME);
+		return result;
+	}
+
+	/**
+	 * Recover the outbox rows left uncommitted to the content manager when the application last stopped.
+	 * The rows are read and indexed by the workers.
+	 */
+	public static void startup() {
+		shutdown = false;
+		if (isEnabled()) {
+			ScheduledExecutorService executor = workers();
+			if (executor != null) {
+				executor.execute(ContentIndexOutbox::recover);
+			}
+		}
+	}
+
+	private static void recover() {
+		// The outbox holds rows for all customers, so any customer will do for reading it
+		Iterator<String> customerNames = ProvidedRepositoryFactory.get().getAllCustomerNames().iterator();
+		if (! customerNames.hasNext()) {
+			return;
+		}
+
+		AbstractHibernatePersistence p = (AbstractHibernatePersistence) AbstractPersistence.get();
+		try {
+			p.setUser(user(customerNames.next()));
+			p.setAsyncThread(true);
+			p.begin();
+
+			Customer customer = p.getUser().getCustomer();
+			@SuppressWarnings("null") // IndexOutbox is persistent
+			String persistentIdentifier = customer.getModule(OUTBOX_MODULE_NAME).getDocument(customer, OUTBOX_DOCUMENT_NAME).getPersistent().getPersistentIdentifier();
+			String select = String.format("select %s, %s, %s, %s, %s, %s from %s",
+											Bean.DOCUMENT_ID,
+											Bean.CUSTOMER_NAME,
+											OUTBOX_MODULE_PROPERTY_NAME,
+											OUTBOX_DOCUMENT_PROPERTY_NAME,
+											OUTBOX_BIZ_ID_PROPERTY_NAME,
+											OUTBOX_FAILURES_PROPERTY_NAME,
+											persistentIdentifier);
+			List<Pending> batch = new ArrayList<>(UtilImpl.CONTENT_INDEX_BATCH_SIZE);
+			int recovered = 0;
+			int abandoned = 0;
+			try (AutoClosingIterable<Object[]> i = p.newSQL(select).tupleIterable()) {
+				for (Object[] row : i) {
+					int failures = (row[5] == null) ? 0 : ((Number) row[5]).intValue();
+					if (failures >= MAX_FAILURES) {
+						abandoned++;
+						continue;
+					}
+					Pending pending = new Pending((String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+					pending.outboxIds.add((String) row[0]);
+					pending.failures = failures;
+					batch.add(pending);
+					if (batch.size() == UtilImpl.CONTENT_INDEX_BATCH_SIZE) {
+						submit(batch);
+						batch = new ArrayList<>(UtilImpl.CONTENT_INDEX_BATCH_SIZE);
+					}
+					recovered++;
+				}
+			}
+			submit(batch);
+			if (recovered > 0) {
+				UtilImpl.LOGGER.info("Recovered " + recovered + " beans to index from the content index outbox");
+			}
+			if (abandoned > 0) {
+				UtilImpl.LOGGER.warning(abandoned + " beans in the content index outbox failed to index " + MAX_FAILURES + 
+											" times and are not retried - reindex them and delete their outbox rows");
+			}
+		}
+		catch (Exception e) {
+			UtilImpl.LOGGER.log(Level.SEVERE, "Could not recover the content index outbox", e);
+			p.rollback();
+		}
+		finally {
+			p.commit(true);
+		}
+	}
+
+	/**
+	 * Stop the workers, finishing the batches in progress.
+	 * Pending beans are left in the outbox to be recovered on startup.
+	 */
+	public static void shutdown() {
+		ScheduledExecutorService executor = null;
+		synchronized (ContentIndexOutbox.class) {
+			shutdown = true;
+			executor = workers;
+			workers = null;
+		}
+		if (executor != null) {
+			executor.shutdown();
+			try {
+				if (! executor.awaitTermination(30, TimeUnit.SECONDS)) {
+					executor.shutdownNow();
+				}
+			}
+			catch (@SuppressWarnings("unused") InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (PENDING) {
+			PENDING.clear();
+			draining = 0;
+		}
+	}
+}
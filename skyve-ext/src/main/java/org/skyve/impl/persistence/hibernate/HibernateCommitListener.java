@@ -0,0 +1,85 @@
+package org.skyve.impl.persistence.hibernate;
+
+import java.util.logging.Level;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.skyve.domain.PersistentBean;
+import org.skyve.impl.metadata.view.model.chart.ChartDataCache;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.util.UtilImpl;
+
+/**
+ * Hibernate callbacks after a transaction that inserted, updated or deleted beans has committed.
+ * These are only requested from hibernate when there is something to do.
+ */
+public class HibernateCommitListener implements PostCommitInsertEventListener,
+													PostCommitUpdateEventListener,
+													PostCommitDeleteEventListener {
+	private static final long serialVersionUID = 2857304916285725471L;
+
+	/**
+	 * Invalidate cached chart data.
+	 */
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		invalidate(event.getEntity());
+	}
+
+	/**
+	 * Invalidate cached chart data.
+	 */
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		invalidate(event.getEntity());
+	}
+
+	/**
+	 * Invalidate cached chart data.
+	 */
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		invalidate(event.getEntity());
+	}
+
+	private static void invalidate(Object entity) {
+		if (entity instanceof PersistentBean) {
+			PersistentBean bean = (PersistentBean) entity;
+			try {
+				ChartDataCache.invalidate(AbstractPersistence.get().getUser().getCustomer(),
+											bean.getBizModule(),
+											bean.getBizDocument());
+			}
+			catch (Exception e) {
+				// Cant stop now, the transaction has committed
+				UtilImpl.LOGGER.log(Level.WARNING, "Could not invalidate cached chart data for " + bean.getBizModule() + '.' + bean.getBizDocument(), e);
+			}
+		}
+	}
+
+	// Nothing was committed so nothing to invalidate
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+		// nothing to see here
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+		// nothing to see here
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+		// nothing to see here
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return ChartDataCache.isEnabled();
+	}
+}
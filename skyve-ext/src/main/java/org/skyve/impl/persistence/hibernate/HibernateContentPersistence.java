@@ -9,6 +9,8 @@ public class HibernateContentPersistence extends AbstractHibernatePersistence {
 	private static final long serialVersionUID = 1433618526097088364L;
 
 	private transient ContentManager cm;
+	// The beans to index after the current transaction commits
+	private transient ContentIndexOutbox.Transaction indexTransaction;
 	
 	@Override
 	protected void closeContent() throws Exception {
@@ -32,4 +34,24 @@ public class HibernateContentPersistence extends AbstractHibernatePersistence {
 		}
 		cm.put(content);
 	}
+
+	@Override
+	protected void indexBeanContent(PersistentBean bean, BeanContent content) throws Exception {
+		if (ContentIndexOutbox.isEnabled()) {
+			indexTransaction = ContentIndexOutbox.record(this, indexTransaction, bean);
+		}
+		else {
+			super.indexBeanContent(bean, content);
+		}
+	}
+
+	@Override
+	protected void unindexBeanContent(PersistentBean bean) throws Exception {
+		if (ContentIndexOutbox.isEnabled()) {
+			indexTransaction = ContentIndexOutbox.record(this, indexTransaction, bean);
+		}
+		else {
+			super.unindexBeanContent(bean);
+		}
+	}
 }
@@ -1,6 +1,7 @@
 package org.skyve.impl.persistence.hibernate;
 
 import java.util.Date;
+import java.util.List;
 
 import org.apache.deltaspike.core.api.provider.BeanProvider;
 import org.hibernate.HibernateException;
@@ -18,13 +19,9 @@ import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.type.Type;
 import org.skyve.domain.PersistentBean;
 import org.skyve.domain.types.OptimisticLock;
-import org.skyve.impl.bind.BindUtil;
-import org.skyve.impl.metadata.model.document.CollectionImpl;
 import org.skyve.impl.metadata.model.document.DocumentImpl;
 import org.skyve.impl.persistence.AbstractPersistence;
 import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.Attribute;
-import org.skyve.metadata.model.document.Collection;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
 
@@ -123,23 +120,21 @@ public class HibernateListener implements PostUpdateEventListener,
 	public void onInitializeCollection(InitializeCollectionEvent event)
 	throws HibernateException {
 		try {
-			AbstractPersistence persistence = AbstractPersistence.get();
-			PersistentBean eventBean = (PersistentBean) event.getAffectedOwnerOrNull();
+			PersistentCollection collection = event.getCollection();
+			String role = collection.getRole();
+			if ((role != null) && (collection instanceof List)) {
+				AbstractPersistence persistence = AbstractPersistence.get();
+				PersistentBean eventBean = (PersistentBean) event.getAffectedOwnerOrNull();
 
-			PersistentCollection list = event.getCollection();
-			Customer customer = persistence.getUser().getCustomer();
-			Module module = customer.getModule(eventBean.getBizModule());
-			Document document = module.getDocument(customer, eventBean.getBizDocument());
-			for (Attribute attribute : document.getAllAttributes(customer)) {
-				if (attribute instanceof Collection) {
-					CollectionImpl collection = (CollectionImpl) attribute;
-					if (collection.isComplexOrdering()) {
-						if (BindUtil.get(eventBean, attribute.getName()) == list) {
-							BindUtil.sortCollectionByMetaData(eventBean, collection);
-							list.clearDirty();
-							break;
-						}
-					}
+				Customer customer = persistence.getUser().getCustomer();
+				Module module = customer.getModule(eventBean.getBizModule());
+				Document document = module.getDocument(customer, eventBean.getBizDocument());
+				// The role is <entity name>.<collection name>
+				String collectionName = role.substring(role.lastIndexOf('.') + 1);
+				@SuppressWarnings("unchecked")
+				List<Object> list = (List<Object>) collection;
+				if (CollectionOrdering.get(customer, document, collectionName).sort(list)) {
+					collection.clearDirty();
 				}
 			}
 		}
@@ -10,7 +10,11 @@ import javax.persistence.QueryTimeoutException;
 
 import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
 import org.hibernate.query.Query;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
 import org.locationtech.jts.geom.Geometry;
 import org.skyve.domain.DynamicBean;
 import org.skyve.domain.messages.DomainException;
@@ -61,6 +65,12 @@ class HibernateQueryDelegate {
 		
 		timeoutQuery(result, query.getTimeoutInSeconds(), persistence.isAsyncThread());
 		
+		// Hibernate keys the cached results on the SQL, parameters, paging and the enabled security filters
+		// and evicts them when any table in the query is changed
+		if (UtilImpl.QUERY_CACHE && query.isCacheable() && (! persistence.isPessimisticallyLocked()) && returnsCachedEntities(result)) {
+			result.setCacheable(true);
+		}
+
 		for (String parameterName : query.getParameterNames()) {
 			Object value = query.getParameter(parameterName);
 			if (value instanceof Collection) {
@@ -80,6 +90,21 @@ class HibernateQueryDelegate {
 		return result;
 	}
 	
+	/**
+	 * The query cache only holds the ids of the entities a query returns, which are then loaded one by one on a cache hit.
+	 * So only queries whose entities are in the second level cache (or that return no entities) are worth caching.
+	 */
+	@SuppressWarnings({"deprecation", "resource"})
+	private boolean returnsCachedEntities(Query<?> query) {
+		MetamodelImplementor metamodel = ((SessionImplementor) persistence.getSession()).getFactory().getMetamodel();
+		for (Type type : query.getReturnTypes()) {
+			if (type.isEntityType() && (! metamodel.entityPersister(((EntityType) type).getAssociatedEntityName()).canReadFromCache())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@SuppressWarnings("unchecked")
 	<T> List<T> list(Query<T> query, boolean asIs, boolean assertSingle, boolean assertMultiple) {
 		try {
@@ -95,7 +120,7 @@ class HibernateQueryDelegate {
 				else if (assertMultiple && (returnAliases.length <= 1)) {
 					throw new DomainException("There should be more than 1 projected value in the query when using tupleResults()");
 				}
-				return query.list();
+				return persistence.listWithBatchedPostLoad(query);
 			}
 
 			// Replace bogus _ property names with the dot
@@ -104,7 +129,7 @@ class HibernateQueryDelegate {
 				aliases[i] = BindUtil.unsanitiseBinding(aliases[i]);
 			}
 
-			List<?> results = query.list();
+			List<?> results = persistence.listWithBatchedPostLoad(query);
 			List<T> beans = new ArrayList<>(results.size());
 
 			for (Object result : results) {
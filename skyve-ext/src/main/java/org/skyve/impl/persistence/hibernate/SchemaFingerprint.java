@@ -0,0 +1,327 @@
+package org.skyve.impl.persistence.hibernate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.ForeignKey;
+import org.hibernate.mapping.Index;
+import org.hibernate.mapping.Table;
+import org.hibernate.mapping.UniqueKey;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.skyve.impl.util.UtilImpl;
+
+/**
+ * Fingerprints of the mapped schema so that DDL sync can skip the tables that are already in step with the mapping.
+ * <p/>
+ * Each table (with its indexes, unique keys and foreign keys) and sequence is fingerprinted by hashing the create
+ * statements hibernate would issue for it. The fingerprints of the last successfully applied schema are kept in
+ * the ADM_SchemaFingerprint table. On startup, only the tables and sequences whose fingerprints differ need to be
+ * inspected and migrated, and nothing needs to be inspected if the mapping is unchanged.
+ * <p/>
+ * NB Changes made directly to the database schema are not detected - remove the rows (or the table) to force a sync.
+ * Skyve removes the rows itself whenever it executes a DDL script outside of the sync (see {@link #clear(Connection)}).
+ */
+final class SchemaFingerprint {
+	private static final String TABLE_NAME = "ADM_SchemaFingerprint";
+	// Changes to the dialect change the fingerprint of everything
+	private static final String DIALECT_KEY = "dialect";
+	private static final String SEQUENCE_PREFIX = "sequence ";
+
+	// object name -> fingerprint of the current mapping
+	private final Map<String, String> current = new TreeMap<>();
+	// object name -> fingerprint of the last applied schema
+	private final Map<String, String> applied = new TreeMap<>();
+	// object name -> pattern matching its unqualified name in a DDL statement
+	private final Map<String, Pattern> names = new TreeMap<>();
+	// objects that could not be migrated
+	private final Set<String> failed = new TreeSet<>();
+	private final String tableName;
+
+	SchemaFingerprint(Metadata metadata, Dialect dialect) {
+		tableName = tableName();
+
+		current.put(DIALECT_KEY, hash(new String[] {dialect.getClass().getName()}));
+		for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+			for (Table table : namespace.getTables()) {
+				if (table.isPhysicalTable()) {
+					String objectName = table.getQualifiedTableName().render();
+					current.put(objectName, fingerprint(table, dialect, metadata));
+					names.put(objectName, pattern(table.getNameIdentifier().getText()));
+				}
+			}
+			for (Sequence sequence : namespace.getSequences()) {
+				String[] creates = dialect.getSequenceExporter().getSqlCreateStrings(sequence, metadata);
+				String objectName = SEQUENCE_PREFIX + sequence.getName().render();
+				current.put(objectName, hash(creates));
+				names.put(objectName, pattern(sequence.getName().getSequenceName().getText()));
+			}
+		}
+	}
+
+	private static String tableName() {
+		return (UtilImpl.SCHEMA == null) ? TABLE_NAME : UtilImpl.SCHEMA + '.' + TABLE_NAME;
+	}
+
+	/**
+	 * Match the name as a whole word (ignoring case and quoting) so that statements can be attributed to the objects they name.
+	 */
+	private static Pattern pattern(String name) {
+		return Pattern.compile("(?<![\\w$])" + Pattern.quote(name) + "(?![\\w$])", Pattern.CASE_INSENSITIVE);
+	}
+
+	private static String fingerprint(Table table, Dialect dialect, Metadata metadata) {
+		StringBuilder result = new StringBuilder(1024);
+		for (String create : dialect.getTableExporter().getSqlCreateStrings(table, metadata)) {
+			result.append(create).append('\n');
+		}
+
+		// Sort the constraint statements so that the fingerprint doesn't depend on the order they are mapped in
+		TreeSet<String> constraints = new TreeSet<>();
+		Iterator<Index> indexes = table.getIndexIterator();
+		while (indexes.hasNext()) {
+			for (String create : dialect.getIndexExporter().getSqlCreateStrings(indexes.next(), metadata)) {
+				constraints.add(create);
+			}
+		}
+		Iterator<UniqueKey> uniqueKeys = table.getUniqueKeyIterator();
+		while (uniqueKeys.hasNext()) {
+			for (String create : dialect.getUniqueKeyExporter().getSqlCreateStrings(uniqueKeys.next(), metadata)) {
+				constraints.add(create);
+			}
+		}
+		Iterator<ForeignKey> foreignKeys = table.getForeignKeyIterator();
+		while (foreignKeys.hasNext()) {
+			ForeignKey foreignKey = foreignKeys.next();
+			if (foreignKey.isPhysicalConstraint() && foreignKey.isCreationEnabled()) {
+				for (String create : dialect.getForeignKeyExporter().getSqlCreateStrings(foreignKey, metadata)) {
+					constraints.add(create);
+				}
+			}
+		}
+		for (String create : constraints) {
+			result.append(create).append('\n');
+		}
+
+		return hash(new String[] {result.toString()});
+	}
+
+	private static String hash(String[] statements) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String statement : statements) {
+				digest.update(statement.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			return Base64.getEncoder().encodeToString(digest.digest());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Read the fingerprints of the last applied schema, creating the fingerprint table if it does not exist.
+	 * @param connection	An auto-commit connection.
+	 */
+	void read(Connection connection) throws SQLException {
+		applied.clear();
+		try (Statement statement = connection.createStatement()) {
+			try (ResultSet rs = statement.executeQuery("select objectName, fingerprint from " + tableName)) {
+				while (rs.next()) {
+					applied.put(rs.getString(1), rs.getString(2));
+				}
+			}
+		}
+		catch (@SuppressWarnings("unused") SQLException e) {
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("create table " + tableName +
+											" (objectName varchar(255) not null, fingerprint varchar(64) not null, primary key (objectName))");
+			}
+		}
+	}
+
+	/**
+	 * @return	true if the mapping is unchanged since the schema was last applied.
+	 */
+	boolean isUnchanged() {
+		return current.equals(applied);
+	}
+
+	/**
+	 * @return	The number of tables and sequences that need to be migrated.
+	 */
+	int changes() {
+		if (! current.get(DIALECT_KEY).equals(applied.get(DIALECT_KEY))) {
+			return current.size() - 1;
+		}
+		int result = 0;
+		for (Entry<String, String> entry : current.entrySet()) {
+			if (! entry.getValue().equals(applied.get(entry.getKey()))) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A filter that includes only the tables and sequences whose fingerprints have changed.
+	 */
+	SchemaFilter changed() {
+		final boolean all = dialectChanged();
+		return new SchemaFilter() {
+			@Override
+			public boolean includeNamespace(Namespace namespace) {
+				if (all) {
+					return true;
+				}
+				for (Table table : namespace.getTables()) {
+					if (changed(table.getQualifiedTableName().render())) {
+						return true;
+					}
+				}
+				for (Sequence sequence : namespace.getSequences()) {
+					if (changed(SEQUENCE_PREFIX + sequence.getName().render())) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public boolean includeTable(Table table) {
+				return all || changed(table.getQualifiedTableName().render());
+			}
+
+			@Override
+			public boolean includeSequence(Sequence sequence) {
+				return all || changed(SEQUENCE_PREFIX + sequence.getName().render());
+			}
+		};
+	}
+
+	private boolean dialectChanged() {
+		return ! current.get(DIALECT_KEY).equals(applied.get(DIALECT_KEY));
+	}
+
+	private boolean changed(String objectName) {
+		String fingerprint = current.get(objectName);
+		return (fingerprint == null) || (! fingerprint.equals(applied.get(objectName)));
+	}
+
+	/**
+	 * Record that a DDL statement failed against the objects it names.
+	 * A foreign key statement names both of its tables, and both are migrated again at the next sync.
+	 * If the statement names none of the changed objects (or is unknown), all of the changed objects are migrated again.
+	 * @param statement	The failed statement or the message of the exception that holds it.
+	 */
+	void failedStatement(String statement) {
+		boolean all = dialectChanged();
+		Set<String> result = new TreeSet<>();
+		for (String objectName : current.keySet()) {
+			if ((all || changed(objectName)) && (! DIALECT_KEY.equals(objectName))) {
+				Pattern name = names.get(objectName);
+				if ((statement == null) || ((name != null) && name.matcher(statement).find())) {
+					result.add(objectName);
+				}
+			}
+		}
+		if (result.isEmpty()) {
+			for (String objectName : current.keySet()) {
+				if ((all || changed(objectName)) && (! DIALECT_KEY.equals(objectName))) {
+					result.add(objectName);
+				}
+			}
+		}
+		failed.addAll(result);
+	}
+
+	/**
+	 * Record that the given table could not be migrated.
+	 */
+	void failed(String qualifiedTableName) {
+		failed.add(qualifiedTableName);
+	}
+
+	/**
+	 * Record the current mapping as the applied schema, except for the objects that failed to migrate.
+	 * These keep their previously applied fingerprint (if any) so that they are migrated again at the next sync.
+	 * @param connection	An auto-commit connection.
+	 */
+	void write(Connection connection) throws SQLException {
+		Map<String, String> result = new TreeMap<>(current);
+		for (String objectName : failed) {
+			String fingerprint = applied.get(objectName);
+			if (fingerprint == null) {
+				result.remove(objectName);
+			}
+			else {
+				result.put(objectName, fingerprint);
+			}
+		}
+
+		connection.setAutoCommit(false);
+		try {
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("delete from " + tableName);
+			}
+			try (PreparedStatement ps = connection.prepareStatement("insert into " + tableName + " (objectName, fingerprint) values (?, ?)")) {
+				for (Entry<String, String> entry : result.entrySet()) {
+					ps.setString(1, entry.getKey());
+					ps.setString(2, entry.getValue());
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			connection.commit();
+			applied.clear();
+			applied.putAll(result);
+			failed.clear();
+		}
+		catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		}
+		finally {
+			connection.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Remove the fingerprints of the applied schema so that the next sync migrates every table and sequence.
+	 * This is called whenever DDL is executed outside of the sync, as the fingerprints no longer describe the schema.
+	 * @param connection	An auto-commit connection.
+	 */
+	static void clear(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("delete from " + tableName());
+		}
+		catch (SQLException e) {
+			// There is nothing to clear if the fingerprint table has not been created yet
+			try (ResultSet rs = connection.getMetaData().getTables(UtilImpl.CATALOG, UtilImpl.SCHEMA, null, new String[] {"TABLE"})) {
+				while (rs.next()) {
+					if (TABLE_NAME.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+						throw e;
+					}
+				}
+			}
+		}
+	}
+}
@@ -20,9 +20,12 @@ import org.hibernate.resource.transaction.spi.DdlTransactionIsolator;
 import org.hibernate.service.ServiceRegistry;
 import org.hibernate.tool.schema.extract.spi.ColumnInformation;
 import org.hibernate.tool.schema.extract.spi.DatabaseInformation;
+import org.hibernate.tool.schema.extract.spi.NameSpaceTablesInformation;
 import org.hibernate.tool.schema.extract.spi.TableInformation;
+import org.hibernate.tool.schema.internal.DefaultSchemaFilter;
 import org.hibernate.tool.schema.internal.Helper;
 import org.hibernate.tool.schema.internal.exec.JdbcContext;
+import org.hibernate.tool.schema.spi.SchemaFilter;
 import org.skyve.EXT;
 import org.skyve.impl.persistence.hibernate.dialect.SkyveDialect.RDBMS;
 import org.skyve.impl.util.UtilImpl;
@@ -31,6 +34,25 @@ import geodb.GeoDB;
 
 public class DDLDelegate {
 	public static List<String> migrate(ServiceRegistry standardRegistry, Metadata metadata, SkyveDialect skyveDialect, boolean execute)
+	throws SQLException {
+		return migrate(standardRegistry, metadata, skyveDialect, execute, DefaultSchemaFilter.INSTANCE, null);
+	}
+
+	/**
+	 * Migrate the tables included by the filter.
+	 * The table metadata of a namespace qualified by a catalog or schema is fetched in 1 go,
+	 * otherwise each table's metadata is fetched individually.
+	 * 
+	 * @param filter	Filters the namespaces and tables to migrate.
+	 * @param failed	If not null, the qualified names of the tables with DDL that could not be executed are added to this list.
+	 * @return	The DDL statements required.
+	 */
+	public static List<String> migrate(ServiceRegistry standardRegistry,
+										Metadata metadata,
+										SkyveDialect skyveDialect,
+										boolean execute,
+										SchemaFilter filter,
+										List<String> failed)
 	throws SQLException {
 		List<String> result = new ArrayList<>(20);
 		
@@ -71,9 +93,19 @@ public class DDLDelegate {
 			try (Statement statement = connection.createStatement()) {
 				final Database database = metadata.getDatabase();
 				for (Namespace namespace : database.getNamespaces()) {
+					if (! filter.includeNamespace(namespace)) {
+						continue;
+					}
+					Namespace.Name namespaceName = namespace.getName();
+					NameSpaceTablesInformation tablesInformation = null;
+					if ((namespaceName.getCatalog() != null) || (namespaceName.getSchema() != null)) {
+						tablesInformation = databaseInformation.getTablesInformation(namespace);
+					}
 					for (Table table : namespace.getTables()) {
-						if (table.isPhysicalTable()) {
-							final TableInformation tableInformation = databaseInformation.getTableInformation(table.getQualifiedTableName());
+						if (table.isPhysicalTable() && filter.includeTable(table)) {
+							final TableInformation tableInformation = (tablesInformation == null) ?
+																		databaseInformation.getTableInformation(table.getQualifiedTableName()) :
+																		tablesInformation.getTableInformation(table);
 							if (tableInformation != null && tableInformation.isPhysicalTable()) {
 								for (String ddl : sqlAlterTableDDL(skyveDialect, table, tableInformation, metadata)) {
 	                        		result.add(ddl);
@@ -85,6 +117,9 @@ public class DDLDelegate {
 		                        		catch (Exception e) {
 		                    				UtilImpl.LOGGER.severe("Could not apply skyve extra schema update of " + ddl);
 		                    				e.printStackTrace();
+		                    				if (failed != null) {
+		                    					failed.add(table.getQualifiedTableName().render());
+		                    				}
 		                        		}
 	                        		}
 								}
@@ -12,10 +12,16 @@ import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
 
 import org.apache.commons.beanutils.DynaBean;
 import org.skyve.CORE;
@@ -29,6 +35,7 @@ import org.skyve.domain.app.admin.ReportTemplate;
 import org.skyve.domain.messages.DomainException;
 import org.skyve.domain.types.DateOnly;
 import org.skyve.domain.types.converters.Converter;
+import org.skyve.impl.util.UtilImpl;
 import org.skyve.metadata.controller.Download;
 import org.skyve.metadata.controller.DownloadAction;
 import org.skyve.metadata.user.DocumentPermissionScope;
@@ -64,6 +71,15 @@ public final class FreemarkerReportUtil {
 	private static PathMatchingResourcePatternResolver resolver;
 	private static StringTemplateLoader strl;
 
+	// The fonts found on the classpath and parsed - see getFontFiles()
+	private static List<FontFile> fontFiles;
+	// Renderers with the fonts loaded that are not currently rendering
+	private static final Queue<ITextRenderer> IDLE_RENDERERS = new ConcurrentLinkedQueue<>();
+	// Bounds the number of concurrent PDF renders
+	private static volatile Semaphore renderPermits;
+	// Rendered to reset idle renderers
+	private static final String BLANK_DOCUMENT = "<html><body></body></html>";
+
 	private FreemarkerReportUtil() {
 		// disallow instantiation
 	}
@@ -129,6 +145,15 @@ public final class FreemarkerReportUtil {
 		cfg.setSharedVariable("resource", new ResourceDirective());
 		cfg.setSharedVariable("sqlformat", new SqlFormatDirective());
 
+		initRenderPool();
+		try {
+			// Parse the fonts once up front
+			getFontFiles();
+		}
+		catch (IOException e) {
+			Util.LOGGER.log(Level.WARNING, "Error loading fonts for PDF reports", e);
+		}
+
 		// define alias skyve date formats
 		// Map<String, TemplateDateFormatFactory> customDateFormats = new HashMap<String, TemplateDateFormatFactory>();
 
@@ -299,18 +324,7 @@ public final class FreemarkerReportUtil {
 	 */
 	public static void generatePDFFromHTML(InputStream in, OutputStream outputStream)
 	throws Exception {
-		ITextRenderer renderer = new ITextRenderer();
-		ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(renderer.getOutputDevice());
-		callback.setSharedContext(renderer.getSharedContext());
-		renderer.getSharedContext().setUserAgentCallback(callback);
-
-		loadFonts(renderer);
-
-		org.w3c.dom.Document doc = XMLResource.load(in).getDocument();
-
-		renderer.setDocument(doc, "/");
-		renderer.layout();
-		renderer.createPDF(outputStream);
+		renderPDF(new InputSource(in), "/", outputStream);
 	}
 
 	/**
@@ -323,21 +337,112 @@ public final class FreemarkerReportUtil {
 	public static void generatePDFFromHTML(String url, File outputFile)
 	throws Exception {
 		try (OutputStream os = new FileOutputStream(outputFile)) {
-			ITextRenderer renderer = new ITextRenderer();
-			ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(renderer.getOutputDevice());
-			callback.setSharedContext(renderer.getSharedContext());
-			renderer.getSharedContext().setUserAgentCallback(callback);
+			renderPDF(new InputSource(url), url, os);
+		}
+	}
 
-			loadFonts(renderer);
+	/**
+	 * Parse, layout and render the HTML to PDF with a pooled renderer.
+	 * The number of concurrent renders is bounded by UtilImpl.PDF_CONCURRENT_RENDERS to constrain memory usage,
+	 * other callers wait for a renderer to become free.
+	 * 
+	 * @param source The source HTML
+	 * @param url The base URL of the document
+	 * @param outputStream The outputStream to write the resulting PDF to
+	 * @throws Exception
+	 */
+	private static void renderPDF(InputSource source, String url, OutputStream outputStream)
+	throws Exception {
+		Semaphore permits = getRenderPermits();
+		permits.acquire();
+		try {
+			ITextRenderer renderer = IDLE_RENDERERS.poll();
+			if (renderer == null) {
+				renderer = newRenderer();
+			}
 
-			org.w3c.dom.Document doc = XMLResource.load(new InputSource(url)).getDocument();
+			boolean reusable = false;
+			try {
+				org.w3c.dom.Document doc = XMLResource.load(source).getDocument();
+				renderer.setDocument(doc, url);
+				renderer.layout();
+				renderer.createPDF(outputStream);
+				reusable = true;
+			}
+			finally {
+				// Renderers that failed are discarded in case they are left in an inconsistent state
+				if (reusable && reset(renderer)) {
+					IDLE_RENDERERS.offer(renderer);
+				}
+			}
+		}
+		finally {
+			permits.release();
+		}
+	}
 
-			renderer.setDocument(doc, url);
+	/**
+	 * Drop everything specific to the last document rendered so an idle renderer does not hold on to it.
+	 * Flying Saucer has no way to clear a renderer's document, layout and PDF writer
+	 * so they are replaced by those of a blank document rendered to nowhere.
+	 * The PDF has already been rendered so a failure here is logged and not propagated.
+	 * 
+	 * @return	true if the renderer was reset and can be reused, false if it should be discarded.
+	 */
+	private static boolean reset(ITextRenderer renderer) {
+		try {
+			renderer.getFontResolver().flushFontFaceFonts();
+			((ResourceLoaderUserAgent) renderer.getSharedContext().getUserAgentCallback()).clearImageCache();
+			renderer.setDocumentFromString(BLANK_DOCUMENT);
 			renderer.layout();
-			renderer.createPDF(os);
+			renderer.createPDF(OutputStream.nullOutputStream());
+			return true;
+		}
+		catch (Exception e) {
+			Util.LOGGER.log(Level.WARNING, "Could not reset the PDF renderer - it will be discarded", e);
+			return false;
 		}
 	}
 
+	/**
+	 * Create a new renderer with the classpath fonts loaded.
+	 */
+	private static ITextRenderer newRenderer() throws IOException {
+		ITextRenderer result = new ITextRenderer();
+		ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(result.getOutputDevice());
+		callback.setSharedContext(result.getSharedContext());
+		result.getSharedContext().setUserAgentCallback(callback);
+
+		loadFonts(result);
+		return result;
+	}
+
+	/**
+	 * @return	The render permits, initialising the render pool if {@link #init()} has not been called.
+	 */
+	private static Semaphore getRenderPermits() {
+		Semaphore result = renderPermits;
+		if (result == null) {
+			synchronized (FreemarkerReportUtil.class) {
+				result = renderPermits;
+				if (result == null) {
+					result = initRenderPool();
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Clear the render pool and size it according to UtilImpl.PDF_CONCURRENT_RENDERS.
+	 */
+	private static synchronized Semaphore initRenderPool() {
+		IDLE_RENDERERS.clear();
+		fontFiles = null;
+		renderPermits = new Semaphore(Math.max(1, UtilImpl.PDF_CONCURRENT_RENDERS), true);
+		return renderPermits;
+	}
+
 	public static Template getBeanReport(final Bean bean, final String reportName)
 	throws Exception {
 		final String templateName = String.format("%s/%s/reports/%s", bean.getBizModule(), bean.getBizDocument(), reportName);
@@ -490,45 +595,68 @@ public final class FreemarkerReportUtil {
 	}
 
 	/**
-	 * Attempts to automatically load any fonts found in the fonts directory found on the classpath.
+	 * Get the fonts found in the fonts directory on the classpath.
+	 * The classpath is only scanned and the fonts parsed once and the result is shared by all renderers.
+	 * The parsed fonts are held in the OpenPDF font cache that renderers load them from.
 	 * 
-	 * @param renderer The PDF Renderer to embed the font into
+	 * @return The font files found
 	 * @throws IOException
 	 */
-	private static void loadFonts(ITextRenderer renderer) throws IOException {
-		// load any fonts found on the classpath in fonts/
+	private static synchronized List<FontFile> getFontFiles() throws IOException {
+		if (fontFiles == null) {
+			List<FontFile> result = new ArrayList<>();
+			try {
+				// find any fonts on the classpath in fonts/
+				for (Resource r : getFontResources()) {
+					addFontFile(r, BaseFont.CP1252, result);
+				}
+				
+				// find any unicode fonts on the classpath in fonts/unicode/
+				for (Resource r : getUnicodeFontResources()) {
+					// required to load unicode fonts
+					addFontFile(r, BaseFont.IDENTITY_H, result);
+				}
+			}
+			catch (FileNotFoundException fnfe) {
+				// fonts directory not defined or empty
+				Util.LOGGER.warning("Error loading fonts for report: " + fnfe.getMessage());
+			}
+			fontFiles = Collections.unmodifiableList(result);
+		}
+		return fontFiles;
+	}
+
+	/**
+	 * Parse a font file into the OpenPDF font cache and add it to the font files if it can be used.
+	 */
+	private static void addFontFile(Resource resource, String encoding, List<FontFile> fontFiles) {
+		String name = resource.getFilename();
 		try {
-			getFontResources().stream()
-					.forEach(r -> {
-						try {
-							File f = r.getFile();
-							renderer.getFontResolver().addFont(f.toString(), true);
-							Util.LOGGER.info("Loaded font for PDF: " + r.getFilename());
-						}
-						catch (DocumentException | IOException e) {
-							Util.LOGGER.warning("Error loading font file: " + r.getFilename());
-							e.printStackTrace();
-						}
-					});
-
-			// load any unicode fonts found on the classpath in fonts/unicode/
-			getUnicodeFontResources().stream()
-					.forEach(r -> {
-						try {
-							File f = r.getFile();
-							// required to load unicode fonts
-							renderer.getFontResolver().addFont(f.toString(), BaseFont.IDENTITY_H, true);
-							Util.LOGGER.info("Loaded unicode font for PDF: " + r.getFilename());
-						}
-						catch (DocumentException | IOException e) {
-							Util.LOGGER.warning("Error loading unicode font file: " + r.getFilename());
-							e.printStackTrace();
-						}
-					});
+			String path = resource.getFile().toString();
+			BaseFont.createFont(path, encoding, true);
+			fontFiles.add(new FontFile(path, encoding, name));
+			Util.LOGGER.info("Loaded font for PDF: " + name);
+		}
+		catch (DocumentException | IOException e) {
+			Util.LOGGER.log(Level.WARNING, "Error loading font file: " + name, e);
 		}
-		catch (FileNotFoundException fnfe) {
-			// fonts directory not defined or empty
-			Util.LOGGER.warning("Error loading fonts for report: " + fnfe.getMessage());
+	}
+
+	/**
+	 * Loads the fonts found in the fonts directory on the classpath into a new renderer.
+	 * The fonts were parsed by {@link #getFontFiles()} so they are served from the OpenPDF font cache.
+	 * 
+	 * @param renderer The PDF Renderer to embed the font into
+	 * @throws IOException
+	 */
+	private static void loadFonts(ITextRenderer renderer) throws IOException {
+		for (FontFile font : getFontFiles()) {
+			try {
+				renderer.getFontResolver().addFont(font.path, font.encoding, true);
+			}
+			catch (DocumentException | IOException e) {
+				Util.LOGGER.log(Level.WARNING, "Error loading font file: " + font.name, e);
+			}
 		}
 	}
 
@@ -555,6 +683,21 @@ public final class FreemarkerReportUtil {
 		return template;
 	}
 
+	/**
+	 * A font file found on the classpath.
+	 */
+	private static final class FontFile {
+		private String path;
+		private String encoding;
+		private String name;
+
+		private FontFile(String path, String encoding, String name) {
+			this.path = path;
+			this.encoding = encoding;
+			this.name = name;
+		}
+	}
+
 	private static class ResourceLoaderUserAgent extends ITextUserAgent {
 		public ResourceLoaderUserAgent(ITextOutputDevice outputDevice) {
 			super(outputDevice);
@@ -4,8 +4,11 @@ import java.io.File;
 import java.io.OutputStream;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.skyve.CORE;
 import org.skyve.EXT;
@@ -27,6 +30,9 @@ import org.skyve.report.ReportFormat;
 
 import net.sf.jasperreports.engine.JRAbstractExporter;
 import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVirtualizer;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
@@ -43,6 +49,9 @@ import net.sf.jasperreports.engine.export.oasis.JROdtExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRDocxExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRPptxExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.engine.util.JRLoader;
 import net.sf.jasperreports.export.ExporterConfiguration;
 import net.sf.jasperreports.export.ExporterOutput;
@@ -59,6 +68,13 @@ import net.sf.jasperreports.export.SimpleXmlExporterOutput;
 import net.sf.jasperreports.web.util.WebHtmlResourceHandler;
 
 public final class JasperReportUtil {
+	// Swap file block size in bytes and the minimum number of blocks to grow the swap file by
+	private static final int SWAP_BLOCK_SIZE = 4096;
+	private static final int SWAP_MIN_GROW_COUNT = 100;
+
+	// The virtualizers of the reports filled that have not been cleaned up
+	private static final Map<JasperPrint, JRVirtualizer> VIRTUALIZERS = Collections.synchronizedMap(new WeakHashMap<>());
+
 	private JasperReportUtil() {
 		// disallow instantiation
 	}
@@ -143,11 +159,16 @@ public final class JasperReportUtil {
 				}
 			}
 			UtilImpl.LOGGER.info("FILL REPORT");
-			result = JasperFillManager.fillReport(jasperReport,
-					parameters,
-					new SkyveDataSource(user, reportBean));
+			result = fillReport(jasperReport,
+									parameters,
+									new SkyveDataSource(user, reportBean));
 			UtilImpl.LOGGER.info("PUMP REPORT");
-			runReport(result, format, out);
+			try {
+				runReport(result, format, out);
+			}
+			finally {
+				exported(result, format);
+			}
 			UtilImpl.LOGGER.info("PUMPED REPORT");
 		}
 
@@ -167,11 +188,16 @@ public final class JasperReportUtil {
 		try (AutoClosingIterable<Bean> iterable = listModel.iterate()) {
 			final JRDataSource dataSource = new SkyveDataSource(user, iterable.iterator());
 
-			result = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+			result = fillReport(jasperReport, parameters, dataSource);
 		}
 
 		UtilImpl.LOGGER.info("PUMP REPORT");
-		runReport(result, format, out);
+		try {
+			runReport(result, format, out);
+		}
+		finally {
+			exported(result, format);
+		}
 		UtilImpl.LOGGER.info("PUMPED REPORT");
 
 		return result;
@@ -182,11 +208,16 @@ public final class JasperReportUtil {
 		JasperPrint result;
 		try (Connection connection = EXT.getDataStoreConnection()) {
             UtilImpl.LOGGER.info("FILL REPORT");
-            result = JasperFillManager.fillReport(jasperReport,
+            result = fillReport(jasperReport,
                     parameters,
                     connection);
             UtilImpl.LOGGER.info("PUMP REPORT");
-            runReport(result, format, out);
+            try {
+                runReport(result, format, out);
+            }
+            finally {
+                exported(result, format);
+            }
             UtilImpl.LOGGER.info("PUMPED REPORT");
         }
 		return result;
@@ -210,7 +241,7 @@ public final class JasperReportUtil {
 			if ("sql".equalsIgnoreCase(queryLanguage)) {
 				try (Connection connection = EXT.getDataStoreConnection()) {
 					UtilImpl.LOGGER.info("FILL REPORT");
-					result.add(JasperFillManager.fillReport(jasperReport,
+					result.add(fillReport(jasperReport,
 							reportParameter.getParameters(),
 							connection));
 					UtilImpl.LOGGER.info("PUMP REPORT");
@@ -229,19 +260,128 @@ public final class JasperReportUtil {
 					}
 				}
 				UtilImpl.LOGGER.info("FILL REPORT");
-				result.add(JasperFillManager.fillReport(jasperReport,
+				result.add(fillReport(jasperReport,
 						reportParameter.getParameters(),
 						new SkyveDataSource(user, reportBean)));
 			}
 		}
 
 		UtilImpl.LOGGER.info("PUMP REPORT");
-		runReport(result, format, out);
+		try {
+			runReport(result, format, out);
+		}
+		finally {
+			for (JasperPrint jasperPrint : result) {
+				exported(jasperPrint, format);
+			}
+		}
 		UtilImpl.LOGGER.info("PUMPED REPORT");
 
 		return result;
 	}
 
+	/**
+	 * Fill a report from a data source, virtualizing the filled pages to a swap file if configured.
+	 * The swap file is deleted by {@link #cleanup(JasperPrint)} once the report has been exported.
+	 * @see UtilImpl#REPORT_VIRTUALIZER_MAX_PAGES
+	 */
+	public static JasperPrint fillReport(JasperReport jasperReport,
+											Map<String, Object> parameters,
+											JRDataSource dataSource)
+	throws JRException {
+		JRVirtualizer virtualizer = newVirtualizer(parameters);
+		JasperPrint result = null;
+		try {
+			result = JasperFillManager.fillReport(jasperReport, virtualize(parameters, virtualizer), dataSource);
+		}
+		finally {
+			filled(result, virtualizer);
+		}
+		return result;
+	}
+
+	/**
+	 * Fill a report from a connection, virtualizing the filled pages to a swap file if configured.
+	 * The swap file is deleted by {@link #cleanup(JasperPrint)} once the report has been exported.
+	 * @see UtilImpl#REPORT_VIRTUALIZER_MAX_PAGES
+	 */
+	public static JasperPrint fillReport(JasperReport jasperReport,
+											Map<String, Object> parameters,
+											Connection connection)
+	throws JRException {
+		JRVirtualizer virtualizer = newVirtualizer(parameters);
+		JasperPrint result = null;
+		try {
+			result = JasperFillManager.fillReport(jasperReport, virtualize(parameters, virtualizer), connection);
+		}
+		finally {
+			filled(result, virtualizer);
+		}
+		return result;
+	}
+
+	/**
+	 * Delete the swap file of a report filled by {@link #fillReport(JasperReport, Map, JRDataSource)}.
+	 * Call this once the report has been exported for the last time - virtualized pages cannot be read afterwards.
+	 * Virtualizers supplied by the caller in the report parameters are left to the caller to clean up.
+	 */
+	public static void cleanup(JasperPrint jasperPrint) {
+		JRVirtualizer virtualizer = VIRTUALIZERS.remove(jasperPrint);
+		if (virtualizer != null) {
+			virtualizer.cleanup();
+		}
+	}
+
+	/**
+	 * Create a swap file virtualizer if virtualization is configured and the caller has not already supplied a virtualizer.
+	 * @return	The virtualizer or null if not virtualizing.
+	 */
+	private static JRVirtualizer newVirtualizer(Map<String, Object> parameters) {
+		int maxPages = UtilImpl.REPORT_VIRTUALIZER_MAX_PAGES;
+		if ((maxPages <= 0) || parameters.containsKey(JRParameter.REPORT_VIRTUALIZER)) {
+			return null;
+		}
+		String directory = UtilImpl.REPORT_VIRTUALIZER_DIRECTORY;
+		if (directory == null) {
+			directory = System.getProperty("java.io.tmpdir");
+		}
+		JRSwapFile swapFile = new JRSwapFile(directory, SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT);
+		return new JRSwapFileVirtualizer(maxPages, swapFile, true);
+	}
+
+	// Add the virtualizer to a copy of the parameters so that the caller's parameters are unchanged
+	private static Map<String, Object> virtualize(Map<String, Object> parameters, JRVirtualizer virtualizer) {
+		if (virtualizer == null) {
+			return parameters;
+		}
+		Map<String, Object> result = new HashMap<>(parameters);
+		result.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		return result;
+	}
+
+	// Once filled, the virtualized pages are only read (by exporters) until the report is cleaned up.
+	// If the fill failed, the swap file is deleted straight away.
+	private static void filled(JasperPrint jasperPrint, JRVirtualizer virtualizer) {
+		if (virtualizer != null) {
+			if (jasperPrint == null) {
+				virtualizer.cleanup();
+			}
+			else {
+				if (virtualizer instanceof JRAbstractLRUVirtualizer) {
+					((JRAbstractLRUVirtualizer) virtualizer).setReadOnly(true);
+				}
+				VIRTUALIZERS.put(jasperPrint, virtualizer);
+			}
+		}
+	}
+
+	// The HTML format is served from the session by the jasper image servlet so its pages are kept until it is garbage collected
+	private static void exported(JasperPrint jasperPrint, ReportFormat format) {
+		if (! ReportFormat.html.equals(format)) {
+			cleanup(jasperPrint);
+		}
+	}
+
 	private static String preProcess(Customer customer, ReportParameters reportParameters) {
 		return preProcess(customer,
 				reportParameters.getDocument(),
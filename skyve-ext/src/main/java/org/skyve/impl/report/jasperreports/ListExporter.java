@@ -0,0 +1,451 @@
+package org.skyve.impl.report.jasperreports;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.skyve.domain.Bean;
+import org.skyve.domain.messages.ValidationException;
+import org.skyve.domain.types.Decimal;
+import org.skyve.domain.types.converters.Converter;
+import org.skyve.impl.bind.BindUtil;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportColumn;
+import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportStyle;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.Attribute.AttributeType;
+import org.skyve.metadata.user.User;
+import org.skyve.report.ReportFormat;
+
+/**
+ * Streams tabular list exports (CSV and XLSX) directly from the list model iterator to the output stream.
+ * Unlike filling a Jasper report, no JasperPrint is built so memory use does not grow with the number of rows.
+ * The output follows the tabular design from {@link org.skyve.impl.generate.jasperreports.JasperReportRenderer} -
+ * a header row of column titles, a row per bean and an optional summary row of numeric totals.
+ */
+public class ListExporter {
+	// The number of XLSX rows kept in memory before being flushed to a temp file
+	private static final int XLSX_ROW_WINDOW = 100;
+	// The number of rows an XLSX sheet can hold
+	private static final int XLSX_MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+	private ListExporter() {
+		// nothing to see here
+	}
+
+	/**
+	 * @return	true if the export described by the given parameters can be streamed.
+	 */
+	public static boolean isStreamable(ReportDesignParameters reportDesignParameters) {
+		ReportFormat format = reportDesignParameters.getReportFormat();
+		return ReportStyle.tabular.equals(reportDesignParameters.getReportStyle()) &&
+				(ReportFormat.csv.equals(format) || ReportFormat.xlsx.equals(format));
+	}
+
+	/**
+	 * Stream the export.
+	 *
+	 * @param user	The user exporting.
+	 * @param iterator	The list model rows.
+	 * @param reportDesignParameters	The columns and format to export.
+	 * @param out	The stream to write to - this is not closed.
+	 */
+	public static void export(User user,
+								Iterator<? extends Bean> iterator,
+								ReportDesignParameters reportDesignParameters,
+								OutputStream out)
+	throws Exception {
+		ReportFormat format = reportDesignParameters.getReportFormat();
+		if (ReportFormat.csv.equals(format)) {
+			exportCSV(user, iterator, reportDesignParameters, out);
+		}
+		else if (ReportFormat.xlsx.equals(format)) {
+			exportXLSX(user, iterator, reportDesignParameters, out);
+		}
+		else {
+			throw new IllegalArgumentException("Report format " + format + " cannot be streamed");
+		}
+	}
+
+	private static void exportCSV(User user,
+									Iterator<? extends Bean> iterator,
+									ReportDesignParameters reportDesignParameters,
+									OutputStream out)
+	throws Exception {
+		Customer customer = user.getCustomer();
+		List<ReportColumn> columns = reportDesignParameters.getColumns();
+		int columnCount = columns.size();
+		BigDecimal[] totals = new BigDecimal[columnCount];
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		for (int i = 0; i < columnCount; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writeCSVValue(writer, columns.get(i).getTitle());
+		}
+		writer.write('\n');
+
+		while (iterator.hasNext()) {
+			Bean bean = iterator.next();
+			for (int i = 0; i < columnCount; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				ReportColumn column = columns.get(i);
+				String binding = BindUtil.unsanitiseBinding(column.getName());
+				// CSV retains numbers unless they are converted, everything else is formatted for display
+				if (isNumeric(column.getAttributeType())) {
+					Object value = BindUtil.get(bean, binding);
+					if (value instanceof Number) {
+						BigDecimal number = toBigDecimal((Number) value);
+						totals[i] = (totals[i] == null) ? number : totals[i].add(number);
+						if (column.getConverter() == null) {
+							writer.write(number.toPlainString());
+						}
+						else {
+							writeCSVValue(writer, toDisplayValue(column.getConverter(), value));
+						}
+					}
+				}
+				else {
+					writeCSVValue(writer, BindUtil.getDisplay(customer, bean, binding));
+				}
+			}
+			writer.write('\n');
+		}
+
+		if (reportDesignParameters.isShowSummary()) {
+			for (int i = 0; i < columnCount; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				if (totals[i] != null) {
+					writer.write(totals[i].toPlainString());
+				}
+			}
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	private static void writeCSVValue(Writer writer, String value) throws Exception {
+		if (value == null) {
+			return;
+		}
+		if ((value.indexOf(',') >= 0) || (value.indexOf('"') >= 0) || (value.indexOf('\n') >= 0) || (value.indexOf('\r') >= 0)) {
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+		else {
+			writer.write(value);
+		}
+	}
+
+	private static void exportXLSX(User user,
+									Iterator<? extends Bean> iterator,
+									ReportDesignParameters reportDesignParameters,
+									OutputStream out)
+	throws Exception {
+		Customer customer = user.getCustomer();
+		List<ReportColumn> columns = reportDesignParameters.getColumns();
+		int columnCount = columns.size();
+		BigDecimal[] totals = new BigDecimal[columnCount];
+
+		SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+		workbook.setCompressTempFiles(true);
+		try {
+			Sheet sheet = workbook.createSheet();
+
+			CellStyle headerStyle = workbook.createCellStyle();
+			Font headerFont = workbook.createFont();
+			headerFont.setBold(true);
+			headerStyle.setFont(headerFont);
+
+			// XLSX retains numbers and dates, everything else is formatted for display
+			CellStyle[] styles = new CellStyle[columnCount];
+			Row row = createRow(sheet, 0);
+			for (int i = 0; i < columnCount; i++) {
+				ReportColumn column = columns.get(i);
+				Cell cell = row.createCell(i);
+				cell.setCellStyle(headerStyle);
+				cell.setCellValue(column.getTitle());
+				if (isTemporal(column.getAttributeType())) {
+					styles[i] = workbook.createCellStyle();
+					styles[i].setDataFormat(workbook.createDataFormat().getFormat(excelTemporalPattern(column)));
+				}
+			}
+
+			int rowIndex = 1;
+			while (iterator.hasNext()) {
+				Bean bean = iterator.next();
+				row = createRow(sheet, rowIndex++);
+				for (int i = 0; i < columnCount; i++) {
+					ReportColumn column = columns.get(i);
+					AttributeType type = column.getAttributeType();
+					String binding = BindUtil.unsanitiseBinding(column.getName());
+					if (isNumeric(type)) {
+						Object value = BindUtil.get(bean, binding);
+						if (value instanceof Number) {
+							BigDecimal number = toBigDecimal((Number) value);
+							totals[i] = (totals[i] == null) ? number : totals[i].add(number);
+							Converter<?> converter = column.getConverter();
+							if ((converter == null) || (converter.getFormatPattern() == null)) {
+								// Converters without a number pattern (like time duration) are exported as displayed
+								if (converter == null) {
+									row.createCell(i).setCellValue(number.doubleValue());
+								}
+								else {
+									row.createCell(i).setCellValue(toDisplayValue(converter, value));
+								}
+							}
+							else {
+								if (styles[i] == null) {
+									styles[i] = workbook.createCellStyle();
+									styles[i].setDataFormat(workbook.createDataFormat().getFormat(excelNumericPattern(converter, value)));
+								}
+								Cell cell = row.createCell(i);
+								cell.setCellValue(number.doubleValue());
+								cell.setCellStyle(styles[i]);
+							}
+						}
+					}
+					else if (isTemporal(type)) {
+						Object value = BindUtil.get(bean, binding);
+						if (value instanceof Date) {
+							Cell cell = row.createCell(i);
+							cell.setCellValue((Date) value);
+							cell.setCellStyle(styles[i]);
+						}
+					}
+					else {
+						String value = BindUtil.getDisplay(customer, bean, binding);
+						if (value != null) {
+							row.createCell(i).setCellValue(value);
+						}
+					}
+				}
+			}
+
+			if (reportDesignParameters.isShowSummary()) {
+				row = createRow(sheet, rowIndex);
+				for (int i = 0; i < columnCount; i++) {
+					if (totals[i] != null) {
+						Cell cell = row.createCell(i);
+						if (styles[i] == null) {
+							cell.setCellStyle(headerStyle);
+						}
+						else {
+							CellStyle totalStyle = workbook.createCellStyle();
+							totalStyle.cloneStyleFrom(styles[i]);
+							totalStyle.setFont(headerFont);
+							cell.setCellStyle(totalStyle);
+						}
+						cell.setCellValue(totals[i].doubleValue());
+					}
+				}
+			}
+
+			workbook.write(out);
+		}
+		finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+
+	private static boolean isNumeric(AttributeType type) {
+		return (type == AttributeType.integer) ||
+				(type == AttributeType.longInteger) ||
+				(type == AttributeType.decimal2) ||
+				(type == AttributeType.decimal5) ||
+				(type == AttributeType.decimal10);
+	}
+
+	private static boolean isTemporal(AttributeType type) {
+		return (type == AttributeType.date) ||
+				(type == AttributeType.dateTime) ||
+				(type == AttributeType.time) ||
+				(type == AttributeType.timestamp);
+	}
+
+	private static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof Decimal) {
+			return ((Decimal) number).bigDecimalValue();
+		}
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if ((number instanceof Integer) || (number instanceof Long)) {
+			return BigDecimal.valueOf(number.longValue());
+		}
+		return BigDecimal.valueOf(number.doubleValue());
+	}
+
+	/**
+	 * Create a sheet row checking that the XLSX row limit is not exceeded.
+	 */
+	private static Row createRow(Sheet sheet, int rowIndex) {
+		if (rowIndex >= XLSX_MAX_ROWS) {
+			throw new ValidationException("The export has more rows than an XLSX sheet can hold (" + XLSX_MAX_ROWS + 
+										") - filter the list or export to CSV");
+		}
+		return sheet.createRow(rowIndex);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String toDisplayValue(Converter<?> converter, Object value) throws Exception {
+		return ((Converter<Object>) converter).toDisplayValue(value);
+	}
+
+	/**
+	 * Get the excel number format for a converted numeric value.
+	 * The decimal format patterns of the converters are valid excel number formats, but percentage converters 
+	 * multiply by 100 and add a % when displaying which is what the excel % does.
+	 */
+	private static String excelNumericPattern(Converter<?> converter, Object value) throws Exception {
+		String result = converter.getFormatPattern();
+		String displayValue = toDisplayValue(converter, value);
+		if ((displayValue != null) && displayValue.endsWith("%")) {
+			result += '%';
+		}
+		return result;
+	}
+
+	/**
+	 * Convert the column's java date format pattern to an excel date format.
+	 */
+	private static String excelTemporalPattern(ReportColumn column) {
+		String pattern = column.getFormatPattern();
+		if (pattern == null) {
+			AttributeType type = column.getAttributeType();
+			if (type == AttributeType.date) {
+				return "yyyy-mm-dd";
+			}
+			if (type == AttributeType.time) {
+				return "hh:mm:ss";
+			}
+			return "yyyy-mm-dd hh:mm:ss";
+		}
+		return excelPattern(pattern);
+	}
+
+	/**
+	 * Convert a java date format pattern to an excel date format.
+	 * Each run of a pattern letter is converted to the excel equivalent, quoted text is double quoted and
+	 * letters that excel has no equivalent for (like time zones) are dropped.
+	 */
+	private static String excelPattern(String pattern) {
+		StringBuilder result = new StringBuilder(pattern.length() + 8);
+		int i = 0;
+		int l = pattern.length();
+		while (i < l) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				// '' is a single quote, otherwise quoted text up to the next single quote
+				if ((i + 1 < l) && (pattern.charAt(i + 1) == '\'')) {
+					result.append("\\'");
+					i += 2;
+				}
+				else {
+					StringBuilder text = new StringBuilder();
+					i++;
+					while (i < l) {
+						char q = pattern.charAt(i);
+						if (q == '\'') {
+							if ((i + 1 < l) && (pattern.charAt(i + 1) == '\'')) {
+								text.append('\'');
+								i += 2;
+							}
+							else {
+								i++;
+								break;
+							}
+						}
+						else {
+							text.append(q);
+							i++;
+						}
+					}
+					if (text.length() > 0) {
+						result.append('"').append(text.toString().replace("\"", "")).append('"');
+					}
+				}
+			}
+			else if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'))) {
+				int count = 1;
+				while ((i + count < l) && (pattern.charAt(i + count) == c)) {
+					count++;
+				}
+				i += count;
+				switch (c) {
+					case 'y':
+					case 'Y':
+					case 'u':
+						result.append((count == 2) ? "yy" : "yyyy");
+						break;
+					case 'M':
+					case 'L':
+						result.append(repeat('m', Math.min(count, 4)));
+						break;
+					case 'd':
+						result.append(repeat('d', Math.min(count, 2)));
+						break;
+					case 'E':
+						result.append((count >= 4) ? "dddd" : "ddd");
+						break;
+					case 'H':
+					case 'k':
+					case 'h':
+					case 'K':
+						result.append(repeat('h', Math.min(count, 2)));
+						break;
+					case 'm':
+						result.append(repeat('m', Math.min(count, 2)));
+						break;
+					case 's':
+						result.append(repeat('s', Math.min(count, 2)));
+						break;
+					case 'S':
+						result.append(repeat('0', Math.min(count, 3)));
+						break;
+					case 'a':
+						result.append("AM/PM");
+						break;
+					default:
+						// no excel equivalent
+				}
+			}
+			else {
+				if ((c == ' ') || (c == '/') || (c == '-') || (c == ':') || (c == '.') || (c == ',')) {
+					result.append(c);
+				}
+				else {
+					result.append('\\').append(c);
+				}
+				i++;
+			}
+		}
+		return result.toString().trim();
+	}
+
+	private static String repeat(char c, int count) {
+		char[] result = new char[count];
+		Arrays.fill(result, c);
+		return new String(result);
+	}
+}
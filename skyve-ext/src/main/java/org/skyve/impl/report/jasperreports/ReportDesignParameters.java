@@ -3,6 +3,7 @@ package org.skyve.impl.report.jasperreports;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.skyve.domain.types.converters.Converter;
 import org.skyve.metadata.model.Attribute.AttributeType;
 import org.skyve.report.ReportFormat;
 
@@ -25,6 +26,7 @@ public final class ReportDesignParameters {
 		private ColumnAlignment alignment;
 		private AttributeType attributeType;
 		private String formatPattern;
+		private Converter<?> converter;
 		
 		public String getName() {
 			return name;
@@ -68,6 +70,12 @@ public final class ReportDesignParameters {
 		public void setFormatPattern(String formatPattern) {
 			this.formatPattern = formatPattern;
 		}
+		public Converter<?> getConverter() {
+			return converter;
+		}
+		public void setConverter(Converter<?> converter) {
+			this.converter = converter;
+		}
 	}
 
 	private ReportFormat reportFormat;
@@ -167,4 +175,23 @@ public final class ReportDesignParameters {
 	public void setIncludeCustomerLogo(boolean includeCustomerLogo) {
 		this.includeCustomerLogo = includeCustomerLogo;
 	}
+
+	/**
+	 * @return	A key that is equal for all parameters that render the same report design.
+	 */
+	public String getSpecificationKey() {
+		StringBuilder result = new StringBuilder(256);
+		result.append(reportFormat).append('|').append(reportStyle).append('|');
+		result.append(pretty).append('|').append(paginated).append('|').append(showSummary).append('|').append(includeCustomerLogo).append('|');
+		result.append(pageWidth).append('x').append(pageHeight).append('|');
+		result.append(topMargin).append(',').append(bottomMargin).append(',').append(leftMargin).append(',').append(rightMargin);
+		for (ReportColumn column : columns) {
+			result.append('|').append(column.getName()).append(',').append(column.getTitle());
+			result.append(',').append(column.getLine()).append(',').append(column.getWidth());
+			result.append(',').append(column.getAlignment()).append(',').append(column.getAttributeType());
+			result.append(',').append(column.getFormatPattern());
+		}
+		result.append('|').append(groupColumns);
+		return result.toString();
+	}
 }
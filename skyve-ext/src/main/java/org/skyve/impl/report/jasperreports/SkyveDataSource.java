@@ -1,21 +1,29 @@
 package org.skyve.impl.report.jasperreports;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRField;
 
+import org.apache.commons.beanutils.PropertyUtils;
 import org.skyve.domain.Bean;
+import org.skyve.domain.DynamicBean;
 import org.skyve.impl.bind.BindUtil;
+import org.skyve.impl.util.UtilImpl;
 import org.skyve.metadata.user.User;
 
 public class SkyveDataSource implements JRDataSource {
 	private User user;
 	private Iterator<? extends Bean> iterator;
 	private Bean currentBean;
+	private Map<JRField, FieldAccessor> accessors = new IdentityHashMap<>();
 
 	public SkyveDataSource(User user, List<? extends Bean> list) {
 		this(user, list.iterator());
@@ -59,26 +67,22 @@ public class SkyveDataSource implements JRDataSource {
 	public Object getFieldValue(JRField field) 
 	throws JRException {
 		Object result = null;
+		FieldAccessor accessor = accessors.get(field);
+		if (accessor == null) {
+			accessor = new FieldAccessor(field);
+			accessors.put(field, accessor);
+		}
 		try {
-			boolean formatted = true;
-			String binding = field.getDescription();
-			if ((binding == null) || binding.isEmpty()) {
-				binding = field.getName();
-				formatted = false;
-			}
-			if ("THIS".equals(binding)) {
+			if (accessor.self) {
 				result = currentBean;
 			}
-			else if ("USER".equals(binding)) {
+			else if (accessor.user) {
 				result = user;
 			}
 			else {
-				binding = BindUtil.unsanitiseBinding(binding);
-				if (formatted) {
-					result = BindUtil.getDisplay(user.getCustomer(), currentBean, binding);
-				}
-				else {
-					result = BindUtil.get(currentBean, binding);
+				result = accessor.get(currentBean);
+				if (accessor.formatted) {
+					result = BindUtil.getDisplay(user.getCustomer(), currentBean, accessor.binding, result);
 				}
 			}
 		}
@@ -89,6 +93,73 @@ public class SkyveDataSource implements JRDataSource {
 		return result;
 	}
 
+	/**
+	 * A field binding resolved once per report fill.
+	 * Simple and compound bindings through non-dynamic attributes are evaluated with cached getter methods
+	 * (per bean class); anything else is delegated to {@link BindUtil#get(Object, String)}.
+	 */
+	private static final class FieldAccessor {
+		private String binding;
+		private boolean formatted = true;
+		private boolean self = false;
+		private boolean user = false;
+		// null if the binding cannot be compiled
+		private String[] segments;
+		private Class<?>[] classes;
+		private Method[] getters;
+
+		private FieldAccessor(JRField field) {
+			String name = field.getDescription();
+			if ((name == null) || name.isEmpty()) {
+				name = field.getName();
+				formatted = false;
+			}
+			if ("THIS".equals(name)) {
+				self = true;
+			}
+			else if ("USER".equals(name)) {
+				user = true;
+			}
+			else {
+				binding = BindUtil.unsanitiseBinding(name);
+				if ((binding.indexOf('[') < 0) && (binding.indexOf("ElementById(") < 0)) {
+					segments = binding.split("\\.");
+					classes = new Class<?>[segments.length];
+					getters = new Method[segments.length];
+				}
+			}
+		}
+
+		private Object get(Bean bean) throws Exception {
+			if ((segments == null) || (bean instanceof DynamicBean)) {
+				return BindUtil.get(bean, binding);
+			}
+
+			Object result = bean;
+			for (int i = 0, l = segments.length; i < l; i++) {
+				if ((result instanceof Bean) && ((Bean) result).isDynamic(segments[i])) {
+					return BindUtil.get(bean, binding);
+				}
+				result = UtilImpl.deproxy(result);
+				Class<?> type = result.getClass();
+				if (classes[i] != type) {
+					PropertyDescriptor descriptor = PropertyUtils.getPropertyDescriptor(result, segments[i]);
+					Method getter = (descriptor == null) ? null : descriptor.getReadMethod();
+					if (getter == null) {
+						return BindUtil.get(bean, binding);
+					}
+					classes[i] = type;
+					getters[i] = getter;
+				}
+				result = getters[i].invoke(result);
+				if (result == null) {
+					break;
+				}
+			}
+			return result;
+		}
+	}
+
 	public static Object getFormattedValue(User user, Bean currentBean, String binding, Object value) throws JRException {
 		try {
 			return BindUtil.getDisplay(user.getCustomer(), currentBean, binding, value);
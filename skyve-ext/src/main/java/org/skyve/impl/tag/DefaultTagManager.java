@@ -1,7 +1,11 @@
 package org.skyve.impl.tag;
 
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import org.skyve.domain.Bean;
 import org.skyve.domain.PersistentBean;
@@ -9,7 +13,11 @@ import org.skyve.domain.app.admin.Tag;
 import org.skyve.domain.app.admin.Tagged;
 import org.skyve.domain.messages.DomainException;
 import org.skyve.impl.bind.BindUtil;
+import org.skyve.domain.types.OptimisticLock;
+import org.skyve.impl.persistence.AbstractDocumentQuery;
 import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.NamedParameterPreparedStatement;
+import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Bizlet.DomainValue;
 import org.skyve.metadata.model.document.Document;
@@ -20,8 +28,12 @@ import org.skyve.persistence.BizQL;
 import org.skyve.persistence.DocumentFilter;
 import org.skyve.persistence.DocumentQuery;
 import org.skyve.tag.TagManager;
+import org.skyve.util.Util;
 
 public class DefaultTagManager implements TagManager {
+	// The number of tagged rows inserted or deleted per statement batch
+	private static final int BATCH_SIZE = 500;
+
 	private static final DefaultTagManager INSTANCE = new DefaultTagManager();
 	
 	public static DefaultTagManager get() {
@@ -193,6 +205,227 @@ public class DefaultTagManager implements TagManager {
 		}
 	}
 
+	@Override
+	public void tag(String tagId, DocumentQuery query) throws Exception {
+		AbstractPersistence persistence = AbstractPersistence.get();
+		PersistentBean tag = retrieveTag(persistence, tagId);
+		Document taggedDocument = query.getDrivingDocument();
+		String taggedModuleName = taggedDocument.getOwningModuleName();
+		String taggedDocumentName = taggedDocument.getName();
+
+		// Select the bizIds not yet tagged through the query so that security filtering applies
+		bizIdProjection(query);
+		query.getFilter().addExpression(taggedExpression(false));
+		putTaggedParameters(query, persistence.getUser(), tagId, taggedModuleName, taggedDocumentName);
+		List<String> bizIds = query.scalarResults(String.class);
+
+		insertTagged(persistence, tag, taggedModuleName, taggedDocumentName, bizIds);
+	}
+
+	@Override
+	public void tag(String tagId, String taggedModuleName, String taggedDocumentName, Collection<String> taggedBizIds)
+	throws Exception {
+		AbstractPersistence persistence = AbstractPersistence.get();
+		PersistentBean tag = retrieveTag(persistence, tagId);
+		User user = persistence.getUser();
+
+		List<String> bizIds = new ArrayList<>(taggedBizIds);
+		for (int i = 0, l = bizIds.size(); i < l; i += BATCH_SIZE) {
+			List<String> chunk = bizIds.subList(i, Math.min(i + BATCH_SIZE, l));
+			DocumentQuery query = persistence.newDocumentQuery(taggedModuleName, taggedDocumentName);
+			query.addBoundProjection(Bean.DOCUMENT_ID);
+			DocumentFilter filter = query.getFilter();
+			filter.addIn(Bean.DOCUMENT_ID, chunk.toArray());
+			filter.addExpression(taggedExpression(false));
+			putTaggedParameters(query, user, tagId, taggedModuleName, taggedDocumentName);
+
+			insertTagged(persistence, tag, taggedModuleName, taggedDocumentName, query.scalarResults(String.class));
+		}
+	}
+
+	@Override
+	public void untag(String tagId, DocumentQuery query) throws Exception {
+		AbstractPersistence persistence = AbstractPersistence.get();
+		Document taggedDocument = query.getDrivingDocument();
+		String taggedModuleName = taggedDocument.getOwningModuleName();
+		String taggedDocumentName = taggedDocument.getName();
+
+		// Select the tagged bizIds through the query so that security filtering applies
+		bizIdProjection(query);
+		query.getFilter().addExpression(taggedExpression(true));
+		putTaggedParameters(query, persistence.getUser(), tagId, taggedModuleName, taggedDocumentName);
+		List<String> bizIds = query.scalarResults(String.class);
+
+		untag(tagId, taggedModuleName, taggedDocumentName, bizIds);
+	}
+
+	@Override
+	public void untag(String tagId, String taggedModuleName, String taggedDocumentName, Collection<String> taggedBizIds)
+	throws Exception {
+		AbstractPersistence persistence = AbstractPersistence.get();
+		User user = persistence.getUser();
+
+		List<String> bizIds = new ArrayList<>(taggedBizIds);
+		for (int i = 0, l = bizIds.size(); i < l; i += BATCH_SIZE) {
+			BizQL deleteStatement = persistence.newBizQL(String.format("delete from {%s.%s} as bean " +
+																		"where bean.%s.%s = :%s " +
+																		"and bean.%s = :%s " +
+																		"and bean.%s = :%s " +
+																		"and bean.%s = :%s " +
+																		"and bean.%s in (:%s)",
+																			Tagged.MODULE_NAME,
+																			Tagged.DOCUMENT_NAME,
+																			Tagged.tagPropertyName,
+																			Bean.DOCUMENT_ID,
+																			Bean.DOCUMENT_ID,
+																			Bean.USER_ID,
+																			Bean.USER_ID,
+																			Tagged.taggedModulePropertyName,
+																			Tagged.taggedModulePropertyName,
+																			Tagged.taggedDocumentPropertyName,
+																			Tagged.taggedDocumentPropertyName,
+																			Tagged.taggedBizIdPropertyName,
+																			Tagged.taggedBizIdPropertyName));
+			deleteStatement.putParameter(Bean.DOCUMENT_ID, tagId);
+			deleteStatement.putParameter(Bean.USER_ID, user.getId());
+			deleteStatement.putParameter(Tagged.taggedModulePropertyName, taggedModuleName);
+			deleteStatement.putParameter(Tagged.taggedDocumentPropertyName, taggedDocumentName);
+			deleteStatement.putParameter(Tagged.taggedBizIdPropertyName,
+											new ArrayList<>(bizIds.subList(i, Math.min(i + BATCH_SIZE, l))));
+
+			deleteStatement.execute();
+		}
+	}
+
+	private static PersistentBean retrieveTag(AbstractPersistence persistence, String tagId) {
+		User user = persistence.getUser();
+		Customer customer = user.getCustomer();
+		Module adminModule = customer.getModule(Tag.MODULE_NAME);
+		Document tagDocument = adminModule.getDocument(customer, Tag.DOCUMENT_NAME);
+		PersistentBean result = persistence.retrieve(tagDocument, tagId);
+		if (result == null) {
+			throw new DomainException("Tag " + tagId + " does not exist");
+		}
+		return result;
+	}
+
+	/**
+	 * Replace the query's projections with the distinct bizIds only.
+	 */
+	private static void bizIdProjection(DocumentQuery query) {
+		AbstractDocumentQuery internalQuery = (AbstractDocumentQuery) query;
+		internalQuery.clearProjections();
+		internalQuery.clearOrderings();
+		internalQuery.clearGroups();
+		query.setDistinct(true);
+		query.addBoundProjection(Bean.DOCUMENT_ID);
+	}
+
+	/**
+	 * An HQL expression testing if the query's bean is (or is not) tagged.
+	 * The parameters are set by {@link #putTaggedParameters(DocumentQuery, User, String, String, String)}.
+	 */
+	private static String taggedExpression(boolean tagged) {
+		StringBuilder result = new StringBuilder(256);
+		if (! tagged) {
+			result.append("not ");
+		}
+		result.append("exists (select 1 from ").append(Tagged.MODULE_NAME).append(Tagged.DOCUMENT_NAME).append(" as tagged");
+		result.append(" where tagged.").append(Tagged.tagPropertyName).append('.').append(Bean.DOCUMENT_ID).append(" = :taggedTagId");
+		result.append(" and tagged.").append(Bean.USER_ID).append(" = :taggedUserId");
+		result.append(" and tagged.").append(Tagged.taggedModulePropertyName).append(" = :taggedModuleName");
+		result.append(" and tagged.").append(Tagged.taggedDocumentPropertyName).append(" = :taggedDocumentName");
+		result.append(" and tagged.").append(Tagged.taggedBizIdPropertyName).append(" = ");
+		result.append(DocumentQuery.THIS_ALIAS).append('.').append(Bean.DOCUMENT_ID).append(')');
+		return result.toString();
+	}
+
+	private static void putTaggedParameters(DocumentQuery query,
+												User user,
+												String tagId,
+												String taggedModuleName,
+												String taggedDocumentName) {
+		query.putParameter("taggedTagId", tagId);
+		query.putParameter("taggedUserId", user.getId());
+		query.putParameter("taggedModuleName", taggedModuleName);
+		query.putParameter("taggedDocumentName", taggedDocumentName);
+	}
+
+	/**
+	 * Insert tagged rows for the given (untagged) bizIds in JDBC batches.
+	 * The built-in values are taken from a new Tagged instance for the current user.
+	 * Cached Tagged data is evicted as hibernate does not know about the inserts.
+	 */
+	private static void insertTagged(AbstractPersistence persistence,
+										PersistentBean tag,
+										String taggedModuleName,
+										String taggedDocumentName,
+										List<String> taggedBizIds)
+	throws Exception {
+		if (taggedBizIds.isEmpty()) {
+			return;
+		}
+
+		User user = persistence.getUser();
+		Customer customer = user.getCustomer();
+		Module adminModule = customer.getModule(Tagged.MODULE_NAME);
+		Document taggedDocument = adminModule.getDocument(customer, Tagged.DOCUMENT_NAME);
+		PersistentBean template = taggedDocument.newInstance(user);
+		BindUtil.set(template, Tagged.tagPropertyName, tag);
+
+		@SuppressWarnings("null") // Tagged is persistent
+		String persistentIdentifier = taggedDocument.getPersistent().getPersistentIdentifier();
+		StringBuilder insert = new StringBuilder(256);
+		insert.append("insert into ").append(persistentIdentifier).append(" (");
+		insert.append(Bean.DOCUMENT_ID).append(',').append(PersistentBean.VERSION_NAME).append(',');
+		insert.append(PersistentBean.LOCK_NAME).append(',').append(Bean.BIZ_KEY).append(',');
+		insert.append(Bean.CUSTOMER_NAME).append(',').append(Bean.DATA_GROUP_ID).append(',').append(Bean.USER_ID).append(',');
+		insert.append(Tagged.taggedModulePropertyName).append(',').append(Tagged.taggedDocumentPropertyName).append(',');
+		insert.append(Tagged.taggedBizIdPropertyName).append(',').append(Tagged.tagPropertyName).append("_id) values (:");
+		insert.append(Bean.DOCUMENT_ID).append(",:").append(PersistentBean.VERSION_NAME).append(",:");
+		insert.append(PersistentBean.LOCK_NAME).append(",:").append(Bean.BIZ_KEY).append(",:");
+		insert.append(Bean.CUSTOMER_NAME).append(",:").append(Bean.DATA_GROUP_ID).append(",:").append(Bean.USER_ID).append(",:");
+		insert.append(Tagged.taggedModulePropertyName).append(",:").append(Tagged.taggedDocumentPropertyName).append(",:");
+		insert.append(Tagged.taggedBizIdPropertyName).append(",:").append(Tagged.tagPropertyName).append(')');
+
+		String bizLock = new OptimisticLock(user.getName(), new Date()).toString();
+		String bizKey = Util.processStringValue(template.getBizKey());
+		String bizDataGroupId = template.getBizDataGroupId();
+
+		AbstractHibernatePersistence hibernatePersistence = (AbstractHibernatePersistence) persistence;
+		try (NamedParameterPreparedStatement ps = new NamedParameterPreparedStatement(hibernatePersistence.getConnection(),
+																						insert.toString())) {
+			int batched = 0;
+			for (String taggedBizId : taggedBizIds) {
+				ps.setString(Bean.DOCUMENT_ID, UUID.randomUUID().toString());
+				ps.setInt(PersistentBean.VERSION_NAME, 0);
+				ps.setString(PersistentBean.LOCK_NAME, bizLock);
+				ps.setString(Bean.BIZ_KEY, bizKey);
+				ps.setString(Bean.CUSTOMER_NAME, template.getBizCustomer());
+				if (bizDataGroupId == null) {
+					ps.setNull(Bean.DATA_GROUP_ID, Types.VARCHAR);
+				}
+				else {
+					ps.setString(Bean.DATA_GROUP_ID, bizDataGroupId);
+				}
+				ps.setString(Bean.USER_ID, template.getBizUserId());
+				ps.setString(Tagged.taggedModulePropertyName, taggedModuleName);
+				ps.setString(Tagged.taggedDocumentPropertyName, taggedDocumentName);
+				ps.setString(Tagged.taggedBizIdPropertyName, taggedBizId);
+				ps.setString(Tagged.tagPropertyName, tag.getBizId());
+				ps.addBatch();
+				if (++batched == BATCH_SIZE) {
+					ps.executeBatch();
+					batched = 0;
+				}
+			}
+			if (batched > 0) {
+				ps.executeBatch();
+			}
+		}
+		hibernatePersistence.evictCachedTables(Tagged.MODULE_NAME, Tagged.DOCUMENT_NAME);
+	}
+
 	@Override
 	public void clear(String tagId) throws Exception {
 		AbstractPersistence persistence = AbstractPersistence.get();
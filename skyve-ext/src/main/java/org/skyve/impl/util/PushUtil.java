@@ -0,0 +1,204 @@
+package org.skyve.impl.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.skyve.util.JSON;
+import org.skyve.util.PushMessage;
+
+/**
+ * Fans push messages out to the open web socket sessions.
+ * <p/>
+ * Sessions are indexed by the user id of the socket (sessions without a user receive all messages),
+ * each message is marshalled once and sent to each session through a bounded queue.
+ * Only 1 message is sent to a session at a time (as required of async remotes) and any messages
+ * queued while a send is in progress are coalesced into a single frame.
+ * When a slow session's queue is full, its oldest messages are dropped.
+ */
+public class PushUtil {
+	// The maximum number of messages queued for a session
+	private static final int MAX_PENDING_MESSAGES = 64;
+
+	// user id -> sessions
+	private static final Map<String, Set<PushSession>> USER_SESSIONS = new ConcurrentHashMap<>();
+	// sessions without a user
+	private static final Set<PushSession> ANONYMOUS_SESSIONS = ConcurrentHashMap.newKeySet();
+	// all sessions
+	private static final Map<Session, PushSession> SESSIONS = new ConcurrentHashMap<>();
+
+	private PushUtil() {
+		// nothing to see here
+	}
+
+	/**
+	 * Register an opened web socket session.
+	 */
+	@SuppressWarnings("deprecation")
+	public static void register(Session session) {
+		Object user = session.getUserProperties().get("user");
+		String userId = (user == null) ? null : user.toString();
+		PushSession pushSession = new PushSession(session, userId);
+		SESSIONS.put(session, pushSession);
+		if (userId == null) {
+			ANONYMOUS_SESSIONS.add(pushSession);
+		}
+		else {
+			USER_SESSIONS.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(pushSession);
+		}
+		PushMessage.SESSIONS.add(session);
+	}
+
+	/**
+	 * Unregister a closed web socket session.
+	 */
+	@SuppressWarnings("deprecation")
+	public static void unregister(Session session) {
+		PushMessage.SESSIONS.remove(session);
+		PushSession pushSession = SESSIONS.remove(session);
+		if (pushSession != null) {
+			String userId = pushSession.userId;
+			if (userId == null) {
+				ANONYMOUS_SESSIONS.remove(pushSession);
+			}
+			else {
+				USER_SESSIONS.computeIfPresent(userId, (k, v) -> {
+					v.remove(pushSession);
+					return v.isEmpty() ? null : v;
+				});
+			}
+		}
+	}
+
+	/**
+	 * Push a message to its users' sessions or to all sessions if it has no users.
+	 */
+	public static void push(PushMessage message) {
+		String payload = JSON.marshall(message.getItems());
+		Set<String> userIds = message.getUserIds();
+		if (userIds.isEmpty()) {
+			send(SESSIONS.values(), payload);
+		}
+		else {
+			for (String userId : userIds) {
+				Set<PushSession> sessions = USER_SESSIONS.get(userId);
+				if (sessions != null) {
+					send(sessions, payload);
+				}
+			}
+			send(ANONYMOUS_SESSIONS, payload);
+		}
+	}
+
+	private static void send(Collection<PushSession> sessions, String payload) {
+		for (PushSession session : sessions) {
+			session.send(payload);
+		}
+	}
+
+	/**
+	 * A session's queue of JSON array payloads.
+	 */
+	private static final class PushSession implements SendHandler {
+		private final Session session;
+		private final String userId;
+		private final ArrayDeque<String> pending = new ArrayDeque<>();
+		private boolean sending = false;
+		// Only warn once per overflow
+		private boolean dropping = false;
+
+		private PushSession(Session session, String userId) {
+			this.session = session;
+			this.userId = userId;
+		}
+
+		private void send(String payload) {
+			if (! session.isOpen()) {
+				return;
+			}
+
+			String frame = null;
+			synchronized (this) {
+				if (pending.size() >= MAX_PENDING_MESSAGES) {
+					pending.poll();
+					if (! dropping) {
+						dropping = true;
+						UtilImpl.LOGGER.warning("PushUtil: Dropping push messages for slow web socket session " + session.getId());
+					}
+				}
+				pending.add(payload);
+				if (sending) {
+					return;
+				}
+				sending = true;
+				frame = drain();
+			}
+			transmit(frame);
+		}
+
+		/**
+		 * Called after each send completes to send anything queued in the meantime.
+		 */
+		@Override
+		public void onResult(SendResult result) {
+			if (! result.isOK()) {
+				UtilImpl.LOGGER.warning("PushUtil: Could not push to web socket session " + session.getId() + " - " + result.getException());
+			}
+
+			String frame = null;
+			synchronized (this) {
+				if (pending.isEmpty() || (! session.isOpen())) {
+					pending.clear();
+					sending = false;
+					return;
+				}
+				frame = drain();
+			}
+			transmit(frame);
+		}
+
+		private void transmit(String frame) {
+			try {
+				session.getAsyncRemote().sendText(frame, this);
+			}
+			catch (Exception e) {
+				UtilImpl.LOGGER.warning("PushUtil: Could not push to web socket session " + session.getId() + " - " + e);
+				synchronized (this) {
+					pending.clear();
+					sending = false;
+				}
+			}
+		}
+
+		/**
+		 * Coalesce the pending payloads into 1 JSON array.
+		 * Called when synchronized.
+		 */
+		private String drain() {
+			dropping = false;
+			if (pending.size() == 1) {
+				return pending.poll();
+			}
+
+			StringBuilder result = new StringBuilder(1024);
+			result.append('[');
+			String payload = null;
+			while ((payload = pending.poll()) != null) {
+				String items = payload.substring(1, payload.length() - 1).trim();
+				if (! items.isEmpty()) {
+					if (result.length() > 1) {
+						result.append(',');
+					}
+					result.append(items);
+				}
+			}
+			return result.append(']').toString();
+		}
+	}
+}
@@ -1,8 +1,24 @@
 package org.skyve.impl.util;
 
+import java.sql.Connection;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 import org.skyve.CORE;
 import org.skyve.domain.Bean;
@@ -12,6 +28,8 @@ import org.skyve.domain.types.OptimisticLock;
 import org.skyve.impl.bind.BindUtil;
 import org.skyve.impl.domain.AbstractPersistentBean;
 import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.impl.persistence.NamedParameterPreparedStatement;
+import org.skyve.impl.persistence.hibernate.AbstractHibernatePersistence;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
@@ -24,6 +42,23 @@ public class WebStatsUtil {
 	private static final String MONTH_FORMAT = "M";
 
 	private static final String WEB_STATS_MODULE_NAME = "admin";
+	private static final String USER_MONTHLY_HITS_DOCUMENT_NAME = "UserMonthlyHits";
+
+	// How often the hits counted in memory are written to the data store
+	private static final long FLUSH_INTERVAL_SECONDS = 30;
+	private static final Long ONE = Long.valueOf(1L);
+	// The maximum number of user names in the in list when selecting the existing rows
+	private static final int USER_NAMES_PER_SELECT = 100;
+	
+	// Hits counted since the last flush
+	private static final ConcurrentHashMap<Hit, Long> HITS = new ConcurrentHashMap<>();
+	// A user for each customer with hits to use for the flush persistence
+	private static final ConcurrentHashMap<String, User> USERS = new ConcurrentHashMap<>();
+	private static final Object FLUSH_LOCK = new Object();
+	private static volatile ScheduledExecutorService flusher;
+	private static volatile boolean shutdown = false;
+	// Whether a flush of the hits recorded after shutdown has been started and not begun draining
+	private static final AtomicBoolean LATE_FLUSH = new AtomicBoolean();
 	
 	private WebStatsUtil() {
 		// do nothing
@@ -43,99 +78,152 @@ public class WebStatsUtil {
 // NO COMMIT
 	}
 	
-	// this is called from the BizHubFilter - create and destroy a special persistence for this as
-	// the actual persistence used for this thread is set in the servlets or the faces bean and 
-	// could be different from the default created here for the thread - think webContext and conversations!!
-	// If it was not closed {commit(true)} then it could create a resource leak
-	public static synchronized void recordHit(User user, String userAgentHeader, UserAgentType userAgentType)
+	/**
+	 * Record a hit for a user.
+	 * This is called from the SkyveFilter for every request so the hit is only counted in memory here.
+	 * The counts are written to ADM_UserMonthlyHits periodically by {@link #flush()} on a background thread.
+	 * Hits recorded by requests still in flight after {@link #shutdown()} are flushed straight away on a new thread.
+	 */
+	public static void recordHit(User user, String userAgentHeader, UserAgentType userAgentType)
+	throws Exception {
+		Date now = new Date();
+		String customerName = user.getCustomerName();
+		Hit hit = new Hit(customerName,
+							user.getName(),
+							user.getId(),
+							Integer.valueOf(CORE.getDateFormat(YEAR_FORMAT).format(now)),
+							Integer.valueOf(CORE.getDateFormat(MONTH_FORMAT).format(now)),
+							deviceCode(userAgentType),
+							userAgentHeader);
+		// Remember the last user for each customer so that the flush can connect as that customer
+		USERS.put(customerName, user);
+		HITS.merge(hit, ONE, Long::sum);
+		
+		if (shutdown) {
+			startLateFlush();
+		}
+		else if (flusher == null) {
+			startFlusher();
+		}
+	}
+
+	/**
+	 * Write the hits counted since the last flush to ADM_UserMonthlyHits in one transaction per customer.
+	 * The existing rows are selected at once and then incremented and the new rows inserted in JDBC batches.
+	 * Each count is removed atomically from the in-memory counts before it is written so that hits recorded 
+	 * during the flush are counted in the next flush. If the transaction fails, the counts are added back.
+	 */
+	public static void flush() {
+		synchronized (FLUSH_LOCK) {
+			if (HITS.isEmpty()) {
+				return;
+			}
+			
+			// Drain the counts grouped by customer
+			Map<String, Map<Hit, Long>> drained = new TreeMap<>();
+			for (Hit hit : HITS.keySet()) {
+				Long count = HITS.remove(hit);
+				if (count != null) {
+					drained.computeIfAbsent(hit.customerName, k -> new HashMap<>()).put(hit, count);
+				}
+			}
+	
+			for (Entry<String, Map<Hit, Long>> entry : drained.entrySet()) {
+				Map<Hit, Long> hits = entry.getValue();
+				try {
+					flush(USERS.get(entry.getKey()), hits);
+				}
+				catch (Exception e) {
+					UtilImpl.LOGGER.log(Level.WARNING, "Could not record web stats hits for customer " + entry.getKey() + " - will retry", e);
+					for (Entry<Hit, Long> hit : hits.entrySet()) {
+						HITS.merge(hit.getKey(), hit.getValue(), Long::sum);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Flush any outstanding hits and stop the background flush.
+	 * Any hits recorded after this are flushed as they are recorded.
+	 */
+	public static void shutdown() {
+		synchronized (FLUSH_LOCK) {
+			shutdown = true;
+			if (flusher != null) {
+				flusher.shutdownNow();
+				flusher = null;
+			}
+		}
+		flush();
+	}
+	
+	// Flush the hits for a customer with a special persistence for this thread
+	private static void flush(User user, Map<Hit, Long> hits)
 	throws Exception {
-		AbstractPersistence persistence = AbstractPersistence.get();
-		persistence.setUser(user); // user has not been set as the servlet for this filter have not fired yet
+		AbstractHibernatePersistence persistence = (AbstractHibernatePersistence) AbstractPersistence.get();
+		persistence.setUser(user);
 		persistence.begin();
 
 		try {
 			Customer customer = user.getCustomer();
 			Module admin = customer.getModule(WEB_STATS_MODULE_NAME);
 			@SuppressWarnings("null")
-			String ADM_UserMonthlyHits = admin.getDocument(customer, "UserMonthlyHits").getPersistent().getPersistentIdentifier();
-
-			Date now = new Date();
-			Integer month = Integer.valueOf(CORE.getDateFormat(MONTH_FORMAT).format(now));
-			Integer year = Integer.valueOf(CORE.getDateFormat(YEAR_FORMAT).format(now));
-			
-			String truncatedUserAgentHeader = userAgentHeader;
-			if ((truncatedUserAgentHeader != null) && (truncatedUserAgentHeader.length() > 400)) {
-				truncatedUserAgentHeader = truncatedUserAgentHeader.substring(0, 400);
-			}
-			String deviceCode = null;
-			if (userAgentType == UserAgentType.desktop) {
-				deviceCode = "D";
-			}
-			else if (userAgentType == UserAgentType.phone) {
-				deviceCode = "P";
-			}
-			else if (userAgentType == UserAgentType.tablet) {
-				deviceCode = "T";
-			}
-			else {
-				deviceCode = "O";
-			}
+			String ADM_UserMonthlyHits = admin.getDocument(customer, USER_MONTHLY_HITS_DOCUMENT_NAME).getPersistent().getPersistentIdentifier();
+			Map<Hit, String> bizIds = existingBizIds(persistence, ADM_UserMonthlyHits, hits.keySet());
 			
-			StringBuilder query = new StringBuilder(128);
-			query.append("select bizId from ").append(ADM_UserMonthlyHits);
-			query.append(" where month = :month ");
-			query.append("and year = :year ");
-			query.append("and userName = :userName ");
-			query.append("and device = :device ");
-			if (userAgentHeader == null) {
-				query.append("and userAgentHeader is null ");
-			}
-			else {
-				query.append("and userAgentHeader = :userAgentHeader ");
-			}
-			if (UtilImpl.CUSTOMER == null) { // multi-tenant
-				query.append("and bizCustomer = :customer");
-			}
-			SQL sql = persistence.newSQL(query.toString());
-			sql.putParameter("month", month);
-			sql.putParameter("year", year);
-			sql.putParameter("userName", user.getName(), false);
-			sql.putParameter("device", deviceCode, false);
-			if (userAgentHeader != null) {
-				sql.putParameter("userAgentHeader", truncatedUserAgentHeader, false);
-			}
-			if (UtilImpl.CUSTOMER == null) { // multi-tenant
-				sql.putParameter("customer", user.getCustomer().getName(), false);
-			}
-			List<String> results = sql.scalarResults(String.class);
-			if (results.isEmpty()) {
-				query.setLength(0);
-				query.append("insert into ").append(ADM_UserMonthlyHits);
-				query.append(" (bizId, bizVersion, bizCustomer, bizLock, bizUserId, userName, year, month, userAgentHeader, device, numberOfHits, bizKey) values ");
-				query.append("(:bizId, 0, :bizCustomer, :bizLock, :bizUserId, :userName, :year, :month, :userAgentHeader, :device, 1, :bizKey)");
-				sql = persistence.newSQL(query.toString());
-				sql.putParameter(Bean.DOCUMENT_ID, UUID.randomUUID().toString(), false);
-				sql.putParameter(Bean.CUSTOMER_NAME, user.getCustomer().getName(), false);
-				sql.putParameter(PersistentBean.LOCK_NAME, new OptimisticLock(user.getName(), now).toString(), false);
-				sql.putParameter(Bean.USER_ID, user.getId(), false);
-				sql.putParameter("userName", user.getName(), false);
-				sql.putParameter("year", year);
-				sql.putParameter("month", month);
-				sql.putParameter("userAgentHeader", truncatedUserAgentHeader, false);
-				sql.putParameter("device", deviceCode, false);
-				sql.putParameter("bizKey", "bizKey", false);
-				
-				sql.execute();
-			}
-			else {
-				query.setLength(0);
-				query.append("update ").append(ADM_UserMonthlyHits);
-				query.append(" set numberOfHits = numberOfHits + 1 ");
-				query.append("where bizId = :bizId");
-				sql = persistence.newSQL(query.toString());
-				sql.putParameter(Bean.DOCUMENT_ID, results.get(0), false);
-				sql.execute();
+			// Batch the increments of the existing rows and the inserts of the new rows
+			Connection connection = persistence.getConnection();
+			try (NamedParameterPreparedStatement updates = new NamedParameterPreparedStatement(connection,
+																									"update " + ADM_UserMonthlyHits + 
+																									" set numberOfHits = numberOfHits + :numberOfHits where bizId = :bizId");
+					NamedParameterPreparedStatement inserts = new NamedParameterPreparedStatement(connection,
+																									"insert into " + ADM_UserMonthlyHits + 
+																									" (bizId, bizVersion, bizCustomer, bizLock, bizUserId, userName, year, month, userAgentHeader, device, numberOfHits, bizKey) values " +
+																									"(:bizId, 0, :bizCustomer, :bizLock, :bizUserId, :userName, :year, :month, :userAgentHeader, :device, :numberOfHits, :bizKey)")) {
+				String lock = new OptimisticLock(user.getName(), new Date()).toString();
+				boolean updated = false;
+				boolean inserted = false;
+				for (Entry<Hit, Long> entry : hits.entrySet()) {
+					Hit hit = entry.getKey();
+					int numberOfHits = entry.getValue().intValue();
+					String bizId = bizIds.get(hit);
+					if (bizId == null) {
+						inserts.setString(Bean.DOCUMENT_ID, UUID.randomUUID().toString());
+						inserts.setString(Bean.CUSTOMER_NAME, hit.customerName);
+						inserts.setString(PersistentBean.LOCK_NAME, lock);
+						inserts.setString(Bean.USER_ID, hit.userId);
+						inserts.setString("userName", hit.userName);
+						inserts.setInt("year", hit.year.intValue());
+						inserts.setInt("month", hit.month.intValue());
+						if (hit.userAgentHeader == null) {
+							inserts.setNull("userAgentHeader", Types.VARCHAR);
+						}
+						else {
+							inserts.setString("userAgentHeader", hit.userAgentHeader);
+						}
+						inserts.setString("device", hit.deviceCode);
+						inserts.setInt("numberOfHits", numberOfHits);
+						inserts.setString("bizKey", "bizKey");
+						inserts.addBatch();
+						inserted = true;
+					}
+					else {
+						updates.setInt("numberOfHits", numberOfHits);
+						updates.setString(Bean.DOCUMENT_ID, bizId);
+						updates.addBatch();
+						updated = true;
+					}
+				}
+				if (updated) {
+					updates.executeBatch();
+				}
+				if (inserted) {
+					inserts.executeBatch();
+				}
 			}
+			// The rows were changed through JDBC
+			persistence.evictCachedTables(WEB_STATS_MODULE_NAME, USER_MONTHLY_HITS_DOCUMENT_NAME);
 		}
 		catch (Exception e) {
 			persistence.rollback();
@@ -145,4 +233,148 @@ public class WebStatsUtil {
 			persistence.commit(true);
 		}
 	}
+	
+	/**
+	 * Select the bizIds of the ADM_UserMonthlyHits rows that already exist for the given hits of a customer.
+	 * The rows are selected for each month by the user names of the hits in chunks.
+	 */
+	private static Map<Hit, String> existingBizIds(AbstractPersistence persistence, String ADM_UserMonthlyHits, Set<Hit> hits) {
+		Map<Hit, String> result = new HashMap<>();
+
+		// Group the user names by month
+		Map<Hit, Set<String>> userNamesByMonth = new HashMap<>();
+		for (Hit hit : hits) {
+			Hit month = new Hit(hit.customerName, null, null, hit.year, hit.month, null, null);
+			userNamesByMonth.computeIfAbsent(month, k -> new TreeSet<>()).add(hit.userName);
+		}
+
+		StringBuilder query = new StringBuilder(256);
+		for (Entry<Hit, Set<String>> entry : userNamesByMonth.entrySet()) {
+			Hit month = entry.getKey();
+			List<String> userNames = new ArrayList<>(entry.getValue());
+			for (int i = 0, l = userNames.size(); i < l; i += USER_NAMES_PER_SELECT) {
+				List<String> chunk = userNames.subList(i, Math.min(i + USER_NAMES_PER_SELECT, l));
+
+				query.setLength(0);
+				query.append("select bizId, userName, device, userAgentHeader from ").append(ADM_UserMonthlyHits);
+				query.append(" where year = :year and month = :month and userName in (");
+				for (int j = 0, m = chunk.size(); j < m; j++) {
+					if (j > 0) {
+						query.append(", ");
+					}
+					query.append(":userName").append(j);
+				}
+				query.append(')');
+				if (UtilImpl.CUSTOMER == null) { // multi-tenant
+					query.append(" and bizCustomer = :customer");
+				}
+				SQL sql = persistence.newSQL(query.toString());
+				sql.putParameter("year", month.year);
+				sql.putParameter("month", month.month);
+				for (int j = 0, m = chunk.size(); j < m; j++) {
+					sql.putParameter("userName" + j, chunk.get(j), false);
+				}
+				if (UtilImpl.CUSTOMER == null) { // multi-tenant
+					sql.putParameter("customer", month.customerName, false);
+				}
+				for (Object[] row : sql.tupleResults()) {
+					Hit hit = new Hit(month.customerName, (String) row[1], null, month.year, month.month, (String) row[2], (String) row[3]);
+					result.putIfAbsent(hit, (String) row[0]);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	private static synchronized void startFlusher() {
+		if ((flusher == null) && (! shutdown)) {
+			ScheduledExecutorService result = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "WebStatsUtil flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			result.scheduleWithFixedDelay(WebStatsUtil::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+			flusher = result;
+		}
+	}
+	
+	// Flush on a new thread as the request thread's persistence is in use
+	private static void startLateFlush() {
+		if (LATE_FLUSH.compareAndSet(false, true)) {
+			Thread thread = new Thread(() -> {
+				// Hits recorded from here on start another flush
+				LATE_FLUSH.set(false);
+				flush();
+			}, "WebStatsUtil flush");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	private static String deviceCode(UserAgentType userAgentType) {
+		if (userAgentType == UserAgentType.desktop) {
+			return "D";
+		}
+		if (userAgentType == UserAgentType.phone) {
+			return "P";
+		}
+		if (userAgentType == UserAgentType.tablet) {
+			return "T";
+		}
+		return "O";
+	}
+	
+	/**
+	 * The natural key of an ADM_UserMonthlyHits row.
+	 */
+	private static final class Hit {
+		private String customerName;
+		private String userName;
+		private String userId;
+		private Integer year;
+		private Integer month;
+		private String deviceCode;
+		private String userAgentHeader;
+		
+		private Hit(String customerName,
+						String userName,
+						String userId,
+						Integer year,
+						Integer month,
+						String deviceCode,
+						String userAgentHeader) {
+			this.customerName = customerName;
+			this.userName = userName;
+			this.userId = userId;
+			this.year = year;
+			this.month = month;
+			this.deviceCode = deviceCode;
+			this.userAgentHeader = ((userAgentHeader != null) && (userAgentHeader.length() > 400)) ?
+										userAgentHeader.substring(0, 400) :
+										userAgentHeader;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(customerName, userName, year, month, deviceCode, userAgentHeader);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (! (obj instanceof Hit)) {
+				return false;
+			}
+			Hit other = (Hit) obj;
+			return Objects.equals(customerName, other.customerName) &&
+					Objects.equals(userName, other.userName) &&
+					Objects.equals(year, other.year) &&
+					Objects.equals(month, other.month) &&
+					Objects.equals(deviceCode, other.deviceCode) &&
+					Objects.equals(userAgentHeader, other.userAgentHeader);
+		}
+	}
 }
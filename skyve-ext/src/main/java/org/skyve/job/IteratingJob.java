@@ -1,15 +1,35 @@
 package org.skyve.job;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
+import org.skyve.impl.job.JobCheckpoint;
+import org.skyve.impl.job.PartitionCheckpoint;
+import org.skyve.impl.persistence.AbstractPersistence;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.AutoClosingIterableAdpater;
 import org.skyve.persistence.Persistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A job that performs an operation over a collection of elements.
+ * <p>
+ * By default the elements are processed on the job thread in the job's transaction (see {@link #getCommitFrequency()}).
+ * Override {@link #getWorkerThreads()} to process the elements in partitions across a pool of worker threads instead.
+ * Each partition is processed in its own persistence and transaction and completed partitions are checkpointed
+ * to the job's admin.Job record so that a job that fails, is cancelled or is stopped resumes where it left off when it is run again.
  */
 public abstract class IteratingJob<T> extends CancellableJob {
 	private static final Logger LOGGER = LoggerFactory.getLogger(IteratingJob.class);
@@ -26,6 +46,11 @@ public abstract class IteratingJob<T> extends CancellableJob {
 	@Override
 	@SuppressWarnings("boxing")
 	public void execute() throws Exception {
+		if (getWorkerThreads() > 0) {
+			executePartitioned();
+			return;
+		}
+
 		getLog().add(String.format("Commencing job %s.", getDisplayName()));
 
 		final Collection<T> elementsToProcess = getElements();
@@ -95,6 +120,62 @@ public abstract class IteratingJob<T> extends CancellableJob {
 	 */
 	protected abstract Collection<T> getElements();
 
+	/**
+	 * Override to stream the elements to a partitioned job instead of materialising them with {@link #getElements()}.
+	 * The elements must be iterated in the same order each time for a job to resume correctly.
+	 *
+	 * @return The elements to iterate over, or null to use {@link #getElements()}.
+	 */
+	@SuppressWarnings("static-method")
+	protected AutoClosingIterable<T> getElementIterable() {
+		return null;
+	}
+
+	/**
+	 * @return The number of elements in {@link #getElementIterable()} for reporting percent complete, or -1 if unknown.
+	 */
+	@SuppressWarnings("static-method")
+	protected int getElementCount() {
+		return -1;
+	}
+
+	/**
+	 * Return the number of worker threads to process the elements with, in partitions of {@link #getPartitionSize()}.
+	 * <p>
+	 * Return 0 to process the elements on the job thread.
+	 * Return n (where n > 0) to process partitions of elements on n worker threads.
+	 * Each partition is processed in its own persistence and transaction and {@link #getCommitFrequency()} is not used.
+	 * The operation must be thread-safe and should use {@link org.skyve.CORE#getPersistence()} or the injected persistence.
+	 *
+	 * @return The number of worker threads.
+	 */
+	@SuppressWarnings("static-method")
+	protected int getWorkerThreads() {
+		return 0;
+	}
+
+	/**
+	 * @return The number of elements processed in each partition (and transaction) when {@link #getWorkerThreads()} > 0.
+	 */
+	@SuppressWarnings("static-method")
+	protected int getPartitionSize() {
+		return 500;
+	}
+
+	/**
+	 * Partitions processed without any failures are checkpointed and skipped when the job is run again after it failed or was cancelled.
+	 * Partitions with failures, and partitions committed but not yet checkpointed when the job stopped, are processed again
+	 * so the operation should be idempotent.
+	 * Executions that are still running are not resumed.
+	 * Override to return false to always process all partitions.
+	 *
+	 * @return Whether a partitioned job resumes from the checkpoint of its last unsuccessful execution.
+	 */
+	@SuppressWarnings("static-method")
+	protected boolean isResumable() {
+		return true;
+	}
+
 	/**
 	 * @param element The element to perform the operation on.
 	 */
@@ -148,6 +229,277 @@ public abstract class IteratingJob<T> extends CancellableJob {
 		this.persistence = persistence;
 	}
 
+	// Lock for the element counters, checkpoint and throughput when partitioned
+	private final transient Object partitionLock = new Object();
+	// The first exception encountered processing a partition when not continuing on failure
+	private volatile Exception partitionFailure;
+	// The number of elements skipped as their partition was checkpointed
+	private volatile int numResumedElements;
+
+	@SuppressWarnings("boxing")
+	private void executePartitioned() throws Exception {
+		final int workerThreads = getWorkerThreads();
+		final int partitionSize = Math.max(1, getPartitionSize());
+		getLog().add(String.format("Commencing job %s with %d worker thread(s) and partitions of %d element(s).", getDisplayName(), workerThreads, partitionSize));
+
+		final User user = persistence.getUser();
+		final PartitionCheckpoint checkpoint = startCheckpoint(partitionSize);
+
+		AutoClosingIterable<T> elementsToProcess = getElementIterable();
+		final int numElements;
+		if (elementsToProcess == null) {
+			Collection<T> elements = getElements();
+			numElements = elements.size();
+			elementsToProcess = new AutoClosingIterableAdpater<>(elements);
+		}
+		else {
+			numElements = getElementCount();
+		}
+		if (numElements >= 0) {
+			getLog().add(String.format("Found %d element(s) to process.", numElements));
+		}
+
+		numProcessedElements = 0;
+		numSuccessfulElements = 0;
+		numFailedElements = 0;
+		numFlushedElements = 0;
+		numRolledBackElements = 0;
+		partitionFailure = null;
+		numResumedElements = 0;
+		// thread name -> {elements processed, nanoseconds elapsed}
+		final Map<String, long[]> throughput = new TreeMap<>();
+		final AtomicInteger threadNumber = new AtomicInteger();
+		final String displayName = getDisplayName();
+		ExecutorService executor = Executors.newFixedThreadPool(workerThreads, r -> {
+			Thread result = new Thread(r, String.format("%s worker %d", displayName, threadNumber.incrementAndGet()));
+			result.setDaemon(true);
+			return result;
+		});
+		// Bound the partitions in memory to the number of workers plus a partition each queued
+		final Semaphore permits = new Semaphore(workerThreads * 2);
+		int numSkippedElements = 0;
+		try (AutoClosingIterable<T> i = elementsToProcess) {
+			int partition = 0;
+			List<T> elements = new ArrayList<>(partitionSize);
+			for (T element : i) {
+				if (isCancelled() || (partitionFailure != null)) {
+					break;
+				}
+				if (checkpoint.isCompleted(partition)) {
+					numSkippedElements++;
+					numResumedElements++;
+				}
+				else {
+					elements.add(element);
+				}
+				if ((numSkippedElements + elements.size()) == partitionSize) {
+					submitPartition(executor, permits, user, checkpoint, partition, elements, numElements, throughput);
+					elements = new ArrayList<>(partitionSize);
+					numSkippedElements = 0;
+					partition++;
+				}
+			}
+			if ((! elements.isEmpty()) && (! isCancelled()) && (partitionFailure == null)) {
+				submitPartition(executor, permits, user, checkpoint, partition, elements, numElements, throughput);
+			}
+		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+
+		synchronized (partitionLock) {
+			for (Map.Entry<String, long[]> entry : throughput.entrySet()) {
+				long[] values = entry.getValue();
+				getLog().add(String.format("%s processed %d element(s) in %d ms (%.1f elements/s).",
+												entry.getKey(),
+												values[0],
+												TimeUnit.NANOSECONDS.toMillis(values[1]),
+												(values[1] == 0) ? 0.0 : values[0] * 1e9 / values[1]));
+			}
+		}
+
+		if (numResumedElements > 0) {
+			getLog().add(String.format("Skipped %d element(s) in partitions completed by the last unsuccessful execution.", numResumedElements));
+		}
+		if (isCancelled()) {
+			getLog().add(String.format("Job was cancelled after processing %d elements.", numProcessedElements));
+			return;
+		}
+		if (partitionFailure != null) {
+			throw partitionFailure;
+		}
+
+		setPercentComplete(100);
+
+		getLog().add(String.format("Completing job %s. Successful: %d, Failed %d, Total: %d.", getDisplayName(),
+				numSuccessfulElements, numFailedElements, numProcessedElements));
+
+		// Throw an exception at the end if there were any failures so that the job gets marked as failed.
+		if (numFailedElements > 0) {
+			throw new RuntimeException(String.format("Failed to process %d elements.", numFailedElements));
+		}
+	}
+
+	/**
+	 * Find the checkpoint of the last unsuccessful execution of this job to resume from
+	 * and save the admin.Job record that will hold this execution's checkpoint.
+	 */
+	@SuppressWarnings("boxing")
+	private PartitionCheckpoint startCheckpoint(int partitionSize) throws Exception {
+		jobCheckpoint = new JobCheckpoint(this);
+		PartitionCheckpoint result = null;
+		if (isResumable()) {
+			String resumed = jobCheckpoint.resume(persistence);
+			if (resumed != null) {
+				result = PartitionCheckpoint.parse(resumed, partitionSize);
+				if (result == null) {
+					getLog().add("The checkpoint of the last unsuccessful execution could not be used as the partition size has changed.");
+				}
+				else {
+					getLog().add(String.format("Resuming the execution started at %s with %d partition(s) already completed.",
+													jobCheckpoint.getResumedStartTime(),
+													result.getNumCompleted()));
+				}
+			}
+		}
+
+		if (result == null) {
+			result = new PartitionCheckpoint(partitionSize);
+		}
+		jobCheckpoint.start(persistence, result.toString());
+
+		return result;
+	}
+
+	// The admin.Job record holding this execution's checkpoint
+	private transient JobCheckpoint jobCheckpoint;
+
+	private void submitPartition(ExecutorService executor,
+									Semaphore permits,
+									User user,
+									PartitionCheckpoint checkpoint,
+									int partition,
+									List<T> elements,
+									int numElements,
+									Map<String, long[]> throughput)
+	throws InterruptedException {
+		if (elements.isEmpty()) { // all elements were checkpointed
+			return;
+		}
+		permits.acquire();
+		try {
+			executor.execute(() -> {
+				try {
+					processPartition(user, checkpoint, partition, elements, numElements, throughput);
+				}
+				finally {
+					permits.release();
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Process the elements of a partition in a new persistence and transaction on a worker thread
+	 * and checkpoint the partition once committed if there were no failures.
+	 */
+	@SuppressWarnings("boxing")
+	private void processPartition(User user,
+									PartitionCheckpoint checkpoint,
+									int partition,
+									List<T> elements,
+									int numElements,
+									Map<String, long[]> throughput) {
+		long start = System.nanoTime();
+		int numProcessed = 0;
+		int numFailed = 0;
+		AbstractPersistence p = AbstractPersistence.get();
+		try {
+			p.setUser(user);
+			p.setAsyncThread(true);
+			p.begin();
+			for (T element : elements) {
+				if (isCancelled() || (partitionFailure != null)) {
+					// NB this partition is not checkpointed
+					p.rollback();
+					return;
+				}
+				try {
+					operation(element);
+					synchronized (partitionLock) {
+						incrementNumSuccessfulElements();
+					}
+				}
+				catch (Exception e) {
+					numFailed++;
+					synchronized (partitionLock) {
+						incrementNumFailedElements();
+						getLog().add(String.format("Exception processing element %d of partition %d: %s", numProcessed, partition, e.getMessage()));
+					}
+					LOGGER.error("Exception processing element {} of partition {}.", numProcessed, partition, e);
+					if (! continueOnFailure()) {
+						synchronized (partitionLock) {
+							if (partitionFailure == null) {
+								partitionFailure = e;
+							}
+							numRolledBackElements += numProcessed + 1;
+						}
+						p.rollback();
+						return;
+					}
+				}
+				finally {
+					numProcessed++;
+					synchronized (partitionLock) {
+						incrementNumProcessedElements();
+					}
+				}
+			}
+
+			// Commit the partition's work then checkpoint it.
+			// The checkpoint is updated and committed in order so that the last checkpoint committed holds all of the completed partitions.
+			// NB a partition is processed again on resume if the job stops before it is checkpointed.
+			p.commit(false);
+			if (numFailed == 0) {
+				synchronized (partitionLock) {
+					checkpoint.complete(partition);
+					p.begin();
+					jobCheckpoint.record(p, checkpoint.toString());
+					p.commit(false);
+				}
+			}
+
+			synchronized (partitionLock) {
+				numFlushedElements += numProcessed;
+
+				long[] values = throughput.computeIfAbsent(Thread.currentThread().getName(), k -> new long[2]);
+				values[0] += numProcessed;
+				values[1] += System.nanoTime() - start;
+				if (numElements > 0) {
+					setPercentComplete((int) (100.0 * (numProcessedElements + numResumedElements) / numElements));
+				}
+			}
+		}
+		catch (Exception e) {
+			LOGGER.error("Exception processing partition {}.", partition, e);
+			synchronized (partitionLock) {
+				if (partitionFailure == null) {
+					partitionFailure = e;
+				}
+				getLog().add(String.format("Exception processing partition %d: %s", partition, e.getMessage()));
+			}
+			p.rollback();
+		}
+		finally {
+			p.commit(true);
+		}
+	}
+
 	public int getNumProcessedElements() {
 		return numProcessedElements;
 	}
@@ -1,10 +1,12 @@
 package org.skyve.tag;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.skyve.domain.Bean;
 import org.skyve.metadata.model.document.Bizlet.DomainValue;
 import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.DocumentQuery;
 
 public interface TagManager {
 	/**
@@ -127,6 +129,88 @@ public interface TagManager {
 	 */
 	void untag(String tagId, Iterable<Bean> beans) throws Exception;
 
+	/**
+	 * Tag all beans selected by a query in bulk.
+	 * The query's projections, orderings and groupings are replaced by the bizId.
+	 * Beans are selected through the query so security filtering applies
+	 * and beans already tagged are skipped.
+	 * 
+	 * @param tagId
+	 *            The tag to use.
+	 * @param query
+	 *            The (non-aggregate) query selecting the beans to tag.
+	 * @throws Exception
+	 */
+	default void tag(String tagId, DocumentQuery query) throws Exception {
+		try (AutoClosingIterable<Bean> beans = query.beanIterable()) {
+			tag(tagId, beans);
+		}
+	}
+
+	/**
+	 * Tag beans of a document in bulk.
+	 * Beans the user cannot read and beans already tagged are skipped.
+	 * 
+	 * @param tagId
+	 *            The tag to use.
+	 * @param taggedModuleName
+	 *            The module name of the beans to be tagged.
+	 * @param taggedDocumentName
+	 *            The document name of the beans to be tagged.
+	 * @param taggedBizIds
+	 *            The bizIds of the beans to be tagged.
+	 * @throws Exception
+	 */
+	default void tag(String tagId,
+						String taggedModuleName,
+						String taggedDocumentName,
+						Collection<String> taggedBizIds)
+	throws Exception {
+		for (String taggedBizId : taggedBizIds) {
+			tag(tagId, taggedModuleName, taggedDocumentName, taggedBizId);
+		}
+	}
+
+	/**
+	 * Untag (remove) all beans selected by a query in bulk.
+	 * The query's projections, orderings and groupings are replaced by the bizId.
+	 * Beans are selected through the query so security filtering applies.
+	 * 
+	 * @param tagId
+	 *            The tag to remove from.
+	 * @param query
+	 *            The (non-aggregate) query selecting the beans to untag.
+	 * @throws Exception
+	 */
+	default void untag(String tagId, DocumentQuery query) throws Exception {
+		try (AutoClosingIterable<Bean> beans = query.beanIterable()) {
+			untag(tagId, beans);
+		}
+	}
+
+	/**
+	 * Untag (remove) beans of a document in bulk.
+	 * 
+	 * @param tagId
+	 *            The tag to remove from.
+	 * @param taggedModuleName
+	 *            The module name of the beans to be untagged.
+	 * @param taggedDocumentName
+	 *            The document name of the beans to be untagged.
+	 * @param taggedBizIds
+	 *            The bizIds of the beans to be untagged.
+	 * @throws Exception
+	 */
+	default void untag(String tagId,
+						String taggedModuleName,
+						String taggedDocumentName,
+						Collection<String> taggedBizIds)
+	throws Exception {
+		for (String taggedBizId : taggedBizIds) {
+			untag(tagId, taggedModuleName, taggedDocumentName, taggedBizId);
+		}
+	}
+
 	/**
 	 * Clear any beans related to the given tag.
 	 * 
@@ -21,6 +21,11 @@ public class PushMessage {
 	private static final String ITEM_METHOD = "method";
 	private static final String ITEM_ARGUMENT = "argument";
 	
+	/**
+	 * The open web socket sessions.
+	 * @deprecated	Sessions are registered and pushed to by {@link org.skyve.impl.util.PushUtil}, this is kept up to date for compatibility.
+	 */
+	@Deprecated
 	public static final ConcurrentLinkedQueue<Session> SESSIONS = new ConcurrentLinkedQueue<>();
 
 	private Set<String> userIds = new TreeSet<>();
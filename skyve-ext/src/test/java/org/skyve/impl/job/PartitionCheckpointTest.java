@@ -0,0 +1,51 @@
+package org.skyve.impl.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class PartitionCheckpointTest {
+
+	@Test
+	@SuppressWarnings({ "static-method", "boxing" })
+	public void testToStringCollapsesRanges() {
+		PartitionCheckpoint checkpoint = new PartitionCheckpoint(500);
+		assertThat(checkpoint.toString(), is("500:"));
+
+		checkpoint.complete(0);
+		checkpoint.complete(1);
+		checkpoint.complete(2);
+		checkpoint.complete(4);
+		checkpoint.complete(6);
+		checkpoint.complete(7);
+
+		assertThat(checkpoint.toString(), is("500:0-2,4,6-7"));
+		assertThat(checkpoint.getNumCompleted(), is(6));
+	}
+
+	@Test
+	@SuppressWarnings({ "static-method", "boxing" })
+	public void testParseRoundTrip() {
+		PartitionCheckpoint checkpoint = PartitionCheckpoint.parse("100:0-2,4,6-7", 100);
+
+		assertThat(checkpoint.isCompleted(0), is(true));
+		assertThat(checkpoint.isCompleted(2), is(true));
+		assertThat(checkpoint.isCompleted(3), is(false));
+		assertThat(checkpoint.isCompleted(4), is(true));
+		assertThat(checkpoint.isCompleted(7), is(true));
+		assertThat(checkpoint.isCompleted(8), is(false));
+		assertThat(checkpoint.toString(), is("100:0-2,4,6-7"));
+		assertThat(PartitionCheckpoint.parse("100:", 100).getNumCompleted(), is(0));
+	}
+
+	@Test
+	@SuppressWarnings("static-method")
+	public void testParseRejectsOtherPartitionSizeAndGarbage() {
+		assertThat(PartitionCheckpoint.parse("100:0-2", 50), is(nullValue()));
+		assertThat(PartitionCheckpoint.parse("0-2", 100), is(nullValue()));
+		assertThat(PartitionCheckpoint.parse("100:a-b", 100), is(nullValue()));
+		assertThat(PartitionCheckpoint.parse(null, 100), is(nullValue()));
+	}
+}
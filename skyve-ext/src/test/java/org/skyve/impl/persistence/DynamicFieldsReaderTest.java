@@ -0,0 +1,111 @@
+package org.skyve.impl.persistence;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.domain.types.DateTime;
+import org.skyve.domain.types.Decimal10;
+import org.skyve.domain.types.Decimal2;
+import org.skyve.domain.types.Decimal5;
+import org.skyve.domain.types.TimeOnly;
+import org.skyve.domain.types.Timestamp;
+import org.skyve.impl.persistence.DynamicFieldsReader.CoercionException;
+import org.skyve.util.JSON;
+
+public class DynamicFieldsReaderTest {
+	@Test
+	@SuppressWarnings("static-method")
+	public void testReadsWhatIsMarshalled() throws Exception {
+		Map<String, Object> values = new TreeMap<>();
+		values.put("text", "Line 1\n\"Quoted\" \\ / é");
+		values.put("normalInteger", Integer.valueOf(-12));
+		values.put("longInteger", Long.valueOf(1234567890123L));
+		values.put("decimal2", new Decimal2("12.34"));
+		values.put("decimal5", new Decimal5("-1.23456"));
+		values.put("decimal10", new Decimal10("0.0000000001"));
+		values.put("bigDecimal", new BigDecimal("1E+3"));
+		values.put("booleanFlag", Boolean.TRUE);
+		values.put("date", new DateOnly());
+		values.put("dateTime", new DateTime());
+		values.put("time", new TimeOnly());
+		values.put("timestamp", new Timestamp());
+		values.put("geometry", new WKTReader().read("POINT (1 2)"));
+		values.put("empty", null);
+
+		Map<String, Class<?>> types = new TreeMap<>();
+		for (Map.Entry<String, Object> entry : values.entrySet()) {
+			Object value = entry.getValue();
+			types.put(entry.getKey(), (value instanceof Geometry) ? Geometry.class : (value == null) ? String.class : value.getClass());
+		}
+
+		Map<String, CoercionException> problems = new TreeMap<>();
+		Map<String, Object> result = DynamicFieldsReader.read(JSON.marshall(values), types, problems);
+		assertThat(problems.isEmpty(), is(true));
+		assertThat(result.size(), is(values.size()));
+		for (Map.Entry<String, Object> entry : values.entrySet()) {
+			String name = entry.getKey();
+			Object expected = entry.getValue();
+			if ((expected instanceof java.util.Date) || (expected instanceof BigDecimal)) {
+				assertThat(name, result.get(name).toString(), is(expected.toString()));
+			}
+			else {
+				assertThat(name, result.get(name), is(expected));
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("static-method")
+	public void testUndeclaredPropertiesAreSkipped() throws Exception {
+		String json = "{ \"gone\" : {\"a\": [1, \"}]\\\"\", {}], \"b\": null}, \"text\":\"kept\", \"old\": \"x\\\"y\", \"flag\" : false , \"number\": -1.5e2 }";
+		Map<String, Class<?>> types = new TreeMap<>();
+		types.put("text", String.class);
+		types.put("flag", Boolean.class);
+		types.put("missing", Integer.class);
+
+		Map<String, CoercionException> problems = new TreeMap<>();
+		Map<String, Object> result = DynamicFieldsReader.read(json, types, problems);
+		assertThat(problems.isEmpty(), is(true));
+		assertThat(result.size(), is(2));
+		assertThat(result.get("text"), is("kept"));
+		assertThat(result.get("flag"), is(Boolean.FALSE));
+		assertThat(result.containsKey("missing"), is(false));
+
+		assertThat(DynamicFieldsReader.read("{}", types, problems).isEmpty(), is(true));
+		assertThat(DynamicFieldsReader.read(null, types, problems).isEmpty(), is(true));
+	}
+
+	@Test
+	@SuppressWarnings("static-method")
+	public void testUncoercibleValuesAreKeptRaw() throws Exception {
+		Map<String, Class<?>> types = new TreeMap<>();
+		types.put("date", DateOnly.class);
+		types.put("integer", Integer.class);
+		types.put("nothing", Decimal2.class);
+
+		Map<String, CoercionException> problems = new TreeMap<>();
+		Map<String, Object> result = DynamicFieldsReader.read("{\"date\":\"not a date\",\"integer\":1.5,\"nothing\":null}", types, problems);
+		assertThat(problems.keySet().toString(), is("[date, integer]"));
+		assertThat(result.get("date"), is("not a date"));
+		assertThat(result.get("integer"), instanceOf(BigDecimal.class));
+		assertThat(result.get("nothing"), nullValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	@SuppressWarnings("static-method")
+	public void testMalformed() throws Exception {
+		Map<String, Class<?>> types = new TreeMap<>();
+		types.put("text", String.class);
+		DynamicFieldsReader.read("{\"text\":\"unterminated}", types, new TreeMap<>());
+	}
+}
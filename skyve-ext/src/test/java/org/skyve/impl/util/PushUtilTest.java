@@ -0,0 +1,232 @@
+package org.skyve.impl.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import javax.websocket.RemoteEndpoint.Async;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.skyve.util.PushMessage;
+
+public class PushUtilTest {
+	/**
+	 * A web socket session with an async remote that records the frames sent and completes them on demand.
+	 */
+	private static final class FakeSession {
+		private final Session session = mock(Session.class);
+		private final List<String> frames = new ArrayList<>();
+		private SendHandler inFlight;
+		private boolean broken = false;
+
+		private FakeSession(String id, String userId) {
+			Map<String, Object> properties = new HashMap<>();
+			if (userId != null) {
+				properties.put("user", userId);
+			}
+			when(session.getId()).thenReturn(id);
+			when(session.isOpen()).thenReturn(Boolean.TRUE);
+			when(session.getUserProperties()).thenReturn(properties);
+			Async remote = mock(Async.class);
+			doAnswer(invocation -> {
+				if (broken) {
+					throw new IllegalStateException("The remote endpoint is broken");
+				}
+				assertThat("Only 1 frame can be in flight", inFlight == null, is(true));
+				frames.add(invocation.getArgument(0));
+				inFlight = invocation.getArgument(1);
+				return null;
+			}).when(remote).sendText(anyString(), any(SendHandler.class));
+			when(session.getAsyncRemote()).thenReturn(remote);
+			PushUtil.register(session);
+		}
+
+		private void complete() {
+			complete(new SendResult());
+		}
+
+		private void complete(SendResult result) {
+			SendHandler handler = inFlight;
+			inFlight = null;
+			handler.onResult(result);
+		}
+	}
+
+	private List<FakeSession> sessions = new ArrayList<>();
+	private List<String> warnings = new ArrayList<>();
+	private Handler handler = new Handler() {
+		@Override
+		public void publish(LogRecord record) {
+			if (Level.WARNING.equals(record.getLevel())) {
+				warnings.add(record.getMessage());
+			}
+		}
+
+		@Override
+		public void flush() {
+			// nothing to see here
+		}
+
+		@Override
+		public void close() {
+			// nothing to see here
+		}
+	};
+
+	@Before
+	public void addHandler() {
+		UtilImpl.LOGGER.addHandler(handler);
+	}
+
+	@After
+	public void unregister() {
+		UtilImpl.LOGGER.removeHandler(handler);
+		for (FakeSession session : sessions) {
+			PushUtil.unregister(session.session);
+		}
+	}
+
+	@Test
+	public void testQueuedMessagesAreCoalescedInOrder() {
+		FakeSession session = session("1", null);
+
+		PushUtil.push(message(1));
+		assertThat(session.frames, is(Arrays.asList("[{\"n\":1}]")));
+
+		// queued while the first frame is in flight
+		PushUtil.push(message(2, 3));
+		PushUtil.push(message());
+		PushUtil.push(message(4));
+		assertThat(session.frames.size(), is(1));
+
+		session.complete();
+		assertThat(session.frames.get(1), is("[{\"n\":2},{\"n\":3},{\"n\":4}]"));
+
+		// nothing left to send
+		session.complete();
+		assertThat(session.frames.size(), is(2));
+		assertThat(session.inFlight == null, is(true));
+
+		// the next message is sent straight away
+		PushUtil.push(message(5));
+		assertThat(session.frames.get(2), is("[{\"n\":5}]"));
+	}
+
+	@Test
+	public void testOverflowDropsTheOldestMessagesWithOneWarning() {
+		FakeSession session = session("1", null);
+
+		PushUtil.push(message(0));
+		for (int i = 1; i <= 70; i++) {
+			PushUtil.push(message(i));
+		}
+		assertThat(warnings.size(), is(1));
+
+		// the newest 64 messages are sent
+		session.complete();
+		StringBuilder expected = new StringBuilder("[");
+		for (int i = 7; i <= 70; i++) {
+			if (i > 7) {
+				expected.append(',');
+			}
+			expected.append("{\"n\":").append(i).append('}');
+		}
+		assertThat(session.frames.get(1), is(expected.append(']').toString()));
+
+		// warned again for the next overflow
+		for (int i = 1; i <= 65; i++) {
+			PushUtil.push(message(i));
+		}
+		assertThat(warnings.size(), is(2));
+	}
+
+	@Test
+	public void testUserMessagesGoToTheUserAndAnonymousSessions() {
+		FakeSession alice = session("1", "alice");
+		FakeSession bob = session("2", "bob");
+		FakeSession anonymous = session("3", null);
+
+		PushUtil.push(message(1).user("alice"));
+		assertThat(alice.frames, is(Arrays.asList("[{\"n\":1}]")));
+		assertThat(bob.frames.isEmpty(), is(true));
+		assertThat(anonymous.frames, is(Arrays.asList("[{\"n\":1}]")));
+
+		// messages without users go to everyone
+		alice.complete();
+		anonymous.complete();
+		PushUtil.push(message(2));
+		assertThat(alice.frames.get(1), is("[{\"n\":2}]"));
+		assertThat(bob.frames, is(Arrays.asList("[{\"n\":2}]")));
+		assertThat(anonymous.frames.get(1), is("[{\"n\":2}]"));
+
+		// unregistered sessions get nothing
+		PushUtil.unregister(bob.session);
+		bob.complete();
+		PushUtil.push(message(3).user("bob"));
+		assertThat(bob.frames.size(), is(1));
+	}
+
+	@Test
+	public void testFailedSendDoesNotStopTheQueue() {
+		FakeSession session = session("1", null);
+
+		PushUtil.push(message(1));
+		PushUtil.push(message(2));
+		session.complete(new SendResult(new IOException("Broken pipe")));
+		assertThat(warnings.size(), is(1));
+		assertThat(session.frames.get(1), is("[{\"n\":2}]"));
+
+		session.complete();
+		PushUtil.push(message(3));
+		assertThat(session.frames.get(2), is("[{\"n\":3}]"));
+	}
+
+	@Test
+	public void testRecoveryAfterTheRemoteThrows() {
+		FakeSession session = session("1", null);
+
+		session.broken = true;
+		PushUtil.push(message(1));
+		assertThat(warnings.size(), is(1));
+		assertThat(session.frames.isEmpty(), is(true));
+
+		// the session is not left waiting for a send that never started
+		session.broken = false;
+		PushUtil.push(message(2));
+		assertThat(session.frames, is(Arrays.asList("[{\"n\":2}]")));
+	}
+
+	private FakeSession session(String id, String userId) {
+		FakeSession result = new FakeSession(id, userId);
+		sessions.add(result);
+		return result;
+	}
+
+	private static PushMessage message(int... ns) {
+		PushMessage result = new PushMessage();
+		for (int n : ns) {
+			result.getItems().add(Collections.singletonMap("n", Integer.valueOf(n)));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,49 @@
+package org.skyve.toolchain;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.skyve.impl.generate.MetaDataSnapshotGenerator;
+import org.skyve.impl.metadata.repository.MetaDataSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates the Skyve metadata and writes a precompiled metadata snapshot.
+ * The snapshot is used at runtime (when not in dev mode) instead of unmarshalling the metadata XML files
+ * unless the XML has changed since the snapshot was taken.
+ */
+@Mojo(name = "snapshotMetaData", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.TEST)
+public class SnapshotMetaDataMojo extends AbstractSkyveMojo {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotMetaDataMojo.class);
+
+	/**
+	 * Relative source directory.
+	 */
+	@Parameter(required = true, defaultValue = "src/main/java/")
+	private String srcDir;
+
+	/**
+	 * The snapshot file - this should be in the directory deployed as the repository base path.
+	 */
+	@Parameter(required = true, defaultValue = "${project.build.outputDirectory}/" + MetaDataSnapshot.FILE_NAME)
+	private String snapshotFile;
+
+	@Parameter(defaultValue = "false")
+	private boolean debug;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		try {
+			configureClasspath(srcDir);
+			int size = MetaDataSnapshotGenerator.generate(debug, srcDir, snapshotFile);
+			LOGGER.info("Snapshotted {} metadata files to {}.", Integer.valueOf(size), snapshotFile);
+		}
+		catch (Exception e) {
+			LOGGER.error("Failed to snapshot metadata.", e);
+			throw new MojoExecutionException("Failed to snapshot metadata.", e);
+		}
+	}
+}
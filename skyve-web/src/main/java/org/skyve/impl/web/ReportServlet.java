@@ -3,6 +3,8 @@ package org.skyve.impl.web;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +21,7 @@ import org.skyve.EXT;
 import org.skyve.content.MimeType;
 import org.skyve.domain.Bean;
 import org.skyve.domain.PersistentBean;
+import org.skyve.domain.messages.ValidationException;
 import org.skyve.domain.messages.SessionEndedException;
 import org.skyve.domain.types.converters.Converter;
 import org.skyve.impl.cache.StateUtil;
@@ -31,6 +34,7 @@ import org.skyve.impl.generate.jasperreports.ReportDesignGeneratorFactory;
 import org.skyve.impl.metadata.model.document.field.ConvertableField;
 import org.skyve.impl.persistence.AbstractPersistence;
 import org.skyve.impl.report.jasperreports.JasperReportUtil;
+import org.skyve.impl.report.jasperreports.ListExporter;
 import org.skyve.impl.report.jasperreports.ReportDesignParameters;
 import org.skyve.impl.report.jasperreports.ReportDesignParameters.ColumnAlignment;
 import org.skyve.impl.report.jasperreports.ReportDesignParameters.ReportColumn;
@@ -58,7 +62,6 @@ import org.skyve.util.JSON;
 import org.skyve.util.Util;
 
 import net.sf.jasperreports.engine.JRDataSource;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.design.JRValidationException;
@@ -241,6 +244,23 @@ public class ReportServlet extends HttpServlet {
 												HttpSession session,
 												HttpServletResponse response)
 	throws IOException {
+		setReportFormatHeaders(jasperPrint, format, fileNameNoSuffix, session, response);
+
+		response.setContentLength(bytes.length);
+		// The following allows partial requests which are useful for large media or downloading files with pause and resume functions.
+		response.setHeader("Accept-Ranges", "bytes");
+
+		try (ServletOutputStream outputStream = response.getOutputStream()) {
+			outputStream.write(bytes);
+			outputStream.flush();
+		}
+	}
+
+	private static void setReportFormatHeaders(JasperPrint jasperPrint,
+												ReportFormat format,
+												String fileNameNoSuffix,
+												HttpSession session,
+												HttpServletResponse response) {
 		response.setCharacterEncoding(Util.UTF8);
 
 		StringBuilder sb = new StringBuilder(64);
@@ -309,19 +329,10 @@ public class ReportServlet extends HttpServlet {
 			throw new IllegalStateException("Report format " + format + " not catered for.");
 		}
 
-		response.setContentLength(bytes.length);
-
 		// NEED TO KEEP THIS FOR IE TO SHOW PDFs ACTIVE-X temp files required
 		response.setHeader("Cache-Control", "cache");
         response.setHeader("Pragma", "cache");
         response.addDateHeader("Expires", System.currentTimeMillis() + (60000)); // 1 minute
-		// The following allows partial requests which are useful for large media or downloading files with pause and resume functions.
-		response.setHeader("Accept-Ranges", "bytes");
-
-		try (ServletOutputStream outputStream = response.getOutputStream()) {
-			outputStream.write(bytes);
-			outputStream.flush();
-		}
 	}
 
 	private static void doExport(HttpServletRequest request, HttpServletResponse response)
@@ -435,12 +446,12 @@ public class ReportServlet extends HttpServlet {
 				}
 
 				JasperPrint jasperPrint = null;
+				ReportFormat format = ReportFormat.valueOf((String) values.get("reportFormat"));
+				String fileNameNoSuffix = (String) values.get("fileNameNoSuffix");
 
 				try (AutoClosingIterable<Bean> iterable = model.iterate()) {
-					JRDataSource dataSource = new SkyveDataSource(user, iterable.iterator());
-
 					ReportDesignParameters designParams = new ReportDesignParameters();
-					designParams.setReportFormat(ReportFormat.valueOf((String) values.get("reportFormat")));
+					designParams.setReportFormat(format);
 					designParams.setReportStyle(ReportStyle.valueOf((String) values.get("style")));
 
 					designParams.setPageWidth(((Number) values.get("width")).intValue());
@@ -493,6 +504,7 @@ public class ReportServlet extends HttpServlet {
 									Converter<?> converter = ((ConvertableField) attribute).getConverterForCustomer(customer);
 									if (converter != null) {
 										reportColumn.setFormatPattern(converter.getFormatPattern());
+										reportColumn.setConverter(converter);
 									}
 								}
 							}
@@ -501,9 +513,28 @@ public class ReportServlet extends HttpServlet {
 						designParams.getColumns().add(reportColumn);
 					}
 
-					final JasperReportRenderer reportRenderer = new JasperReportRenderer(designParams);
-					JasperReport jasperReport = reportRenderer.getReport();
+					// Stream tabular formats straight from the model without filling a report.
+					// The export is streamed to a temp file so that the response is only committed once it succeeds.
+					if (ListExporter.isStreamable(designParams)) {
+						Path export = Files.createTempFile("export", "." + format);
+						try {
+							try (OutputStream exportOut = Files.newOutputStream(export)) {
+								ListExporter.export(user, iterable.iterator(), designParams, exportOut);
+							}
+							setReportFormatHeaders(null, format, fileNameNoSuffix, request.getSession(), response);
+							response.setContentLengthLong(Files.size(export));
+							Files.copy(export, out);
+							out.flush();
+						}
+						finally {
+							Files.deleteIfExists(export);
+						}
+						return;
+					}
+
+					JasperReport jasperReport = JasperReportRenderer.getReport(designParams);
 
+					JRDataSource dataSource = new SkyveDataSource(user, iterable.iterator());
 					Map<String, Object> params = new TreeMap<>();
 					StringBuilder sb = new StringBuilder(256);
 					sb.append(UtilImpl.getAbsoluteBasePath()).append(ProvidedRepository.CUSTOMERS_NAMESPACE);
@@ -511,19 +542,26 @@ public class ReportServlet extends HttpServlet {
 					params.put("RESOURCE_DIR", sb.toString());
 					params.put("TITLE", model.getLocalisedDescription());
 
-					jasperPrint = JasperFillManager.fillReport(jasperReport,
+					jasperPrint = JasperReportUtil.fillReport(jasperReport,
 																params,
 																dataSource);
 				}
 
 				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				ReportFormat format = ReportFormat.valueOf((String) values.get("reportFormat"));
-				JasperReportUtil.runReport(jasperPrint, format, baos);
+				try {
+					JasperReportUtil.runReport(jasperPrint, format, baos);
+				}
+				finally {
+					// HTML is served from the session by the jasper image servlet
+					if (! ReportFormat.html.equals(format)) {
+						JasperReportUtil.cleanup(jasperPrint);
+					}
+				}
 
 				pumpOutReportFormat(baos.toByteArray(),
 										jasperPrint,
 										format,
-										(String) values.get("fileNameNoSuffix"),
+										fileNameNoSuffix,
 										request.getSession(),
 										response);
 			}
@@ -531,7 +569,7 @@ public class ReportServlet extends HttpServlet {
 				System.err.println("Problem generating the report - " + e.toString());
 				e.printStackTrace();
 				out.print("<html><head/><body><h3>");
-				if (e instanceof JRValidationException) {
+				if ((e instanceof JRValidationException) || (e instanceof ValidationException)) {
 					out.print(e.getLocalizedMessage());
 				}
 				else {
@@ -42,11 +42,13 @@ import org.skyve.impl.metadata.repository.ProvidedRepositoryFactory;
 import org.skyve.impl.metadata.user.SuperUser;
 import org.skyve.impl.persistence.AbstractPersistence;
 import org.skyve.impl.persistence.RDBMSDynamicPersistence;
+import org.skyve.impl.persistence.hibernate.ContentIndexOutbox;
 import org.skyve.impl.persistence.hibernate.HibernateContentPersistence;
 import org.skyve.impl.util.TwoFactorAuthConfigurationSingleton;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.util.UtilImpl.MapType;
 import org.skyve.impl.util.VariableExpander;
+import org.skyve.impl.util.WebStatsUtil;
 import org.skyve.impl.web.faces.SkyveSocketEndpoint;
 import org.skyve.metadata.controller.Customisations;
 import org.skyve.metadata.repository.ProvidedRepository;
@@ -95,6 +97,9 @@ public class SkyveContextListener implements ServletContextListener {
 				}
 			}
 			
+			// Index any content left in the outbox when last shutdown
+			ContentIndexOutbox.startup();
+
 			EXT.getReporting().startup();
 
 			EXT.getJobScheduler().startup();
@@ -220,6 +225,17 @@ public class SkyveContextListener implements ServletContextListener {
 		UtilImpl.CONTENT_JDBC_SERVER_ARGS = getString("content", "serverArgs", content, false);
 		UtilImpl.CONTENT_REST_SERVER_URL = getString("content", "serverUrl", content, false);
 		UtilImpl.CONTENT_FILE_STORAGE = getBoolean("content", "fileStorage", content);
+		Number indexThreads = getNumber("content", "indexThreads", content, false);
+		if (indexThreads != null) {
+			UtilImpl.CONTENT_INDEX_THREADS = indexThreads.intValue();
+		}
+		Number indexBatchSize = getNumber("content", "indexBatchSize", content, false);
+		if (indexBatchSize != null) {
+			UtilImpl.CONTENT_INDEX_BATCH_SIZE = indexBatchSize.intValue();
+			if (UtilImpl.CONTENT_INDEX_BATCH_SIZE <= 0) {
+				throw new IllegalStateException("content.indexBatchSize " + UtilImpl.CONTENT_INDEX_BATCH_SIZE + " must be greater than 0");
+			}
+		}
 
 		// Backup settings
 		Map<String, Object> backup = getObject(null, "backup", properties, false);
@@ -333,6 +349,41 @@ public class SkyveContextListener implements ServletContextListener {
 			}
 		}
 
+		// Report settings
+		Map<String, Object> reports = getObject(null, "reports", properties, false);
+		if (reports != null) {
+			// concurrentPdfRenders is optional, but defaults to 4
+			Number concurrentPdfRenders = (Number) get("reports", "concurrentPdfRenders", reports, false);
+			if (concurrentPdfRenders != null) {
+				UtilImpl.PDF_CONCURRENT_RENDERS = concurrentPdfRenders.intValue();
+			}
+			// virtualizerMaxPages is optional, but defaults to 100
+			Number virtualizerMaxPages = (Number) get("reports", "virtualizerMaxPages", reports, false);
+			if (virtualizerMaxPages != null) {
+				UtilImpl.REPORT_VIRTUALIZER_MAX_PAGES = virtualizerMaxPages.intValue();
+			}
+			UtilImpl.REPORT_VIRTUALIZER_DIRECTORY = getString("reports", "virtualizerDirectory", reports, false);
+			if (UtilImpl.REPORT_VIRTUALIZER_DIRECTORY != null) {
+				UtilImpl.REPORT_VIRTUALIZER_DIRECTORY = cleanupDirectory(UtilImpl.REPORT_VIRTUALIZER_DIRECTORY);
+				testWritableDirectory("reports.virtualizerDirectory", UtilImpl.REPORT_VIRTUALIZER_DIRECTORY);
+			}
+		}
+
+		// Chart settings
+		Map<String, Object> charts = getObject(null, "charts", properties, false);
+		if (charts != null) {
+			// cacheSize is optional, but defaults to 256
+			Number cacheSize = (Number) get("charts", "cacheSize", charts, false);
+			if (cacheSize != null) {
+				UtilImpl.CHART_CACHE_SIZE = cacheSize.intValue();
+			}
+			// cacheSeconds is optional, but defaults to 0 (no limit)
+			Number cacheSeconds = (Number) get("charts", "cacheSeconds", charts, false);
+			if (cacheSeconds != null) {
+				UtilImpl.CHART_CACHE_SECONDS = cacheSeconds.intValue();
+			}
+		}
+
 		// The following URLs cannot be set from the web context (could be many URLs to reach the web server after all).
 		// There are container specific ways but we don't want that.
 		Map<String, Object> url = getObject(null, "url", properties, true);
@@ -419,22 +470,33 @@ public class SkyveContextListener implements ServletContextListener {
 			String dialect = getString(prefix, "dialect", dataStore, true);
 			
 			String jndi = getString(prefix, "jndi", dataStore, false);
+			DataStore store = null;
 			if (jndi == null) {
-				UtilImpl.DATA_STORES.put(dataStoreName, 
-											new DataStore(getString(prefix, "driver", dataStore, true), 
-															getString(prefix, "url", dataStore, true), 
-															getString(prefix, "user", dataStore, false),
-															getString(prefix, "password", dataStore, false), 
-															dialect,
-															getInt(prefix, "oltpConnectionTimeoutInSeconds", dataStore),
-															getInt(prefix, "asyncConnectionTimeoutInSeconds", dataStore)));
+				store = new DataStore(getString(prefix, "driver", dataStore, true), 
+										getString(prefix, "url", dataStore, true), 
+										getString(prefix, "user", dataStore, false),
+										getString(prefix, "password", dataStore, false), 
+										dialect,
+										getInt(prefix, "oltpConnectionTimeoutInSeconds", dataStore),
+										getInt(prefix, "asyncConnectionTimeoutInSeconds", dataStore));
 			}
 			else {
-				UtilImpl.DATA_STORES.put(dataStoreName, new DataStore(jndi,
-																		dialect,
-																		getInt(prefix, "oltpConnectionTimeoutInSeconds", dataStore),
-																		getInt(prefix, "asyncConnectionTimeoutInSeconds", dataStore)));
+				store = new DataStore(jndi,
+										dialect,
+										getInt(prefix, "oltpConnectionTimeoutInSeconds", dataStore),
+										getInt(prefix, "asyncConnectionTimeoutInSeconds", dataStore));
+			}
+			// batchSize is optional
+			Number batchSize = getNumber(prefix, "batchSize", dataStore, false);
+			if (batchSize != null) {
+				store.setBatchSize(batchSize.intValue());
+			}
+			// batchVersionedData is optional, but defaults to false (the dialect's default)
+			Boolean batchVersionedData = (Boolean) get(prefix, "batchVersionedData", dataStore, false);
+			if (batchVersionedData != null) {
+				store.setBatchVersionedData(batchVersionedData.booleanValue());
 			}
+			UtilImpl.DATA_STORES.put(dataStoreName, store);
 		}
 		
 		Map<String, Object> hibernate = getObject(null, "hibernate", properties, true);
@@ -443,9 +505,29 @@ public class SkyveContextListener implements ServletContextListener {
 			throw new IllegalStateException("hibernate.dataStore " + UtilImpl.DATA_STORE + " is not defined in dataStores");
 		}
 		UtilImpl.DDL_SYNC = getBoolean("hibernate", "ddlSync", hibernate);
+		// ddlSyncFingerprint is optional, but defaults to false.
+		Boolean ddlSyncFingerprint = (Boolean) get("hibernate", "ddlSyncFingerprint", hibernate, false);
+		if (ddlSyncFingerprint != null) {
+			UtilImpl.DDL_SYNC_FINGERPRINT = ddlSyncFingerprint.booleanValue();
+		}
+		// ormCache is optional, but defaults to false.
+		Boolean ormCache = (Boolean) get("hibernate", "ormCache", hibernate, false);
+		if (ormCache != null) {
+			UtilImpl.HIBERNATE_ORM_CACHE = ormCache.booleanValue();
+		}
+		// queryCache is optional, but defaults to false.
+		Boolean queryCache = (Boolean) get("hibernate", "queryCache", hibernate, false);
+		if (queryCache != null) {
+			UtilImpl.QUERY_CACHE = queryCache.booleanValue();
+		}
 		UtilImpl.CATALOG = getString("hibernate", "catalog", hibernate, false);
 		UtilImpl.SCHEMA = getString("hibernate", "schema", hibernate, false);
 		UtilImpl.PRETTY_SQL_OUTPUT = getBoolean("hibernate", "prettySql", hibernate);
+		// dynamicFieldIndex is optional, but defaults to false.
+		Boolean dynamicFieldIndex = (Boolean) get("hibernate", "dynamicFieldIndex", hibernate, false);
+		if (dynamicFieldIndex != null) {
+			UtilImpl.DYNAMIC_FIELD_INDEX = dynamicFieldIndex.booleanValue();
+		}
 
 		Map<String, Object> hibernateCaches = getObject("hibernate", "caches", hibernate, false);
 		if (hibernateCaches != null) {
@@ -778,10 +860,22 @@ public class SkyveContextListener implements ServletContextListener {
 					try {
 						try {
 							try {
-								ProvidedRepository repository = ProvidedRepositoryFactory.get();
-								for (String customerName : repository.getAllCustomerNames()) {
-									CustomerImpl internalCustomer = (CustomerImpl) repository.getCustomer(customerName);
-									internalCustomer.notifyShutdown();
+								try {
+									ProvidedRepository repository = ProvidedRepositoryFactory.get();
+									for (String customerName : repository.getAllCustomerNames()) {
+										CustomerImpl internalCustomer = (CustomerImpl) repository.getCustomer(customerName);
+										internalCustomer.notifyShutdown();
+									}
+								}
+								finally {
+									try {
+										// Write any web stats hits counted since the last flush
+										WebStatsUtil.shutdown();
+									}
+									finally {
+										// Stop indexing content - anything outstanding is recovered from the outbox on startup
+										ContentIndexOutbox.shutdown();
+									}
 								}
 							}
 							finally {
@@ -5,7 +5,7 @@ import javax.websocket.EndpointConfig;
 import javax.websocket.Session;
 
 import org.omnifaces.cdi.push.SocketEndpoint;
-import org.skyve.util.PushMessage;
+import org.skyve.impl.util.PushUtil;
 
 /**
  * This class extends omnifaces socket endpoint to enable the collection of 
@@ -16,14 +16,14 @@ public class SkyveSocketEndpoint extends SocketEndpoint {
 	@Override
 	public void onOpen(Session session, EndpointConfig config) {
 		super.onOpen(session, config);
-		PushMessage.SESSIONS.add(session);
+		PushUtil.register(session);
 //		Util.LOGGER.info("WebSocket connection opened for user " + session.getUserProperties().get("user"));
 	}
 
 	@Override
 	public void onClose(Session session, CloseReason reason) {
 		super.onClose(session, reason);
-		PushMessage.SESSIONS.remove(session);
+		PushUtil.unregister(session);
 //		Util.LOGGER.info("WebSocket connection closed for user " + session.getUserProperties().get("user"));
 	}
 }
@@ -312,6 +312,22 @@ public class FacesView<T extends Bean> extends Harness {
 		return new StringBuilder(10).append('s').append(id++).toString();
 	}
 
+	/**
+	 * @return	The number that the next generated id will have.
+	 */
+	public long getNextIdNumber() {
+		return id;
+	}
+
+	/**
+	 * Skip generated ids up to (but not including) the given number, as they are in use by copied components.
+	 */
+	public void skipIds(long nextIdNumber) {
+		if (nextIdNumber > id) {
+			id = nextIdNumber;
+		}
+	}
+
 	public AbstractWebContext getWebContext() {
 		return webContext;
 	}
@@ -0,0 +1,95 @@
+package org.skyve.impl.web.faces.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.faces.FacesException;
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+
+/**
+ * An immutable snapshot of a generated component tree that can be copied into new component trees cheaply.
+ * <p/>
+ * Each component's full state is saved once when the prototype is taken and restored into a new instance for each copy.
+ * This is the same mechanism JSF uses to recreate dynamically added components on postback,
+ * so anything that survives a postback survives a copy.
+ */
+final class ComponentPrototype {
+	private final Class<? extends UIComponent> type;
+	private final String id;
+	private final Object state;
+	private final List<ComponentPrototype> children;
+	private final Map<String, ComponentPrototype> facets;
+
+	private ComponentPrototype(FacesContext context, UIComponent component) {
+		type = component.getClass();
+		id = component.getId();
+		// NB the component was never marked for partial state saving so this is its full state
+		state = component.saveState(context);
+
+		int childCount = component.getChildCount();
+		if (childCount == 0) {
+			children = Collections.emptyList();
+		}
+		else {
+			List<ComponentPrototype> list = new ArrayList<>(childCount);
+			for (UIComponent child : component.getChildren()) {
+				list.add(new ComponentPrototype(context, child));
+			}
+			children = Collections.unmodifiableList(list);
+		}
+
+		if (component.getFacetCount() == 0) {
+			facets = Collections.emptyMap();
+		}
+		else {
+			Map<String, ComponentPrototype> map = new LinkedHashMap<>();
+			for (Entry<String, UIComponent> facet : component.getFacets().entrySet()) {
+				map.put(facet.getKey(), new ComponentPrototype(context, facet.getValue()));
+			}
+			facets = Collections.unmodifiableMap(map);
+		}
+	}
+
+	/**
+	 * Take a prototype of a component tree.
+	 * The tree should not be used after this as its state is shared with the prototype.
+	 */
+	static ComponentPrototype of(FacesContext context, UIComponent component) {
+		return new ComponentPrototype(context, component);
+	}
+
+	/**
+	 * @return	A new component tree from this prototype.
+	 */
+	UIComponent newInstance(FacesContext context) {
+		UIComponent result = null;
+		try {
+			result = type.getDeclaredConstructor().newInstance();
+		}
+		catch (Exception e) {
+			throw new FacesException("Cannot copy component " + type, e);
+		}
+		result.restoreState(context, state);
+		result.setId(id);
+
+		if (! children.isEmpty()) {
+			List<UIComponent> resultChildren = result.getChildren();
+			for (ComponentPrototype child : children) {
+				resultChildren.add(child.newInstance(context));
+			}
+		}
+		if (! facets.isEmpty()) {
+			Map<String, UIComponent> resultFacets = result.getFacets();
+			for (Entry<String, ComponentPrototype> facet : facets.entrySet()) {
+				resultFacets.put(facet.getKey(), facet.getValue().newInstance(context));
+			}
+		}
+
+		return result;
+	}
+}
@@ -2,8 +2,11 @@ package org.skyve.impl.web.faces.components;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import javax.faces.component.FacesComponent;
 import javax.faces.component.UIComponent;
@@ -11,6 +14,7 @@ import javax.faces.component.html.HtmlPanelGroup;
 import javax.faces.context.FacesContext;
 
 import org.skyve.CORE;
+import org.skyve.impl.metadata.user.UserImpl;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.web.AbstractWebContext;
 import org.skyve.impl.web.faces.FacesAction;
@@ -120,16 +124,16 @@ public class View extends HtmlPanelGroup {
 	    	new FacesAction<Void>() {
 				@Override
 				public Void callback() throws Exception {
-					List<UIComponent> views = View.generate(moduleName,
-																documentName,
-																widgetId,
-																managedBeanName,
-																uxuiName,
-																finalUAT,
-																process,
-																update,
-																componentBuilder,
-																layoutBuilder);
+					List<UIComponent> views = View.copy(moduleName,
+															documentName,
+															widgetId,
+															managedBeanName,
+															uxuiName,
+															finalUAT,
+															process,
+															update,
+															componentBuilder,
+															layoutBuilder);
 					// Add childStyle and childStyleClass attributes if available
 					for (UIComponent view : views) {
 						if (childStyle != null) {
@@ -161,6 +165,147 @@ public class View extends HtmlPanelGroup {
 		super.encodeBegin(context);
     }
     
+    /**
+     * The generated component trees of a view, along with the metadata they were generated from.
+     */
+    private static final class Prototypes {
+    	private final Document document;
+    	private final org.skyve.metadata.view.View editView;
+    	private final org.skyve.metadata.view.View createView;
+    	private final List<ComponentPrototype> views;
+    	// The managed bean's generated id numbers used by the views, from first (inclusive) to next (exclusive)
+    	private final long firstIdNumber;
+    	private final long nextIdNumber;
+    	
+    	private Prototypes(Document document,
+    						org.skyve.metadata.view.View editView,
+    						org.skyve.metadata.view.View createView,
+    						List<ComponentPrototype> views,
+    						long firstIdNumber,
+    						long nextIdNumber) {
+    		this.document = document;
+    		this.editView = editView;
+    		this.createView = createView;
+    		this.views = views;
+    		this.firstIdNumber = firstIdNumber;
+    		this.nextIdNumber = nextIdNumber;
+    	}
+    }
+
+    // The maximum number of view prototypes to keep
+    private static final int MAX_PROTOTYPES = 256;
+    
+    // key -> prototypes, least recently used first
+    private static final Map<String, Prototypes> PROTOTYPES = new LinkedHashMap<>(64, 0.75f, true) {
+		private static final long serialVersionUID = -1818391862264512706L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Prototypes> eldest) {
+			return (size() > MAX_PROTOTYPES);
+		}
+	};
+	
+    /**
+     * Copy the view's component trees from a prototype, generating the prototype if required.
+     * Prototypes are keyed by everything that goes into generating a view, including the user's
+     * customer, locale and roles, as the generated components depend on the user's permissions.
+     * A prototype is regenerated if its document or views metadata has been reloaded (as in dev mode).
+     */
+    static List<UIComponent> copy(String moduleName,
+									String documentName,
+									String widgetId,
+									String managedBeanName,
+									String uxui,
+									UserAgentType userAgentType,
+									String process,
+									String update,
+									ComponentBuilder componentBuilder,
+									LayoutBuilder layoutBuilder) {
+    	User user = CORE.getUser();
+    	Customer customer = user.getCustomer();
+        Module module = customer.getModule(moduleName);
+        Document document = module.getDocument(customer, documentName);
+        org.skyve.metadata.view.View editView = document.getView(uxui, customer, ViewType.edit.toString());
+        org.skyve.metadata.view.View createView = document.getView(uxui, customer, ViewType.create.toString());
+
+        StringBuilder key = new StringBuilder(256);
+        key.append(customer.getName()).append('/').append(moduleName).append('.').append(documentName);
+        key.append('/').append(uxui).append('/').append(userAgentType);
+        key.append('/').append(widgetId).append('/').append(managedBeanName);
+        key.append('/').append(process).append('/').append(update);
+        key.append('/').append(componentBuilder.getClass().getName()).append('/').append(layoutBuilder.getClass().getName());
+        key.append('/').append(user.getLocale());
+        key.append('/').append(new TreeSet<>(((UserImpl) user).getRoleNames()));
+
+        return copy(FacesContext.getCurrentInstance(),
+        				FacesUtil.getManagedBean(managedBeanName),
+        				key.toString(),
+        				document,
+        				editView,
+        				createView,
+        				() -> generate(moduleName,
+        								documentName,
+        								widgetId,
+        								managedBeanName,
+        								uxui,
+        								userAgentType,
+        								process,
+        								update,
+        								componentBuilder,
+        								layoutBuilder));
+    }
+
+    /**
+     * Copy the view's component trees from the prototype with the given key, generating the prototype if required.
+     * The copies keep the ids generated for the prototype, so the prototype is only used if none of its generated
+     * ids have been handed out by the managed bean yet, and the managed bean then skips past them.
+     * Otherwise the prototype is regenerated, which generates new ids from the managed bean.
+     */
+    static List<UIComponent> copy(FacesContext fc,
+    								FacesView<?> managedBean,
+    								String prototypesKey,
+    								Document document,
+    								org.skyve.metadata.view.View editView,
+    								org.skyve.metadata.view.View createView,
+    								Supplier<List<UIComponent>> generator) {
+        Prototypes prototypes = null;
+        synchronized (PROTOTYPES) {
+        	prototypes = PROTOTYPES.get(prototypesKey);
+        }
+        if ((prototypes == null) ||
+        		(prototypes.document != document) ||
+        		(prototypes.editView != editView) ||
+        		(prototypes.createView != createView) ||
+        		((prototypes.nextIdNumber > prototypes.firstIdNumber) && // has generated ids
+        			(prototypes.firstIdNumber < managedBean.getNextIdNumber()))) {
+        	long firstIdNumber = managedBean.getNextIdNumber();
+        	List<UIComponent> views = generator.get();
+        	List<ComponentPrototype> viewPrototypes = new ArrayList<>(views.size());
+        	for (UIComponent view : views) {
+        		viewPrototypes.add(ComponentPrototype.of(fc, view));
+        	}
+        	prototypes = new Prototypes(document,
+        									editView,
+        									createView,
+        									viewPrototypes,
+        									firstIdNumber,
+        									managedBean.getNextIdNumber());
+        	synchronized (PROTOTYPES) {
+        		PROTOTYPES.put(prototypesKey, prototypes);
+        	}
+        	if (UtilImpl.FACES_TRACE) UtilImpl.LOGGER.info("View - PROTOTYPE " + prototypesKey);
+        }
+        else {
+        	managedBean.skipIds(prototypes.nextIdNumber);
+        }
+
+        List<UIComponent> result = new ArrayList<>(prototypes.views.size());
+        for (ComponentPrototype prototype : prototypes.views) {
+        	result.add(prototype.newInstance(fc));
+        }
+        return result;
+    }
+
     public static List<UIComponent> generate(String moduleName,
 				    							String documentName,
 				    							String widgetId,
@@ -29,8 +29,10 @@ import org.skyve.metadata.module.Module;
 import org.skyve.metadata.module.query.MetaDataQueryDefinition;
 import org.skyve.metadata.user.User;
 import org.skyve.metadata.view.TextOutput.Sanitisation;
+import org.skyve.metadata.view.model.list.DocumentQueryListModel;
 import org.skyve.metadata.view.model.list.ListModel;
 import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.DocumentQuery;
 import org.skyve.tag.TagManager;
 import org.skyve.util.JSON;
 import org.skyve.util.OWASP;
@@ -108,13 +110,18 @@ public class SmartClientTagServlet extends HttpServlet {
 			        	AbstractWebContext webContext = StateUtil.getCachedConversation(contextKey, request, response);
 						Bean bean = WebUtil.getConversationBeanFromRequest(webContext, request);
 
-						try (AutoClosingIterable<Bean> iterable = iterate(tagId, 
-																			dataSourceName,
-																			criteria,
-																			bean,
-																			user,
-																			customer)) {
-							tm.tag(tagId, iterable);
+						ListModel<Bean> model = model(tagId, dataSourceName, criteria, bean, user, customer);
+						// Tag set-based where the model is driven by a plain document query
+						DocumentQuery query = (model.getClass() == DocumentQueryListModel.class) ?
+												((DocumentQueryListModel<Bean>) model).getFilteredDetailQuery() :
+												null;
+						if (query == null) {
+							try (AutoClosingIterable<Bean> iterable = model.iterate()) {
+								tm.tag(tagId, iterable);
+							}
+						}
+						else {
+							tm.tag(tagId, query);
 						}
 					}
 					else if ("U".equals(action)) {
@@ -125,13 +132,18 @@ public class SmartClientTagServlet extends HttpServlet {
 			        	AbstractWebContext webContext = StateUtil.getCachedConversation(contextKey, request, response);
 						Bean bean = WebUtil.getConversationBeanFromRequest(webContext, request);
 
-						try (AutoClosingIterable<Bean> iterable = iterate(tagId, 
-																			dataSourceName,
-																			criteria,
-																			bean,
-																			user,
-																			customer)) {
-							tm.untag(tagId, iterable);
+						ListModel<Bean> model = model(tagId, dataSourceName, criteria, bean, user, customer);
+						// Untag set-based where the model is driven by a plain document query
+						DocumentQuery query = (model.getClass() == DocumentQueryListModel.class) ?
+												((DocumentQueryListModel<Bean>) model).getFilteredDetailQuery() :
+												null;
+						if (query == null) {
+							try (AutoClosingIterable<Bean> iterable = model.iterate()) {
+								tm.untag(tagId, iterable);
+							}
+						}
+						else {
+							tm.untag(tagId, query);
 						}
 					}
 					else if ("C".equals(action)) {
@@ -241,12 +253,12 @@ public class SmartClientTagServlet extends HttpServlet {
         sb.append("]");
 	}
 
-	private static AutoClosingIterable<Bean> iterate(String tagId,
-														String dataSourceName,
-														String criteriaJSON,
-														Bean bean,
-														User user,
-														Customer customer)
+	private static ListModel<Bean> model(String tagId,
+											String dataSourceName,
+											String criteriaJSON,
+											Bean bean,
+											User user,
+											Customer customer)
 	throws Exception {
 		// Determine
 		int _Index = dataSourceName.indexOf('_');
@@ -302,6 +314,6 @@ public class SmartClientTagServlet extends HttpServlet {
 			}
 		}
 
-		return model.iterate();
+		return model;
 	}
 }
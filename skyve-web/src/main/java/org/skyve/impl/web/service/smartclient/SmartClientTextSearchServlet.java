@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.security.Principal;
 import java.util.Enumeration;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -19,8 +23,8 @@ import org.skyve.content.MimeType;
 import org.skyve.content.SearchResult;
 import org.skyve.content.SearchResults;
 import org.skyve.domain.Bean;
-import org.skyve.domain.PersistentBean;
 import org.skyve.domain.messages.SessionEndedException;
+import org.skyve.impl.bind.BindUtil;
 import org.skyve.impl.persistence.AbstractPersistence;
 import org.skyve.impl.util.UtilImpl;
 import org.skyve.impl.web.WebUtil;
@@ -28,6 +32,7 @@ import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.user.User;
+import org.skyve.persistence.DocumentQuery;
 import org.skyve.util.JSON;
 import org.skyve.util.Util;
 
@@ -73,19 +78,22 @@ public class SmartClientTextSearchServlet extends HttpServlet {
 			    	message.append(SmartClientListServlet.ISC_JSON_PREFIX);
 		            message.append("{\"response\":{\"data\":[");
 		
-		            Iterator<SearchResult> resultIterator = results.getResults().iterator();
+		            List<SearchResult> searchResults = results.getResults();
+		            Map<String, String> bizKeys = resolveBizKeys(persistence, user, searchResults);
+		            int rowCount = 0;
 		            StringBuilder url = new StringBuilder(128);
 		            StringBuilder iconMarkup = new StringBuilder(64);
-		            while (resultIterator.hasNext()) {
-						SearchResult result = resultIterator.next();
+		            for (SearchResult result : searchResults) {
+						String bizId = result.getBizId();
+						if (! bizKeys.containsKey(bizId)) { // deleted, otherwise non-existent or not visible to the user
+							continue;
+						}
 						try {
 							String moduleName = result.getModuleName();
 							String documentName = result.getDocumentName();
-							String bizId = result.getBizId();
 							
 							Module module = customer.getModule(moduleName);
 							Document document = module.getDocument(customer, documentName);
-							PersistentBean bean = persistence.retrieve(document, bizId);
 		
 							// Use JSONUtil here to ensure that everything is escaped properly
 							
@@ -105,18 +113,12 @@ public class SmartClientTextSearchServlet extends HttpServlet {
 				            row.put("doc", document.getLocalisedSingularAlias());
 				            row.put("excerpt", result.getExcerpt());
 				            row.put("score", Integer.valueOf(result.getScore()));
-				            if (bean == null) { // deleted or otherwise non-existent
-				            	row.put(Bean.BIZ_KEY, null);
-				            	row.put("data", null);
-				            }
-				            else {
-				            	row.put(Bean.BIZ_KEY, bean.getBizKey());
-					            url.setLength(0);
-			                    url.append("?m=");
-			                    url.append(moduleName).append("&d=").append(documentName);
-			                    url.append("&i=").append(bizId);
-					            row.put("data", url.toString());
-				            }	
+			            	row.put(Bean.BIZ_KEY, bizKeys.get(bizId));
+				            url.setLength(0);
+		                    url.append("?m=");
+		                    url.append(moduleName).append("&d=").append(documentName);
+		                    url.append("&i=").append(bizId);
+				            row.put("data", url.toString());
 				            if (result.isAttachment()) {
 					            url.setLength(0);
 			                    url.append("content?_doc=");
@@ -129,10 +131,10 @@ public class SmartClientTextSearchServlet extends HttpServlet {
 				            	row.put("content", null);
 				            }
 				            message.append(JSON.marshall(customer, row)).append(',');
+				            rowCount++;
 						}
 						catch (Exception e) { // don't allow anything that goes wrong to stop us returning the searches
 							e.printStackTrace();
-							resultIterator.remove(); // remove the offending result
 						}
 					}
 	
@@ -149,9 +151,9 @@ public class SmartClientTextSearchServlet extends HttpServlet {
 					message.append("}],\"status\":0,");
 					message.append("\"startRow\":0,\"endRow\":");
 					// rows could have been removed above if the bizkey couldn't be found
-					message.append(results.getResults().size());
+					message.append(rowCount);
 					message.append(",\"totalRows\":");
-					message.append(results.getResults().size());
+					message.append(rowCount);
 					message.append("}}");
 			    	message.append(SmartClientListServlet.ISC_JSON_SUFFIX);
 	
@@ -170,4 +172,60 @@ public class SmartClientTextSearchServlet extends HttpServlet {
 			}
 		}
     }
+
+	/**
+	 * Resolve the bizKeys of the search results the user can read.
+	 * The results are grouped by document and resolved with 1 projected query per document
+	 * so the security filters apply without loading each bean.
+	 * @return	bizId -> bizKey for the visible results.
+	 */
+	private static Map<String, String> resolveBizKeys(AbstractPersistence persistence,
+														User user,
+														List<SearchResult> searchResults) {
+		Customer customer = user.getCustomer();
+
+		// module.document -> bizIds
+		Map<String, Set<String>> documentBizIds = new LinkedHashMap<>();
+		for (SearchResult result : searchResults) {
+			documentBizIds.computeIfAbsent(result.getModuleName() + '.' + result.getDocumentName(),
+											k -> new TreeSet<>()).add(result.getBizId());
+		}
+
+		Map<String, String> result = new TreeMap<>();
+		for (Entry<String, Set<String>> entry : documentBizIds.entrySet()) {
+			String key = entry.getKey();
+			int dotIndex = key.indexOf('.');
+			try {
+				Module module = customer.getModule(key.substring(0, dotIndex));
+				Document document = module.getDocument(customer, key.substring(dotIndex + 1));
+				if (! user.canReadDocument(document)) {
+					continue;
+				}
+
+				DocumentQuery query = persistence.newDocumentQuery(document);
+				query.addBoundProjection(Bean.DOCUMENT_ID);
+				query.addBoundProjection(Bean.BIZ_KEY);
+				query.addBoundProjection(Bean.CUSTOMER_NAME);
+				query.addBoundProjection(Bean.DATA_GROUP_ID);
+				query.addBoundProjection(Bean.USER_ID);
+				query.getFilter().addIn(Bean.DOCUMENT_ID, entry.getValue().toArray());
+				List<Bean> rows = query.projectedResults();
+				for (Bean row : rows) {
+					String bizId = row.getBizId();
+					if (user.canReadBean(bizId,
+											document.getOwningModuleName(),
+											document.getName(),
+											(String) BindUtil.get(row, Bean.CUSTOMER_NAME),
+											(String) BindUtil.get(row, Bean.DATA_GROUP_ID),
+											(String) BindUtil.get(row, Bean.USER_ID))) {
+						result.put(bizId, (String) BindUtil.get(row, Bean.BIZ_KEY));
+					}
+				}
+			}
+			catch (Exception e) { // don't allow anything that goes wrong to stop us returning the other searches
+				e.printStackTrace();
+			}
+		}
+		return result;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package org.skyve.impl.web.service.smartclient;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.impl.bind.BindUtil;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.MetaDataException;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.view.View;
+import org.skyve.util.Binder.TargetMetaData;
+
+/**
+ * The metadata resolved for the bindings of a view, shared by every ViewJSONManipulator of the view.
+ * <p/>
+ * Resolving a binding's metadata walks the documents along the binding and was being done for every
+ * bound value of every data grid row on each request. A plan resolves each binding once for the view.
+ * Plans are kept per customer view and are replaced if the document or view metadata is reloaded.
+ * In dev mode, where any document along a binding can be reloaded, plans are not shared between requests.
+ */
+final class ViewBindingPlan {
+	// The maximum number of view plans to keep
+	private static final int MAX_PLANS = 512;
+
+	// customer/module.document/uxui/view -> plan, least recently used first
+	private static final Map<String, ViewBindingPlan> PLANS = new LinkedHashMap<>(64, 0.75f, true) {
+		private static final long serialVersionUID = 6050227127853590214L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ViewBindingPlan> eldest) {
+			return (size() > MAX_PLANS);
+		}
+	};
+
+	// A resolved binding, or not if the binding cannot be resolved
+	private static final class Target {
+		private final TargetMetaData target;
+		private final boolean domain;
+
+		private Target(TargetMetaData target) {
+			this.target = target;
+			Attribute attribute = (target == null) ? null : target.getAttribute();
+			domain = (attribute != null) && (attribute.getDomainType() != null);
+		}
+	}
+
+	private final Customer customer;
+	private final Module module;
+	private final Document document;
+	private final View view;
+
+	// starting document name + '#' + binding -> target
+	private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+	private ViewBindingPlan(Customer customer, Module module, Document document, View view) {
+		this.customer = customer;
+		this.module = module;
+		this.document = document;
+		this.view = view;
+	}
+
+	/**
+	 * Get the plan for a view, creating it if required.
+	 */
+	static ViewBindingPlan get(Customer customer, Module module, Document document, View view, String uxui) {
+		if (UtilImpl.DEV_MODE) {
+			return new ViewBindingPlan(customer, module, document, view);
+		}
+
+		String key = new StringBuilder(128).append(customer.getName()).append('/')
+							.append(document.getOwningModuleName()).append('.').append(document.getName()).append('/')
+							.append(uxui).append('/').append(view.getName()).toString();
+		ViewBindingPlan result = null;
+		synchronized (PLANS) {
+			result = PLANS.get(key);
+			if ((result == null) ||
+					(result.module != module) ||
+					(result.document != document) ||
+					(result.view != view)) {
+				result = new ViewBindingPlan(customer, module, document, view);
+				PLANS.put(key, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the metadata for a binding from a starting document.
+	 * This is BindUtil.getMetaDataForBinding() with respect to the view's module.
+	 *
+	 * @throws	MetaDataException if the binding is malformed or cannot be resolved.
+	 */
+	TargetMetaData getMetaDataForBinding(Document startingDocument, String binding) {
+		Target result = resolve(startingDocument, binding);
+		if (result.target == null) {
+			// Resolve again to throw the exception
+			return BindUtil.getMetaDataForBinding(customer, module, startingDocument, binding);
+		}
+		return result.target;
+	}
+
+	/**
+	 * @return	true if the binding from the view's document resolves to an attribute with a domain.
+	 */
+	boolean hasDomain(String binding) {
+		return resolve(document, binding).domain;
+	}
+
+	private Target resolve(Document startingDocument, String binding) {
+		String key = new StringBuilder(64).append(startingDocument.getOwningModuleName()).append('.')
+						.append(startingDocument.getName()).append('#').append(binding).toString();
+		Target result = targets.get(key);
+		if (result == null) {
+			TargetMetaData target = null;
+			try {
+				target = BindUtil.getMetaDataForBinding(customer, module, startingDocument, binding);
+			}
+			catch (@SuppressWarnings("unused") MetaDataException e) {
+				// not an attribute
+			}
+			result = new Target(target);
+			targets.put(key, result);
+		}
+		return result;
+	}
+}
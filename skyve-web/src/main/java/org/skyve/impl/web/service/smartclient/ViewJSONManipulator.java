@@ -240,6 +240,8 @@ public class ViewJSONManipulator extends ViewVisitor {
 	
 	private User user;
 	protected Bean bean;
+	// The binding metadata shared by all manipulators of this view
+	private ViewBindingPlan plan;
 	// we are applying values, so don't include bindings for
 	// disabled widgets or lookup description bindings
 	private boolean forApply;
@@ -295,6 +297,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 				uxui);
 		this.user = user;
 		this.bean = bean;
+		this.plan = ViewBindingPlan.get(customer, module, document, view, uxui);
 		this.editIdCounter = editIdCounter;
 		this.createIdCounter = createIdCounter;
 		this.forApply = forApply;
@@ -412,18 +415,8 @@ public class ViewJSONManipulator extends ViewVisitor {
 			// because SmartClient needs strings in its FormItem "valueMap" property 
 			// and the item value has to match for a domain value to be selected.
 			else if ((value instanceof Boolean) || (value instanceof Number)) {
-				Attribute attribute = null;
-				try {
-					TargetMetaData target = BindUtil.getMetaDataForBinding(customer, module, document, binding);
-					attribute = (target != null) ? target.getAttribute() : null;
-				}
-				catch (@SuppressWarnings("unused") MetaDataException e) {
-					// not an attribute
-				}
-				if ((attribute != null) && (attribute.getDomainType() != null)) {
-					@SuppressWarnings("null") // value can't null if it is an instance of boolean or number
-					String newValue = value.toString();
-					value = newValue;
+				if (plan.hasDomain(binding)) {
+					value = value.toString();
 				}
 			}
 			toAddTo.put(BindUtil.sanitiseBinding(binding), value);
@@ -498,10 +491,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 		for (String childBindingPrefix : bindings.getChildren()) {
 			ViewBindings childBindings = bindings.putOrGetChild(childBindingPrefix, null);
 			// Get the reference target metadata
-			TargetMetaData target = BindUtil.getMetaDataForBinding(customer, 
-																	module, 
-																	appliedToDoc, 
-																	childBindingPrefix);
+			TargetMetaData target = plan.getMetaDataForBinding(appliedToDoc, childBindingPrefix);
 			Relation relation = (Relation) target.getAttribute();
 			Document relatedDocument = module.getDocument(customer, relation.getDocumentName());
 			AttributeType relationType = relation.getAttributeType();
@@ -668,10 +658,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 		}
 		
 		try {
-			TargetMetaData target = BindUtil.getMetaDataForBinding(customer, 
-																	module, 
-																	startingDocument, 
-																	binding);
+			TargetMetaData target = plan.getMetaDataForBinding(startingDocument, binding);
 			Attribute attribute = target.getAttribute();
 			if ((attribute instanceof Association) || (attribute instanceof InverseOne)) {
 				String documentName = ((Relation) attribute).getDocumentName();
@@ -770,7 +757,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 	private void putVariantAndDynamicDomainValuesInValueMaps(String binding) {
 		String safeBinding = BindUtil.sanitiseBinding(binding);
 		if (! valueMaps.containsKey(safeBinding)) {
-            TargetMetaData target = BindUtil.getMetaDataForBinding(customer, module, document, binding);
+            TargetMetaData target = plan.getMetaDataForBinding(document, binding);
             Attribute attribute = target.getAttribute();
             DomainType domainType = attribute.getDomainType();
 
@@ -1508,7 +1495,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 				addBinding(selectedIdBinding, true, false, Sanitisation.text, false, true);
 				
 				String gridBinding = widget.getBinding();
-			    TargetMetaData target = BindUtil.getMetaDataForBinding(customer, module, document, gridBinding);
+			    TargetMetaData target = plan.getMetaDataForBinding(document, gridBinding);
 			    Relation targetRelation = (Relation) target.getAttribute();
 			    Document relatedDocument = module.getDocument(customer, targetRelation.getDocumentName());
 		        currentBindings = currentBindings.putOrGetChild(gridBinding, relatedDocument);
@@ -1699,7 +1686,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 					(forApply && parentEnabled && enabled(membership))) {
 				String binding = membership.getBinding();
 				if (binding != null) {
-				    TargetMetaData target = BindUtil.getMetaDataForBinding(customer, module, document, binding);
+				    TargetMetaData target = plan.getMetaDataForBinding(document, binding);
 				    Document referenceDocument = module.getDocument(customer, ((Reference) target.getAttribute()).getDocumentName());
 				    currentBindings = currentBindings.putOrGetChild(binding, referenceDocument);
 				}
@@ -1836,7 +1823,7 @@ public class ViewJSONManipulator extends ViewVisitor {
 					(forApply && parentEnabled && enabled(membership))) {
 				String binding = membership.getBinding();
 				if (binding != null) {
-				    TargetMetaData target = BindUtil.getMetaDataForBinding(customer, module, document, binding);
+				    TargetMetaData target = plan.getMetaDataForBinding(document, binding);
 				    Document referenceDocument = module.getDocument(customer, ((Relation) target.getAttribute()).getDocumentName());
 				    currentBindings = currentBindings.putOrGetChild(binding, referenceDocument);
 				}
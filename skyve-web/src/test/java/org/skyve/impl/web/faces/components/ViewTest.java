@@ -0,0 +1,149 @@
+package org.skyve.impl.web.faces.components;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.html.HtmlOutputText;
+import javax.faces.component.html.HtmlPanelGroup;
+import javax.faces.context.FacesContext;
+
+import org.junit.Test;
+import org.skyve.impl.web.faces.beans.FacesView;
+import org.skyve.metadata.model.document.Document;
+
+public class ViewTest {
+	/**
+	 * A view that generates a panel of output texts with ids generated by the managed bean.
+	 */
+	private static final class TestView implements Supplier<List<UIComponent>> {
+		private final String key;
+		private Document document = mock(Document.class);
+		private int outputs = 2;
+		private int generations = 0;
+		private FacesView<?> managedBean;
+
+		private TestView(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public List<UIComponent> get() {
+			generations++;
+			HtmlPanelGroup result = new HtmlPanelGroup();
+			result.setId(managedBean.nextId());
+			for (int i = 0; i < outputs; i++) {
+				HtmlOutputText output = new HtmlOutputText();
+				output.setId(managedBean.nextId());
+				output.setValue("Output " + i);
+				result.getChildren().add(output);
+			}
+			return Collections.singletonList(result);
+		}
+	}
+
+	private FacesContext fc = mock(FacesContext.class);
+
+	@Test
+	public void testCopiedAndRegeneratedViewsOnOneBean() {
+		TestView one = new TestView("copiedAndRegenerated/one");
+		TestView two = new TestView("copiedAndRegenerated/two");
+		assertThat(page(one, two), is(Arrays.asList("s0", "s1", "s2", "s3", "s4", "s5")));
+
+		// the first view is copied and the second is regenerated as its metadata has changed
+		two.document = mock(Document.class);
+		assertThat(page(one, two), is(Arrays.asList("s0", "s1", "s2", "s3", "s4", "s5")));
+		assertThat(one.generations, is(1));
+		assertThat(two.generations, is(2));
+	}
+
+	@Test
+	public void testPrototypeWithTakenIdsIsRegenerated() {
+		TestView one = new TestView("takenIds/one");
+		TestView two = new TestView("takenIds/two");
+		page(one, two);
+
+		// the first view is regenerated with another id so the second view's first id is taken
+		one.document = mock(Document.class);
+		one.outputs = 3;
+		List<String> ids = page(one, two);
+		assertThat(ids, is(Arrays.asList("s0", "s1", "s2", "s3", "s4", "s5", "s6")));
+		assertThat(one.generations, is(2));
+		assertThat(two.generations, is(2));
+
+		// both views are copied now
+		assertThat(page(one, two), is(ids));
+		assertThat(one.generations, is(2));
+		assertThat(two.generations, is(2));
+	}
+
+	@Test
+	public void testViewsInADifferentOrder() {
+		TestView one = new TestView("differentOrder/one");
+		TestView two = new TestView("differentOrder/two");
+		page(one, two);
+
+		// the second view's ids are free but then the first view's ids are taken
+		assertThat(page(two, one), is(Arrays.asList("s3", "s4", "s5", "s6", "s7", "s8")));
+		assertThat(one.generations, is(2));
+		assertThat(two.generations, is(1));
+	}
+
+	@Test
+	public void testExplicitIdsAreKept() {
+		Document document = mock(Document.class);
+		int[] generations = new int[1];
+		Supplier<List<UIComponent>> generator = () -> {
+			generations[0]++;
+			HtmlPanelGroup result = new HtmlPanelGroup();
+			result.setId("widget");
+			return Collections.singletonList(result);
+		};
+		View.copy(fc, new FacesView<>(), "explicitIds", document, null, null, generator);
+
+		FacesView<?> managedBean = new FacesView<>();
+		managedBean.nextId();
+		List<UIComponent> views = View.copy(fc, managedBean, "explicitIds", document, null, null, generator);
+		assertThat(views.get(0).getId(), is("widget"));
+		assertThat(managedBean.nextId(), is("s1"));
+		// without generated ids the prototype can be copied anywhere
+		assertThat(generations[0], is(1));
+	}
+
+	/**
+	 * Copy the views onto a new managed bean, as a new page would.
+	 * @return	The ids of the page's components.
+	 */
+	private List<String> page(TestView... views) {
+		FacesView<?> managedBean = new FacesView<>();
+		List<String> result = new ArrayList<>();
+		for (TestView view : views) {
+			view.managedBean = managedBean;
+			for (UIComponent component : View.copy(fc, managedBean, view.key, view.document, null, null, view)) {
+				ids(component, result);
+			}
+		}
+
+		// the ids are unique on the page, including the next one generated
+		List<String> ids = new ArrayList<>(result);
+		ids.add(managedBean.nextId());
+		assertThat(ids.toString(), new HashSet<>(ids).size(), is(ids.size()));
+
+		return result;
+	}
+
+	private static void ids(UIComponent component, List<String> result) {
+		result.add(component.getId());
+		for (UIComponent child : component.getChildren()) {
+			ids(child, result);
+		}
+	}
+}